@@ -0,0 +1,68 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.security.CachingAuthenticationProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentications per second on one thread, i.e. the HTTP Basic ceiling per core, with the
+ * credential cache off (a BCrypt verification per request, as before) and on (the steady state
+ * of a client that keeps sending the same credentials).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class AuthenticationBenchmark {
+
+    @Param({"off", "on"})
+    public String cache;
+
+    private AuthenticationManager authenticationManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PasswordEncoder encoder = new BCryptPasswordEncoder();
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(User.withUsername("admin")
+                .password(encoder.encode("admin123"))
+                .roles("ADMIN", "USER")
+                .build());
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider(encoder);
+        dao.setUserDetailsService(users);
+        authenticationManager = new ProviderManager("on".equals(cache)
+                ? new CachingAuthenticationProvider(dao, users, Duration.ofMinutes(1), 10_000, null)
+                : dao);
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin123"));
+    }
+}
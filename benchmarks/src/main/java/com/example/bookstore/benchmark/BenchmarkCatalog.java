@@ -0,0 +1,79 @@
+package com.example.bookstore.benchmark;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.rest_client.RestClientTransport;
+import com.example.bookstore.search.model.BookDocument;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic catalog shared by the search benchmarks: three-word titles from a small vocabulary,
+ * 5 000 authors ({@code author-N}), 40 genres ({@code genre-N}) and prices from 5.00 to 49.99.
+ * The same seed always yields the same catalog.
+ */
+final class BenchmarkCatalog {
+
+    static final String[] WORDS = {"shadow", "river", "empire", "garden", "winter", "code", "ocean",
+            "night", "silver", "dragon", "engine", "harbor", "forest", "glass", "storm", "paper"};
+
+    private BenchmarkCatalog() {
+    }
+
+    static List<BookDocument> generate(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<BookDocument> catalog = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + WORDS[random.nextInt(WORDS.length)];
+            catalog.add(BookDocument.builder()
+                    .id(id)
+                    .title(title)
+                    .authorName("author-" + random.nextInt(5_000))
+                    .genreName("genre-" + random.nextInt(40))
+                    .price(BigDecimal.valueOf(500 + random.nextInt(4_500), 2))
+                    .build());
+        }
+        return catalog;
+    }
+
+    /**
+     * Client for the cluster at {@code -Dbench.es.uri} (default {@code http://localhost:9200}).
+     */
+    static RestClient restClient() {
+        return RestClient.builder(HttpHost.create(System.getProperty("bench.es.uri", "http://localhost:9200"))).build();
+    }
+
+    static ElasticsearchClient client(RestClient restClient) {
+        return new ElasticsearchClient(new RestClientTransport(restClient, new JacksonJsonpMapper()));
+    }
+
+    /**
+     * (Re)creates {@code index} with the mapping of {@link BookDocument} and bulk-loads the catalog.
+     */
+    static void seed(ElasticsearchClient client, String index, List<BookDocument> catalog) throws IOException {
+        if (client.indices().exists(e -> e.index(index)).value()) {
+            client.indices().delete(d -> d.index(index));
+        }
+        client.indices().create(c -> c.index(index)
+                .mappings(m -> m.properties("title", p -> p.text(t -> t))
+                        .properties("authorName", p -> p.keyword(k -> k))
+                        .properties("genreName", p -> p.keyword(k -> k))
+                        .properties("price", p -> p.double_(d -> d))));
+        for (int from = 0; from < catalog.size(); from += 5_000) {
+            BulkRequest.Builder bulk = new BulkRequest.Builder();
+            for (BookDocument doc : catalog.subList(from, Math.min(from + 5_000, catalog.size()))) {
+                bulk.operations(op -> op.index(i -> i.index(index).id(String.valueOf(doc.getId())).document(doc)));
+            }
+            client.bulk(bulk.build());
+        }
+        client.indices().refresh(r -> r.index(index));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.bookstore.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Compares two JSON result files written by {@link BookstoreBenchmarks}, e.g. of the base and head
+ * of a change:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.bookstore.benchmark.BenchmarkComparison \
+ *     target/jmh-base.json target/jmh-head.json [threshold-percent]
+ * </pre>
+ * Prints, per benchmark and parameter combination present in both, the score and the bytes
+ * allocated per operation ({@code gc.alloc.rate.norm}) of each run and the change. With a threshold,
+ * exits with status 2 when any score or allocation got worse by more than that many percent, so it
+ * can gate a build; a worse score is a higher time or a lower throughput.
+ */
+public final class BenchmarkComparison {
+
+    static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <base.json> <head.json> [threshold-percent]");
+            System.exit(1);
+            return;
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Result> base = read(mapper.readTree(Path.of(args[0]).toFile()));
+        Map<String, Result> head = read(mapper.readTree(Path.of(args[1]).toFile()));
+        Double threshold = args.length > 2 ? Double.valueOf(args[2]) : null;
+
+        System.out.printf(Locale.ROOT, "%-70s %14s %14s %8s %12s %12s %8s%n",
+                "Benchmark", "base", "head", "change", "base B/op", "head B/op", "change");
+        boolean regressed = false;
+        for (Map.Entry<String, Result> entry : head.entrySet()) {
+            Result before = base.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            Result after = entry.getValue();
+            double scoreChange = change(before.score(), after.score());
+            double allocationChange = change(before.allocation(), after.allocation());
+            System.out.printf(Locale.ROOT, "%-70s %14.3f %14.3f %+7.1f%% %12.0f %12.0f %+7.1f%%  %s%n",
+                    entry.getKey(), before.score(), after.score(), scoreChange,
+                    before.allocation(), after.allocation(), allocationChange, after.unit());
+            if (threshold != null) {
+                double worse = after.higherIsBetter() ? -scoreChange : scoreChange;
+                regressed |= worse > threshold || allocationChange > threshold;
+            }
+        }
+        if (regressed) {
+            System.err.printf(Locale.ROOT, "At least one benchmark got worse by more than %.1f%%%n", threshold);
+            System.exit(2);
+        }
+    }
+
+    /** Results by benchmark name plus parameters, e.g. {@code SearchAssemblyBenchmark.sortPage(pageSize=20)}. */
+    static Map<String, Result> read(JsonNode results) {
+        Map<String, Result> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            String benchmark = result.path("benchmark").asText();
+            String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            StringJoiner params = new StringJoiner(",", "(", ")").setEmptyValue("");
+            for (Iterator<Map.Entry<String, JsonNode>> it = result.path("params").fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> param = it.next();
+                params.add(param.getKey() + "=" + param.getValue().asText());
+            }
+            JsonNode primary = result.path("primaryMetric");
+            JsonNode allocation = result.path("secondaryMetrics").path(ALLOCATION);
+            byKey.put(name + params, new Result(
+                    primary.path("score").asDouble(),
+                    primary.path("scoreUnit").asText(),
+                    allocation.isMissingNode() ? Double.NaN : allocation.path("score").asDouble(),
+                    "thrpt".equals(result.path("mode").asText())));
+        }
+        return byKey;
+    }
+
+    /** Relative change in percent; {@code NaN} when there is nothing to compare. */
+    static double change(double before, double after) {
+        if (Double.isNaN(before) || Double.isNaN(after) || before == 0) {
+            return Double.NaN;
+        }
+        return (after - before) / before * 100;
+    }
+
+    record Result(double score, String unit, double allocation, boolean higherIsBetter) {
+    }
+}
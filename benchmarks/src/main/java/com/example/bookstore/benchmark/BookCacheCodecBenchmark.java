@@ -0,0 +1,131 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.cache.impl.BookCacheFacade;
+import com.example.bookstore.config.CacheConfig;
+import com.example.bookstore.search.model.BookDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BookCacheFacade} over the production cache configuration ({@link CacheConfig#cacheDefaults()}:
+ * prefixed string keys, JSON values with type info) with Redis replaced by an in-memory map. What is
+ * left is the per-page cost the application pays on every search before any network I/O: id to key
+ * conversion, key serialization, and JSON (de)serialization of the documents.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookCacheCodecBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private BookCacheFacade cache;
+    private List<BookDocument> page;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RedisCacheManager cacheManager = RedisCacheManager.builder(new InMemoryCacheWriter())
+                .cacheDefaults(CacheConfig.cacheDefaults())
+                .build();
+        cache = new BookCacheFacade(cacheManager);
+        page = BenchmarkCatalog.generate(pageSize);
+        ids = page.stream().map(BookDocument::getId).toList();
+        cache.putAll(page);
+    }
+
+    /** A fully cached page: {@code pageSize} key conversions and JSON reads. */
+    @Benchmark
+    public List<BookDocument> getAllHits() {
+        return cache.getAllByIds(ids);
+    }
+
+    /** Writing back a page loaded from the database: {@code pageSize} key conversions and JSON writes. */
+    @Benchmark
+    public List<BookDocument> putAll() {
+        cache.putAll(page);
+        return page;
+    }
+
+    /** Stores serialized entries in a map, so only the codec work of the cache is measured. */
+    static final class InMemoryCacheWriter implements RedisCacheWriter {
+
+        private final Map<ByteBuffer, byte[]> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public byte[] get(String name, byte[] key) {
+            return entries.get(ByteBuffer.wrap(key));
+        }
+
+        @Override
+        public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+            return CompletableFuture.completedFuture(get(name, key));
+        }
+
+        @Override
+        public void put(String name, byte[] key, byte[] value, Duration ttl) {
+            entries.put(ByteBuffer.wrap(key), value);
+        }
+
+        @Override
+        public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+            put(name, key, value, ttl);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+            return entries.putIfAbsent(ByteBuffer.wrap(key), value);
+        }
+
+        @Override
+        public void remove(String name, byte[] key) {
+            entries.remove(ByteBuffer.wrap(key));
+        }
+
+        @Override
+        public void clean(String name, byte[] pattern) {
+            entries.clear();
+        }
+
+        @Override
+        public void clearStatistics(String name) {
+        }
+
+        @Override
+        public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+            return this;
+        }
+
+        @Override
+        public CacheStatistics getCacheStatistics(String cacheName) {
+            return CacheStatisticsCollector.none().getCacheStatistics(cacheName);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.serialization.BookEventBinarySerializer;
+import com.example.bookstore.kafka.serialization.BookEventDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode throughput of the {@code book.events} value formats. The payload size of each
+ * format is printed once per trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookEventSerializationBenchmark {
+
+    private static final String TOPIC = "book.events";
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private Serializer<BookEvent> serializer;
+    private BookEventDeserializer deserializer;
+    private BookEvent event;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("binary".equals(format)) {
+            serializer = new BookEventBinarySerializer();
+        } else {
+            JsonSerializer<BookEvent> json = new JsonSerializer<>();
+            json.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+            serializer = json;
+        }
+        deserializer = new BookEventDeserializer();
+        event = BookEvent.builder()
+                .id(123_456L)
+                .type("update")
+                .title("Harry Potter and the Philosopher's Stone")
+                .authorName("J. K. Rowling")
+                .genreName("Fantasy")
+                .price(new BigDecimal("19.99"))
+                .committedAt(Instant.now())
+                .sequence(System.currentTimeMillis() * 1000)
+                .version(12L)
+                .build();
+        payload = serializer.serialize(TOPIC, event);
+        System.out.printf("%n%s payload: %d bytes per event%n", format, payload.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public BookEvent decode() {
+        return deserializer.deserialize(TOPIC, payload);
+    }
+}
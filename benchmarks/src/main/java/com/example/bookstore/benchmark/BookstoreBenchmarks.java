@@ -0,0 +1,72 @@
+package com.example.bookstore.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of {@code benchmarks.jar}: the usual JMH command line, with two defaults so that runs
+ * can be compared across commits.
+ * <ul>
+ *     <li>the GC profiler is on, adding {@code gc.alloc.rate.norm} (bytes allocated per operation)
+ *     next to every score, unless profilers are chosen with {@code -prof};</li>
+ *     <li>results are written as JSON to {@code target/jmh-<label>.json}, where the label is
+ *     {@code -Dbench.label} (e.g. a commit id) or the current time, unless {@code -rf}/{@code -rff}
+ *     are given.</li>
+ * </ul>
+ * Two result files are compared with {@link BenchmarkComparison}.
+ */
+public final class BookstoreBenchmarks {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BookstoreBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli;
+        try {
+            cli = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams()
+                || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (cli.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cli.getResultFormat().hasValue() && !cli.getResult().hasValue()) {
+            Path result = Path.of("target", "jmh-" + label() + ".json");
+            Files.createDirectories(result.getParent());
+            options.resultFormat(ResultFormatType.JSON).result(result.toString());
+        } else if (!cli.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(options.build()).run();
+    }
+
+    private static String label() {
+        String label = System.getProperty("bench.label");
+        if (label != null && !label.isBlank()) {
+            return label.replaceAll("[^A-Za-z0-9._-]", "_");
+        }
+        return LocalDateTime.now().format(TIMESTAMP);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.bookstore.benchmark;
+
+import com.example.bookstore.domain.Author;
+import com.example.bookstore.domain.Book;
+import com.example.bookstore.domain.Genre;
+import com.example.bookstore.dto.BookResponse;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.mapper.BookEventMapper;
+import com.example.bookstore.kafka.serialization.BookEventDeserializer;
+import com.example.bookstore.mappers.BookMapper;
+import com.example.bookstore.search.dto.BookSearchItem;
+import com.example.bookstore.search.mapper.BookDocumentMapper;
+import com.example.bookstore.search.model.BookDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-book cost of the static mappers on the hot paths: entity to search document (indexing,
+ * cache fill), document to search item (every result), entity to API response, and entity to
+ * Kafka event and back to a document through the JSON value format the producer writes. Run with
+ * the GC profiler (the default of {@link BookstoreBenchmarks}) to see bytes allocated per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    private static final String TOPIC = "book.events";
+
+    private Book book;
+    private BookDocument document;
+    private BookEvent event;
+    private JsonSerializer<BookEvent> serializer;
+    private BookEventDeserializer deserializer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Author author = new Author();
+        author.setId(42L);
+        author.setName("J. K. Rowling");
+        Genre genre = new Genre();
+        genre.setId(7L);
+        genre.setName("Fantasy");
+        book = new Book();
+        book.setId(123_456L);
+        book.setTitle("Harry Potter and the Philosopher's Stone");
+        book.setAuthor(author);
+        book.setGenre(genre);
+        book.setPrice(new BigDecimal("19.99"));
+        book.setCaption("The boy who lived");
+        book.setDescription("Harry Potter has never even heard of Hogwarts when the letters start dropping on the doormat.");
+        book.setIsbn("9780747532699");
+        book.setPublishedYear(1997);
+        book.setPublisher("Bloomsbury");
+        book.setPageCount(223);
+        book.setLanguage("en");
+        book.setStock(12);
+        book.setCoverImageUrl("https://covers.example.com/9780747532699.jpg");
+        book.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        book.setUpdatedAt(Instant.parse("2024-06-01T00:00:00Z"));
+        book.setVersion(12L);
+        document = BookDocumentMapper.toDocument(book);
+        event = BookEventMapper.toBookEvent("update", book);
+
+        serializer = new JsonSerializer<>();
+        serializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        deserializer = new BookEventDeserializer();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public BookDocument entityToDocument() {
+        return BookDocumentMapper.toDocument(book);
+    }
+
+    @Benchmark
+    public BookSearchItem documentToSearchItem() {
+        return BookDocumentMapper.toSearchItem(document);
+    }
+
+    @Benchmark
+    public BookResponse entityToResponse() {
+        return BookMapper.toDto(book);
+    }
+
+    @Benchmark
+    public BookEvent entityToEvent() {
+        return BookEventMapper.toBookEvent("update", book);
+    }
+
+    @Benchmark
+    public BookDocument eventJsonRoundTrip() {
+        byte[] json = serializer.serialize(TOPIC, event);
+        return BookEventMapper.toDocument(deserializer.deserialize(TOPIC, json));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.bookstore.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Requests per second of an I/O-bound search request shape (two sequential blocking calls, ES then
+ * Redis/JDBC hydration, plus a little CPU to build the response) under {@value #IN_FLIGHT} concurrent
+ * requests, on a platform pool sized like Tomcat's default ({@code server.tomcat.threads.max=200})
+ * versus one virtual thread per request, the {@code virtual-threads} profile. The forked JVM has a
+ * fixed 256 MB heap, so both variants are compared at the same memory.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms256m", "-Xmx256m"})
+@State(Scope.Benchmark)
+public class RequestThreadingBenchmark {
+
+    static final int IN_FLIGHT = 2_000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"5"})
+    public int ioMillis;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    public void requests(Blackhole blackhole) throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(IN_FLIGHT);
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            int request = i;
+            responses.add(executor.submit(() -> handle(request)));
+        }
+        for (Future<Integer> response : responses) {
+            blackhole.consume(response.get());
+        }
+    }
+
+    private int handle(int request) {
+        long ioNanos = TimeUnit.MILLISECONDS.toNanos(ioMillis);
+        LockSupport.parkNanos(ioNanos);
+        LockSupport.parkNanos(ioNanos);
+        StringBuilder body = new StringBuilder(256);
+        for (int i = 0; i < 20; i++) {
+            body.append("{\"id\":").append(request * 20 + i).append('}');
+        }
+        return body.length();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bookstore.benchmark;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.example.bookstore.search.model.BookDocument;
+import com.example.bookstore.search.query.BookDocumentSort;
+import com.example.bookstore.search.query.BookSearchQueryPlanner;
+import jakarta.json.stream.JsonGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU side of a search request without any I/O: planning the Elasticsearch query (and writing it
+ * as the JSON body the client sends), and sorting a hydrated page in memory by the request's sort.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchAssemblyBenchmark {
+
+    private static final Sort PRICE_THEN_TITLE = Sort.by(Sort.Order.desc("price"), Sort.Order.asc("title"));
+
+    private final JacksonJsonpMapper jsonpMapper = new JacksonJsonpMapper();
+
+    /** A hydrated page; those come back from the cache and the database in no particular order. */
+    @State(Scope.Thread)
+    public static class Page {
+
+        @Param({"20", "100"})
+        public int pageSize;
+
+        List<BookDocument> documents;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            documents = new ArrayList<>(BenchmarkCatalog.generate(pageSize));
+            Collections.shuffle(documents, new Random(7));
+        }
+    }
+
+    @Benchmark
+    public Query planFilters() {
+        return BookSearchQueryPlanner.plan(null, null, "author-42", "genre-3", new BigDecimal("10"), new BigDecimal("25"));
+    }
+
+    @Benchmark
+    public Query planFreeText() {
+        return BookSearchQueryPlanner.plan("dragon harbor", null, "author-42", null, null, new BigDecimal("30"));
+    }
+
+    @Benchmark
+    public String planFreeTextAsJson() {
+        Query query = BookSearchQueryPlanner.plan("dragon harbor", null, "author-42", null, null, new BigDecimal("30"));
+        StringWriter json = new StringWriter(256);
+        try (JsonGenerator generator = jsonpMapper.jsonProvider().createGenerator(json)) {
+            query.serialize(generator, jsonpMapper);
+        }
+        return json.toString();
+    }
+
+    @Benchmark
+    public List<BookDocument> sortPage(Page page) {
+        return BookDocumentSort.sort(page.documents, PRICE_THEN_TITLE);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.bookstore.benchmark;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.example.bookstore.search.embedded.InMemoryBookIndex;
+import com.example.bookstore.search.model.BookDocument;
+import com.example.bookstore.search.query.BookSearchQueryPlanner;
+import org.elasticsearch.client.RestClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded in-process index versus Elasticsearch for the query shapes of the public search API.
+ * <p>
+ * The {@code elasticsearch} variant needs a cluster at {@code -Dbench.es.uri} (default
+ * {@code http://localhost:9200}). It indexes the generated catalog into a throw-away
+ * {@code books-benchmark} index, runs the query {@link BookSearchQueryPlanner} builds for the
+ * service, and hydrates hits from an in-memory map in place of the Redis/Postgres lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchEngineBenchmark {
+
+    private static final String BENCH_INDEX = "books-benchmark";
+
+    @Param({"embedded", "elasticsearch"})
+    public String engine;
+
+    @Param({"100000"})
+    public int catalogSize;
+
+    private final Pageable firstPage = PageRequest.of(0, 20);
+    private InMemoryBookIndex index;
+    private RestClient restClient;
+    private ElasticsearchClient client;
+    private Map<Long, BookDocument> hydration;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<BookDocument> catalog = BenchmarkCatalog.generate(catalogSize);
+        if ("embedded".equals(engine)) {
+            index = new InMemoryBookIndex();
+            index.upsertAll(catalog);
+            return;
+        }
+        restClient = BenchmarkCatalog.restClient();
+        client = BenchmarkCatalog.client(restClient);
+        BenchmarkCatalog.seed(client, BENCH_INDEX, catalog);
+        hydration = new HashMap<>();
+        catalog.forEach(doc -> hydration.put(doc.getId(), doc));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.indices().delete(d -> d.index(BENCH_INDEX));
+            restClient.close();
+        }
+    }
+
+    @Benchmark
+    public List<BookDocument> freeText() throws Exception {
+        return search("dragon harbor", null, null, null, null);
+    }
+
+    @Benchmark
+    public List<BookDocument> genreAndPriceFilter() throws Exception {
+        return search(null, null, "genre-3", new BigDecimal("10"), new BigDecimal("25"));
+    }
+
+    @Benchmark
+    public List<BookDocument> titleAndAuthorFilter() throws Exception {
+        return search(null, "winter", "author-42", null, null);
+    }
+
+    private List<BookDocument> search(String q, String title, String genre, BigDecimal min, BigDecimal max) throws Exception {
+        String author = title == null ? null : "author-42";
+        if (index != null) {
+            return index.search(q, title, author, genre, min, max, firstPage).getContent();
+        }
+        SearchResponse<BookDocument> response = client.search(s -> s.index(BENCH_INDEX)
+                        .from(0)
+                        .size(firstPage.getPageSize())
+                        .trackTotalHits(t -> t.enabled(true))
+                        .source(src -> src.filter(f -> f.includes("id")))
+                        .query(BookSearchQueryPlanner.plan(q, title, author, genre, min, max)),
+                BookDocument.class);
+        List<BookDocument> hits = new ArrayList<>(firstPage.getPageSize());
+        for (Hit<BookDocument> hit : response.hits().hits()) {
+            hits.add(hydration.get(Long.valueOf(Objects.requireNonNull(hit.id()))));
+        }
+        return hits;
+    }
+}
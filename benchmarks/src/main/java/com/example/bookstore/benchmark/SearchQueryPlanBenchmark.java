@@ -0,0 +1,141 @@
+package com.example.bookstore.benchmark;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.json.JsonData;
+import com.example.bookstore.search.model.BookDocument;
+import com.example.bookstore.search.query.BookSearchQueryPlanner;
+import org.elasticsearch.client.RestClient;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-side cost of the planned query (filter context, {@code term}, one boosted
+ * {@code multi_match}) versus the previous all-{@code must} bool query, on the same seeded index.
+ * <p>
+ * Besides client-observed latency, the {@code tookMillis} counter sums the {@code took} field ES
+ * reports, which excludes transport and JSON handling; compare it per operation between the two
+ * {@code plan} values. The shard request cache is bypassed so every call executes the query.
+ * Needs a cluster at {@code -Dbench.es.uri}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchQueryPlanBenchmark {
+
+    private static final String BENCH_INDEX = "books-plan-benchmark";
+
+    @Param({"legacy", "planned"})
+    public String plan;
+
+    @Param({"1000000"})
+    public int catalogSize;
+
+    private RestClient restClient;
+    private ElasticsearchClient client;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Took {
+        public long tookMillis;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        restClient = BenchmarkCatalog.restClient();
+        client = BenchmarkCatalog.client(restClient);
+        BenchmarkCatalog.seed(client, BENCH_INDEX, BenchmarkCatalog.generate(catalogSize));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.indices().delete(d -> d.index(BENCH_INDEX));
+        restClient.close();
+    }
+
+    @Benchmark
+    public long genreBrowse(Took took) throws Exception {
+        return search(took, null, null, null, "genre-3", null, null);
+    }
+
+    @Benchmark
+    public long genreAndPriceFilter(Took took) throws Exception {
+        return search(took, null, null, null, "genre-3", new BigDecimal("10"), new BigDecimal("25"));
+    }
+
+    @Benchmark
+    public long freeTextWithFilters(Took took) throws Exception {
+        return search(took, "dragon harbor", null, "author-42", null, null, new BigDecimal("30"));
+    }
+
+    private long search(Took took, String q, String title, String author, String genre,
+                        BigDecimal min, BigDecimal max) throws Exception {
+        Query query = "planned".equals(plan)
+                ? BookSearchQueryPlanner.plan(q, title, author, genre, min, max)
+                : legacy(q, title, author, genre, min, max);
+        SearchResponse<BookDocument> response = client.search(s -> s.index(BENCH_INDEX)
+                        .size(20)
+                        .requestCache(false)
+                        .trackTotalHits(t -> t.enabled(true))
+                        .source(src -> src.filter(f -> f.includes("id")))
+                        .query(query),
+                BookDocument.class);
+        took.tookMillis += response.took();
+        return response.hits().total() == null ? 0 : response.hits().total().value();
+    }
+
+    /**
+     * The query {@code BookSearchCustomServiceImpl} sent before the planner.
+     */
+    private static Query legacy(String q, String title, String author, String genre, BigDecimal min, BigDecimal max) {
+        return Query.of(b -> b.bool(bool -> {
+            if (q != null) {
+                bool.should(s -> s.match(m -> m.field("title").query(q)))
+                        .should(s -> s.match(m -> m.field("authorName").query(q)))
+                        .should(s -> s.match(m -> m.field("genreName").query(q)))
+                        .minimumShouldMatch("1");
+            }
+            if (title != null) {
+                bool.must(m -> m.match(t -> t.field("title").query(title)));
+            }
+            if (author != null) {
+                bool.must(m -> m.match(t -> t.field("authorName").query(author)));
+            }
+            if (genre != null) {
+                bool.must(m -> m.match(t -> t.field("genreName").query(genre)));
+            }
+            if (min != null || max != null) {
+                bool.must(m -> m.range(r -> {
+                    r.field("price");
+                    if (min != null) {
+                        r.gte(JsonData.of(min));
+                    }
+                    if (max != null) {
+                        r.lte(JsonData.of(max));
+                    }
+                    return r;
+                }));
+            }
+            return bool;
+        }));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.bookstore.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the empty in-memory database with a reproducible catalog: titles made of a small vocabulary
+ * (so free-text searches hit), a few hundred authors and a dozen genres. Runs before every other
+ * {@link ApplicationRunner}, so the embedded search index loads the seeded books on startup.
+ */
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+class CatalogSeeder implements ApplicationRunner {
+
+    static final List<String> WORDS = List.of(
+            "dragon", "harbor", "winter", "garden", "shadow", "river", "empire", "silent", "glass", "iron",
+            "summer", "forest", "secret", "crown", "storm", "letter", "island", "clock", "mirror", "journey");
+    private static final List<String> GENRES = List.of(
+            "Software", "Fantasy", "Fiction", "History", "Science", "Travel",
+            "Poetry", "Mystery", "Romance", "Biography", "Horror", "Children");
+    private static final int BOOKS_PER_AUTHOR = 20;
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final int books;
+    private volatile Catalog catalog;
+
+    CatalogSeeder(JdbcTemplate jdbc, int books) {
+        this.jdbc = jdbc;
+        this.books = books;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(42);
+
+        int authorCount = Math.max(1, books / BOOKS_PER_AUTHOR);
+        List<Object[]> authorRows = new ArrayList<>(authorCount);
+        for (int i = 0; i < authorCount; i++) {
+            authorRows.add(new Object[]{"Author " + i});
+        }
+        jdbc.batchUpdate("INSERT INTO authors(name) VALUES (?)", authorRows);
+        jdbc.batchUpdate("INSERT INTO genres(name) VALUES (?)", GENRES.stream().map(name -> new Object[]{name}).toList());
+        List<Named> authors = jdbc.query("SELECT id, name FROM authors ORDER BY id",
+                (rs, row) -> new Named(rs.getLong(1), rs.getString(2)));
+        List<Named> genres = jdbc.query("SELECT id, name FROM genres ORDER BY id",
+                (rs, row) -> new Named(rs.getLong(1), rs.getString(2)));
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < books; i++) {
+            batch.add(new Object[]{
+                    title(random, i),
+                    BigDecimal.valueOf(100 + random.nextInt(9900), 2),
+                    authors.get(random.nextInt(authors.size())).id(),
+                    genres.get(random.nextInt(genres.size())).id(),
+                    random.nextInt(100),
+                    now,
+                    now});
+            if (batch.size() == BATCH_SIZE || i == books - 1) {
+                jdbc.batchUpdate("""
+                        INSERT INTO books(title, price, author_id, genre_id, stock, version, created_at, updated_at)
+                        VALUES (?, ?, ?, ?, ?, 0, ?, ?)
+                        """, batch);
+                batch.clear();
+            }
+        }
+        List<Entry> entries = jdbc.query("SELECT id, title, author_id, genre_id FROM books ORDER BY id",
+                (rs, row) -> new Entry(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4)));
+        catalog = new Catalog(List.copyOf(entries), List.copyOf(authors), List.copyOf(genres));
+        log.info("Seeded {} books, {} authors and {} genres in {} ms",
+                entries.size(), authors.size(), genres.size(), System.currentTimeMillis() - start);
+    }
+
+    /** The seeded catalog; {@code null} until the application has started. */
+    Catalog catalog() {
+        return catalog;
+    }
+
+    static String title(SplittableRandom random, int index) {
+        String first = WORDS.get(random.nextInt(WORDS.size()));
+        String second = WORDS.get(random.nextInt(WORDS.size()));
+        return capitalize(first) + " " + second + " " + index;
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    record Catalog(List<Entry> books, List<Named> authors, List<Named> genres) {
+    }
+
+    record Entry(long id, String title, long authorId, long genreId) {
+    }
+
+    record Named(long id, String name) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.bookstore.loadtest;
+
+import com.example.bookstore.loadtest.TrafficGenerator.Recorded;
+import com.example.bookstore.loadtest.TrafficMix.Operation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Outcome of one run, written as JSON so runs of different commits can be compared: per operation
+ * the calls, their throughput over the measured window, response statuses ({@code 0} for no
+ * response) and latency percentiles in milliseconds. An error is a call without a 2xx response.
+ */
+record LoadReport(String label,
+                  String finishedAt,
+                  Map<String, Object> settings,
+                  long requests,
+                  long errors,
+                  double throughputPerSecond,
+                  long elasticsearchRequestsRefused,
+                  Map<String, OperationReport> operations) {
+
+    record OperationReport(long requests,
+                           long errors,
+                           double throughputPerSecond,
+                           Map<Integer, Long> statuses,
+                           Latency latencyMs) {
+    }
+
+    record Latency(double mean, double p50, double p90, double p99, double p999, double max) {
+
+        static Latency of(Histogram micros) {
+            return new Latency(
+                    millis(micros.getMean()),
+                    millis(micros.getValueAtPercentile(50)),
+                    millis(micros.getValueAtPercentile(90)),
+                    millis(micros.getValueAtPercentile(99)),
+                    millis(micros.getValueAtPercentile(99.9)),
+                    millis(micros.getMaxValue()));
+        }
+
+        private static double millis(double micros) {
+            return Math.round(micros / 10) / 100.0;
+        }
+    }
+
+    static LoadReport of(LoadTestSettings settings, Map<Operation, Recorded> recorded, long elasticsearchRequestsRefused) {
+        double seconds = settings.duration().toMillis() / 1000.0;
+        Map<String, OperationReport> operations = new LinkedHashMap<>();
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<Operation, Recorded> entry : recorded.entrySet()) {
+            Map<Integer, Long> statuses = entry.getValue().statuses();
+            long calls = statuses.values().stream().mapToLong(Long::longValue).sum();
+            long failed = statuses.entrySet().stream()
+                    .filter(status -> status.getKey() < 200 || status.getKey() >= 300)
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+            operations.put(entry.getKey().name().toLowerCase(Locale.ROOT), new OperationReport(
+                    calls, failed, round(calls / seconds), statuses, Latency.of(entry.getValue().latencies())));
+            requests += calls;
+            errors += failed;
+        }
+        Map<String, Object> described = new LinkedHashMap<>();
+        described.put("books", settings.books());
+        described.put("warmupSeconds", settings.warmup().toSeconds());
+        described.put("durationSeconds", settings.duration().toSeconds());
+        described.put("concurrency", settings.concurrency());
+        described.put("rate", settings.rate());
+        described.put("mix", settings.mix().toString());
+        return new LoadReport(settings.label(), Instant.now().toString(), described, requests, errors,
+                round(requests / seconds), elasticsearchRequestsRefused, operations);
+    }
+
+    void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), this);
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%-8s %10s %10s %8s %9s %9s %9s %9s %9s%n",
+                "op", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        operations.forEach((operation, report) -> out.printf(Locale.ROOT,
+                "%-8s %10d %10.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                operation, report.requests(), report.throughputPerSecond(), report.errors(),
+                report.latencyMs().p50(), report.latencyMs().p90(), report.latencyMs().p99(),
+                report.latencyMs().p999(), report.latencyMs().max()));
+        out.printf(Locale.ROOT, "%-8s %10d %10.1f %8d%n", "total", requests, throughputPerSecond, errors);
+        if (elasticsearchRequestsRefused > 0) {
+            out.printf(Locale.ROOT, "%d requests needed Elasticsearch and failed%n", elasticsearchRequestsRefused);
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.bookstore.loadtest;
+
+import com.example.bookstore.BookstoreApplication;
+import com.example.bookstore.loadtest.CatalogSeeder.Catalog;
+import com.example.bookstore.loadtest.TrafficMix.Operation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Load test that needs nothing but a JVM: starts an in-process Kafka broker, boots the application
+ * with the {@code embedded} and {@code loadtest} profiles on a random port (H2, embedded search
+ * engine, in-memory book cache; see {@link StandInConfiguration}), seeds a catalog, drives it with
+ * {@link TrafficGenerator} and writes a {@link LoadReport}. Settings are described in
+ * {@link LoadTestSettings}.
+ * <p>
+ * Numbers from this setup compare commits with each other on the same machine; they say nothing
+ * about capacity against Postgres, Redis and Elasticsearch over the network.
+ */
+@Slf4j
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, 3);
+        kafka.afterPropertiesSet();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BookstoreApplication.class, StandInConfiguration.class)
+                .profiles("embedded", "loadtest")
+                .run(concat(args,
+                        "--spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString(),
+                        "--loadtest.books=" + settings.books()))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Catalog catalog = context.getBean(CatalogSeeder.class).catalog();
+            log.info("Load test '{}': {} callers, rate {}, mix {}, {} s warmup, {} s measured",
+                    settings.label(), settings.concurrency(), settings.rate() > 0 ? settings.rate() + "/s" : "unbounded",
+                    settings.mix(), settings.warmup().toSeconds(), settings.duration().toSeconds());
+
+            Map<Operation, TrafficGenerator.Recorded> recorded =
+                    new TrafficGenerator(URI.create("http://localhost:" + port), settings, catalog).run();
+            LoadReport report = LoadReport.of(settings, recorded,
+                    context.getBean(OfflineElasticsearchTransport.class).refused());
+            report.write(settings.output());
+            report.print(System.out);
+            System.out.println("Report written to " + settings.output().toAbsolutePath());
+        } finally {
+            kafka.destroy();
+        }
+    }
+
+    private static String[] concat(String[] args, String... more) {
+        String[] all = new String[args.length + more.length];
+        System.arraycopy(args, 0, all, 0, args.length);
+        System.arraycopy(more, 0, all, args.length, more.length);
+        return all;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bookstore.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * What one run does, from {@code -Dloadtest.*} system properties:
+ * <ul>
+ *     <li>{@code books} (5000): catalog size seeded before traffic starts;</li>
+ *     <li>{@code warmup-seconds} (10) and {@code duration-seconds} (60): traffic before and while measuring;</li>
+ *     <li>{@code concurrency} (32): callers, each waiting for its response before the next call;</li>
+ *     <li>{@code rate} (0): total calls per second spread over the callers, 0 for as fast as they go;</li>
+ *     <li>{@code mix} ({@value #DEFAULT_MIX}): relative weights of the operations, see {@link TrafficMix};</li>
+ *     <li>{@code label} (current time) and {@code output} ({@code target/loadtest-<label>.json}): the report.</li>
+ * </ul>
+ */
+record LoadTestSettings(int books,
+                        Duration warmup,
+                        Duration duration,
+                        int concurrency,
+                        int rate,
+                        TrafficMix mix,
+                        String label,
+                        Path output) {
+
+    static final String DEFAULT_MIX = "search=80,get=15,update=4,create=1";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    LoadTestSettings {
+        if (books < 1 || concurrency < 1 || rate < 0 || duration.isNegative() || duration.isZero() || warmup.isNegative()) {
+            throw new IllegalArgumentException("books and concurrency must be positive, rate not negative and duration positive");
+        }
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        String label = property("label", LocalDateTime.now().format(TIMESTAMP)).replaceAll("[^A-Za-z0-9._-]", "_");
+        return new LoadTestSettings(
+                Integer.parseInt(property("books", "5000")),
+                Duration.ofSeconds(Long.parseLong(property("warmup-seconds", "10"))),
+                Duration.ofSeconds(Long.parseLong(property("duration-seconds", "60"))),
+                Integer.parseInt(property("concurrency", "32")),
+                Integer.parseInt(property("rate", "0")),
+                TrafficMix.parse(property("mix", DEFAULT_MIX)),
+                label,
+                Path.of(property("output", "target/loadtest-" + label + ".json")));
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty("loadtest." + name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+}
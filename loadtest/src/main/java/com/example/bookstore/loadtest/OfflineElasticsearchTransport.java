@@ -0,0 +1,71 @@
+package com.example.bookstore.loadtest;
+
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.ElasticsearchTransport;
+import co.elastic.clients.transport.Endpoint;
+import co.elastic.clients.transport.TransportOptions;
+import co.elastic.clients.transport.endpoints.BooleanEndpoint;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import co.elastic.clients.transport.rest_client.RestClientOptions;
+import org.elasticsearch.client.RequestOptions;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transport behind every Elasticsearch client of the load-test application, so nothing connects to a
+ * cluster. Searches are served by the embedded engine; what still reaches Elasticsearch is answered
+ * here: existence checks (index creation by the Spring Data repository, pings) say yes, everything
+ * else fails as an unreachable cluster would and is counted.
+ */
+class OfflineElasticsearchTransport implements ElasticsearchTransport {
+
+    private final JsonpMapper jsonpMapper = new JacksonJsonpMapper();
+    private final TransportOptions options = new RestClientOptions(RequestOptions.DEFAULT);
+    private final LongAdder refused = new LongAdder();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <RequestT, ResponseT, ErrorT> ResponseT performRequest(RequestT request,
+                                                                 Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+                                                                 TransportOptions options) throws IOException {
+        if (endpoint instanceof BooleanEndpoint<?>) {
+            return (ResponseT) new BooleanResponse(true);
+        }
+        refused.increment();
+        throw new ConnectException("No Elasticsearch in the load test: " + endpoint.id());
+    }
+
+    @Override
+    public <RequestT, ResponseT, ErrorT> CompletableFuture<ResponseT> performRequestAsync(RequestT request,
+                                                                                         Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+                                                                                         TransportOptions options) {
+        try {
+            return CompletableFuture.completedFuture(performRequest(request, endpoint, options));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /** Requests that needed a cluster; non-zero means part of the traffic did not run in-process. */
+    long refused() {
+        return refused.sum();
+    }
+
+    @Override
+    public JsonpMapper jsonpMapper() {
+        return jsonpMapper;
+    }
+
+    @Override
+    public TransportOptions options() {
+        return options;
+    }
+
+    @Override
+    public void close() {
+    }
+}
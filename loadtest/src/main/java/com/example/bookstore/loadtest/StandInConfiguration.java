@@ -0,0 +1,41 @@
+package com.example.bookstore.loadtest;
+
+import co.elastic.clients.transport.ElasticsearchTransport;
+import com.example.bookstore.cache.BookCache;
+import com.example.bookstore.cache.impl.BookCacheFacade;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * In-process replacements for the services the application needs, added by {@link LoadTest}: the
+ * {@code booksById} cache in a map instead of Redis, and a transport that keeps the Elasticsearch
+ * clients off the network. Kafka is a broker started by {@link LoadTest} and the database in-memory
+ * H2, both through configuration only (see {@code application-loadtest.yml}).
+ */
+@Configuration(proxyBeanMethods = false)
+class StandInConfiguration {
+
+    /**
+     * The production facade over a map, so id hydration reads and fills it as it does Redis. Book
+     * events do not reach it: with the embedded search engine the event listener skips the cache.
+     */
+    @Bean
+    @Primary
+    BookCache inMemoryBookCache() {
+        return new BookCacheFacade(new ConcurrentMapCacheManager(BookCacheFacade.CACHE_NAME));
+    }
+
+    @Bean
+    ElasticsearchTransport offlineElasticsearchTransport() {
+        return new OfflineElasticsearchTransport();
+    }
+
+    @Bean
+    CatalogSeeder catalogSeeder(JdbcTemplate jdbcTemplate, @Value("${loadtest.books:5000}") int books) {
+        return new CatalogSeeder(jdbcTemplate, books);
+    }
+}
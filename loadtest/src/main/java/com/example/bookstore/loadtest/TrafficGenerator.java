@@ -0,0 +1,207 @@
+package com.example.bookstore.loadtest;
+
+import com.example.bookstore.loadtest.CatalogSeeder.Catalog;
+import com.example.bookstore.loadtest.CatalogSeeder.Entry;
+import com.example.bookstore.loadtest.TrafficMix.Operation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the running application over HTTP with {@code concurrency} callers on virtual threads, each
+ * picking its next call from the {@link TrafficMix}. Calls that start during the warmup are not
+ * recorded. Without a rate, each caller sends its next call as soon as the previous one is answered.
+ * With a rate, calls are sent on a fixed schedule and latency is measured from the scheduled start,
+ * so a stall shows up in the percentiles instead of just lowering the number of calls.
+ */
+final class TrafficGenerator {
+
+    /** Recorded for calls that got no response (connection error, timeout). */
+    static final int NO_RESPONSE = 0;
+    private static final String USER = basic("user", "user123");
+    private static final String ADMIN = basic("admin", "admin123");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int PAGE_SIZE = 20;
+
+    private final URI baseUri;
+    private final LoadTestSettings settings;
+    private final Catalog catalog;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(TIMEOUT)
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, Recorded> recorded = new EnumMap<>(Operation.class);
+
+    TrafficGenerator(URI baseUri, LoadTestSettings settings, Catalog catalog) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.catalog = catalog;
+        for (Operation operation : settings.mix().operations()) {
+            recorded.put(operation, new Recorded());
+        }
+    }
+
+    /** Runs warmup and measurement; the calls recorded per operation. */
+    Map<Operation, Recorded> run() throws InterruptedException {
+        long startedAt = System.nanoTime();
+        long measureFrom = startedAt + settings.warmup().toNanos();
+        long endAt = measureFrom + settings.duration().toNanos();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.concurrency(); i++) {
+                long seed = i;
+                callers.submit(() -> call(new SplittableRandom(seed), startedAt, measureFrom, endAt));
+            }
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        return recorded;
+    }
+
+    private void call(SplittableRandom random, long startedAt, long measureFrom, long endAt) {
+        long interval = settings.rate() > 0
+                ? TimeUnit.SECONDS.toNanos(1) * settings.concurrency() / settings.rate()
+                : 0;
+        long scheduled = startedAt + (interval > 0 ? random.nextLong(interval) : 0);
+        while (!Thread.currentThread().isInterrupted()) {
+            long start;
+            if (interval > 0) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                start = scheduled;
+                scheduled += interval;
+            } else {
+                start = System.nanoTime();
+            }
+            if (start >= endAt) {
+                return;
+            }
+            Operation operation = settings.mix().next(random);
+            int status;
+            try {
+                status = client.send(request(operation, random), HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = NO_RESPONSE;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (start >= measureFrom) {
+                recorded.get(operation).record(status, System.nanoTime() - start);
+            }
+        }
+    }
+
+    HttpRequest request(Operation operation, SplittableRandom random) {
+        Entry book = catalog.books().get(random.nextInt(catalog.books().size()));
+        return switch (operation) {
+            case SEARCH -> get("/api/v1/books?" + searchQuery(random) + "&page=0&size=" + PAGE_SIZE, USER);
+            case GET -> get("/api/v1/admin/books/" + book.id(), ADMIN);
+            case UPDATE -> send("PUT", "/api/v1/admin/books/" + book.id(), bookBody(book.title(), book.authorId(), book.genreId(), random));
+            case CREATE -> send("POST", "/api/v1/admin/books", bookBody(
+                    "Loadtest " + CatalogSeeder.title(random, random.nextInt(1_000_000)),
+                    catalog.authors().get(random.nextInt(catalog.authors().size())).id(),
+                    catalog.genres().get(random.nextInt(catalog.genres().size())).id(),
+                    random));
+        };
+    }
+
+    /** Free text, an author, or a genre with a price cap, about equally often. */
+    private String searchQuery(SplittableRandom random) {
+        return switch (random.nextInt(3)) {
+            case 0 -> "q=" + encode(CatalogSeeder.WORDS.get(random.nextInt(CatalogSeeder.WORDS.size())));
+            case 1 -> "author=" + encode(catalog.authors().get(random.nextInt(catalog.authors().size())).name());
+            default -> "genre=" + encode(catalog.genres().get(random.nextInt(catalog.genres().size())).name())
+                    + "&maxPrice=" + (10 + random.nextInt(90));
+        };
+    }
+
+    private String bookBody(String title, long authorId, long genreId, SplittableRandom random) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("title", title);
+        body.put("authorId", authorId);
+        body.put("genreId", genreId);
+        body.put("price", BigDecimal.valueOf(100 + random.nextInt(9900), 2));
+        body.put("stock", random.nextInt(100));
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest get(String path, String authorization) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Authorization", authorization)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Authorization", ADMIN)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Latencies in microseconds and response statuses of one operation. */
+    static final class Recorded {
+
+        private final Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void record(int status, long nanos) {
+            latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_LATENCY_MICROS));
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+
+        Histogram latencies() {
+            return latencies;
+        }
+
+        Map<Integer, Long> statuses() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+    }
+}
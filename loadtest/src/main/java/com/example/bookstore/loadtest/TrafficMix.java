@@ -0,0 +1,86 @@
+package com.example.bookstore.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Relative weights of the calls a run makes, written {@code search=80,get=15,update=4,create=1};
+ * operations left out are not called.
+ */
+final class TrafficMix {
+
+    enum Operation {
+        /** {@code GET /api/v1/books} with a free-text, author, or genre and price query, as a user. */
+        SEARCH,
+        /** {@code GET /api/v1/admin/books/{id}}. */
+        GET,
+        /** {@code PUT /api/v1/admin/books/{id}} with a new price. */
+        UPDATE,
+        /** {@code POST /api/v1/admin/books}. */
+        CREATE
+    }
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] cumulative;
+
+    private TrafficMix(Map<Operation, Integer> weights) {
+        this.weights = Collections.unmodifiableMap(weights);
+        this.operations = weights.keySet().toArray(Operation[]::new);
+        this.cumulative = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulative[i] = total;
+        }
+    }
+
+    static TrafficMix parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight, got '" + entry.trim() + "'");
+            }
+            Operation operation = Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + operation);
+            }
+            if (weight > 0) {
+                weights.merge(operation, weight, Integer::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no operation with a positive weight: " + mix);
+        }
+        return new TrafficMix(weights);
+    }
+
+    Operation next(RandomGenerator random) {
+        int pick = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (pick < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    List<Operation> operations() {
+        return new ArrayList<>(weights.keySet());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder mix = new StringBuilder();
+        weights.forEach((operation, weight) -> mix.append(mix.isEmpty() ? "" : ",")
+                .append(operation.name().toLowerCase(Locale.ROOT)).append('=').append(weight));
+        return mix.toString();
+    }
+}
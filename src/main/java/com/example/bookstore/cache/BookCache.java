@@ -5,6 +5,7 @@ import com.example.bookstore.search.model.BookDocument;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 public interface BookCache {
     void putAll(Collection<BookDocument> documents);
@@ -13,5 +14,10 @@ public interface BookCache {
 
     void evict(Long id);
 
+    /**
+     * Replaces a cached document with {@code patch} applied to it; does nothing if the id is not cached.
+     */
+    void computeIfPresent(Long id, UnaryOperator<BookDocument> patch);
+
     void clear();
 }
\ No newline at end of file
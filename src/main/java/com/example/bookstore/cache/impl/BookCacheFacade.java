@@ -1,6 +1,7 @@
 package com.example.bookstore.cache.impl;
 
 import com.example.bookstore.cache.BookCache;
+import com.example.bookstore.monitoring.jfr.BookCacheEvent;
 import com.example.bookstore.search.model.BookDocument;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.Cache;
@@ -13,11 +14,13 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 @Service
 public class BookCacheFacade implements BookCache {
 
     public static final String CACHE_NAME = "booksById";
+    private static final long NO_ID = -1;
 
     private final Cache booksByIdCache;
 
@@ -32,6 +35,8 @@ public class BookCacheFacade implements BookCache {
         if (documents == null || documents.isEmpty()) {
             return;
         }
+        BookCacheEvent event = new BookCacheEvent();
+        event.begin();
         final Set<Long> uniqueIds = new LinkedHashSet<>();
         for (BookDocument doc : documents) {
             if (doc != null && doc.getId() != null) {
@@ -41,9 +46,12 @@ public class BookCacheFacade implements BookCache {
                 }
             }
         }
+        event.complete("putAll", NO_ID, uniqueIds.size(), 0);
     }
 
     public List<BookDocument> getAllByIds(List<Long> ids) {
+        BookCacheEvent event = new BookCacheEvent();
+        event.begin();
         final List<BookDocument> result = new ArrayList<>(ids.size());
         final Set<Long> seen = new LinkedHashSet<>();
         for (Long id : ids) {
@@ -55,16 +63,43 @@ public class BookCacheFacade implements BookCache {
                 result.add(doc);
             }
         }
+        event.complete("getAllByIds", NO_ID, seen.size(), result.size());
         return result;
     }
 
     public void evict(Long id) {
         if (id != null) {
+            BookCacheEvent event = new BookCacheEvent();
+            event.begin();
             booksByIdCache.evict(id);
+            event.complete("evict", id, 1, 0);
         }
     }
 
+    public void computeIfPresent(Long id, UnaryOperator<BookDocument> patch) {
+        if (id == null) {
+            return;
+        }
+        BookCacheEvent event = new BookCacheEvent();
+        event.begin();
+        BookDocument cached = booksByIdCache.get(id, BookDocument.class);
+        if (cached == null) {
+            event.complete("computeIfPresent", id, 1, 0);
+            return;
+        }
+        BookDocument patched = patch.apply(cached);
+        if (patched == null) {
+            booksByIdCache.evict(id);
+        } else {
+            booksByIdCache.put(id, patched);
+        }
+        event.complete("computeIfPresent", id, 1, 1);
+    }
+
     public void clear() {
+        BookCacheEvent event = new BookCacheEvent();
+        event.begin();
         booksByIdCache.clear();
+        event.complete("clear", NO_ID, 0, 0);
     }
 }
@@ -0,0 +1,75 @@
+package com.example.bookstore.cache.impl;
+
+import com.example.bookstore.search.model.BookDocument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Non-blocking reads of the {@value BookCacheFacade#CACHE_NAME} Redis cache that
+ * {@link BookCacheFacade} writes: same keys, same value serializer, one {@code MGET} per page.
+ */
+@Service
+public class ReactiveBookCache {
+
+    private final ReactiveValueOperations<String, Object> values;
+    private final String keyPrefix;
+
+    @Autowired
+    public ReactiveBookCache(ReactiveRedisConnectionFactory connectionFactory,
+                             @Qualifier("redisCacheManager") RedisCacheManager cacheManager) {
+        this(connectionFactory, configuration(cacheManager));
+    }
+
+    private ReactiveBookCache(ReactiveRedisConnectionFactory connectionFactory, RedisCacheConfiguration configuration) {
+        this(new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext
+                        .<String, Object>newSerializationContext(RedisSerializer.string())
+                        .key(configuration.getKeySerializationPair())
+                        .value(configuration.getValueSerializationPair())
+                        .build()).opsForValue(),
+                configuration.getKeyPrefixFor(BookCacheFacade.CACHE_NAME));
+    }
+
+    ReactiveBookCache(ReactiveValueOperations<String, Object> values, String keyPrefix) {
+        this.values = values;
+        this.keyPrefix = keyPrefix;
+    }
+
+    /**
+     * The cached documents among {@code ids}, in request order; ids that are not cached are absent.
+     */
+    public Mono<List<BookDocument>> getAllByIds(List<Long> ids) {
+        List<String> keys = new LinkedHashSet<>(ids).stream()
+                .filter(Objects::nonNull)
+                .map(id -> keyPrefix + id)
+                .toList();
+        if (keys.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return values.multiGet(keys)
+                .map(found -> found.stream()
+                        .filter(BookDocument.class::isInstance)
+                        .map(BookDocument.class::cast)
+                        .toList());
+    }
+
+    private static RedisCacheConfiguration configuration(RedisCacheManager cacheManager) {
+        RedisCache cache = (RedisCache) Objects.requireNonNull(
+                cacheManager.getCache(BookCacheFacade.CACHE_NAME),
+                () -> "Cache '" + BookCacheFacade.CACHE_NAME + "' not found");
+        return cache.getCacheConfiguration();
+    }
+}
@@ -16,13 +16,17 @@ public class CacheConfig {
     @Bean(name = "redisCacheManager")
     @Primary
     public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
+        return RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(cacheDefaults())
+                .build();
+    }
+
+    /** Keys, serializers and null handling of every Redis cache; also used by the benchmarks. */
+    public static RedisCacheConfiguration cacheDefaults() {
         GenericJackson2JsonRedisSerializer valueSerializer = new GenericJackson2JsonRedisSerializer();
-        RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
+        return RedisCacheConfiguration.defaultCacheConfig()
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer))
                 .disableCachingNullValues()
                 .prefixCacheNameWith("bookstore::");
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig)
-                .build();
     }
 }
@@ -1,9 +1,21 @@
 package com.example.bookstore.config;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.elasticsearch.repository.config.EnableElasticsearchRepositories;
 
 @Configuration
 @EnableElasticsearchRepositories(basePackages = "com.example.bookstore.search.repository")
 public class ElasticsearchConfig {
-}
\ No newline at end of file
+
+    /**
+     * Non-blocking client for the streaming search endpoint, sharing the transport (and its
+     * connection pool) of the blocking client.
+     */
+    @Bean
+    public ElasticsearchAsyncClient elasticsearchAsyncClient(ElasticsearchClient elasticsearchClient) {
+        return new ElasticsearchAsyncClient(elasticsearchClient._transport(), elasticsearchClient._transportOptions());
+    }
+}
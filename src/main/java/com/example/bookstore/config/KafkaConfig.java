@@ -1,6 +1,8 @@
 package com.example.bookstore.config;
 
 import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.serialization.BookEventBinarySerializer;
+import com.example.bookstore.kafka.serialization.BookEventDeserializer;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
@@ -17,7 +19,6 @@ import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
@@ -35,6 +36,12 @@ public class KafkaConfig {
     private String autoOffsetReset;
     @Value("${app.kafka.topics.book.events}")
     private String topic;
+    @Value("${app.kafka.topics.book.snapshots:book.snapshots}")
+    private String snapshotTopic;
+    @Value("${app.kafka.serialization.format:json}")
+    private String serializationFormat;
+    @Value("${app.kafka.event-schema:1}")
+    private int eventSchema;
 
 
     @Bean
@@ -42,8 +49,13 @@ public class KafkaConfig {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        if ("binary".equalsIgnoreCase(serializationFormat)) {
+            props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, BookEventBinarySerializer.class);
+            props.put(BookEventBinarySerializer.SCHEMA_CONFIG, eventSchema);
+        } else {
+            props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+            props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        }
         return new DefaultKafkaProducerFactory<>(props);
     }
 
@@ -54,13 +66,11 @@ public class KafkaConfig {
 
     @Bean
     public ConsumerFactory<String, BookEvent> bookEventConsumerFactory() {
-        JsonDeserializer<BookEvent> value = new JsonDeserializer<>(BookEvent.class);
-        value.addTrustedPackages("com.example.bookstore");
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), value);
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new BookEventDeserializer());
     }
 
     @Bean
@@ -74,4 +84,12 @@ public class KafkaConfig {
     public NewTopic bookEventsTopic() {
         return TopicBuilder.name(topic).partitions(1).replicas(1).build();
     }
+
+    /**
+     * Latest state per book id; deletes are tombstones, so compaction keeps one record per live book.
+     */
+    @Bean
+    public NewTopic bookSnapshotsTopic() {
+        return TopicBuilder.name(snapshotTopic).partitions(1).replicas(1).compact().build();
+    }
 }
@@ -1,7 +1,13 @@
 package com.example.bookstore.config;
 
+import com.example.bookstore.security.CachingAuthenticationProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -13,6 +19,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -28,11 +36,18 @@ public class SecurityConfig {
 
     };
 
+    /** Actuator endpoints that change or expose process internals; matched before the open ones. */
+    private static final String[] ADMIN_ACTUATOR_PATHS = {
+            "/actuator/flightrecording",
+            "/actuator/flightrecording/**"
+    };
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(ADMIN_ACTUATOR_PATHS).hasRole("ADMIN")
                         .requestMatchers(OPEN_API_PATHS).permitAll()
                         .anyRequest().authenticated())
                 .httpBasic(Customizer.withDefaults());
@@ -44,6 +59,26 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * HTTP Basic sends the password with every request; without the cache each one pays a full
+     * BCrypt verification.
+     */
+    @Bean
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         ObjectProvider<MeterRegistry> meterRegistry,
+                                                         @Value("${app.security.auth-cache.enabled:true}") boolean cacheEnabled,
+                                                         @Value("${app.security.auth-cache.ttl-ms:60000}") long ttlMs,
+                                                         @Value("${app.security.auth-cache.max-size:10000}") long maxSize) {
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider(passwordEncoder);
+        dao.setUserDetailsService(userDetailsService);
+        if (!cacheEnabled) {
+            return dao;
+        }
+        return new CachingAuthenticationProvider(dao, userDetailsService, Duration.ofMillis(ttlMs), maxSize,
+                meterRegistry.getIfAvailable());
+    }
+
     @Bean
     public UserDetailsService userDetailsService(PasswordEncoder encoder) {
         var admin = User.withUsername("admin")
@@ -1,18 +1,25 @@
 package com.example.bookstore.controller;
 
+import com.example.bookstore.search.dto.BookSearchCount;
 import com.example.bookstore.search.dto.BookSearchItem;
+import com.example.bookstore.search.dto.BookSuggestion;
+import com.example.bookstore.search.query.TotalHitsPolicy;
 import com.example.bookstore.search.service.BookSearchCustomService;
+import com.example.bookstore.search.suggest.BookSuggestService;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/books")
@@ -20,12 +27,46 @@ import java.math.BigDecimal;
 public class BookController {
 
     private final BookSearchCustomService bookSearchService;
+    private final BookSuggestService bookSuggestService;
 
 
     @GetMapping
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
     public Page<BookSearchItem> getBooks(
             @ParameterObject Pageable pageable,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) TotalHitsPolicy totalHits,
+            @RequestParam(defaultValue = "false") boolean facets
+    ) {
+        return bookSearchService.searchBooks(q, title, author, genre, minPrice, maxPrice, pageable, totalHits, facets);
+    }
+
+    /**
+     * The page of {@link #getBooks} as newline-delimited JSON, one {@link BookSearchItem} per line,
+     * written as items arrive. The request thread is released while Elasticsearch and Redis answer.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public Flux<BookSearchItem> streamBooks(
+            @ParameterObject Pageable pageable,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice
+    ) {
+        return bookSearchService.streamBooks(q, title, author, genre, minPrice, maxPrice, pageable);
+    }
+
+    @GetMapping("/count")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public BookSearchCount countBooks(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String author,
@@ -33,6 +74,15 @@ public class BookController {
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice
     ) {
-        return bookSearchService.searchBooks(q, title, author, genre, minPrice, maxPrice, pageable);
+        return new BookSearchCount(bookSearchService.countBooks(q, title, author, genre, minPrice, maxPrice));
+    }
+
+    @GetMapping("/suggest")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public List<BookSuggestion> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return bookSuggestService.suggest(prefix, limit);
     }
 }
@@ -10,6 +10,7 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
@@ -25,7 +26,9 @@ import java.time.Instant;
 @Entity
 @Table(name = "books", indexes = {
         @Index(name = "idx_books_title", columnList = "title"),
-        @Index(name = "idx_books_isbn", columnList = "isbn")
+        @Index(name = "idx_books_isbn", columnList = "isbn"),
+        @Index(name = "idx_books_author_id", columnList = "author_id"),
+        @Index(name = "idx_books_genre_id", columnList = "genre_id")
 })
 public class Book {
     @Id
@@ -99,4 +102,9 @@ public class Book {
     private Instant updatedAt;
 
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.bookstore.exception;
+
+/**
+ * Elasticsearch cannot be used right now (circuit open or the request failed). Searches catch it and
+ * fall back to the database; endpoints without a fallback answer 503 with {@code Retry-After}.
+ */
+public class SearchUnavailableException extends BookStoreException {
+    private final long retryAfterSeconds;
+
+    public SearchUnavailableException(String message, Throwable cause, long retryAfterSeconds) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.bookstore.kafka.consumer;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Feeds every {@link BookEventSubscriber} of this instance. The subscribers are per-instance
+ * in-memory structures, so unlike {@link BookEventListener} (shared group, one writer of ES and the
+ * cache per partition) this consumer reads every partition itself: partitions are assigned directly,
+ * no group is joined and no offsets are committed, like {@link
+ * com.example.bookstore.search.initialization.BookSnapshotReader}.
+ * <p>
+ * The end offsets are recorded when the context starts, before the subscribers load their state
+ * from the database, and the consumer starts reading there. Events committed while a load runs are
+ * therefore delivered, and the subscribers buffer them until their load is done. It keeps its own
+ * version watermark; the shared one is advanced by the writer.
+ */
+@Slf4j
+@Component
+public class BookEventBroadcastListener implements SmartLifecycle {
+    private final ConsumerFactory<String, BookEvent> consumerFactory;
+    private final BookVersionWatermark watermark;
+    private final List<BookEventSubscriber> subscribers;
+
+    @Value("${app.kafka.topics.book.events:book-events}")
+    private String topic = "book-events";
+
+    @Value("${app.kafka.consumer.broadcast.poll-timeout-ms:1000}")
+    private long pollTimeoutMs = 1000;
+
+    /** Bound on the partition and end-offset lookups done while the context starts. */
+    @Value("${app.kafka.consumer.broadcast.start-timeout-ms:10000}")
+    private long startTimeoutMs = 10000;
+
+    private volatile boolean running;
+    private Consumer<String, BookEvent> consumer;
+    private Thread poller;
+
+    public BookEventBroadcastListener(ConsumerFactory<String, BookEvent> consumerFactory,
+                                      @Value("${app.kafka.consumer.version-watermark.capacity:65536}") int watermarkCapacity,
+                                      List<BookEventSubscriber> subscribers) {
+        this.consumerFactory = consumerFactory;
+        this.watermark = new BookVersionWatermark(watermarkCapacity);
+        this.subscribers = subscribers;
+    }
+
+    @Override
+    public void start() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumer = consumerFactory.createConsumer(null, "book-events-broadcast", null, overrides);
+        Map<TopicPartition, Long> startOffsets = startOffsets();
+        running = true;
+        poller = new Thread(() -> pollLoop(startOffsets), "book-events-broadcast");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * End offsets of all partitions right now, or empty if the broker cannot be reached in time; the
+     * poller then starts from the end once it can, and events in between are missed.
+     */
+    private Map<TopicPartition, Long> startOffsets() {
+        try {
+            List<TopicPartition> partitions = partitions();
+            return partitions.isEmpty() ? Map.of() : consumer.endOffsets(partitions, Duration.ofMillis(startTimeoutMs));
+        } catch (Exception e) {
+            log.warn("Could not read end offsets of {}; broadcast consumer will start from the end once the broker is reachable",
+                    topic, e);
+            return Map.of();
+        }
+    }
+
+    private List<TopicPartition> partitions() {
+        List<PartitionInfo> infos = consumer.partitionsFor(topic, Duration.ofMillis(startTimeoutMs));
+        return infos == null ? List.of() : infos.stream()
+                .map(info -> new TopicPartition(topic, info.partition()))
+                .toList();
+    }
+
+    private void pollLoop(Map<TopicPartition, Long> startOffsets) {
+        try {
+            if (!startOffsets.isEmpty()) {
+                consumer.assign(startOffsets.keySet());
+                startOffsets.forEach(consumer::seek);
+            } else {
+                assignAtEnd();
+            }
+            while (running) {
+                for (ConsumerRecord<String, BookEvent> record : consumer.poll(Duration.ofMillis(pollTimeoutMs))) {
+                    onEvent(record.value());
+                }
+            }
+        } catch (WakeupException e) {
+            if (running) {
+                log.error("Broadcast consumer of {} woken up unexpectedly", topic, e);
+            }
+        } catch (Exception e) {
+            log.error("Broadcast consumer of {} stopped; in-memory search structures no longer follow book events", topic, e);
+        } finally {
+            consumer.close();
+        }
+    }
+
+    private void assignAtEnd() {
+        while (running) {
+            try {
+                List<TopicPartition> partitions = partitions();
+                if (!partitions.isEmpty()) {
+                    consumer.assign(partitions);
+                    consumer.seekToEnd(partitions);
+                    return;
+                }
+            } catch (TimeoutException e) {
+                log.debug("Partitions of {} not available yet", topic);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (consumer != null) {
+            consumer.wakeup();
+        }
+        if (poller != null) {
+            try {
+                poller.join(Duration.ofMillis(pollTimeoutMs + startTimeoutMs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void onEvent(BookEvent event) {
+        if (event == null || subscribers.isEmpty()) {
+            return;
+        }
+        if (event.getId() != null && event.getVersion() != null) {
+            long applied = watermark.get(event.getId());
+            if (applied != BookVersionWatermark.NONE && applied >= event.getVersion()) {
+                log.debug("Not re-broadcasting event id={} version={}, already applied version={}",
+                        event.getId(), event.getVersion(), applied);
+                return;
+            }
+        }
+        for (BookEventSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onBookEvent(event);
+            } catch (Exception e) {
+                log.error("Subscriber {} failed for event id={}", subscriber.getClass().getSimpleName(), event.getId(), e);
+            }
+        }
+        if (event.getId() != null && event.getVersion() != null) {
+            watermark.advance(event.getId(), event.getVersion());
+        }
+    }
+}
@@ -1,21 +1,51 @@
 package com.example.bookstore.kafka.consumer;
 
+import com.example.bookstore.cache.BookCache;
 import com.example.bookstore.kafka.event.BookEvent;
 import com.example.bookstore.kafka.mapper.BookEventMapper;
+import com.example.bookstore.kafka.metrics.BookEventMetrics;
+import com.example.bookstore.monitoring.jfr.BookEventConsumedEvent;
 import com.example.bookstore.search.model.BookDocument;
 import com.example.bookstore.search.repository.BookSearchRepository;
+import com.example.bookstore.service.BookService;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
+/**
+ * Writer of the shared state derived from book events (the Elasticsearch index and the book cache).
+ * It consumes in the shared group, so each event is applied once across instances; in-memory
+ * per-instance structures are fed by {@link BookEventBroadcastListener} instead.
+ */
 @Slf4j
 @Service
 public class BookEventListener {
     private final BookSearchRepository searchRepository;
+    private final BookEventMetrics eventMetrics;
+    private final BookVersionWatermark watermark;
+    private final BookCache bookCache;
+    private final BookService bookService;
+
+    @Value("${app.search.engine:elasticsearch}")
+    private String searchEngine = "elasticsearch";
 
-    public BookEventListener(BookSearchRepository searchRepository) {
+    public BookEventListener(BookSearchRepository searchRepository,
+                             BookEventMetrics eventMetrics,
+                             BookVersionWatermark watermark,
+                             BookCache bookCache,
+                             BookService bookService) {
 
         this.searchRepository = searchRepository;
+        this.eventMetrics = eventMetrics;
+        this.watermark = watermark;
+        this.bookCache = bookCache;
+        this.bookService = bookService;
     }
 
     private static String safeLower(String s) {
@@ -26,16 +56,36 @@ public class BookEventListener {
             topics = "${app.kafka.topics.book.events:book-events}",
             groupId = "${spring.kafka.consumer.group-id:bookstore-consumers}"
     )
+    public void onRecord(ConsumerRecord<String, BookEvent> record, Consumer<?, ?> consumer) {
+        eventMetrics.recordLag(consumer, new TopicPartition(record.topic(), record.partition()));
+        BookEventConsumedEvent consumed = new BookEventConsumedEvent();
+        consumed.begin();
+        BookEvent event = record.value();
+        onEvent(event);
+        consumed.complete(record.topic(), record.partition(), record.offset(),
+                event != null ? event.getId() : null, event != null ? event.getVersion() : null,
+                event != null ? event.getType() : null);
+    }
+
     public void onEvent(BookEvent event) {
         if (event == null) {
             log.error("Received null BookEvent");
             return;
         }
+        eventMetrics.recordConsumed(event);
+        if (isAlreadyApplied(event)) {
+            return;
+        }
+        if (!"elasticsearch".equalsIgnoreCase(searchEngine)) {
+            markApplied(event);
+            return;
+        }
         final String type = safeLower(event.getType());
 
         switch (type) {
             case "create" -> handleInsert(event);
             case "update" -> handleUpdate(event);
+            case "patch" -> handlePatch(event);
             case "delete" -> handleDelete(event);
             default -> {
                 IllegalArgumentException ex =
@@ -45,11 +95,36 @@ public class BookEventListener {
         }
     }
 
+    private boolean isAlreadyApplied(BookEvent event) {
+        if (event.getId() == null || event.getVersion() == null) {
+            return false;
+        }
+        long applied = watermark.get(event.getId());
+        if (applied == BookVersionWatermark.NONE || applied < event.getVersion()) {
+            return false;
+        }
+        if (applied == event.getVersion()) {
+            eventMetrics.recordDuplicate();
+        } else {
+            eventMetrics.recordStale();
+        }
+        log.debug("Skipping event id={} version={}, already applied version={}", event.getId(), event.getVersion(), applied);
+        return true;
+    }
+
+    private void markApplied(BookEvent event) {
+        eventMetrics.recordIndexed(event);
+        if (event.getId() != null && event.getVersion() != null) {
+            watermark.advance(event.getId(), event.getVersion());
+        }
+    }
+
     private void handleInsert(BookEvent event) {
         try {
             BookDocument doc = BookEventMapper.toDocument(event);
 
             searchRepository.save(doc);
+            markApplied(event);
             log.info("Insert book document id={} via event type={}", doc.getId(), event.getType());
         } catch (Exception e) {
             log.error("Failed to upsert document for event id={}. Event={}", event.getId(), event, e);
@@ -61,6 +136,8 @@ public class BookEventListener {
             BookDocument doc = BookEventMapper.toDocument(event);
             searchRepository.deleteById(doc.getId());
             searchRepository.save(doc);
+            bookCache.evict(doc.getId());
+            markApplied(event);
 
             log.info("Update book document id={} via event type={}", doc.getId(), event.getType());
         } catch (Exception e) {
@@ -68,6 +145,41 @@ public class BookEventListener {
         }
     }
 
+    private void handlePatch(BookEvent event) {
+        try {
+            if (event.getId() == null) {
+                throw new IllegalArgumentException("Patch event must contain non-null id");
+            }
+            if (!searchRepository.partialUpdate(event.getId(), BookEventMapper.toPartialDocument(event))) {
+                indexFromDatabase(event);
+                return;
+            }
+            bookCache.computeIfPresent(event.getId(), cached -> BookEventMapper.applyPatch(cached, event));
+            markApplied(event);
+
+            log.info("Patched book document id={} fields={} via event type=patch", event.getId(), event.getChangedFields());
+        } catch (Exception e) {
+            log.error("Failed to patch document for event id={}. Event={}", event.getId(), event, e);
+        }
+    }
+
+    /**
+     * A patch only carries the changed fields, so a book missing from the index (never indexed, or
+     * lost with an index rebuild) is indexed in full from the database instead. The patch was
+     * published after its commit, so the row is at least as new as the event. The cached entry is
+     * dropped first so the lookup reads the row, not the pre-patch copy.
+     */
+    private void indexFromDatabase(BookEvent event) {
+        bookCache.evict(event.getId());
+        List<BookDocument> documents = bookService.getDocumentsByIds(List.of(event.getId()));
+        if (documents.isEmpty()) {
+            log.info("Patched book id={} is neither indexed nor in the database any more; skipping", event.getId());
+        } else {
+            searchRepository.save(documents.get(0));
+            log.info("Indexed book document id={} from the database; it was missing for a patch", event.getId());
+        }
+        markApplied(event);
+    }
 
     private void handleDelete(BookEvent event) {
         try {
@@ -75,6 +187,8 @@ public class BookEventListener {
                 throw new IllegalArgumentException("Delete event must contain non-null id");
             }
             searchRepository.deleteById(event.getId());
+            bookCache.evict(event.getId());
+            markApplied(event);
             log.info("Deleted book document id={} via event type=delete", event.getId());
         } catch (Exception e) {
             log.error("Failed to delete document for event id={}. Event={}", event.getId(), event, e);
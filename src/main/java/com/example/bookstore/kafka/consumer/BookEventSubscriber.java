@@ -0,0 +1,14 @@
+package com.example.bookstore.kafka.consumer;
+
+import com.example.bookstore.kafka.event.BookEvent;
+
+/**
+ * In-process consumers of book events. {@link BookEventBroadcastListener} reads every partition of
+ * book.events on every instance and hands each event that passed its version check to all
+ * subscribers, so they all see the same ordered stream. Events can arrive while a subscriber is still
+ * loading its initial state, so subscribers that load from the database buffer them until then.
+ */
+public interface BookEventSubscriber {
+
+    void onBookEvent(BookEvent event);
+}
@@ -0,0 +1,90 @@
+package com.example.bookstore.kafka.consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Highest applied version per book id, kept in a fixed-size primitive table so it never grows
+ * with the catalog. The table is 4-way set associative: when a set is full the least recently used
+ * entry is evicted, which only means an old redelivery of that book is applied again. Versions are
+ * per-book counters and say nothing about how recently a book changed, so they are not used to pick
+ * the victim.
+ */
+@Component
+public class BookVersionWatermark {
+
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final int WAYS = 4;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] ids;
+    private final long[] versions;
+    private final long[] lastUsed;
+    private final int setMask;
+    private long clock;
+    private int size;
+
+    public BookVersionWatermark(@Value("${app.kafka.consumer.version-watermark.capacity:65536}") int capacity) {
+        int sets = Integer.highestOneBit(Math.max(capacity / WAYS, 1));
+        this.setMask = sets - 1;
+        this.ids = new long[sets * WAYS];
+        this.versions = new long[sets * WAYS];
+        this.lastUsed = new long[sets * WAYS];
+        Arrays.fill(ids, EMPTY);
+    }
+
+    /**
+     * @return the highest version applied for the book, or {@link #NONE} if it is not tracked.
+     */
+    public synchronized long get(long id) {
+        int base = firstSlotOf(id);
+        for (int i = base; i < base + WAYS; i++) {
+            if (ids[i] == id) {
+                lastUsed[i] = ++clock;
+                return versions[i];
+            }
+        }
+        return NONE;
+    }
+
+    public synchronized void advance(long id, long version) {
+        int base = firstSlotOf(id);
+        int victim = base;
+        for (int i = base; i < base + WAYS; i++) {
+            if (ids[i] == id) {
+                versions[i] = Math.max(versions[i], version);
+                lastUsed[i] = ++clock;
+                return;
+            }
+            if (ids[i] == EMPTY) {
+                victim = i;
+                break;
+            }
+            if (lastUsed[i] < lastUsed[victim]) {
+                victim = i;
+            }
+        }
+        if (ids[victim] == EMPTY) {
+            size++;
+        }
+        ids[victim] = id;
+        versions[victim] = version;
+        lastUsed[victim] = ++clock;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return ids.length;
+    }
+
+    private int firstSlotOf(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return ((int) (h ^ (h >>> 32)) & setMask) * WAYS;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.bookstore.kafka.event;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,12 +9,15 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Set;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class BookEvent {
 
     private Long id;
@@ -22,6 +26,12 @@ public class BookEvent {
     private String authorName;
     private String genreName;
     private BigDecimal price;
-    private String caption;
+    private Instant committedAt;
+    private Long sequence;
+    private Long version;
+    /**
+     * Set on PATCH events only: the fields that changed. Fields not listed are left {@code null}.
+     */
+    private Set<BookEventField> changedFields;
 
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.example.bookstore.kafka.event;
+
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Book fields that are projected into the search index and therefore travel in PATCH events.
+ * The ordinal is used as a bit position on the wire, so constants may only be appended.
+ */
+public enum BookEventField {
+    TITLE("title"),
+    AUTHOR_NAME("authorName"),
+    GENRE_NAME("genreName"),
+    PRICE("price");
+
+    private final String code;
+
+    BookEventField(String code) {
+        this.code = code;
+    }
+
+
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+}
@@ -7,7 +7,8 @@ public enum BookEventType {
     CREATE("create"),
     UPDATE("update"),
     DELETE("delete"),
-    SEARCH("search");
+    SEARCH("search"),
+    PATCH("patch");
 
     private final String code;
 
@@ -3,8 +3,17 @@ package com.example.bookstore.kafka.mapper;
 
 import com.example.bookstore.domain.Book;
 import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import com.example.bookstore.kafka.event.BookEventType;
 import com.example.bookstore.search.model.BookDocument;
 
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
 public final class BookEventMapper {
     private BookEventMapper() {
     }
@@ -14,20 +23,120 @@ public final class BookEventMapper {
                 .id(entity.getId())
                 .type(type)
                 .title(entity.getTitle())
-                .authorName(entity.getAuthor().getName())
-                .genreName(entity.getGenre().getName())
+                .authorName(entity.getAuthor() != null ? entity.getAuthor().getName() : null)
+                .genreName(entity.getGenre() != null ? entity.getGenre().getName() : null)
                 .price(entity.getPrice())
-                .caption(entity.getCaption())
+                .version(entity.getVersion())
+                .build();
+    }
+
+    /**
+     * Full event for an indexed document; used to seed the snapshot topic, so no version is known.
+     */
+    public static BookEvent toBookEvent(String type, BookDocument document) {
+        return BookEvent.builder()
+                .id(document.getId())
+                .type(type)
+                .title(document.getTitle())
+                .authorName(document.getAuthorName())
+                .genreName(document.getGenreName())
+                .price(document.getPrice())
                 .build();
     }
 
     public static BookEvent toBookEvent(String type, Long id) {
+        return toBookEvent(type, id, null);
+    }
+
+    public static BookEvent toBookEvent(String type, Long id, Long version) {
         return BookEvent.builder()
                 .id(id)
                 .type(type)
+                .version(version)
                 .build();
     }
 
+    /**
+     * Builds a PATCH event that carries only the given fields of {@code entity}.
+     */
+    public static BookEvent toPatchEvent(Book entity, Set<BookEventField> changedFields) {
+        BookEvent full = toBookEvent(BookEventType.PATCH.getCode(), entity);
+        return BookEvent.builder()
+                .id(full.getId())
+                .type(full.getType())
+                .version(full.getVersion())
+                .changedFields(EnumSet.copyOf(changedFields))
+                .title(changedFields.contains(BookEventField.TITLE) ? full.getTitle() : null)
+                .authorName(changedFields.contains(BookEventField.AUTHOR_NAME) ? full.getAuthorName() : null)
+                .genreName(changedFields.contains(BookEventField.GENRE_NAME) ? full.getGenreName() : null)
+                .price(changedFields.contains(BookEventField.PRICE) ? full.getPrice() : null)
+                .build();
+    }
+
+    /**
+     * Indexed fields that differ between two full snapshots of the same book.
+     */
+    public static Set<BookEventField> changedFields(BookEvent before, BookEvent after) {
+        Set<BookEventField> changed = EnumSet.noneOf(BookEventField.class);
+        if (!Objects.equals(before.getTitle(), after.getTitle())) {
+            changed.add(BookEventField.TITLE);
+        }
+        if (!Objects.equals(before.getAuthorName(), after.getAuthorName())) {
+            changed.add(BookEventField.AUTHOR_NAME);
+        }
+        if (!Objects.equals(before.getGenreName(), after.getGenreName())) {
+            changed.add(BookEventField.GENRE_NAME);
+        }
+        if (!samePrice(before.getPrice(), after.getPrice())) {
+            changed.add(BookEventField.PRICE);
+        }
+        return changed;
+    }
+
+    /**
+     * Search-document fields of a PATCH event, keyed by document field name.
+     */
+    public static Map<String, Object> toPartialDocument(BookEvent event) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (event.getChangedFields() == null) {
+            return fields;
+        }
+        for (BookEventField field : event.getChangedFields()) {
+            switch (field) {
+                case TITLE -> fields.put(field.getCode(), event.getTitle());
+                case AUTHOR_NAME -> fields.put(field.getCode(), event.getAuthorName());
+                case GENRE_NAME -> fields.put(field.getCode(), event.getGenreName());
+                case PRICE -> fields.put(field.getCode(), event.getPrice());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Returns a copy of {@code target} with the changed fields of a PATCH event applied.
+     */
+    public static BookDocument applyPatch(BookDocument target, BookEvent event) {
+        BookDocument patched = BookDocument.builder()
+                .id(target.getId())
+                .title(target.getTitle())
+                .authorName(target.getAuthorName())
+                .genreName(target.getGenreName())
+                .price(target.getPrice())
+                .build();
+        if (event.getChangedFields() == null) {
+            return patched;
+        }
+        for (BookEventField field : event.getChangedFields()) {
+            switch (field) {
+                case TITLE -> patched.setTitle(event.getTitle());
+                case AUTHOR_NAME -> patched.setAuthorName(event.getAuthorName());
+                case GENRE_NAME -> patched.setGenreName(event.getGenreName());
+                case PRICE -> patched.setPrice(event.getPrice());
+            }
+        }
+        return patched;
+    }
+
     public static BookDocument toDocument(BookEvent event) {
         if (event == null) {
             return null;
@@ -42,5 +151,9 @@ public final class BookEventMapper {
                 .build();
     }
 
+    private static boolean samePrice(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package com.example.bookstore.kafka.metrics;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index freshness SLIs for the book event pipeline: how old an event is when the consumer
+ * picks it up, how old it is once Elasticsearch acknowledged it, and how far each partition
+ * lags behind the log end.
+ */
+@Component
+public class BookEventMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Timer consumedAge;
+    private final Timer indexedAge;
+    private final Counter staleSkipped;
+    private final Counter duplicateSkipped;
+    private final Map<TopicPartition, AtomicLong> partitionLag = new ConcurrentHashMap<>();
+
+    public BookEventMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.consumedAge = ageTimer("consumed", "Time from database commit until the event is consumed");
+        this.indexedAge = ageTimer("indexed", "Time from database commit until the search index acknowledged the event");
+        this.staleSkipped = skippedCounter("stale");
+        this.duplicateSkipped = skippedCounter("duplicate");
+    }
+
+    private Counter skippedCounter(String reason) {
+        return Counter.builder("book.events.skipped")
+                .description("Events dropped before indexing because a newer or equal version was already applied")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private Timer ageTimer(String stage, String description) {
+        return Timer.builder("book.events.age")
+                .description(description)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void recordConsumed(BookEvent event) {
+        recordAge(consumedAge, event);
+    }
+
+    public void recordIndexed(BookEvent event) {
+        recordAge(indexedAge, event);
+    }
+
+    public void recordStale() {
+        staleSkipped.increment();
+    }
+
+    public void recordDuplicate() {
+        duplicateSkipped.increment();
+    }
+
+    public void recordLag(Consumer<?, ?> consumer, TopicPartition partition) {
+        if (consumer == null || partition == null) {
+            return;
+        }
+        OptionalLong lag = consumer.currentLag(partition);
+        if (lag.isPresent()) {
+            lagHolder(partition).set(lag.getAsLong());
+        }
+    }
+
+    private AtomicLong lagHolder(TopicPartition partition) {
+        return partitionLag.computeIfAbsent(partition, tp -> {
+            AtomicLong holder = new AtomicLong();
+            Gauge.builder("book.events.consumer.lag", holder, AtomicLong::get)
+                    .description("Records between the last consumed offset and the log end offset")
+                    .tag("topic", tp.topic())
+                    .tag("partition", String.valueOf(tp.partition()))
+                    .register(meterRegistry);
+            return holder;
+        });
+    }
+
+    private static void recordAge(Timer timer, BookEvent event) {
+        Instant committedAt = event.getCommittedAt();
+        if (committedAt == null) {
+            return;
+        }
+        Duration age = Duration.between(committedAt, Instant.now());
+        // Clock skew between producer and consumer hosts must not produce negative samples.
+        timer.record(age.isNegative() ? Duration.ZERO : age);
+    }
+}
@@ -1,26 +1,69 @@
 package com.example.bookstore.kafka.producer;
 
 import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.serialization.BookEventBinaryCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 @Slf4j
 @Service
 public class BookEventPublisher {
     private final KafkaTemplate<String, BookEvent> template;
+    // Seeded from wall-clock micros so the sequence keeps increasing across restarts.
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
 
     @Value("${app.kafka.topics.book.events:book-events}")
     private String topic;
 
+    @Value("${app.kafka.topics.book.snapshots:book.snapshots}")
+    private String snapshotTopic;
+
+    @Value("${app.kafka.event-schema:1}")
+    private int eventSchema = BookEventBinaryCodec.SCHEMA_V1;
+
 
     public BookEventPublisher(KafkaTemplate<String, BookEvent> template) {
         this.template = template;
     }
 
+    /**
+     * Whether consumers are known to understand PATCH events ({@code app.kafka.event-schema >= 2}).
+     * Until then updates are published as full UPDATE events.
+     */
+    public boolean patchEventsEnabled() {
+        return eventSchema >= BookEventBinaryCodec.SCHEMA_V2;
+    }
+
     public void publish(BookEvent event) {
+        event.setSequence(sequence.incrementAndGet());
         log.info("Publishing event to topic={} event={}", topic, event);
         template.send(topic, String.valueOf(event.getId()), event);
     }
+
+    /**
+     * Writes the latest full state of a book to the compacted snapshot topic.
+     */
+    public void publishSnapshot(BookEvent snapshot) {
+        log.debug("Publishing snapshot to topic={} id={}", snapshotTopic, snapshot.getId());
+        template.send(snapshotTopic, String.valueOf(snapshot.getId()), snapshot);
+    }
+
+    /**
+     * Writes a tombstone so compaction eventually drops the book from the snapshot topic.
+     */
+    public void publishTombstone(Long bookId) {
+        log.debug("Publishing tombstone to topic={} id={}", snapshotTopic, bookId);
+        template.send(snapshotTopic, String.valueOf(bookId), null);
+    }
+
+    /**
+     * Blocks until every record sent so far has been handed to the brokers.
+     */
+    public void flush() {
+        template.flush();
+    }
 }
\ No newline at end of file
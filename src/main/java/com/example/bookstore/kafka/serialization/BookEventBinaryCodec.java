@@ -0,0 +1,333 @@
+package com.example.bookstore.kafka.serialization;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import com.example.bookstore.kafka.event.BookEventType;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Compact binary wire format for {@link BookEvent}.
+ * <p>
+ * Layout: {@code MAGIC, schemaVersion, varint presenceBits, fields...} where every field whose
+ * presence bit is set follows in bit order. Integers are unsigned LEB128 varints (zig-zag for
+ * signed values), strings and big integers are length-prefixed. {@code MAGIC} is a UTF-8
+ * continuation byte, so it can never start a JSON document and both formats can share a topic.
+ * <p>
+ * Schema history: v1 carried {@code caption}; v2 drops it and adds the PATCH changed-fields mask.
+ * The decoder still accepts v1 payloads and discards the caption. Producers can still write v1
+ * ({@link #encode(BookEvent, byte)}) while consumers that only read v1 are being upgraded; v1 has
+ * no PATCH type and no changed-fields mask, so such events cannot be written in it.
+ */
+public final class BookEventBinaryCodec {
+
+    public static final byte MAGIC = (byte) 0xB7;
+    public static final byte SCHEMA_V1 = 1;
+    public static final byte SCHEMA_V2 = 2;
+    public static final byte CURRENT_SCHEMA = SCHEMA_V2;
+    /** Event types a v1 reader knows: {@code CREATE, UPDATE, DELETE, SEARCH}. */
+    private static final int V1_TYPES = BookEventType.PATCH.ordinal();
+
+    private static final int ID = 1;
+    private static final int TYPE = 1 << 1;
+    private static final int TITLE = 1 << 2;
+    private static final int AUTHOR_NAME = 1 << 3;
+    private static final int GENRE_NAME = 1 << 4;
+    private static final int PRICE = 1 << 5;
+    private static final int CAPTION_V1 = 1 << 6;
+    private static final int COMMITTED_AT = 1 << 7;
+    private static final int SEQUENCE = 1 << 8;
+    private static final int VERSION = 1 << 9;
+    private static final int CHANGED_FIELDS = 1 << 10;
+
+    private static final BookEventType[] TYPES = BookEventType.values();
+    private static final BookEventField[] FIELDS = BookEventField.values();
+
+    private BookEventBinaryCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(BookEvent event) {
+        return encode(event, CURRENT_SCHEMA);
+    }
+
+    /**
+     * Writes {@code event} in the given schema version.
+     *
+     * @throws SerializationException if the version is unknown, or the event needs a newer one
+     */
+    public static byte[] encode(BookEvent event, byte schema) {
+        if (schema == SCHEMA_V1) {
+            requireV1Compatible(event);
+        } else if (schema != SCHEMA_V2) {
+            throw new SerializationException("Unsupported BookEvent schema version: " + schema);
+        }
+        Writer out = new Writer(96);
+        out.writeByte(MAGIC);
+        out.writeByte(schema);
+        out.writeVarLong(presenceOf(event));
+        if (event.getId() != null) {
+            out.writeVarLong(event.getId());
+        }
+        if (event.getType() != null) {
+            writeType(out, event.getType());
+        }
+        writeIfPresent(out, event.getTitle());
+        writeIfPresent(out, event.getAuthorName());
+        writeIfPresent(out, event.getGenreName());
+        if (event.getPrice() != null) {
+            out.writeVarLong(zigZag(event.getPrice().scale()));
+            out.writeBytes(event.getPrice().unscaledValue().toByteArray());
+        }
+        if (event.getCommittedAt() != null) {
+            out.writeVarLong(zigZag(event.getCommittedAt().getEpochSecond()));
+            out.writeVarLong(event.getCommittedAt().getNano());
+        }
+        if (event.getSequence() != null) {
+            out.writeVarLong(zigZag(event.getSequence()));
+        }
+        if (event.getVersion() != null) {
+            out.writeVarLong(zigZag(event.getVersion()));
+        }
+        if (event.getChangedFields() != null) {
+            out.writeVarLong(fieldMask(event.getChangedFields()));
+        }
+        return out.toByteArray();
+    }
+
+    public static BookEvent decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new SerializationException("Not a binary BookEvent payload");
+        }
+        Reader in = new Reader(data, 1);
+        byte schema = in.readByte();
+        if (schema != SCHEMA_V1 && schema != SCHEMA_V2) {
+            throw new SerializationException("Unsupported BookEvent schema version: " + schema);
+        }
+        long presence = in.readVarLong();
+        BookEvent event = new BookEvent();
+        if ((presence & ID) != 0) {
+            event.setId(in.readVarLong());
+        }
+        if ((presence & TYPE) != 0) {
+            event.setType(readType(in));
+        }
+        if ((presence & TITLE) != 0) {
+            event.setTitle(in.readString());
+        }
+        if ((presence & AUTHOR_NAME) != 0) {
+            event.setAuthorName(in.readString());
+        }
+        if ((presence & GENRE_NAME) != 0) {
+            event.setGenreName(in.readString());
+        }
+        if ((presence & PRICE) != 0) {
+            int scale = (int) unZigZag(in.readVarLong());
+            event.setPrice(new BigDecimal(new BigInteger(in.readBytes()), scale));
+        }
+        if ((presence & CAPTION_V1) != 0) {
+            in.readString();
+        }
+        if ((presence & COMMITTED_AT) != 0) {
+            long seconds = unZigZag(in.readVarLong());
+            event.setCommittedAt(Instant.ofEpochSecond(seconds, in.readVarLong()));
+        }
+        if ((presence & SEQUENCE) != 0) {
+            event.setSequence(unZigZag(in.readVarLong()));
+        }
+        if ((presence & VERSION) != 0) {
+            event.setVersion(unZigZag(in.readVarLong()));
+        }
+        if ((presence & CHANGED_FIELDS) != 0) {
+            event.setChangedFields(fieldsOf(in.readVarLong()));
+        }
+        return event;
+    }
+
+    private static void requireV1Compatible(BookEvent event) {
+        if (event.getChangedFields() != null) {
+            throw new SerializationException("BookEvent schema v1 has no changed fields, id=" + event.getId());
+        }
+        for (int i = V1_TYPES; i < TYPES.length; i++) {
+            if (TYPES[i].getCode().equals(event.getType())) {
+                throw new SerializationException("BookEvent schema v1 has no type " + event.getType() + ", id=" + event.getId());
+            }
+        }
+    }
+
+    private static long presenceOf(BookEvent event) {
+        long bits = 0;
+        bits |= event.getId() != null ? ID : 0;
+        bits |= event.getType() != null ? TYPE : 0;
+        bits |= event.getTitle() != null ? TITLE : 0;
+        bits |= event.getAuthorName() != null ? AUTHOR_NAME : 0;
+        bits |= event.getGenreName() != null ? GENRE_NAME : 0;
+        bits |= event.getPrice() != null ? PRICE : 0;
+        bits |= event.getCommittedAt() != null ? COMMITTED_AT : 0;
+        bits |= event.getSequence() != null ? SEQUENCE : 0;
+        bits |= event.getVersion() != null ? VERSION : 0;
+        bits |= event.getChangedFields() != null ? CHANGED_FIELDS : 0;
+        return bits;
+    }
+
+    /**
+     * Known event types are written as {@code ordinal + 1}, so {@link BookEventType} constants may only be
+     * appended. Anything else is written as {@code 0} plus the raw string.
+     */
+    private static void writeType(Writer out, String type) {
+        for (BookEventType known : TYPES) {
+            if (known.getCode().equals(type)) {
+                out.writeVarLong(known.ordinal() + 1L);
+                return;
+            }
+        }
+        out.writeVarLong(0);
+        out.writeString(type);
+    }
+
+    private static String readType(Reader in) {
+        int code = (int) in.readVarLong();
+        if (code == 0) {
+            return in.readString();
+        }
+        if (code > TYPES.length) {
+            throw new SerializationException("Unknown BookEvent type code: " + code);
+        }
+        return TYPES[code - 1].getCode();
+    }
+
+    private static long fieldMask(Set<BookEventField> fields) {
+        long mask = 0;
+        for (BookEventField field : fields) {
+            mask |= 1L << field.ordinal();
+        }
+        return mask;
+    }
+
+    private static Set<BookEventField> fieldsOf(long mask) {
+        Set<BookEventField> fields = EnumSet.noneOf(BookEventField.class);
+        for (BookEventField field : FIELDS) {
+            if ((mask & (1L << field.ordinal())) != 0) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private static void writeIfPresent(Writer out, String value) {
+        if (value != null) {
+            out.writeString(value);
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+        private byte[] buf;
+        private int pos;
+
+        Writer(int initialCapacity) {
+            this.buf = new byte[initialCapacity];
+        }
+
+        void writeByte(byte b) {
+            ensure(1);
+            buf[pos++] = b;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        void writeString(String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        byte readByte() {
+            if (pos >= buf.length) {
+                throw new SerializationException("Truncated BookEvent payload");
+            }
+            return buf[pos++];
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new SerializationException("Malformed varint in BookEvent payload");
+        }
+
+        byte[] readBytes() {
+            int length = (int) readVarLong();
+            if (length < 0 || pos + length > buf.length) {
+                throw new SerializationException("Truncated BookEvent payload");
+            }
+            byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            if (length < 0 || pos + length > buf.length) {
+                throw new SerializationException("Truncated BookEvent payload");
+            }
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bookstore.kafka.serialization;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+public class BookEventBinarySerializer implements Serializer<BookEvent> {
+
+    /** Producer property: the {@link BookEventBinaryCodec} schema version to write, defaults to the current one. */
+    public static final String SCHEMA_CONFIG = "bookstore.event.schema";
+
+    private byte schema = BookEventBinaryCodec.CURRENT_SCHEMA;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object configured = configs.get(SCHEMA_CONFIG);
+        if (configured != null) {
+            schema = Byte.parseByte(configured.toString());
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, BookEvent event) {
+        return event == null ? null : BookEventBinaryCodec.encode(event, schema);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bookstore.kafka.serialization;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Reads both wire formats of {@code book.events}: the compact binary encoding and the legacy JSON
+ * payloads, so producers can be switched to binary only after every consumer runs this class.
+ */
+public class BookEventDeserializer implements Deserializer<BookEvent> {
+
+    private final JsonDeserializer<BookEvent> json;
+
+    public BookEventDeserializer() {
+        this.json = new JsonDeserializer<>(BookEvent.class);
+        this.json.addTrustedPackages("com.example.bookstore");
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public BookEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return BookEventBinaryCodec.isBinary(data)
+                ? BookEventBinaryCodec.decode(data)
+                : json.deserialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
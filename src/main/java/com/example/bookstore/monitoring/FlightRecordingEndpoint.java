@@ -0,0 +1,213 @@
+package com.example.bookstore.monitoring;
+
+import com.example.bookstore.monitoring.jfr.BookCacheEvent;
+import com.example.bookstore.monitoring.jfr.BookEventConsumedEvent;
+import com.example.bookstore.monitoring.jfr.ReindexBatchEvent;
+import com.example.bookstore.monitoring.jfr.SearchStageEvent;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * On-demand JFR recording, admin only: {@code POST /actuator/flightrecording/start} (optionally
+ * {@code {"settings": "profile"}}), {@code POST .../stop}, {@code GET .../dump} for the {@code .jfr}
+ * file so far, and {@code GET /actuator/flightrecording} for the state.
+ * <p>
+ * Overhead is bounded: only the JDK's {@code default} (about 1%) or {@code profile} (about 2%, more
+ * allocation and lock detail) settings are accepted, the bookstore events keep their thresholds, and
+ * a recording keeps at most {@code app.flight-recording.max-age-seconds} and
+ * {@code max-size-mb} of data on disk and stops by itself after {@code max-duration-seconds}.
+ * Dumping works while the recording runs and after it stopped; starting again discards it.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+
+    static final String NAME = "bookstore-on-demand";
+    private static final List<String> SETTINGS = List.of("default", "profile");
+    private static final List<Class<? extends Event>> EVENTS = List.of(
+            SearchStageEvent.class, BookCacheEvent.class, BookEventConsumedEvent.class, ReindexBatchEvent.class);
+
+    private final Duration maxDuration;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Path directory;
+    private final Lock lock = new ReentrantLock();
+
+    private Recording recording;
+    private String settings;
+
+    public FlightRecordingEndpoint(@Value("${app.flight-recording.max-duration-seconds:600}") long maxDurationSeconds,
+                                   @Value("${app.flight-recording.max-age-seconds:600}") long maxAgeSeconds,
+                                   @Value("${app.flight-recording.max-size-mb:256}") long maxSizeMb,
+                                   @Value("${app.flight-recording.directory:${java.io.tmpdir}}") Path directory) {
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.directory = directory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        lock.lock();
+        try {
+            return describe();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> control(@Selector String action, @Nullable String settings) {
+        return switch (action) {
+            case "start" -> start(settings != null ? settings : "default");
+            case "stop" -> stop();
+            default -> new WebEndpointResponse<>(Map.of("error", "Unknown action: " + action),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        };
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Selector String action) throws IOException {
+        if (!"dump".equals(action)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() == RecordingState.CLOSED) {
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+            Path file = directory.resolve(NAME + "-" + System.currentTimeMillis() + ".jfr");
+            recording.dump(file);
+            return new WebEndpointResponse<>(new DeleteOnCloseResource(file), WebEndpointResponse.STATUS_OK);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private WebEndpointResponse<Map<String, Object>> start(String requestedSettings) {
+        if (!SETTINGS.contains(requestedSettings)) {
+            return new WebEndpointResponse<>(Map.of("error", "settings must be one of " + SETTINGS),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                return new WebEndpointResponse<>(describe(), 409);
+            }
+            if (recording != null) {
+                recording.close();
+            }
+            Recording started = new Recording(Configuration.getConfiguration(requestedSettings));
+            started.setName(NAME);
+            started.setToDisk(true);
+            started.setMaxAge(maxAge);
+            started.setMaxSize(maxSizeBytes);
+            started.setDuration(maxDuration);
+            EVENTS.forEach(started::enable);
+            started.start();
+            recording = started;
+            settings = requestedSettings;
+            log.info("Started flight recording with {} settings, stopping by itself after {}", requestedSettings, maxDuration);
+            return new WebEndpointResponse<>(describe(), WebEndpointResponse.STATUS_OK);
+        } catch (Exception e) {
+            log.error("Could not start flight recording", e);
+            return new WebEndpointResponse<>(Map.of("error", String.valueOf(e.getMessage())),
+                    WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private WebEndpointResponse<Map<String, Object>> stop() {
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() != RecordingState.RUNNING) {
+                return new WebEndpointResponse<>(describe(), WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+            recording.stop();
+            log.info("Stopped flight recording after {}", recording.getDuration());
+            return new WebEndpointResponse<>(describe(), WebEndpointResponse.STATUS_OK);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, Object> describe() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("settings", settings);
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("maxDuration", maxDuration);
+        status.put("maxAge", maxAge);
+        status.put("maxSizeBytes", maxSizeBytes);
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            if (recording != null) {
+                recording.close();
+                recording = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** A dumped file that is deleted once the response has been streamed from it. */
+    private static final class DeleteOnCloseResource extends FileSystemResource {
+
+        DeleteOnCloseResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.bookstore.monitoring;
+
+import com.example.bookstore.monitoring.jfr.SearchStageEvent;
+import org.slf4j.MDC;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Where the time of one request went: nanoseconds per named stage (query build, Elasticsearch
+ * round trip, cache lookup, ...) plus the cache hits and misses seen while hydrating results.
+ * <p>
+ * An instance is bound to the request thread for the duration of the request, and code on the
+ * request path reports into it through the static methods, which do nothing when no request is
+ * bound (Kafka listeners, startup, benchmarks). Work forked to another thread reports into the
+ * same instance through {@link #bind}. A stage reported more than once accumulates.
+ * Stages timed with {@link #start} or {@link #time} are also JFR events.
+ */
+public final class RequestTimings {
+
+    /** Building the Elasticsearch query. */
+    public static final String QUERY = "query";
+    /** Elasticsearch round trip, as seen by the client. */
+    public static final String ELASTICSEARCH = "es";
+    /** Elasticsearch's own {@code took}; the gap to {@link #ELASTICSEARCH} is network and (de)serialization. */
+    public static final String ELASTICSEARCH_TOOK = "es-took";
+    /** Book cache lookups. */
+    public static final String CACHE = "cache";
+    /** Loading cache misses from the database, and writing them back to the cache. */
+    public static final String DATABASE = "db";
+    /** Sorting and mapping documents to response items. */
+    public static final String MAPPING = "map";
+    /** Facet aggregation of a filter-only search, forked next to the page. */
+    public static final String FACETS = "facets";
+    /** Database full-text search while Elasticsearch is unavailable. */
+    public static final String FALLBACK = "fallback";
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startedAt = System.nanoTime();
+    private final Map<String, Long> stages = new LinkedHashMap<>();
+    private long cacheHits;
+    private long cacheMisses;
+
+    /** Binds a new instance to the current thread; the caller must {@link #close} it. */
+    public static RequestTimings open() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /** The instance bound to the current thread, or {@code null}. */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    public void close() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    /** Adds {@code nanos} to {@code stage} of the current request, if any. */
+    public static void record(String stage, long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(stage, nanos);
+        }
+    }
+
+    /** Runs {@code work} as {@code stage}, see {@link #start}. */
+    public static <T> T time(String stage, Supplier<T> work) {
+        Stage timed = start(stage);
+        try {
+            return work.get();
+        } finally {
+            timed.stop();
+        }
+    }
+
+    /**
+     * Starts timing {@code stage}. When {@link Stage#stop stopped}, its duration is added to the
+     * current request, if any, and emitted as a JFR {@link SearchStageEvent} while a recording is
+     * running. A stage that fails before it is stopped is not reported.
+     */
+    public static Stage start(String stage) {
+        return new Stage(stage);
+    }
+
+    /** Counts one cache lookup of several keys for the current request, if any. */
+    public static void cacheLookup(long hits, long misses) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            synchronized (timings) {
+                timings.cacheHits += hits;
+                timings.cacheMisses += misses;
+            }
+        }
+    }
+
+    /**
+     * {@code work} reporting into the current request's timings on whichever thread runs it, e.g.
+     * a task forked onto a virtual thread; {@code work} itself when no request is bound.
+     */
+    public static <T> Supplier<T> bind(Supplier<T> work) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) {
+            return work;
+        }
+        return () -> {
+            RequestTimings previous = CURRENT.get();
+            CURRENT.set(timings);
+            try {
+                return work.get();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    public synchronized void add(String stage, long nanos) {
+        stages.merge(stage, nanos, Long::sum);
+    }
+
+    /** Stages in the order they were first reported. */
+    public synchronized Map<String, Long> stages() {
+        return new LinkedHashMap<>(stages);
+    }
+
+    public synchronized long cacheHits() {
+        return cacheHits;
+    }
+
+    public synchronized long cacheMisses() {
+        return cacheMisses;
+    }
+
+    public synchronized boolean hasCacheLookups() {
+        return cacheHits + cacheMisses > 0;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startedAt;
+    }
+
+    public static final class Stage {
+
+        private final String name;
+        private final SearchStageEvent event = new SearchStageEvent();
+        private final long startedAt;
+
+        private Stage(String name) {
+            this.name = name;
+            event.begin();
+            this.startedAt = System.nanoTime();
+        }
+
+        public void stop() {
+            stop(0);
+        }
+
+        /** Stops the stage, which handled {@code items} ids, books or results. */
+        public void stop(long items) {
+            record(name, System.nanoTime() - startedAt);
+            event.complete(name, MDC.get("traceId"), items);
+        }
+    }
+
+    /** {@code nanos} as milliseconds with two decimals, e.g. {@code 12.34}. */
+    public static String millis(long nanos) {
+        return Double.toString(Math.round(nanos / (double) TimeUnit.MICROSECONDS.toNanos(10)) / 100.0);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.bookstore.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event, emitted when a virtual thread blocks while
+ * it cannot unmount from its carrier (inside {@code synchronized}, or in a native frame), and
+ * records it as the {@code jvm.threads.virtual.pinned} timer. The {@code site} tag is the innermost
+ * frame outside the JDK, i.e. the driver or application method that blocked while pinned, and
+ * {@code origin} tells whether that is our code or a library. The first occurrence of each site is
+ * logged with its stack.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.virtual-threads.pinning-monitor.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements ApplicationRunner {
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+    static final String METRIC = "jvm.threads.virtual.pinned";
+    private static final String APPLICATION_PACKAGE = "com.example.bookstore.";
+    private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+    private static final int MAX_SITES = 100;
+    private static final int LOGGED_FRAMES = 16;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> sites = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${app.virtual-threads.pinning-monitor.threshold-ms:20}") long thresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        start();
+    }
+
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Watching for virtual thread pinning longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<String> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                .toList();
+        record(event.getDuration(), frames);
+    }
+
+    /**
+     * Records one pinning of {@code duration}; {@code frames} are {@code class.method}, innermost first.
+     */
+    void record(Duration duration, List<String> frames) {
+        String site = site(frames);
+        if (!sites.contains(site) && sites.size() >= MAX_SITES) {
+            site = "other";
+        }
+        Timer.builder(METRIC)
+                .description("Time virtual threads spent blocked while pinned to their carrier thread")
+                .tag("site", site)
+                .tag("origin", origin(site))
+                .register(meterRegistry)
+                .record(duration);
+        if (sites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms at {}:\n\t{}", duration.toMillis(), site,
+                    String.join("\n\t", frames.subList(0, Math.min(frames.size(), LOGGED_FRAMES))));
+        }
+    }
+
+    static String site(List<String> frames) {
+        return frames.stream()
+                .filter(frame -> JDK_PACKAGES.stream().noneMatch(frame::startsWith))
+                .findFirst()
+                .orElse(frames.isEmpty() ? "unknown" : frames.get(0));
+    }
+
+    static String origin(String site) {
+        if (site.equals("unknown") || site.equals("other")) {
+            return site;
+        }
+        if (site.startsWith(APPLICATION_PACKAGE)) {
+            return "application";
+        }
+        return JDK_PACKAGES.stream().anyMatch(site::startsWith) ? "jdk" : "library";
+    }
+}
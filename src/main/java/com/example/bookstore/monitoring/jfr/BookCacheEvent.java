@@ -0,0 +1,46 @@
+package com.example.bookstore.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A call on the Redis book cache. Multi-key calls report how many keys were asked for and how
+ * many were found; single-key calls report the book id. Calls under 1 ms are not recorded unless
+ * the recording lowers the threshold.
+ */
+@Name("com.example.bookstore.BookCache")
+@Label("Book Cache Call")
+@Category({"Bookstore", "Cache"})
+@Description("A call on the Redis book cache")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class BookCacheEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Book Id")
+    long bookId;
+
+    @Label("Keys")
+    int keys;
+
+    @Label("Hits")
+    int hits;
+
+    public void complete(String operation, long bookId, int keys, int hits) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.bookId = bookId;
+            this.keys = keys;
+            this.hits = hits;
+            commit();
+        }
+    }
+}
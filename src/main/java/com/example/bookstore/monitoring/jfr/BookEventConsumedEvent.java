@@ -0,0 +1,51 @@
+package com.example.bookstore.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One book event applied by the Kafka listener (subscribers, index write, cache eviction), with
+ * where it came from in the topic.
+ */
+@Name("com.example.bookstore.BookEventConsumed")
+@Label("Book Event Consumed")
+@Category({"Bookstore", "Kafka"})
+@Description("A book event applied from Kafka")
+@StackTrace(false)
+public final class BookEventConsumedEvent extends Event {
+
+    @Label("Topic")
+    String topic;
+
+    @Label("Partition")
+    int partition;
+
+    @Label("Offset")
+    long offset;
+
+    @Label("Book Id")
+    long bookId;
+
+    @Label("Version")
+    long version;
+
+    @Label("Event Type")
+    String type;
+
+    public void complete(String topic, int partition, long offset, Long bookId, Long version, String type) {
+        end();
+        if (shouldCommit()) {
+            this.topic = topic;
+            this.partition = partition;
+            this.offset = offset;
+            this.bookId = bookId != null ? bookId : -1;
+            this.version = version != null ? version : -1;
+            this.type = type;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.bookstore.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One batch of a search reindex: reading it from the database (or the snapshot topic) and writing
+ * it to the target.
+ */
+@Name("com.example.bookstore.ReindexBatch")
+@Label("Reindex Batch")
+@Category({"Bookstore", "Search"})
+@Description("A batch of the startup reindex")
+@StackTrace(false)
+public final class ReindexBatchEvent extends Event {
+
+    @Label("Source")
+    String source;
+
+    @Label("Target")
+    String target;
+
+    @Label("Batch")
+    long batch;
+
+    @Label("Upserts")
+    int upserts;
+
+    @Label("Deletes")
+    int deletes;
+
+    @Label("First Book Id")
+    long firstId;
+
+    @Label("Last Book Id")
+    long lastId;
+
+    @Label("Total Applied")
+    long total;
+
+    public void complete(String source, String target, long batch, int upserts, int deletes,
+                         long firstId, long lastId, long total) {
+        end();
+        if (shouldCommit()) {
+            this.source = source;
+            this.target = target;
+            this.batch = batch;
+            this.upserts = upserts;
+            this.deletes = deletes;
+            this.firstId = firstId;
+            this.lastId = lastId;
+            this.total = total;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.bookstore.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One stage of serving a search (query build, Elasticsearch round trip, cache lookup, database
+ * fill, mapping, ...), emitted by {@code RequestTimings} with the same stage names as the
+ * {@code Server-Timing} header. Only stages of at least 1 ms are recorded unless the recording
+ * lowers the threshold.
+ */
+@Name("com.example.bookstore.SearchStage")
+@Label("Search Stage")
+@Category({"Bookstore", "Search"})
+@Description("A stage of serving a book search")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class SearchStageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Trace Id")
+    String traceId;
+
+    @Label("Items")
+    @Description("Ids looked up, books loaded or items mapped by the stage, where it applies")
+    long items;
+
+    public void complete(String stage, String traceId, long items) {
+        end();
+        if (shouldCommit()) {
+            this.stage = stage;
+            this.traceId = traceId;
+            this.items = items;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bookstore.search.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for Elasticsearch searches: while a search for a key is running, identical
+ * searches wait for its result instead of sending their own. The first caller (leader) runs the
+ * search; others (followers) wait at most {@code app.search.coalescing.max-wait-ms} and then run
+ * it themselves. A failure of the leader is rethrown to its followers.
+ * <p>
+ * {@code books.search.coalescing{role=leader|follower|timeout}} counts callers; the coalescing
+ * ratio is {@code follower / (leader + follower)}.
+ */
+@Slf4j
+@Component
+public class SearchCoalescer {
+
+    private final boolean enabled;
+    private final long maxWaitMs;
+    private final ConcurrentMap<SearchResultCache.Key, CompletableFuture<SearchResultCache.CachedIds>> inFlight =
+            new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter timeouts;
+
+    public SearchCoalescer(MeterRegistry meterRegistry,
+                           @Value("${app.search.coalescing.enabled:true}") boolean enabled,
+                           @Value("${app.search.coalescing.max-wait-ms:2000}") long maxWaitMs) {
+        this.enabled = enabled;
+        this.maxWaitMs = maxWaitMs;
+        this.leaders = counter(meterRegistry, "leader");
+        this.followers = counter(meterRegistry, "follower");
+        this.timeouts = counter(meterRegistry, "timeout");
+    }
+
+    public SearchResultCache.CachedIds execute(SearchResultCache.Key key, Supplier<SearchResultCache.CachedIds> search) {
+        if (!enabled) {
+            return search.get();
+        }
+        CompletableFuture<SearchResultCache.CachedIds> mine = new CompletableFuture<>();
+        CompletableFuture<SearchResultCache.CachedIds> running = inFlight.putIfAbsent(key, mine);
+        if (running == null) {
+            leaders.increment();
+            try {
+                SearchResultCache.CachedIds result = search.get();
+                mine.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+        followers.increment();
+        try {
+            return running.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            log.debug("Coalesced search waited {} ms without a result, running it again", maxWaitMs);
+            return search.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced search", e);
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String role) {
+        return Counter.builder("books.search.coalescing")
+                .description("Search callers by single-flight role")
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+}
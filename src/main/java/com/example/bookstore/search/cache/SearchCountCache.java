@@ -0,0 +1,38 @@
+package com.example.bookstore.search.cache;
+
+import com.example.bookstore.search.query.SearchFilterKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.ToLongFunction;
+
+/**
+ * Short-lived local cache of match counts per {@link SearchFilterKey}. Counts are allowed to be a
+ * few seconds stale ({@code app.search.count-cache.ttl-ms}); that is what makes repeated
+ * "how many results" calls for broad filters cheap. Failed counts are not cached.
+ */
+@Component
+public class SearchCountCache {
+
+    private final Cache<SearchFilterKey, Long> counts;
+
+    public SearchCountCache(MeterRegistry meterRegistry,
+                            @Value("${app.search.count-cache.ttl-ms:5000}") long ttlMs,
+                            @Value("${app.search.count-cache.max-size:10000}") long maxSize) {
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "books.search.count");
+    }
+
+    public long get(SearchFilterKey key, ToLongFunction<SearchFilterKey> counter) {
+        return counts.get(key, counter::applyAsLong);
+    }
+}
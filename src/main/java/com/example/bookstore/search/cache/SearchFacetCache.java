@@ -0,0 +1,90 @@
+package com.example.bookstore.search.cache;
+
+import com.example.bookstore.kafka.consumer.BookEventSubscriber;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import com.example.bookstore.search.dto.BookFacets;
+import com.example.bookstore.search.query.SearchFilterKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Facets of filter-only searches (no {@code q}, no {@code title}) per {@link SearchFilterKey}.
+ * Listing pages ask for the same few filters over and over, and their facets change only when a
+ * book's author, genre or price does, or a book is added or removed. Any such event clears the
+ * cache, since counts depend on books that left a filter as well as those that entered it, and
+ * the author or genre a book left is not in the event. Title-only patches keep it.
+ */
+@Component
+public class SearchFacetCache implements BookEventSubscriber {
+
+    private static final EnumSet<BookEventField> FACET_FIELDS =
+            EnumSet.of(BookEventField.AUTHOR_NAME, BookEventField.GENRE_NAME, BookEventField.PRICE);
+
+    private final Cache<SearchFilterKey, BookFacets> facets;
+    /** Bumped by every invalidation, so a load that raced with an event is not cached. */
+    private volatile long generation;
+
+    public SearchFacetCache(MeterRegistry meterRegistry,
+                            @Value("${app.search.facets.cache.ttl-ms:60000}") long ttlMs,
+                            @Value("${app.search.facets.cache.max-size:1000}") long maxSize) {
+        this.facets = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, facets, "books.search.facets");
+    }
+
+    /**
+     * Cached facets for {@code key}, else the result of {@code loader}. A {@code null} result (the
+     * facets could not be computed) is returned but not cached.
+     */
+    public BookFacets get(SearchFilterKey key, Function<SearchFilterKey, BookFacets> loader) {
+        BookFacets cached = facets.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long startedAt = generation;
+        BookFacets loaded = loader.apply(key);
+        if (loaded != null) {
+            facets.put(key, loaded);
+            if (generation != startedAt) {
+                facets.invalidate(key);
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public void onBookEvent(BookEvent event) {
+        if (event.getType() == null) {
+            return;
+        }
+        switch (event.getType().toLowerCase(Locale.ROOT)) {
+            case "create", "update", "delete" -> clear();
+            case "patch" -> {
+                if (event.getChangedFields() == null
+                        || event.getChangedFields().stream().anyMatch(FACET_FIELDS::contains)) {
+                    clear();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        facets.invalidateAll();
+    }
+}
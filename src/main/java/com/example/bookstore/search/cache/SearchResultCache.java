@@ -0,0 +1,143 @@
+package com.example.bookstore.search.cache;
+
+import com.example.bookstore.kafka.consumer.BookEventSubscriber;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import com.example.bookstore.search.dto.BookFacets;
+import com.example.bookstore.search.query.SearchFilterKey;
+import com.example.bookstore.search.query.TotalHitsPolicy;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the page of book ids Elasticsearch returned for a search, keyed by the normalized filter,
+ * page, sort and hit-count policy. Only ids are cached; documents are hydrated per request through
+ * the book cache, so prices and titles on a cached page are always current.
+ * <p>
+ * A book event invalidates every cached page that lists the book (it may have left the result)
+ * and every page whose author and genre filters match the event's author and genre (it may have
+ * entered the result). Patch events carry only changed fields, so a missing author or genre
+ * matches any filter; a price-only patch invalidates just the pages with a price bound. Free-text
+ * matches of new or edited books outside those pages are not tracked; the short
+ * {@code app.search.result-cache.ttl-ms} bounds how long those, and the Elasticsearch refresh lag
+ * after an event, can stay stale.
+ */
+@Component
+public class SearchResultCache implements BookEventSubscriber {
+
+    private final boolean enabled;
+    private final Cache<Key, CachedIds> pages;
+    /**
+     * Bumped by every invalidation. A search that started before an invalidation does not cache
+     * its result, since it may predate the event.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public SearchResultCache(MeterRegistry meterRegistry,
+                             @Value("${app.search.result-cache.enabled:true}") boolean enabled,
+                             @Value("${app.search.result-cache.ttl-ms:30000}") long ttlMs,
+                             @Value("${app.search.result-cache.max-size:10000}") long maxSize) {
+        this.enabled = enabled;
+        this.pages = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "books.search.results");
+    }
+
+    public CachedIds get(Key key) {
+        return enabled ? pages.getIfPresent(key) : null;
+    }
+
+    /**
+     * Generation to pass to {@link #put} for a search about to start.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(Key key, long startedAt, CachedIds ids) {
+        if (!enabled) {
+            return;
+        }
+        pages.put(key, ids);
+        if (generation.get() != startedAt) {
+            // An event arrived while the search ran; drop what may already be stale.
+            pages.invalidate(key);
+        }
+    }
+
+    @Override
+    public void onBookEvent(BookEvent event) {
+        if (!enabled || event.getId() == null || event.getType() == null) {
+            return;
+        }
+        String type = event.getType().toLowerCase(Locale.ROOT);
+        if (!type.equals("create") && !type.equals("update") && !type.equals("patch") && !type.equals("delete")) {
+            return;
+        }
+        generation.incrementAndGet();
+        long id = event.getId();
+        boolean delete = type.equals("delete");
+        pages.asMap().entrySet().removeIf(entry -> entry.getValue().ids().contains(id)
+                || (!delete && mayEnter(entry.getKey().filter(), event)));
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        pages.invalidateAll();
+    }
+
+    private static boolean mayEnter(SearchFilterKey filter, BookEvent event) {
+        Set<BookEventField> changed = event.getChangedFields();
+        if (changed != null && !changed.isEmpty() && !changed.contains(BookEventField.TITLE)
+                && !changed.contains(BookEventField.AUTHOR_NAME) && !changed.contains(BookEventField.GENRE_NAME)) {
+            return filter.minPrice() != null || filter.maxPrice() != null;
+        }
+        return matches(filter.author(), event.getAuthorName()) && matches(filter.genre(), event.getGenreName());
+    }
+
+    private static boolean matches(String filter, String value) {
+        return filter == null || value == null || filter.equals(value);
+    }
+
+    public record Key(SearchFilterKey filter, long offset, int size, Sort sort, TotalHitsPolicy totalHits, boolean facets) {
+
+        public static Key of(SearchFilterKey filter, Pageable pageable, TotalHitsPolicy totalHits) {
+            return of(filter, pageable, totalHits, false);
+        }
+
+        public static Key of(SearchFilterKey filter, Pageable pageable, TotalHitsPolicy totalHits, boolean facets) {
+            return new Key(filter, pageable.getOffset(), pageable.getPageSize(), pageable.getSort(), totalHits, facets);
+        }
+    }
+
+    /**
+     * One page of ids in Elasticsearch order with the total reported for the search, and the
+     * facets computed in the same request if they were asked for.
+     */
+    public record CachedIds(List<Long> ids, long total, boolean totalExact, BookFacets facets) {
+
+        public CachedIds {
+            ids = List.copyOf(Objects.requireNonNull(ids));
+        }
+
+        public CachedIds(List<Long> ids, long total, boolean totalExact) {
+            this(ids, total, totalExact, null);
+        }
+    }
+}
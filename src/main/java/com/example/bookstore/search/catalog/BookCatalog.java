@@ -0,0 +1,229 @@
+package com.example.bookstore.search.catalog;
+
+import com.example.bookstore.domain.BookIndexProjection;
+import com.example.bookstore.kafka.consumer.BookEventSubscriber;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import com.example.bookstore.search.dto.BookSearchItem;
+import com.example.bookstore.service.BookService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the current {@link CatalogSnapshot} and replaces it copy-on-write. Book events are
+ * collected as pending row changes and folded into a fresh snapshot at most once per
+ * {@code app.search.catalog.rebuild-delay-ms}, so readers never see a half-applied change and
+ * never wait for a rebuild.
+ * <p>
+ * Disabled unless {@code app.search.catalog.enabled=true}; until the startup load finishes,
+ * {@link #list} answers empty and callers fall through to the other search paths.
+ */
+@Slf4j
+@Component
+public class BookCatalog implements BookEventSubscriber, ApplicationRunner {
+
+    private final BookService bookService;
+    private final boolean enabled;
+    private final long rebuildDelayMs;
+    private final int batchSize;
+
+    private final Object lock = new Object();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService rebuilder;
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+    private volatile boolean ready;
+    /** Row changes not yet in a snapshot; a {@code null} value is a delete. Guarded by {@link #lock}. */
+    private Map<Long, CatalogSnapshot.Row> pending = new LinkedHashMap<>();
+    /** Changes taken by the running rebuild, still visible to patches until the new snapshot is published. */
+    private Map<Long, CatalogSnapshot.Row> inFlight = Map.of();
+
+    public BookCatalog(BookService bookService,
+                       @Value("${app.search.catalog.enabled:false}") boolean enabled,
+                       @Value("${app.search.catalog.rebuild-delay-ms:500}") long rebuildDelayMs,
+                       @Value("${app.search.reindex.batch-size:1000}") int batchSize) {
+        this.bookService = bookService;
+        this.enabled = enabled;
+        this.rebuildDelayMs = rebuildDelayMs;
+        this.batchSize = batchSize;
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "book-catalog-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<CatalogSnapshot.Row> rows = new ArrayList<>();
+        int page = 0;
+        Page<BookIndexProjection> slice;
+        do {
+            slice = bookService.findBooksForIndexing(PageRequest.of(page++, batchSize));
+            for (BookIndexProjection book : slice.getContent()) {
+                rows.add(CatalogSnapshot.Row.of(book.getId(), book.getTitle(), book.getAuthorName(),
+                        book.getGenreName(), book.getPrice()));
+            }
+        } while (slice.hasNext());
+        snapshot = CatalogSnapshot.build(rows);
+        ready = true;
+        log.info("Catalog snapshot loaded {} books in {} ms", snapshot.size(), System.currentTimeMillis() - start);
+        scheduleRebuild();
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public CatalogSnapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * @see CatalogSnapshot#list
+     */
+    public Optional<Page<BookSearchItem>> list(String author,
+                                               String genre,
+                                               BigDecimal minPrice,
+                                               BigDecimal maxPrice,
+                                               Pageable pageable) {
+        return isReady() ? snapshot.list(author, genre, minPrice, maxPrice, pageable) : Optional.empty();
+    }
+
+    @Override
+    public void onBookEvent(BookEvent event) {
+        if (!enabled || event.getId() == null || event.getType() == null) {
+            return;
+        }
+        switch (event.getType().toLowerCase(Locale.ROOT)) {
+            case "create", "update" -> stage(event.getId(), CatalogSnapshot.Row.of(event.getId(), event.getTitle(),
+                    event.getAuthorName(), event.getGenreName(), event.getPrice()));
+            case "patch" -> stagePatch(event);
+            case "delete" -> stage(event.getId(), null);
+            default -> {
+                log.warn("Catalog snapshot ignores event type={} id={}", event.getType(), event.getId());
+                return;
+            }
+        }
+        scheduleRebuild();
+    }
+
+    /**
+     * Folds pending changes into a new snapshot now. Runs on the rebuild thread; public for tests
+     * and for callers that need read-your-writes.
+     */
+    public void rebuild() {
+        rebuildScheduled.set(false);
+        Map<Long, CatalogSnapshot.Row> changes;
+        synchronized (lock) {
+            if (!ready || pending.isEmpty()) {
+                return;
+            }
+            changes = pending;
+            inFlight = changes;
+            pending = new LinkedHashMap<>();
+        }
+        long start = System.nanoTime();
+        CatalogSnapshot next;
+        try {
+            List<CatalogSnapshot.Row> rows = new ArrayList<>(snapshot.size() + changes.size());
+            snapshot.forEachRow(row -> {
+                if (!changes.containsKey(row.id())) {
+                    rows.add(row);
+                }
+            });
+            changes.values().stream().filter(Objects::nonNull).forEach(rows::add);
+            next = CatalogSnapshot.build(rows);
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                changes.forEach(pending::putIfAbsent);
+                inFlight = Map.of();
+            }
+            throw e;
+        }
+        synchronized (lock) {
+            snapshot = next;
+            inFlight = Map.of();
+        }
+        log.debug("Catalog snapshot rebuilt with {} changes in {} ms", changes.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void stage(Long id, CatalogSnapshot.Row row) {
+        synchronized (lock) {
+            pending.put(id, row);
+        }
+    }
+
+    private void stagePatch(BookEvent event) {
+        if (event.getChangedFields() == null) {
+            return;
+        }
+        synchronized (lock) {
+            CatalogSnapshot.Row current = latest(event.getId());
+            if (current == null) {
+                return;
+            }
+            pending.put(event.getId(), new CatalogSnapshot.Row(current.id(),
+                    event.getChangedFields().contains(BookEventField.TITLE) ? event.getTitle() : current.title(),
+                    event.getChangedFields().contains(BookEventField.AUTHOR_NAME) ? event.getAuthorName() : current.authorName(),
+                    event.getChangedFields().contains(BookEventField.GENRE_NAME) ? event.getGenreName() : current.genreName(),
+                    event.getChangedFields().contains(BookEventField.PRICE)
+                            ? CatalogSnapshot.Row.toPriceCents(event.getPrice())
+                            : current.priceCents()));
+        }
+    }
+
+    private CatalogSnapshot.Row latest(Long id) {
+        if (pending.containsKey(id)) {
+            return pending.get(id);
+        }
+        if (inFlight.containsKey(id)) {
+            return inFlight.get(id);
+        }
+        return snapshot.row(id).orElse(null);
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(this::rebuildSafely, rebuildDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Catalog snapshot rebuild failed; changes stay pending for the next event", e);
+        }
+    }
+}
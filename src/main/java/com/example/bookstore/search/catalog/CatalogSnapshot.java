@@ -0,0 +1,399 @@
+package com.example.bookstore.search.catalog;
+
+import com.example.bookstore.search.dto.BookSearchItem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Immutable column-oriented copy of the catalog. Row {@code r} is the book {@code ids[r]} (rows are
+ * in id order); prices are cents, author and genre names are dictionary ids into
+ * {@link #authorNames}/{@link #genreNames}, and titles are UTF-8 slices of one shared buffer.
+ * Price and title orders are precomputed row permutations, so a sorted, filtered page is a walk
+ * over primitive arrays that stops once the page is full; only the returned items are allocated.
+ */
+public final class CatalogSnapshot {
+
+    static final long NO_PRICE = Long.MIN_VALUE;
+    private static final int NONE = -1;
+    private static final int UNKNOWN = -2;
+
+    public static final CatalogSnapshot EMPTY = build(List.of());
+
+    private final long[] ids;
+    private final long[] priceCents;
+    private final int[] authorIds;
+    private final int[] genreIds;
+    private final int[] titleOffsets;
+    private final byte[] titleBytes;
+    private final String[] authorNames;
+    private final String[] genreNames;
+    private final Map<String, Integer> authorLookup;
+    private final Map<String, Integer> genreLookup;
+    /** Priced rows by price, then unpriced rows; ties keep id order. */
+    private final int[] byPrice;
+    private final int pricedCount;
+    /** Rows by case-insensitive title; {@code titleRanks} is equal for equal titles. */
+    private final int[] byTitle;
+    private final int[] titleRanks;
+    /** Rows per author and genre dictionary id, so single-name filters are counted without a scan. */
+    private final int[] authorCounts;
+    private final int[] genreCounts;
+
+    private CatalogSnapshot(List<Row> rows) {
+        int size = rows.size();
+        ids = new long[size];
+        priceCents = new long[size];
+        authorIds = new int[size];
+        genreIds = new int[size];
+        titleOffsets = new int[size + 1];
+        Dictionary authors = new Dictionary();
+        Dictionary genres = new Dictionary();
+        byte[][] titles = new byte[size][];
+        int titleLength = 0;
+        for (int r = 0; r < size; r++) {
+            Row row = rows.get(r);
+            ids[r] = row.id();
+            priceCents[r] = row.priceCents();
+            authorIds[r] = authors.encode(row.authorName());
+            genreIds[r] = genres.encode(row.genreName());
+            titles[r] = row.title() == null ? new byte[0] : row.title().getBytes(StandardCharsets.UTF_8);
+            titleLength += titles[r].length;
+        }
+        titleBytes = new byte[titleLength];
+        for (int r = 0, offset = 0; r < size; r++) {
+            titleOffsets[r] = offset;
+            System.arraycopy(titles[r], 0, titleBytes, offset, titles[r].length);
+            offset += titles[r].length;
+        }
+        titleOffsets[size] = titleLength;
+        authorNames = authors.names();
+        genreNames = genres.names();
+        authorCounts = new int[authorNames.length];
+        genreCounts = new int[genreNames.length];
+        for (int r = 0; r < size; r++) {
+            if (authorIds[r] != NONE) {
+                authorCounts[authorIds[r]]++;
+            }
+            if (genreIds[r] != NONE) {
+                genreCounts[genreIds[r]]++;
+            }
+        }
+        authorLookup = authors.lookup;
+        genreLookup = genres.lookup;
+
+        Integer[] priced = new Integer[size];
+        int count = 0;
+        for (int r = 0; r < size; r++) {
+            if (priceCents[r] != NO_PRICE) {
+                priced[count++] = r;
+            }
+        }
+        Arrays.sort(priced, 0, count, Comparator.comparingLong(r -> priceCents[r]));
+        byPrice = new int[size];
+        for (int i = 0; i < count; i++) {
+            byPrice[i] = priced[i];
+        }
+        for (int r = 0, i = count; r < size; r++) {
+            if (priceCents[r] == NO_PRICE) {
+                byPrice[i++] = r;
+            }
+        }
+        pricedCount = count;
+
+        Integer[] titled = new Integer[size];
+        for (int r = 0; r < size; r++) {
+            titled[r] = r;
+        }
+        Comparator<Integer> byTitleText = Comparator.comparing(r -> rows.get(r).title() == null ? "" : rows.get(r).title(),
+                String.CASE_INSENSITIVE_ORDER);
+        Arrays.sort(titled, byTitleText);
+        byTitle = new int[size];
+        titleRanks = new int[size];
+        for (int i = 0, rank = 0; i < size; i++) {
+            byTitle[i] = titled[i];
+            if (i > 0 && byTitleText.compare(titled[i - 1], titled[i]) != 0) {
+                rank++;
+            }
+            titleRanks[titled[i]] = rank;
+        }
+    }
+
+    public static CatalogSnapshot build(Collection<Row> rows) {
+        List<Row> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingLong(Row::id));
+        return new CatalogSnapshot(sorted);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public Optional<Row> row(long id) {
+        int r = Arrays.binarySearch(ids, id);
+        return r < 0 ? Optional.empty() : Optional.of(rowAt(r));
+    }
+
+    public void forEachRow(Consumer<Row> action) {
+        for (int r = 0; r < ids.length; r++) {
+            action.accept(rowAt(r));
+        }
+    }
+
+    /**
+     * A page of books matching the exact author/genre names and price bounds, or empty when the
+     * requested sort is not one of {@code id}, {@code price}, {@code title}. Missing prices sort last
+     * and ties are broken by id, in both directions.
+     */
+    public Optional<Page<BookSearchItem>> list(String author,
+                                               String genre,
+                                               BigDecimal minPrice,
+                                               BigDecimal maxPrice,
+                                               Pageable pageable) {
+        Sort.Order order = singleOrder(pageable.getSort());
+        if (order == null && pageable.getSort().isSorted()) {
+            return Optional.empty();
+        }
+        int authorId = StringUtils.hasText(author) ? authorLookup.getOrDefault(author, UNKNOWN) : NONE;
+        int genreId = StringUtils.hasText(genre) ? genreLookup.getOrDefault(genre, UNKNOWN) : NONE;
+        long min = minPrice == null ? NO_PRICE : toCents(minPrice, RoundingMode.CEILING);
+        long max = maxPrice == null ? NO_PRICE : toCents(maxPrice, RoundingMode.FLOOR);
+        Filter filter = new Filter(authorId, genreId, min, max);
+
+        long total = filter.isEmpty() ? size() : count(filter);
+        Cursor cursor = new Cursor(pageable);
+        String property = order == null ? "id" : order.getProperty().toLowerCase(Locale.ROOT);
+        boolean ascending = order == null || order.isAscending();
+        switch (property) {
+            case "price" -> {
+                walk(byPrice, 0, pricedCount, ascending, true, filter, cursor);
+                walk(byPrice, pricedCount, size(), true, true, filter, cursor);
+            }
+            case "title" -> walk(byTitle, 0, size(), ascending, false, filter, cursor);
+            default -> walkIds(ascending, filter, cursor);
+        }
+        return Optional.of(new PageImpl<>(cursor.items, pageable, total));
+    }
+
+    /**
+     * Single-dimension filters are answered from the per-name counts or by binary search over the
+     * price order; only combined filters scan the rows.
+     */
+    private long count(Filter filter) {
+        if (filter.authorId == UNKNOWN || filter.genreId == UNKNOWN) {
+            return 0;
+        }
+        boolean priced = filter.min != NO_PRICE || filter.max != NO_PRICE;
+        if (!priced && filter.genreId == NONE) {
+            return authorCounts[filter.authorId];
+        }
+        if (!priced && filter.authorId == NONE) {
+            return genreCounts[filter.genreId];
+        }
+        if (filter.authorId == NONE && filter.genreId == NONE) {
+            int from = filter.min == NO_PRICE ? 0 : firstPricedAtLeast(filter.min);
+            int to = filter.max == NO_PRICE ? pricedCount : firstPricedAtLeast(filter.max + 1);
+            return Math.max(0, to - from);
+        }
+        long count = 0;
+        for (int r = 0; r < ids.length; r++) {
+            if (filter.matches(r)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Position in {@link #byPrice} of the first priced row costing at least {@code cents}.
+     */
+    private int firstPricedAtLeast(long cents) {
+        int low = 0;
+        int high = pricedCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (priceCents[byPrice[mid]] < cents) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void walkIds(boolean ascending, Filter filter, Cursor cursor) {
+        for (int i = 0; i < ids.length && !cursor.isFull(); i++) {
+            offer(ascending ? i : ids.length - 1 - i, filter, cursor);
+        }
+    }
+
+    /**
+     * Walks {@code order[from, to)}. Descending walks emit each run of equal keys front to back so
+     * ties stay in id order.
+     */
+    private void walk(int[] order, int from, int to, boolean ascending, boolean byPriceKey, Filter filter, Cursor cursor) {
+        if (ascending) {
+            for (int i = from; i < to && !cursor.isFull(); i++) {
+                offer(order[i], filter, cursor);
+            }
+            return;
+        }
+        for (int end = to - 1; end >= from && !cursor.isFull(); ) {
+            int start = end;
+            while (start > from && sameKey(order[start - 1], order[end], byPriceKey)) {
+                start--;
+            }
+            for (int i = start; i <= end && !cursor.isFull(); i++) {
+                offer(order[i], filter, cursor);
+            }
+            end = start - 1;
+        }
+    }
+
+    private void offer(int r, Filter filter, Cursor cursor) {
+        if (!filter.matches(r)) {
+            return;
+        }
+        if (cursor.skip > 0) {
+            cursor.skip--;
+        } else {
+            cursor.items.add(item(r));
+        }
+    }
+
+    private boolean sameKey(int a, int b, boolean byPriceKey) {
+        return byPriceKey ? priceCents[a] == priceCents[b] : titleRanks[a] == titleRanks[b];
+    }
+
+    private BookSearchItem item(int r) {
+        return BookSearchItem.builder()
+                .id(ids[r])
+                .title(new String(titleBytes, titleOffsets[r], titleOffsets[r + 1] - titleOffsets[r], StandardCharsets.UTF_8))
+                .authorName(authorIds[r] == NONE ? null : authorNames[authorIds[r]])
+                .genreName(genreIds[r] == NONE ? null : genreNames[genreIds[r]])
+                .price(priceCents[r] == NO_PRICE ? null : BigDecimal.valueOf(priceCents[r], 2))
+                .build();
+    }
+
+    private Row rowAt(int r) {
+        return new Row(ids[r],
+                new String(titleBytes, titleOffsets[r], titleOffsets[r + 1] - titleOffsets[r], StandardCharsets.UTF_8),
+                authorIds[r] == NONE ? null : authorNames[authorIds[r]],
+                genreIds[r] == NONE ? null : genreNames[genreIds[r]],
+                priceCents[r]);
+    }
+
+    static long toCents(BigDecimal price, RoundingMode rounding) {
+        return price.movePointRight(2).setScale(0, rounding).longValueExact();
+    }
+
+    private static Sort.Order singleOrder(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1) {
+            return null;
+        }
+        String property = orders.get(0).getProperty().toLowerCase(Locale.ROOT);
+        return property.equals("id") || property.equals("price") || property.equals("title") ? orders.get(0) : null;
+    }
+
+    /**
+     * One book as the snapshot stores it; {@code priceCents} is {@link #NO_PRICE} when unknown.
+     */
+    public record Row(long id, String title, String authorName, String genreName, long priceCents) {
+
+        public static Row of(long id, String title, String authorName, String genreName, BigDecimal price) {
+            return new Row(id, title, authorName, genreName, toPriceCents(price));
+        }
+
+        public static long toPriceCents(BigDecimal price) {
+            return price == null ? NO_PRICE : toCents(price, RoundingMode.HALF_UP);
+        }
+
+        public BigDecimal price() {
+            return priceCents == NO_PRICE ? null : BigDecimal.valueOf(priceCents, 2);
+        }
+    }
+
+    private static final class Cursor {
+        private final int limit;
+        private final List<BookSearchItem> items;
+        private long skip;
+
+        Cursor(Pageable pageable) {
+            this.limit = pageable.getPageSize();
+            this.items = new ArrayList<>(limit);
+            this.skip = pageable.getOffset();
+        }
+
+        boolean isFull() {
+            return items.size() >= limit;
+        }
+    }
+
+    private final class Filter {
+        private final int authorId;
+        private final int genreId;
+        private final long min;
+        private final long max;
+
+        Filter(int authorId, int genreId, long min, long max) {
+            this.authorId = authorId;
+            this.genreId = genreId;
+            this.min = min;
+            this.max = max;
+        }
+
+        boolean isEmpty() {
+            return authorId == NONE && genreId == NONE && min == NO_PRICE && max == NO_PRICE;
+        }
+
+        boolean matches(int r) {
+            if (authorId != NONE && authorIds[r] != authorId) {
+                return false;
+            }
+            if (genreId != NONE && genreIds[r] != genreId) {
+                return false;
+            }
+            if (min == NO_PRICE && max == NO_PRICE) {
+                return true;
+            }
+            long price = priceCents[r];
+            return price != NO_PRICE && (min == NO_PRICE || price >= min) && (max == NO_PRICE || price <= max);
+        }
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> lookup = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        int encode(String name) {
+            if (name == null) {
+                return NONE;
+            }
+            return lookup.computeIfAbsent(name, n -> {
+                names.add(n);
+                return names.size() - 1;
+            });
+        }
+
+        String[] names() {
+            return names.toArray(new String[0]);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bookstore.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Match counts of a search per genre, author (most frequent first) and price range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFacets {
+    private List<FacetBucket> genres;
+    private List<FacetBucket> authors;
+    private List<PriceFacetBucket> prices;
+}
@@ -0,0 +1,12 @@
+package com.example.bookstore.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchCount {
+    private long count;
+}
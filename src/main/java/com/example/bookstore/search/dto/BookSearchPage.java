@@ -0,0 +1,41 @@
+package com.example.bookstore.search.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Search result page that says whether {@code totalElements} is exact. It is a lower bound when
+ * the request capped or skipped hit counting ({@code totalHits=N|none}). Carries the facets of
+ * all matches when they were requested and could be computed.
+ */
+public class BookSearchPage extends PageImpl<BookSearchItem> {
+
+    private final boolean totalExact;
+    private final BookFacets facets;
+
+    public BookSearchPage(List<BookSearchItem> content, Pageable pageable, long total, boolean totalExact) {
+        this(content, pageable, total, totalExact, null);
+    }
+
+    public BookSearchPage(List<BookSearchItem> content, Pageable pageable, long total, boolean totalExact, BookFacets facets) {
+        super(content, pageable, total);
+        this.totalExact = totalExact;
+        this.facets = facets;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public BookFacets getFacets() {
+        return facets;
+    }
+
+    public BookSearchPage withFacets(BookFacets facets) {
+        return new BookSearchPage(getContent(), getPageable(), getTotalElements(), totalExact, facets);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.bookstore.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSuggestion {
+    private Long id;
+    private String title;
+}
@@ -0,0 +1,19 @@
+package com.example.bookstore.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Books priced in {@code [from, to)}; an open end is {@code null}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceFacetBucket {
+    private BigDecimal from;
+    private BigDecimal to;
+    private long count;
+}
@@ -0,0 +1,284 @@
+package com.example.bookstore.search.embedded;
+
+import com.example.bookstore.search.model.BookDocument;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process replacement for the {@code books} Elasticsearch index: token postings for the
+ * {@code title} text field, whole-value postings for the {@code authorName}/{@code genreName}
+ * keyword fields, and a price-ordered range index. Matching follows the ES query built by
+ * {@code BookSearchCustomServiceImpl}: {@code q} must match any of the three fields, each field
+ * filter must match its own field, a title clause matches when any of its tokens does, keyword
+ * clauses match the whole value (case-insensitively, unlike ES), and documents without a price
+ * never satisfy a price bound. Hits are ranked by matched clauses unless a sort is requested.
+ */
+public class InMemoryBookIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final Map<Long, BookDocument> documents = new HashMap<>();
+    private final Map<String, Set<Long>> titlePostings = new HashMap<>();
+    private final Map<String, Set<Long>> authorPostings = new HashMap<>();
+    private final Map<String, Set<Long>> genrePostings = new HashMap<>();
+    private final NavigableMap<BigDecimal, Set<Long>> priceIndex = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void upsert(BookDocument document) {
+        if (document == null || document.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            BookDocument previous = documents.put(document.getId(), document);
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsertAll(Collection<BookDocument> batch) {
+        batch.forEach(this::upsert);
+    }
+
+    public void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            BookDocument previous = documents.remove(id);
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public BookDocument get(Long id) {
+        lock.readLock().lock();
+        try {
+            return documents.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Page<BookDocument> search(String q,
+                                     String title,
+                                     String author,
+                                     String genre,
+                                     BigDecimal minPrice,
+                                     BigDecimal maxPrice,
+                                     Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = new HashMap<>();
+            Set<Long> candidates = null;
+
+            if (StringUtils.hasText(q)) {
+                List<String> tokens = tokenize(q);
+                Set<Long> any = new HashSet<>();
+                any.addAll(match(titlePostings, tokens, scores));
+                any.addAll(match(authorPostings, keyword(q), scores));
+                any.addAll(match(genrePostings, keyword(q), scores));
+                candidates = any;
+            }
+            if (StringUtils.hasText(title)) {
+                candidates = intersect(candidates, match(titlePostings, tokenize(title), scores));
+            }
+            if (StringUtils.hasText(author)) {
+                candidates = intersect(candidates, match(authorPostings, keyword(author), scores));
+            }
+            if (StringUtils.hasText(genre)) {
+                candidates = intersect(candidates, match(genrePostings, keyword(genre), scores));
+            }
+            if (minPrice != null || maxPrice != null) {
+                candidates = intersect(candidates, priceRange(minPrice, maxPrice));
+            }
+
+            Collection<Long> ids = candidates != null ? candidates : documents.keySet();
+            List<BookDocument> hits = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                hits.add(documents.get(id));
+            }
+            hits.sort(comparator(pageable.getSort(), scores));
+
+            int from = (int) Math.min(pageable.getOffset(), hits.size());
+            int to = Math.min(from + pageable.getPageSize(), hits.size());
+            return new PageImpl<>(new ArrayList<>(hits.subList(from, to)), pageable, hits.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static List<String> keyword(String value) {
+        return value == null ? List.of() : List.of(value.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private void index(BookDocument document) {
+        Long id = document.getId();
+        for (String token : new LinkedHashSet<>(tokenize(document.getTitle()))) {
+            titlePostings.computeIfAbsent(token, t -> new HashSet<>()).add(id);
+        }
+        for (String value : keyword(document.getAuthorName())) {
+            authorPostings.computeIfAbsent(value, t -> new HashSet<>()).add(id);
+        }
+        for (String value : keyword(document.getGenreName())) {
+            genrePostings.computeIfAbsent(value, t -> new HashSet<>()).add(id);
+        }
+        if (document.getPrice() != null) {
+            priceIndex.computeIfAbsent(document.getPrice().stripTrailingZeros(), p -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void unindex(BookDocument document) {
+        Long id = document.getId();
+        removePostings(titlePostings, tokenize(document.getTitle()), id);
+        removePostings(authorPostings, keyword(document.getAuthorName()), id);
+        removePostings(genrePostings, keyword(document.getGenreName()), id);
+        if (document.getPrice() != null) {
+            BigDecimal key = document.getPrice().stripTrailingZeros();
+            Set<Long> ids = priceIndex.get(key);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                priceIndex.remove(key);
+            }
+        }
+    }
+
+    private static void removePostings(Map<String, Set<Long>> postings, List<String> tokens, Long id) {
+        for (String token : tokens) {
+            Set<Long> ids = postings.get(token);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private static Set<Long> match(Map<String, Set<Long>> postings, List<String> tokens, Map<Long, Integer> scores) {
+        Set<Long> matched = new HashSet<>();
+        for (String token : new LinkedHashSet<>(tokens)) {
+            Set<Long> ids = postings.get(token);
+            if (ids == null) {
+                continue;
+            }
+            for (Long id : ids) {
+                matched.add(id);
+                scores.merge(id, 1, Integer::sum);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * An inverted range ({@code min > max}) matches nothing, like an ES range query; the sub-map views
+     * would throw on it.
+     */
+    private Set<Long> priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            return Set.of();
+        }
+        NavigableMap<BigDecimal, Set<Long>> range = priceIndex;
+        if (minPrice != null) {
+            range = range.tailMap(minPrice, true);
+        }
+        if (maxPrice != null) {
+            range = range.headMap(maxPrice, true);
+        }
+        Set<Long> ids = new HashSet<>();
+        range.values().forEach(ids::addAll);
+        return ids;
+    }
+
+    private static Set<Long> intersect(Set<Long> current, Set<Long> next) {
+        if (current == null) {
+            return next;
+        }
+        Set<Long> smaller = current.size() <= next.size() ? current : next;
+        Set<Long> larger = smaller == current ? next : current;
+        Set<Long> result = new HashSet<>();
+        for (Long id : smaller) {
+            if (larger.contains(id)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Missing values sort last in both directions.
+     */
+    private static Comparator<BookDocument> comparator(Sort sort, Map<Long, Integer> scores) {
+        Comparator<BookDocument> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<BookDocument> next = switch (order.getProperty().toLowerCase(Locale.ROOT)) {
+                case "price" -> Comparator.comparing(BookDocument::getPrice, direction(order));
+                case "title" -> Comparator.comparing(d -> lower(d.getTitle()), direction(order));
+                case "authorname" -> Comparator.comparing(d -> lower(d.getAuthorName()), direction(order));
+                case "genrename" -> Comparator.comparing(d -> lower(d.getGenreName()), direction(order));
+                case "id" -> Comparator.comparing(BookDocument::getId, direction(order));
+                default -> null;
+            };
+            if (next != null) {
+                comparator = comparator == null ? next : comparator.thenComparing(next);
+            }
+        }
+        if (comparator == null) {
+            comparator = Comparator.comparing((BookDocument d) -> scores.getOrDefault(d.getId(), 0)).reversed();
+        }
+        return comparator.thenComparing(BookDocument::getId);
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<T> direction(Sort.Order order) {
+        return Comparator.nullsLast(order.isAscending() ? Comparator.<T>naturalOrder() : Comparator.<T>reverseOrder());
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
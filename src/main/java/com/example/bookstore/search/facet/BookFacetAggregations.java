@@ -0,0 +1,91 @@
+package com.example.bookstore.search.facet;
+
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
+import co.elastic.clients.elasticsearch._types.aggregations.RangeBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import com.example.bookstore.search.dto.BookFacets;
+import com.example.bookstore.search.dto.FacetBucket;
+import com.example.bookstore.search.dto.PriceFacetBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The facet aggregations added to a search: {@code terms} on genre and author (top
+ * {@code app.search.facets.size} each) and a {@code range} on price cut at
+ * {@code app.search.facets.price-edges}, plus parsing of their results.
+ */
+@Component
+public class BookFacetAggregations {
+
+    static final String GENRES = "genres";
+    static final String AUTHORS = "authors";
+    static final String PRICES = "prices";
+
+    private final List<BigDecimal> priceEdges;
+    private final Map<String, Aggregation> aggregations;
+
+    public BookFacetAggregations(@Value("${app.search.facets.size:10}") int size,
+                                 @Value("${app.search.facets.price-edges:10,20,50}") List<BigDecimal> priceEdges) {
+        this.priceEdges = priceEdges.stream().sorted().distinct().toList();
+        List<AggregationRange> ranges = new ArrayList<>();
+        for (int i = 0; i <= this.priceEdges.size(); i++) {
+            BigDecimal from = i == 0 ? null : this.priceEdges.get(i - 1);
+            BigDecimal to = i == this.priceEdges.size() ? null : this.priceEdges.get(i);
+            ranges.add(AggregationRange.of(r -> {
+                if (from != null) {
+                    r.from(from.toPlainString());
+                }
+                if (to != null) {
+                    r.to(to.toPlainString());
+                }
+                return r;
+            }));
+        }
+        this.aggregations = Map.of(
+                GENRES, Aggregation.of(a -> a.terms(t -> t.field("genreName").size(size))),
+                AUTHORS, Aggregation.of(a -> a.terms(t -> t.field("authorName").size(size))),
+                PRICES, Aggregation.of(a -> a.range(r -> r.field("price").ranges(ranges))));
+    }
+
+    public Map<String, Aggregation> aggregations() {
+        return aggregations;
+    }
+
+    public BookFacets parse(Map<String, Aggregate> aggregates) {
+        return new BookFacets(terms(aggregates.get(GENRES)), terms(aggregates.get(AUTHORS)), prices(aggregates.get(PRICES)));
+    }
+
+    private static List<FacetBucket> terms(Aggregate aggregate) {
+        if (aggregate == null || !aggregate.isSterms()) {
+            return List.of();
+        }
+        List<FacetBucket> buckets = new ArrayList<>();
+        for (StringTermsBucket bucket : aggregate.sterms().buckets().array()) {
+            buckets.add(new FacetBucket(bucket.key().stringValue(), bucket.docCount()));
+        }
+        return buckets;
+    }
+
+    private List<PriceFacetBucket> prices(Aggregate aggregate) {
+        if (aggregate == null || !aggregate.isRange()) {
+            return List.of();
+        }
+        List<RangeBucket> buckets = aggregate.range().buckets().array();
+        List<PriceFacetBucket> prices = new ArrayList<>(buckets.size());
+        // Buckets come back in request order, one per configured range.
+        for (int i = 0; i < buckets.size() && i <= priceEdges.size(); i++) {
+            prices.add(new PriceFacetBucket(
+                    i == 0 ? null : priceEdges.get(i - 1),
+                    i == priceEdges.size() ? null : priceEdges.get(i),
+                    buckets.get(i).docCount()));
+        }
+        return prices;
+    }
+}
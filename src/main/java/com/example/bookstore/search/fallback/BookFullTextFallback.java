@@ -0,0 +1,201 @@
+package com.example.bookstore.search.fallback;
+
+import com.example.bookstore.search.dto.BookSearchItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Degraded book search straight against Postgres, used while Elasticsearch is unavailable.
+ * Titles are matched through the generated {@code search_vector} column. The author and genre
+ * filters are exact like the Elasticsearch term filters, except case-insensitive
+ * ({@code lower(name) = :x}, which the trigram indexes also serve); only free text {@code q}
+ * matches names by substring. Two guards keep it from hurting the primary database: at most
+ * {@code max-concurrency} queries run at once (excess requests get an empty page immediately),
+ * and every query runs under {@code SET LOCAL statement_timeout}. No exact total is computed; the
+ * page only reports whether another page exists.
+ */
+@Slf4j
+@Component
+public class BookFullTextFallback {
+
+    private static final RowMapper<BookSearchItem> ROW_MAPPER = (rs, rowNum) -> BookSearchItem.builder()
+            .id(rs.getLong("id"))
+            .title(rs.getString("title"))
+            .authorName(rs.getString("author_name"))
+            .genreName(rs.getString("genre_name"))
+            .price(rs.getBigDecimal("price"))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate readOnlyTx;
+    private final Semaphore permits;
+    private final long statementTimeoutMs;
+    private final Counter served;
+    private final Counter shed;
+    private final Counter failed;
+
+    public BookFullTextFallback(NamedParameterJdbcTemplate jdbc,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.search.fallback.max-concurrency:4}") int maxConcurrency,
+                                @Value("${app.search.fallback.statement-timeout-ms:300}") long statementTimeoutMs) {
+        this.jdbc = jdbc;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.permits = new Semaphore(Math.max(0, maxConcurrency));
+        this.statementTimeoutMs = statementTimeoutMs;
+        this.served = outcomeCounter(meterRegistry, "served");
+        this.shed = outcomeCounter(meterRegistry, "shed");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("books.search.fallback")
+                .description("Searches answered by the Postgres full-text fallback")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public Page<BookSearchItem> search(String queryText,
+                                       String title,
+                                       String author,
+                                       String genre,
+                                       BigDecimal minPrice,
+                                       BigDecimal maxPrice,
+                                       Pageable pageable) {
+        if (!permits.tryAcquire()) {
+            shed.increment();
+            log.warn("Search fallback saturated, returning empty page");
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        try {
+            MapSqlParameterSource params = new MapSqlParameterSource();
+            String sql = buildSql(queryText, title, author, genre, minPrice, maxPrice, pageable, params);
+            List<BookSearchItem> rows = readOnlyTx.execute(status -> {
+                jdbc.getJdbcTemplate().execute("SET LOCAL statement_timeout = " + statementTimeoutMs);
+                return jdbc.query(sql, params, ROW_MAPPER);
+            });
+            served.increment();
+            return toPage(rows == null ? List.of() : rows, pageable);
+        } catch (DataAccessException ex) {
+            failed.increment();
+            log.error("Search fallback failed", ex);
+            return new PageImpl<>(List.of(), pageable, 0);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * One extra row is fetched so the page knows whether a next page exists without a count query.
+     */
+    private static Page<BookSearchItem> toPage(List<BookSearchItem> rows, Pageable pageable) {
+        int size = pageable.getPageSize();
+        if (rows.size() <= size) {
+            return new PageImpl<>(rows, pageable, pageable.getOffset() + rows.size());
+        }
+        return new PageImpl<>(new ArrayList<>(rows.subList(0, size)), pageable, pageable.getOffset() + size + 1);
+    }
+
+    static String buildSql(String queryText,
+                           String title,
+                           String author,
+                           String genre,
+                           BigDecimal minPrice,
+                           BigDecimal maxPrice,
+                           Pageable pageable,
+                           MapSqlParameterSource params) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT b.id, b.title, a.name AS author_name, g.name AS genre_name, b.price
+                FROM books b
+                JOIN authors a ON a.id = b.author_id
+                JOIN genres g ON g.id = b.genre_id
+                WHERE 1 = 1
+                """);
+
+        if (StringUtils.hasText(queryText)) {
+            sql.append("""
+                    AND b.id IN (
+                        SELECT t.id FROM books t WHERE t.search_vector @@ plainto_tsquery('simple', :q)
+                        UNION
+                        SELECT ba.id FROM books ba WHERE ba.author_id IN (SELECT id FROM authors WHERE lower(name) LIKE :qLike)
+                        UNION
+                        SELECT bg.id FROM books bg WHERE bg.genre_id IN (SELECT id FROM genres WHERE lower(name) LIKE :qLike))
+                    """);
+            params.addValue("q", queryText);
+            params.addValue("qLike", contains(queryText));
+        }
+        if (StringUtils.hasText(title)) {
+            sql.append("AND b.search_vector @@ plainto_tsquery('simple', :title)\n");
+            params.addValue("title", title);
+        }
+        if (StringUtils.hasText(author)) {
+            sql.append("AND lower(a.name) = :author\n");
+            params.addValue("author", author.toLowerCase(Locale.ROOT));
+        }
+        if (StringUtils.hasText(genre)) {
+            sql.append("AND lower(g.name) = :genre\n");
+            params.addValue("genre", genre.toLowerCase(Locale.ROOT));
+        }
+        if (minPrice != null) {
+            sql.append("AND b.price >= :minPrice\n");
+            params.addValue("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            sql.append("AND b.price <= :maxPrice\n");
+            params.addValue("maxPrice", maxPrice);
+        }
+
+        sql.append("ORDER BY ").append(orderBy(pageable.getSort())).append('\n');
+        sql.append("LIMIT :limit OFFSET :offset");
+        params.addValue("limit", pageable.getPageSize() + 1);
+        params.addValue("offset", pageable.getOffset());
+        return sql.toString();
+    }
+
+    /**
+     * Sort properties are mapped through a fixed whitelist; unknown ones are ignored like on the ES path.
+     */
+    private static String orderBy(Sort sort) {
+        List<String> terms = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = switch (order.getProperty().toLowerCase(Locale.ROOT)) {
+                case "price" -> "b.price";
+                case "title" -> "lower(b.title)";
+                case "authorname" -> "lower(a.name)";
+                case "genrename" -> "lower(g.name)";
+                case "id" -> "b.id";
+                default -> null;
+            };
+            if (column != null) {
+                terms.add(column + (order.isAscending() ? " ASC" : " DESC") + " NULLS LAST");
+            }
+        }
+        terms.add("b.id");
+        return String.join(", ", terms);
+    }
+
+    private static String contains(String text) {
+        return "%" + text.toLowerCase(Locale.ROOT) + "%";
+    }
+}
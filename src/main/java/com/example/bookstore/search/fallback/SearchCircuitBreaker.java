@@ -0,0 +1,134 @@
+package com.example.bookstore.search.fallback;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Consecutive-failure circuit breaker around the Elasticsearch client. After
+ * {@code failureThreshold} failures in a row the circuit opens and callers go straight to the
+ * fallback; once {@code openDuration} has passed a single trial request is let through and its
+ * outcome closes or re-opens the circuit.
+ * <p>
+ * Every search passes through here, so state is guarded by a {@link ReentrantLock} rather than
+ * {@code synchronized}: on Java 21 a virtual thread that contends for a monitor pins its carrier.
+ */
+@Slf4j
+@Component
+public class SearchCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    @Autowired
+    public SearchCircuitBreaker(@Value("${app.search.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                @Value("${app.search.circuit-breaker.open-duration-ms:30000}") long openDurationMillis) {
+        this(failureThreshold, Duration.ofMillis(openDurationMillis), Clock.systemUTC());
+    }
+
+    public SearchCircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMillis = openDuration.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * @return {@code true} if the caller may use Elasticsearch and must report the outcome.
+     */
+    public boolean allowRequest() {
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (clock.millis() - openedAt < openDurationMillis) {
+                        return false;
+                    }
+                    transitionTo(State.HALF_OPEN);
+                    trialInFlight = true;
+                    return true;
+                default:
+                    if (trialInFlight) {
+                        return false;
+                    }
+                    trialInFlight = true;
+                    return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void recordSuccess() {
+        lock.lock();
+        try {
+            consecutiveFailures = 0;
+            trialInFlight = false;
+            if (state != State.CLOSED) {
+                transitionTo(State.CLOSED);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void recordFailure() {
+        lock.lock();
+        try {
+            trialInFlight = false;
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                openedAt = clock.millis();
+                if (state != State.OPEN) {
+                    transitionTo(State.OPEN);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Time until an open circuit lets a trial request through; zero when it is not open.
+     */
+    public Duration retryAfter() {
+        lock.lock();
+        try {
+            if (state != State.OPEN) {
+                return Duration.ZERO;
+            }
+            return Duration.ofMillis(Math.max(0, openDurationMillis - (clock.millis() - openedAt)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void transitionTo(State next) {
+        log.warn("Search circuit breaker {} -> {} (consecutiveFailures={})", state, next, consecutiveFailures);
+        state = next;
+    }
+}
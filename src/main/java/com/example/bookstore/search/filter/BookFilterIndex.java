@@ -0,0 +1,450 @@
+package com.example.bookstore.search.filter;
+
+import com.example.bookstore.domain.BookIndexProjection;
+import com.example.bookstore.kafka.consumer.BookEventSubscriber;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import com.example.bookstore.kafka.mapper.BookEventMapper;
+import com.example.bookstore.search.mapper.BookDocumentMapper;
+import com.example.bookstore.search.model.BookDocument;
+import com.example.bookstore.service.BookService;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Event-maintained bitmap index over the structured search filters. Book ids are stored in
+ * compressed bitmaps per author name and genre name (the names are what events and documents
+ * carry) and per price band of {@code app.search.filter-index.price-band-width}. A query without
+ * free text is answered by intersecting those bitmaps; only the partially covered edge bands of
+ * a price range are checked book by book. Names match exactly, like the ES keyword fields.
+ * <p>
+ * Disabled unless {@code app.search.filter-index.enabled=true}. Until the startup load finishes,
+ * or if a book id does not fit in a bitmap, {@link #findIds} answers empty and callers query ES.
+ * Events received before the load finishes are buffered and replayed in order afterwards, so a page
+ * read from the database before a concurrent change cannot overwrite that change.
+ */
+@Slf4j
+@Component
+public class BookFilterIndex implements BookEventSubscriber, ApplicationRunner {
+
+    private static final BigDecimal MAX_BAND = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static final BigDecimal MIN_BAND = BigDecimal.valueOf(Long.MIN_VALUE);
+
+    private final BookService bookService;
+    private final boolean enabled;
+    private final BigDecimal bandWidth;
+    private final int batchSize;
+
+    private final Map<String, RoaringBitmap> byAuthor = new HashMap<>();
+    private final Map<String, RoaringBitmap> byGenre = new HashMap<>();
+    private final NavigableMap<Long, RoaringBitmap> byPriceBand = new TreeMap<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<BookEvent> pendingEvents = new ArrayList<>();
+
+    /** Guarded by {@link #pendingEvents}. */
+    private boolean loading;
+
+    private volatile boolean ready;
+    private volatile boolean overflowed;
+
+    public BookFilterIndex(BookService bookService,
+                           @Value("${app.search.filter-index.enabled:false}") boolean enabled,
+                           @Value("${app.search.filter-index.price-band-width:5}") BigDecimal bandWidth,
+                           @Value("${app.search.reindex.batch-size:1000}") int batchSize) {
+        if (bandWidth.signum() <= 0) {
+            throw new IllegalArgumentException("app.search.filter-index.price-band-width must be positive");
+        }
+        this.bookService = bookService;
+        this.enabled = enabled;
+        this.bandWidth = bandWidth;
+        this.batchSize = batchSize;
+        this.loading = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int page = 0;
+        Page<BookIndexProjection> slice;
+        do {
+            slice = bookService.findBooksForIndexing(PageRequest.of(page++, batchSize));
+            slice.getContent().stream().map(BookDocumentMapper::toDocument).forEach(this::upsert);
+        } while (slice.hasNext());
+        int replayed = replayPendingEvents();
+        ready = true;
+        log.info("Search filter index loaded {} books in {} ms, replayed {} events",
+                size(), System.currentTimeMillis() - start, replayed);
+    }
+
+    /**
+     * Applies the events buffered during the load until none are left, then switches to applying
+     * events directly.
+     */
+    private int replayPendingEvents() {
+        int replayed = 0;
+        while (true) {
+            List<BookEvent> batch;
+            synchronized (pendingEvents) {
+                if (pendingEvents.isEmpty()) {
+                    loading = false;
+                    return replayed;
+                }
+                batch = new ArrayList<>(pendingEvents);
+                pendingEvents.clear();
+            }
+            batch.forEach(this::apply);
+            replayed += batch.size();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready && !overflowed;
+    }
+
+    /**
+     * Ids of the requested page, in id order or price order, or empty when the index cannot answer
+     * (not loaded yet, or a sort on a field it does not hold).
+     */
+    public Optional<Page<Long>> findIds(String author,
+                                        String genre,
+                                        BigDecimal minPrice,
+                                        BigDecimal maxPrice,
+                                        Pageable pageable) {
+        if (!isReady()) {
+            return Optional.empty();
+        }
+        Sort.Order order = singleOrder(pageable.getSort());
+        if (order == null && pageable.getSort().isSorted()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = matches(author, genre, minPrice, maxPrice);
+            List<Long> ids = order != null && order.getProperty().equalsIgnoreCase("price")
+                    ? pageByPrice(matches, pageable, order.isAscending())
+                    : pageById(matches, pageable, order == null || order.isAscending());
+            return Optional.of(new PageImpl<>(ids, pageable, matches.getLongCardinality()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of books matching the filters, the cardinality of the intersected bitmaps, or empty
+     * when the index cannot answer (not loaded yet).
+     */
+    public OptionalLong count(String author, String genre, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (!isReady()) {
+            return OptionalLong.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return OptionalLong.of(matches(author, genre, minPrice, maxPrice).getLongCardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Caller holds the read lock.
+     */
+    private RoaringBitmap matches(String author, String genre, BigDecimal minPrice, BigDecimal maxPrice) {
+        RoaringBitmap matches = all;
+        if (StringUtils.hasText(author)) {
+            matches = RoaringBitmap.and(matches, byAuthor.getOrDefault(author, new RoaringBitmap()));
+        }
+        if (StringUtils.hasText(genre)) {
+            matches = RoaringBitmap.and(matches, byGenre.getOrDefault(genre, new RoaringBitmap()));
+        }
+        if (minPrice != null || maxPrice != null) {
+            matches = RoaringBitmap.and(matches, priceRange(minPrice, maxPrice));
+        }
+        return matches;
+    }
+
+    @Override
+    public void onBookEvent(BookEvent event) {
+        if (!enabled || event.getId() == null || event.getType() == null) {
+            return;
+        }
+        synchronized (pendingEvents) {
+            if (loading) {
+                pendingEvents.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    private void apply(BookEvent event) {
+        switch (event.getType().toLowerCase(Locale.ROOT)) {
+            case "create", "update" -> upsert(BookEventMapper.toDocument(event));
+            case "patch" -> patch(event);
+            case "delete" -> remove(event.getId());
+            default -> log.warn("Search filter index ignores event type={} id={}", event.getType(), event.getId());
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return all.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void upsert(BookDocument document) {
+        if (document == null || document.getId() == null || !fits(document.getId())) {
+            return;
+        }
+        int id = document.getId().intValue();
+        Entry entry = new Entry(document.getAuthorName(), document.getGenreName(), document.getPrice());
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(id, entry);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+            index(id, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long bookId) {
+        if (!fits(bookId)) {
+            return;
+        }
+        int id = bookId.intValue();
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void patch(BookEvent event) {
+        if (!fits(event.getId()) || event.getChangedFields() == null) {
+            return;
+        }
+        int id = event.getId().intValue();
+        lock.writeLock().lock();
+        try {
+            Entry current = entries.get(id);
+            if (current == null) {
+                return;
+            }
+            Entry patched = new Entry(
+                    event.getChangedFields().contains(BookEventField.AUTHOR_NAME) ? event.getAuthorName() : current.author(),
+                    event.getChangedFields().contains(BookEventField.GENRE_NAME) ? event.getGenreName() : current.genre(),
+                    event.getChangedFields().contains(BookEventField.PRICE) ? event.getPrice() : current.price());
+            unindex(id, current);
+            entries.put(id, patched);
+            index(id, patched);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean fits(Long id) {
+        if (id >= 0 && id <= Integer.MAX_VALUE) {
+            return true;
+        }
+        if (!overflowed) {
+            overflowed = true;
+            log.warn("Book id={} does not fit the search filter index; filter queries go to Elasticsearch", id);
+        }
+        return false;
+    }
+
+    private void index(int id, Entry entry) {
+        all.add(id);
+        if (entry.author() != null) {
+            byAuthor.computeIfAbsent(entry.author(), a -> new RoaringBitmap()).add(id);
+        }
+        if (entry.genre() != null) {
+            byGenre.computeIfAbsent(entry.genre(), g -> new RoaringBitmap()).add(id);
+        }
+        if (entry.price() != null) {
+            byPriceBand.computeIfAbsent(band(entry.price()), b -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private void unindex(int id, Entry entry) {
+        all.remove(id);
+        removeFrom(byAuthor, entry.author(), id);
+        removeFrom(byGenre, entry.genre(), id);
+        if (entry.price() != null) {
+            removeFrom(byPriceBand, band(entry.price()), id);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+        if (key == null) {
+            return;
+        }
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Band numbers outside the long range are clamped to its ends. Clamped bands are always edge
+     * bands of a range, so their members are still checked by exact price.
+     */
+    private long band(BigDecimal price) {
+        BigDecimal band = price.divide(bandWidth, 0, RoundingMode.FLOOR);
+        if (band.compareTo(MAX_BAND) > 0) {
+            return Long.MAX_VALUE;
+        }
+        if (band.compareTo(MIN_BAND) < 0) {
+            return Long.MIN_VALUE;
+        }
+        return band.longValue();
+    }
+
+    /**
+     * Bands strictly inside the range are taken whole; the two edge bands are filtered by price.
+     * An inverted range ({@code min > max}) matches nothing.
+     */
+    private RoaringBitmap priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            return new RoaringBitmap();
+        }
+        Long minBand = minPrice != null ? band(minPrice) : null;
+        Long maxBand = maxPrice != null ? band(maxPrice) : null;
+        NavigableMap<Long, RoaringBitmap> bands = byPriceBand;
+        if (minBand != null) {
+            bands = bands.tailMap(minBand, true);
+        }
+        if (maxBand != null) {
+            bands = bands.headMap(maxBand, true);
+        }
+        RoaringBitmap result = new RoaringBitmap();
+        for (Map.Entry<Long, RoaringBitmap> band : bands.entrySet()) {
+            boolean edge = band.getKey().equals(minBand) || band.getKey().equals(maxBand);
+            if (!edge) {
+                result.or(band.getValue());
+                continue;
+            }
+            IntIterator ids = band.getValue().getIntIterator();
+            while (ids.hasNext()) {
+                int id = ids.next();
+                BigDecimal price = entries.get(id).price();
+                if ((minPrice == null || price.compareTo(minPrice) >= 0)
+                        && (maxPrice == null || price.compareTo(maxPrice) <= 0)) {
+                    result.add(id);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<Long> pageById(RoaringBitmap matches, Pageable pageable, boolean ascending) {
+        long total = matches.getLongCardinality();
+        List<Long> ids = new ArrayList<>(pageable.getPageSize());
+        for (long rank = pageable.getOffset(); rank < total && ids.size() < pageable.getPageSize(); rank++) {
+            int position = (int) (ascending ? rank : total - 1 - rank);
+            ids.add(Integer.toUnsignedLong(matches.select(position)));
+        }
+        return ids;
+    }
+
+    /**
+     * Walks the price bands in order, sorting only the members of the bands the page touches.
+     * Books without a price come last, like the ES sort.
+     */
+    private List<Long> pageByPrice(RoaringBitmap matches, Pageable pageable, boolean ascending) {
+        long skip = pageable.getOffset();
+        List<Long> ids = new ArrayList<>(pageable.getPageSize());
+        RoaringBitmap priced = new RoaringBitmap();
+        Iterable<RoaringBitmap> bands = ascending ? byPriceBand.values() : byPriceBand.descendingMap().values();
+        Comparator<Integer> byPrice = Comparator.comparing((Integer id) -> entries.get(id).price());
+        if (!ascending) {
+            byPrice = byPrice.reversed();
+        }
+        byPrice = byPrice.thenComparing(Comparator.naturalOrder());
+
+        for (RoaringBitmap band : bands) {
+            RoaringBitmap members = RoaringBitmap.and(band, matches);
+            priced.or(members);
+            int count = members.getCardinality();
+            if (skip >= count) {
+                skip -= count;
+                continue;
+            }
+            List<Integer> sorted = new ArrayList<>(count);
+            members.forEach((int id) -> sorted.add(id));
+            sorted.sort(byPrice);
+            for (int i = (int) skip; i < sorted.size() && ids.size() < pageable.getPageSize(); i++) {
+                ids.add(sorted.get(i).longValue());
+            }
+            skip = 0;
+            if (ids.size() == pageable.getPageSize()) {
+                return ids;
+            }
+        }
+        RoaringBitmap unpriced = RoaringBitmap.andNot(matches, priced);
+        IntIterator rest = unpriced.getIntIterator();
+        while (rest.hasNext() && ids.size() < pageable.getPageSize()) {
+            int id = rest.next();
+            if (skip > 0) {
+                skip--;
+            } else {
+                ids.add((long) id);
+            }
+        }
+        return ids;
+    }
+
+    private static Sort.Order singleOrder(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1) {
+            return null;
+        }
+        String property = orders.get(0).getProperty();
+        return property.equalsIgnoreCase("price") || property.equalsIgnoreCase("id") ? orders.get(0) : null;
+    }
+
+    private record Entry(String author, String genre, BigDecimal price) {
+    }
+}
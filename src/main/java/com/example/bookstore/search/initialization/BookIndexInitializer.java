@@ -0,0 +1,86 @@
+package com.example.bookstore.search.initialization;
+
+import com.example.bookstore.search.model.BookDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes sure the live {@code books} index has the mapping {@link BookDocument} declares before it is
+ * used. Elasticsearch cannot add analyzers or subfields to existing fields' data, so with
+ * {@code app.search.recreate-index-on-start=true} the index is dropped and created from the current
+ * mapping (the caller then reindexes it). Otherwise startup fails when a required subfield is
+ * missing, instead of serving empty typeahead results.
+ */
+@Component
+public class BookIndexInitializer {
+    private static final Logger log = LoggerFactory.getLogger(BookIndexInitializer.class);
+
+    static final List<String> REQUIRED_SUBFIELDS = List.of("title.prefix", "authorName.prefix");
+
+    private final ElasticsearchOperations operations;
+
+    @Value("${app.search.recreate-index-on-start:false}")
+    private boolean recreateIndexOnStart;
+
+    @Value("${app.search.engine:elasticsearch}")
+    private String searchEngine = "elasticsearch";
+
+    public BookIndexInitializer(ElasticsearchOperations operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * @return {@code true} if the index was recreated empty and has to be reindexed
+     */
+    public boolean prepare() {
+        if (!"elasticsearch".equalsIgnoreCase(searchEngine)) {
+            return false;
+        }
+        IndexOperations index = operations.indexOps(BookDocument.class);
+        if (recreateIndexOnStart) {
+            if (index.exists()) {
+                index.delete();
+            }
+            index.createWithMapping();
+            log.warn("Recreated index {} from the BookDocument mapping; it is empty until reindexed. "
+                    + "Turn app.search.recreate-index-on-start off again afterwards.", index.getIndexCoordinates().getIndexName());
+            return true;
+        }
+
+        Map<String, Object> mapping;
+        try {
+            mapping = index.getMapping();
+        } catch (Exception e) {
+            log.error("Could not read the mapping of the books index; skipping the mapping check", e);
+            return false;
+        }
+        List<String> missing = missingSubfields(mapping);
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("The books index mapping lacks " + missing
+                    + "; start once with app.search.recreate-index-on-start=true to recreate and reindex it");
+        }
+        return false;
+    }
+
+    static List<String> missingSubfields(Map<String, Object> mapping) {
+        Object properties = mapping != null ? mapping.get("properties") : null;
+        List<String> missing = new ArrayList<>();
+        for (String path : REQUIRED_SUBFIELDS) {
+            String[] parts = path.split("\\.", 2);
+            Object field = properties instanceof Map<?, ?> props ? props.get(parts[0]) : null;
+            Object fields = field instanceof Map<?, ?> f ? f.get("fields") : null;
+            if (!(fields instanceof Map<?, ?> subfields) || !subfields.containsKey(parts[1])) {
+                missing.add(path);
+            }
+        }
+        return missing;
+    }
+}
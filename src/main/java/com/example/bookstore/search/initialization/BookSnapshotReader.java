@@ -0,0 +1,129 @@
+package com.example.bookstore.search.initialization;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.mapper.BookEventMapper;
+import com.example.bookstore.search.model.BookDocument;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Replays the compacted {@code book.snapshots} topic from the beginning up to the end offsets
+ * observed at start. Partitions are assigned directly (no group membership, no offset commits),
+ * so a replay never disturbs the live {@code book.events} consumers. A replay that has not reached
+ * those offsets within {@code app.search.reindex.snapshot.max-duration-ms} (broker gone, partition
+ * without a leader) fails instead of blocking startup forever.
+ */
+@Component
+public class BookSnapshotReader {
+    private static final Logger log = LoggerFactory.getLogger(BookSnapshotReader.class);
+
+    private final ConsumerFactory<String, BookEvent> consumerFactory;
+
+    @Value("${app.kafka.topics.book.snapshots:book.snapshots}")
+    private String topic;
+
+    @Value("${app.search.reindex.snapshot.poll-timeout-ms:1000}")
+    private long pollTimeoutMs;
+
+    @Value("${app.search.reindex.snapshot.fetch-min-bytes:1048576}")
+    private int fetchMinBytes;
+
+    @Value("${app.search.reindex.snapshot.max-duration-ms:600000}")
+    private long maxDurationMs = 600000;
+
+    public BookSnapshotReader(ConsumerFactory<String, BookEvent> consumerFactory) {
+        this.consumerFactory = consumerFactory;
+    }
+
+    @FunctionalInterface
+    public interface BatchHandler {
+        void accept(List<BookDocument> upserts, List<Long> deletes);
+    }
+
+    /**
+     * @return number of snapshot records read
+     */
+    public long readAll(int batchSize, BatchHandler handler) {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+        overrides.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+
+        long read = 0;
+        try (Consumer<String, BookEvent> consumer =
+                     consumerFactory.createConsumer(null, "snapshot-reader", null, overrides)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                    .map(info -> new TopicPartition(topic, info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            long deadline = System.currentTimeMillis() + maxDurationMs;
+            Set<TopicPartition> remaining = new HashSet<>(partitions);
+            remaining.removeIf(tp -> consumer.position(tp) >= endOffsets.get(tp));
+            while (!remaining.isEmpty()) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("Snapshot replay of " + topic + " did not reach the end offsets within "
+                            + maxDurationMs + " ms after " + read + " records; still behind on " + remaining);
+                }
+                ConsumerRecords<String, BookEvent> records = consumer.poll(Duration.ofMillis(pollTimeoutMs));
+                if (!records.isEmpty()) {
+                    read += records.count();
+                    dispatch(records, handler);
+                }
+                remaining.removeIf(tp -> consumer.position(tp) >= endOffsets.get(tp));
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Compaction is lazy, so one batch can hold several records per id; only the last one counts.
+     */
+    private static void dispatch(ConsumerRecords<String, BookEvent> records, BatchHandler handler) {
+        Map<Long, BookDocument> upserts = new LinkedHashMap<>();
+        Set<Long> deletes = new LinkedHashSet<>();
+        for (ConsumerRecord<String, BookEvent> record : records) {
+            Long id = parseId(record.key());
+            if (id == null) {
+                log.warn("Skipping snapshot record with invalid key={} offset={}", record.key(), record.offset());
+                continue;
+            }
+            if (record.value() == null) {
+                upserts.remove(id);
+                deletes.add(id);
+            } else {
+                deletes.remove(id);
+                upserts.put(id, BookEventMapper.toDocument(record.value()));
+            }
+        }
+        handler.accept(new ArrayList<>(upserts.values()), new ArrayList<>(deletes));
+    }
+
+    private static Long parseId(String key) {
+        try {
+            return key == null ? null : Long.valueOf(key);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -2,7 +2,12 @@ package com.example.bookstore.search.initialization;
 
 
 
+import com.example.bookstore.cache.BookCache;
 import com.example.bookstore.domain.BookIndexProjection;
+import com.example.bookstore.kafka.event.BookEventType;
+import com.example.bookstore.kafka.mapper.BookEventMapper;
+import com.example.bookstore.kafka.producer.BookEventPublisher;
+import com.example.bookstore.monitoring.jfr.ReindexBatchEvent;
 import com.example.bookstore.search.mapper.BookDocumentMapper;
 import com.example.bookstore.search.model.BookDocument;
 import com.example.bookstore.search.repository.BookSearchRepository;
@@ -24,6 +29,10 @@ public class SearchReindexer implements ApplicationRunner {
 
     private final BookService bookService;
     private final BookSearchRepository searchRepository;
+    private final BookSnapshotReader snapshotReader;
+    private final BookCache bookCache;
+    private final BookEventPublisher eventPublisher;
+    private final BookIndexInitializer indexInitializer;
 
     @Value("${app.search.reindex-on-start:false}")
     private boolean reindexOnStart;
@@ -34,20 +43,115 @@ public class SearchReindexer implements ApplicationRunner {
     @Value("${app.search.reindex.fail-on-error:false}")
     private boolean failOnError;
 
-    public SearchReindexer(BookService bookService, BookSearchRepository searchRepository) {
+    /** database | snapshot-topic */
+    @Value("${app.search.reindex.source:database}")
+    private String source;
+
+    /** index | cache | snapshot-topic (seed book.snapshots from the database) */
+    @Value("${app.search.reindex.target:index}")
+    private String target;
+
+    public SearchReindexer(BookService bookService,
+                           BookSearchRepository searchRepository,
+                           BookSnapshotReader snapshotReader,
+                           BookCache bookCache,
+                           BookEventPublisher eventPublisher,
+                           BookIndexInitializer indexInitializer) {
         this.bookService = bookService;
         this.searchRepository = searchRepository;
+        this.snapshotReader = snapshotReader;
+        this.bookCache = bookCache;
+        this.eventPublisher = eventPublisher;
+        this.indexInitializer = indexInitializer;
     }
 
     @Override
     public void run(ApplicationArguments args) {
+        boolean recreated = indexInitializer.prepare();
         log.info("Starting Books → Elasticsearch reindex (batchSize={})", batchSize);
-        if (!reindexOnStart) {
+        if (!reindexOnStart && !recreated) {
             log.info("Search reindex on start is disabled. Skipping.");
             return;
         }
+        if (recreated && !"index".equalsIgnoreCase(target)) {
+            throw new IllegalStateException("app.search.recreate-index-on-start leaves an empty index to rebuild; "
+                    + "it requires app.search.reindex.target=index");
+        }
+
+        boolean fromSnapshots = "snapshot-topic".equalsIgnoreCase(source);
+        if (fromSnapshots && "snapshot-topic".equalsIgnoreCase(target)) {
+            throw new IllegalStateException("app.search.reindex.source and target cannot both be snapshot-topic");
+        }
+        if (fromSnapshots) {
+            loadFromSnapshotTopic();
+        } else {
+            loadToElasicSearch();
+        }
+    }
+
+    private void loadFromSnapshotTopic() {
+        long start = System.currentTimeMillis();
+        long[] applied = new long[2];
+        try {
+            long read = snapshotReader.readAll(batchSize, (upserts, deletes) -> {
+                ReindexBatchEvent event = new ReindexBatchEvent();
+                event.begin();
+                write(upserts, deletes);
+                applied[0] += upserts.size() + deletes.size();
+                completed(event, "snapshot-topic", applied[1]++, upserts, deletes, applied[0]);
+                log.info("Applied snapshot batch upserts={} deletes={} (total={})", upserts.size(), deletes.size(), applied[0]);
+            });
+            if (read == 0) {
+                // An empty topic would silently leave the target empty; it has never been seeded.
+                throw new IllegalStateException("Snapshot topic is empty; seed it once with "
+                        + "app.search.reindex.source=database and app.search.reindex.target=snapshot-topic");
+            }
+            long took = System.currentTimeMillis() - start;
+            log.info("Snapshot topic replay into {} complete. {} records, {} applied in {} ms", target, read, applied[0], took);
+        } catch (Exception e) {
+            log.error("Snapshot topic replay into {} failed after {} records", target, applied[0], e);
+            if (failOnError) {
+                throw e instanceof RuntimeException re ? re : new RuntimeException(e);
+            }
+        }
+    }
+
+    private void write(List<BookDocument> upserts, List<Long> deletes) {
+        if ("snapshot-topic".equalsIgnoreCase(target)) {
+            upserts.forEach(doc -> eventPublisher.publishSnapshot(
+                    BookEventMapper.toBookEvent(BookEventType.UPDATE.getCode(), doc)));
+            deletes.forEach(eventPublisher::publishTombstone);
+            return;
+        }
+        if ("cache".equalsIgnoreCase(target)) {
+            bookCache.putAll(upserts);
+            deletes.forEach(bookCache::evict);
+            return;
+        }
+        if (!upserts.isEmpty()) {
+            searchRepository.saveAll(upserts);
+        }
+        if (!deletes.isEmpty()) {
+            searchRepository.deleteAllById(deletes);
+        }
+    }
 
-        loadToElasicSearch();
+    private void completed(ReindexBatchEvent event, String batchSource, long batch,
+                           List<BookDocument> upserts, List<Long> deletes, long total) {
+        Long firstId = null;
+        Long lastId = null;
+        if (!upserts.isEmpty()) {
+            firstId = upserts.get(0).getId();
+            lastId = upserts.get(upserts.size() - 1).getId();
+        } else if (!deletes.isEmpty()) {
+            firstId = deletes.get(0);
+            lastId = deletes.get(deletes.size() - 1);
+        }
+        event.complete(batchSource, target, batch, upserts.size(), deletes.size(), idOrNone(firstId), idOrNone(lastId), total);
+    }
+
+    private static long idOrNone(Long id) {
+        return id != null ? id : -1;
     }
 
     private void loadToElasicSearch() {
@@ -56,13 +160,16 @@ public class SearchReindexer implements ApplicationRunner {
         long totalIndexed = 0;
         try {
             while (true) {
+                ReindexBatchEvent event = new ReindexBatchEvent();
+                event.begin();
                 Page<BookIndexProjection> slice = bookService.findBooksForIndexing(PageRequest.of(page, batchSize));
                 if (!slice.isEmpty()) {
                     List<BookDocument> docs = slice.getContent().stream().map(BookDocumentMapper::toDocument).toList();
 
-                    searchRepository.saveAll(docs);
+                    write(docs, List.of());
 
                     totalIndexed += docs.size();
+                    completed(event, "database", page, docs, List.of(), totalIndexed);
                     log.info("Indexed batch page={} size={} (total={})", page, docs.size(), totalIndexed);
 
                 }
@@ -71,8 +178,11 @@ public class SearchReindexer implements ApplicationRunner {
                 }
                 page++;
             }
+            if ("snapshot-topic".equalsIgnoreCase(target)) {
+                eventPublisher.flush();
+            }
             long took = System.currentTimeMillis() - start;
-            log.info("ElasticSearch Reindex complete. {} docs in {} ms", totalIndexed, took);
+            log.info("Database reindex into {} complete. {} docs in {} ms", target, totalIndexed, took);
         } catch (Exception e) {
             log.error("ElasticSearch Reindex failed after {} docs", totalIndexed, e);
             if (failOnError) {
@@ -9,10 +9,14 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
 
 import java.math.BigDecimal;
 
 @Document(indexName = "books")
+@Setting(settingPath = "elasticsearch/books-settings.json")
 @Data
 @JsonIgnoreProperties(ignoreUnknown = true)
 @Builder
@@ -21,9 +25,17 @@ import java.math.BigDecimal;
 public class BookDocument {
     @Id
     private Long id;
-    @Field(type = FieldType.Text)
+    @MultiField(
+            mainField = @Field(type = FieldType.Text),
+            otherFields = @InnerField(suffix = "prefix", type = FieldType.Text,
+                    analyzer = "prefix_index", searchAnalyzer = "prefix_search")
+    )
     private String title;
-    @Field(type = FieldType.Keyword)
+    @MultiField(
+            mainField = @Field(type = FieldType.Keyword),
+            otherFields = @InnerField(suffix = "prefix", type = FieldType.Text,
+                    analyzer = "prefix_index", searchAnalyzer = "prefix_search")
+    )
     private String authorName;
     @Field(type = FieldType.Keyword)
     private String genreName;
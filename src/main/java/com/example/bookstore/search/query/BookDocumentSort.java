@@ -0,0 +1,93 @@
+package com.example.bookstore.search.query;
+
+import com.example.bookstore.search.model.BookDocument;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Orders a hydrated page of documents by the request's {@link Sort}. Documents come back from the
+ * cache and the database in no particular order, so the page is sorted in memory after loading.
+ * Unknown properties are ignored, and ties are broken by id.
+ */
+public final class BookDocumentSort {
+
+    private static final String TITLE = "title";
+    private static final String AUTHOR = "authorName";
+    private static final String GENRE = "genreName";
+    private static final String PRICE = "price";
+    private static final String ID = "id";
+
+    private BookDocumentSort() {
+    }
+
+    /** {@code documents} in {@code sort} order, as a copy; the list itself when there is nothing to do. */
+    public static List<BookDocument> sort(List<BookDocument> documents, Sort sort) {
+        if (documents == null || documents.size() <= 1 || sort == null || sort.isUnsorted()) {
+            return documents;
+        }
+
+        Comparator<BookDocument> comparator = comparator(sort);
+        if (comparator == null) {
+            return documents;
+        }
+
+        List<BookDocument> copy = new ArrayList<>(documents);
+        copy.sort(Comparator.nullsLast(comparator));
+        return copy;
+    }
+
+    static Comparator<BookDocument> comparator(Sort sort) {
+        Comparator<BookDocument> comparator = null;
+
+        for (Sort.Order order : sort) {
+            String property = order.getProperty().toLowerCase(Locale.ROOT);
+            boolean ascending = order.isAscending();
+
+            Comparator<BookDocument> next = switch (property) {
+                case PRICE -> Comparator.comparing(
+                        BookDocument::getPrice,
+                        Comparator.nullsLast(BigDecimal::compareTo)
+                );
+                case TITLE -> Comparator.comparing(
+                        b -> safeLower(b.getTitle()),
+                        Comparator.nullsLast(String::compareTo)
+                );
+                case AUTHOR -> Comparator.comparing(
+                        b -> safeLower(b.getAuthorName()),
+                        Comparator.nullsLast(String::compareTo)
+                );
+                case GENRE -> Comparator.comparing(
+                        b -> safeLower(b.getGenreName()),
+                        Comparator.nullsLast(String::compareTo)
+                );
+                case ID -> Comparator.comparing(
+                        BookDocument::getId,
+                        Comparator.nullsLast(Long::compareTo)
+                );
+                default -> null;
+            };
+
+            if (next == null)
+                continue;
+            if (!ascending)
+                next = next.reversed();
+            comparator = (comparator == null) ? next : comparator.thenComparing(next);
+        }
+
+        if (comparator != null) {
+            comparator = comparator.thenComparing(
+                    Comparator.comparing(BookDocument::getId, Comparator.nullsLast(Long::compareTo))
+            );
+        }
+        return comparator;
+    }
+
+    private static String safeLower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
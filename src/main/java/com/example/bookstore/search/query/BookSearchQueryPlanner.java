@@ -0,0 +1,82 @@
+package com.example.bookstore.search.query;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.json.JsonData;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Builds the Elasticsearch query for the public search API.
+ * <p>
+ * Only free text and the {@code title} filter are scored. {@code q} becomes one
+ * {@code multi_match} over title, author and genre with field boosts, and {@code title} a
+ * {@code match}. Author and genre are exact {@code term} filters on their keyword fields, and
+ * the price bounds a {@code range} filter. Filter clauses skip scoring and are cached by the
+ * node query cache. A query without any scored clause is wrapped in {@code constant_score}. A request without any
+ * parameter reuses one {@code match_all} query.
+ */
+public final class BookSearchQueryPlanner {
+
+    static final String TITLE = "title";
+    static final String AUTHOR = "authorName";
+    static final String GENRE = "genreName";
+    static final String PRICE = "price";
+
+    static final List<String> FREE_TEXT_FIELDS = List.of(TITLE + "^3", AUTHOR + "^2", GENRE);
+
+    private static final Query MATCH_ALL = Query.of(b -> b.matchAll(m -> m));
+
+    private BookSearchQueryPlanner() {
+    }
+
+    public static Query plan(String q,
+                             String title,
+                             String author,
+                             String genre,
+                             BigDecimal minPrice,
+                             BigDecimal maxPrice) {
+        boolean freeText = StringUtils.hasText(q);
+        boolean titleMatch = StringUtils.hasText(title);
+        boolean authorTerm = StringUtils.hasText(author);
+        boolean genreTerm = StringUtils.hasText(genre);
+        boolean priceRange = minPrice != null || maxPrice != null;
+        if (!freeText && !titleMatch && !authorTerm && !genreTerm && !priceRange) {
+            return MATCH_ALL;
+        }
+
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        if (freeText) {
+            bool.must(m -> m.multiMatch(mm -> mm.query(q)
+                    .fields(FREE_TEXT_FIELDS)
+                    .type(TextQueryType.BestFields)));
+        }
+        if (titleMatch) {
+            bool.must(m -> m.match(mt -> mt.field(TITLE).query(title)));
+        }
+        if (authorTerm) {
+            bool.filter(f -> f.term(t -> t.field(AUTHOR).value(FieldValue.of(author))));
+        }
+        if (genreTerm) {
+            bool.filter(f -> f.term(t -> t.field(GENRE).value(FieldValue.of(genre))));
+        }
+        if (priceRange) {
+            bool.filter(f -> f.range(r -> {
+                r.field(PRICE);
+                if (minPrice != null) {
+                    r.gte(JsonData.of(minPrice));
+                }
+                if (maxPrice != null) {
+                    r.lte(JsonData.of(maxPrice));
+                }
+                return r;
+            }));
+        }
+        Query query = Query.of(b -> b.bool(bool.build()));
+        return freeText || titleMatch ? query : Query.of(b -> b.constantScore(c -> c.filter(query)));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bookstore.search.query;
+
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Search parameters normalized only as far as the query semantics allow, for use as a cache key.
+ * Blank values become absent and prices compare numerically. {@code title} is matched only against
+ * the analyzed {@code title} field, so it is lower-cased and its whitespace collapsed. {@code q},
+ * {@code author} and {@code genre} also hit keyword fields, which match exactly, so they are kept
+ * verbatim.
+ */
+public record SearchFilterKey(String q,
+                              String title,
+                              String author,
+                              String genre,
+                              BigDecimal minPrice,
+                              BigDecimal maxPrice) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public static SearchFilterKey of(String q,
+                                     String title,
+                                     String author,
+                                     String genre,
+                                     BigDecimal minPrice,
+                                     BigDecimal maxPrice) {
+        return new SearchFilterKey(
+                StringUtils.hasText(q) ? q : null,
+                StringUtils.hasText(title) ? WHITESPACE.matcher(title.trim()).replaceAll(" ").toLowerCase(Locale.ROOT) : null,
+                StringUtils.hasText(author) ? author : null,
+                StringUtils.hasText(genre) ? genre : null,
+                minPrice == null ? null : minPrice.stripTrailingZeros(),
+                maxPrice == null ? null : maxPrice.stripTrailingZeros());
+    }
+
+    public boolean hasFreeText() {
+        return q != null || title != null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.bookstore.search.query;
+
+import co.elastic.clients.elasticsearch.core.search.TrackHits;
+
+import java.util.Locale;
+
+/**
+ * How precisely a search counts its matches: {@code exact}, capped at {@code N} (the total is a
+ * lower bound once the cap is reached), or {@code none} (only whether a next page exists).
+ * Bound from the {@code totalHits} request parameter through {@link #valueOf(String)}.
+ */
+public record TotalHitsPolicy(Mode mode, int cap) {
+
+    public enum Mode {
+        EXACT, CAPPED, NONE
+    }
+
+    public static final TotalHitsPolicy EXACT = new TotalHitsPolicy(Mode.EXACT, 0);
+    public static final TotalHitsPolicy NONE = new TotalHitsPolicy(Mode.NONE, 0);
+
+    public TotalHitsPolicy {
+        if (mode == Mode.CAPPED && cap <= 0) {
+            throw new IllegalArgumentException("totalHits cap must be positive");
+        }
+    }
+
+    public static TotalHitsPolicy capped(int cap) {
+        return new TotalHitsPolicy(Mode.CAPPED, cap);
+    }
+
+    public static TotalHitsPolicy valueOf(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "exact", "true" -> EXACT;
+            case "none", "false" -> NONE;
+            default -> {
+                try {
+                    yield capped(Integer.parseInt(normalized));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("totalHits must be 'exact', 'none' or a positive number: " + value, e);
+                }
+            }
+        };
+    }
+
+    public TrackHits toTrackHits() {
+        return switch (mode) {
+            case EXACT -> TrackHits.of(t -> t.enabled(true));
+            case NONE -> TrackHits.of(t -> t.enabled(false));
+            case CAPPED -> TrackHits.of(t -> t.count(cap));
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.bookstore.search.repository;
+
+import java.util.Map;
+
+public interface BookSearchPartialUpdateRepository {
+
+    /**
+     * Merges {@code fields} into the stored document without re-sending the rest of it.
+     *
+     * @return {@code false} if there is no stored document to merge into
+     */
+    boolean partialUpdate(Long id, Map<String, Object> fields);
+}
@@ -0,0 +1,41 @@
+package com.example.bookstore.search.repository;
+
+import com.example.bookstore.search.model.BookDocument;
+import org.springframework.data.elasticsearch.ResourceNotFoundException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BookSearchPartialUpdateRepositoryImpl implements BookSearchPartialUpdateRepository {
+
+    private final ElasticsearchOperations operations;
+
+    public BookSearchPartialUpdateRepositoryImpl(ElasticsearchOperations operations) {
+        this.operations = operations;
+    }
+
+    @Override
+    public boolean partialUpdate(Long id, Map<String, Object> fields) {
+        if (id == null || fields == null || fields.isEmpty()) {
+            return true;
+        }
+        Map<String, Object> source = new LinkedHashMap<>(fields.size());
+        fields.forEach((name, value) ->
+                source.put(name, value instanceof BigDecimal price ? price.doubleValue() : value));
+
+        UpdateQuery query = UpdateQuery.builder(String.valueOf(id))
+                .withDocument(Document.from(source))
+                .build();
+        try {
+            operations.update(query, operations.getIndexCoordinatesFor(BookDocument.class));
+            return true;
+        } catch (ResourceNotFoundException e) {
+            // document_missing_exception: the document was never indexed or was lost.
+            return false;
+        }
+    }
+}
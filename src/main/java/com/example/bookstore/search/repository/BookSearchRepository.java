@@ -5,6 +5,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
-public interface BookSearchRepository extends ElasticsearchRepository<BookDocument, Long> {
+public interface BookSearchRepository extends ElasticsearchRepository<BookDocument, Long>,
+        BookSearchPartialUpdateRepository {
     Page<BookDocument> findAll(Pageable pageable);
 }
@@ -2,8 +2,11 @@ package com.example.bookstore.search.service;
 
 
 import com.example.bookstore.search.dto.BookSearchItem;
+import com.example.bookstore.search.query.TotalHitsPolicy;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
 
 import java.math.BigDecimal;
 
@@ -17,4 +20,64 @@ public interface BookSearchCustomService {
                                      BigDecimal maxPrice,
                                      Pageable pageable);
 
-}
\ No newline at end of file
+    /**
+     * @param totalHits how precisely to count matches, or {@code null} for the engine default;
+     *                  engines that count cheaply may always count exactly
+     */
+    default Page<BookSearchItem> searchBooks(String q,
+                                             String title,
+                                             String author,
+                                             String genre,
+                                             BigDecimal minPrice,
+                                             BigDecimal maxPrice,
+                                             Pageable pageable,
+                                             TotalHitsPolicy totalHits) {
+        return searchBooks(q, title, author, genre, minPrice, maxPrice, pageable);
+    }
+
+    /**
+     * @param facets also compute genre, author and price facets of all matches (returned on a
+     *               {@link com.example.bookstore.search.dto.BookSearchPage}); engines without
+     *               facet support ignore it
+     */
+    default Page<BookSearchItem> searchBooks(String q,
+                                             String title,
+                                             String author,
+                                             String genre,
+                                             BigDecimal minPrice,
+                                             BigDecimal maxPrice,
+                                             Pageable pageable,
+                                             TotalHitsPolicy totalHits,
+                                             boolean facets) {
+        return searchBooks(q, title, author, genre, minPrice, maxPrice, pageable, totalHits);
+    }
+
+    /**
+     * Exact number of books matching the filters.
+     */
+    default long countBooks(String q,
+                            String title,
+                            String author,
+                            String genre,
+                            BigDecimal minPrice,
+                            BigDecimal maxPrice) {
+        return searchBooks(q, title, author, genre, minPrice, maxPrice, PageRequest.of(0, 1), TotalHitsPolicy.EXACT)
+                .getTotalElements();
+    }
+
+    /**
+     * The items of one page, emitted as they become available, without totals or facets. The
+     * default defers to the blocking search on the subscribing thread, which suits engines that
+     * answer from memory; engines that do I/O override it with a non-blocking pipeline.
+     */
+    default Flux<BookSearchItem> streamBooks(String q,
+                                             String title,
+                                             String author,
+                                             String genre,
+                                             BigDecimal minPrice,
+                                             BigDecimal maxPrice,
+                                             Pageable pageable) {
+        return Flux.defer(() -> Flux.fromIterable(
+                searchBooks(q, title, author, genre, minPrice, maxPrice, pageable, TotalHitsPolicy.NONE).getContent()));
+    }
+}
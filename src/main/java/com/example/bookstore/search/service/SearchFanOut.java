@@ -0,0 +1,90 @@
+package com.example.bookstore.search.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent blocking parts of one search (e.g. facet aggregation next to the id page)
+ * concurrently. With {@code spring.threads.virtual.enabled} every forked task gets its own virtual
+ * thread, which costs next to nothing while it waits on I/O; on platform threads the tasks run
+ * inline on the request thread, as they always have, rather than competing for a shared pool.
+ */
+@Component
+public class SearchFanOut {
+
+    private final ExecutorService executor;
+
+    @Autowired
+    public SearchFanOut(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this(virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("search-fan-out-", 0).factory())
+                : null);
+    }
+
+    private SearchFanOut(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Runs every task on the calling thread.
+     */
+    public static SearchFanOut inline() {
+        return new SearchFanOut((ExecutorService) null);
+    }
+
+    public <T> Fork<T> fork(Supplier<T> task) {
+        if (executor == null) {
+            return Fork.completed(task.get());
+        }
+        return new Fork<>(CompletableFuture.supplyAsync(task, executor));
+    }
+
+    public boolean isConcurrent() {
+        return executor != null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Result of a forked task; {@link #join()} rethrows what the task threw.
+     */
+    public static final class Fork<T> {
+
+        private final CompletableFuture<T> future;
+
+        private Fork(CompletableFuture<T> future) {
+            this.future = future;
+        }
+
+        static <T> Fork<T> completed(T value) {
+            return new Fork<>(CompletableFuture.completedFuture(value));
+        }
+
+        public T join() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+    }
+}
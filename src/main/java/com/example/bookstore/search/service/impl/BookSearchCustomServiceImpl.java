@@ -1,53 +1,118 @@
 package com.example.bookstore.search.service.impl;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
-import co.elastic.clients.elasticsearch._types.query_dsl.MatchQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
-import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
-import co.elastic.clients.json.JsonData;
+import co.elastic.clients.elasticsearch.core.search.TotalHits;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
+import com.example.bookstore.cache.impl.ReactiveBookCache;
+import com.example.bookstore.exception.SearchUnavailableException;
+import com.example.bookstore.monitoring.RequestTimings;
+import com.example.bookstore.search.cache.SearchCoalescer;
+import com.example.bookstore.search.cache.SearchCountCache;
+import com.example.bookstore.search.cache.SearchFacetCache;
+import com.example.bookstore.search.cache.SearchResultCache;
+import com.example.bookstore.search.catalog.BookCatalog;
+import com.example.bookstore.search.dto.BookFacets;
 import com.example.bookstore.search.dto.BookSearchItem;
+import com.example.bookstore.search.dto.BookSearchPage;
+import com.example.bookstore.search.facet.BookFacetAggregations;
+import com.example.bookstore.search.fallback.BookFullTextFallback;
+import com.example.bookstore.search.fallback.SearchCircuitBreaker;
+import com.example.bookstore.search.filter.BookFilterIndex;
 import com.example.bookstore.search.mapper.BookDocumentMapper;
 import com.example.bookstore.search.model.BookDocument;
+import com.example.bookstore.search.query.BookDocumentSort;
+import com.example.bookstore.search.query.BookSearchQueryPlanner;
+import com.example.bookstore.search.query.SearchFilterKey;
+import com.example.bookstore.search.query.TotalHitsPolicy;
 import com.example.bookstore.search.service.BookSearchCustomService;
+import com.example.bookstore.search.service.SearchFanOut;
 import com.example.bookstore.service.BookService;
 import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "elasticsearch", matchIfMissing = true)
 public class BookSearchCustomServiceImpl implements BookSearchCustomService {
 
     private static final String INDEX_NAME = "books";
-    private static final String TITLE = "title";
-    private static final String AUTHOR = "authorName";
-    private static final String GERNE = "genreName";
-    private static final String PRICE = "price";
     private static final String ID = "id";
 
     private final ElasticsearchClient elasticsearchClient;
     private final BookService bookService;
+    private final SearchCircuitBreaker circuitBreaker;
+    private final BookFullTextFallback fallback;
+    private final BookFilterIndex filterIndex;
+    private final BookCatalog catalog;
+    private final SearchCountCache countCache;
+    private final SearchResultCache resultCache;
+    private final SearchCoalescer coalescer;
+    private final SearchFacetCache facetCache;
+    private final BookFacetAggregations facetAggregations;
+    private final SearchFanOut fanOut;
+    private final ElasticsearchAsyncClient asyncClient;
+    private final ReactiveBookCache reactiveBookCache;
+
+    @Value("${app.search.total-hits.default:10000}")
+    private TotalHitsPolicy defaultTotalHits = TotalHitsPolicy.capped(10_000);
 
 
     public BookSearchCustomServiceImpl(ElasticsearchClient elasticsearchClient,
-                                       BookService bookService) {
+                                       BookService bookService,
+                                       SearchCircuitBreaker circuitBreaker,
+                                       BookFullTextFallback fallback,
+                                       BookFilterIndex filterIndex,
+                                       BookCatalog catalog,
+                                       SearchCountCache countCache,
+                                       SearchResultCache resultCache,
+                                       SearchCoalescer coalescer,
+                                       SearchFacetCache facetCache,
+                                       BookFacetAggregations facetAggregations,
+                                       SearchFanOut fanOut,
+                                       ElasticsearchAsyncClient asyncClient,
+                                       ReactiveBookCache reactiveBookCache) {
         this.elasticsearchClient = elasticsearchClient;
         this.bookService = bookService;
+        this.circuitBreaker = circuitBreaker;
+        this.fallback = fallback;
+        this.filterIndex = filterIndex;
+        this.catalog = catalog;
+        this.countCache = countCache;
+        this.resultCache = resultCache;
+        this.coalescer = coalescer;
+        this.facetCache = facetCache;
+        this.facetAggregations = facetAggregations;
+        this.fanOut = fanOut;
+        this.asyncClient = asyncClient;
+        this.reactiveBookCache = reactiveBookCache;
 
     }
 
@@ -64,156 +129,387 @@ public class BookSearchCustomServiceImpl implements BookSearchCustomService {
                                             BigDecimal minPrice,
                                             BigDecimal maxPrice,
                                             Pageable pageable) {
+        return searchBooks(queryText, title, author, genre, minPrice, maxPrice, pageable, null, false);
+    }
+
+    @Override
+    @Timed(
+            value = "books.search.timer",
+            description = "Time to execute a book search",
+            extraTags = {"component", "booking-service"}
+    )
+    public Page<BookSearchItem> searchBooks(String queryText,
+                                            String title,
+                                            String author,
+                                            String genre,
+                                            BigDecimal minPrice,
+                                            BigDecimal maxPrice,
+                                            Pageable pageable,
+                                            TotalHitsPolicy totalHits) {
+        return searchBooks(queryText, title, author, genre, minPrice, maxPrice, pageable, totalHits, false);
+    }
+
+    /**
+     * Facets of free-text searches are aggregated in the same Elasticsearch request and cached with
+     * its id page. Filter-only searches are usually answered without Elasticsearch, so their facets
+     * come from {@link SearchFacetCache}, computed by one size-0 aggregation request on a miss that
+     * is forked through {@link SearchFanOut} to run next to the id page.
+     */
+    @Override
+    @Timed(
+            value = "books.search.timer",
+            description = "Time to execute a book search",
+            extraTags = {"component", "booking-service"}
+    )
+    public Page<BookSearchItem> searchBooks(String queryText,
+                                            String title,
+                                            String author,
+                                            String genre,
+                                            BigDecimal minPrice,
+                                            BigDecimal maxPrice,
+                                            Pageable pageable,
+                                            TotalHitsPolicy totalHits,
+                                            boolean facets) {
+        TotalHitsPolicy policy = totalHits != null ? totalHits : defaultTotalHits;
+        SearchFilterKey filter = SearchFilterKey.of(queryText, title, author, genre, minPrice, maxPrice);
+        SearchFanOut.Fork<BookFacets> filterFacets = facets && !filter.hasFreeText()
+                ? fanOut.fork(RequestTimings.bind(() -> RequestTimings.time(RequestTimings.FACETS,
+                        () -> facetCache.get(filter, this::loadFacets))))
+                : null;
+        if (!filter.hasFreeText()) {
+            Optional<Page<Long>> filtered = filterIndex.findIds(author, genre, minPrice, maxPrice, pageable);
+            if (filtered.isPresent()) {
+                return withFilterFacets(hydrateInOrder(filtered.get()), filterFacets);
+            }
+            Optional<Page<BookSearchItem>> listed = catalog.list(author, genre, minPrice, maxPrice, pageable);
+            if (listed.isPresent()) {
+                return withFilterFacets(withTotal(listed.get(), true), filterFacets);
+            }
+        }
+        SearchResultCache.Key key = SearchResultCache.Key.of(filter, pageable, policy, facets && filter.hasFreeText());
+        SearchResultCache.CachedIds ids = resultCache.get(key);
+        if (ids == null) {
+            try {
+                ids = coalescer.execute(key, () -> fetchIds(key, pageable, policy));
+            } catch (SearchUnavailableException ex) {
+                return withTotal(RequestTimings.time(RequestTimings.FALLBACK,
+                        () -> fallback.search(queryText, title, author, genre, minPrice, maxPrice, pageable)), false);
+            }
+        }
+
         try {
-            Query query = buildSearchQuery(queryText, title, author, genre, minPrice, maxPrice);
-            SearchResponse<BookDocument> response = executeSearch(query, pageable);
-            List<BookDocument> documents = hydrateDocuments(response);
-            long totalHits = response.hits().total() != null
-                    ? response.hits().total().value()
-                    : documents.size();
-
-            List<BookDocument> sorted = applySorting(documents, pageable.getSort());
-            List<BookSearchItem> result = sorted.stream()
-                    .map(BookDocumentMapper::toSearchItem)
-                    .toList();
+            List<BookDocument> documents = ids.ids().isEmpty() ? List.of() : bookService.getDocumentsByIds(ids.ids());
+            List<BookSearchItem> result = RequestTimings.time(RequestTimings.MAPPING,
+                    () -> BookDocumentSort.sort(documents, pageable.getSort()).stream()
+                            .map(BookDocumentMapper::toSearchItem)
+                            .toList());
 
-            return new PageImpl<>(result, pageable, totalHits);
+            return withFilterFacets(new BookSearchPage(result, pageable, ids.total(), ids.totalExact(), ids.facets()),
+                    filterFacets);
         } catch (Exception ex) {
             log.error("Search failed", ex);
-            return new PageImpl<>(List.of(), pageable, 0);
+            return new BookSearchPage(List.of(), pageable, 0, true);
         }
     }
 
-    private SearchResponse<BookDocument> executeSearch(Query query, Pageable pageable) throws Exception {
-        return elasticsearchClient.search(
-                s -> s.index(INDEX_NAME)
-                        .from(pageable.getPageNumber() * pageable.getPageSize())
-                        .size(pageable.getPageSize())
-                        .trackTotalHits(t -> t.enabled(true))
-                        .source(src -> src.filter(f -> f.includes(ID)))
-                        .query(query),
-                BookDocument.class
-        );
+    /**
+     * Exact count, cached briefly per normalized filter. Pure-filter counts are the cardinality of
+     * the filter index bitmaps, or come from the catalog snapshot when only that is loaded;
+     * everything else uses the Elasticsearch {@code _count} API.
+     */
+    @Override
+    @Timed(
+            value = "books.count.timer",
+            description = "Time to count matching books",
+            extraTags = {"component", "booking-service"}
+    )
+    public long countBooks(String queryText,
+                           String title,
+                           String author,
+                           String genre,
+                           BigDecimal minPrice,
+                           BigDecimal maxPrice) {
+        SearchFilterKey key = SearchFilterKey.of(queryText, title, author, genre, minPrice, maxPrice);
+        return countCache.get(key, this::count);
     }
 
-    private static String safeLower(String value) {
-        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    private long count(SearchFilterKey key) {
+        if (!key.hasFreeText()) {
+            OptionalLong indexed = filterIndex.count(key.author(), key.genre(), key.minPrice(), key.maxPrice());
+            if (indexed.isPresent()) {
+                return indexed.getAsLong();
+            }
+            Optional<Page<BookSearchItem>> listed = catalog.list(key.author(), key.genre(), key.minPrice(), key.maxPrice(),
+                    PageRequest.of(0, 1));
+            if (listed.isPresent()) {
+                return listed.get().getTotalElements();
+            }
+        }
+        if (!circuitBreaker.allowRequest()) {
+            throw unavailable(null);
+        }
+        try {
+            Query query = BookSearchQueryPlanner.plan(key.q(), key.title(), key.author(), key.genre(), key.minPrice(), key.maxPrice());
+            long count = elasticsearchClient.count(c -> c.index(INDEX_NAME).query(query)).count();
+            circuitBreaker.recordSuccess();
+            return count;
+        } catch (Exception ex) {
+            circuitBreaker.recordFailure();
+            log.error("Elasticsearch count failed", ex);
+            throw unavailable(ex);
+        }
     }
 
-    private List<BookDocument> hydrateDocuments(SearchResponse<BookDocument> response) {
-        List<Long> ids = response.hits().hits().stream()
-                .map(Hit::source)
-                .filter(Objects::nonNull)
-                .map(BookDocument::getId)
-                .filter(Objects::nonNull)
-                .toList();
-
-        return ids.isEmpty() ? List.of() : bookService.getDocumentsByIds(ids);
+    /**
+     * Same routing as {@link #searchBooks} without totals or facets, composed without blocking: the
+     * in-memory catalog and filter index answer directly, Elasticsearch is queried through the async
+     * client and documents are read from Redis with one reactive {@code MGET}. Only work that has no
+     * non-blocking driver here (loading cache misses from the database, the database fallback) is
+     * moved to the bounded-elastic scheduler. The id page is cached like a {@code totalHits=none}
+     * search but, unlike the blocking path, not coalesced.
+     */
+    @Override
+    public Flux<BookSearchItem> streamBooks(String queryText,
+                                            String title,
+                                            String author,
+                                            String genre,
+                                            BigDecimal minPrice,
+                                            BigDecimal maxPrice,
+                                            Pageable pageable) {
+        return Flux.defer(() -> {
+            SearchFilterKey filter = SearchFilterKey.of(queryText, title, author, genre, minPrice, maxPrice);
+            if (!filter.hasFreeText()) {
+                Optional<Page<Long>> filtered = filterIndex.findIds(author, genre, minPrice, maxPrice, pageable);
+                if (filtered.isPresent()) {
+                    List<Long> ids = filtered.get().getContent();
+                    return documentsByIds(ids).flatMapIterable(documents -> inIdOrder(ids, documents))
+                            .map(BookDocumentMapper::toSearchItem);
+                }
+                Optional<Page<BookSearchItem>> listed = catalog.list(author, genre, minPrice, maxPrice, pageable);
+                if (listed.isPresent()) {
+                    return Flux.fromIterable(listed.get().getContent());
+                }
+            }
+            SearchResultCache.Key key = SearchResultCache.Key.of(filter, pageable, TotalHitsPolicy.NONE);
+            SearchResultCache.CachedIds cached = resultCache.get(key);
+            Mono<SearchResultCache.CachedIds> ids = cached != null ? Mono.just(cached) : fetchIdsAsync(key, pageable);
+            return ids
+                    .flatMap(page -> documentsByIds(page.ids()).map(documents -> pageable.getSort().isSorted()
+                            ? BookDocumentSort.sort(documents, pageable.getSort())
+                            : inIdOrder(page.ids(), documents)))
+                    .flatMapIterable(Function.identity())
+                    .map(BookDocumentMapper::toSearchItem)
+                    .onErrorResume(SearchUnavailableException.class, ex -> Mono
+                            .fromCallable(() -> fallback.search(queryText, title, author, genre, minPrice, maxPrice, pageable))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .flatMapIterable(Page::getContent));
+        });
     }
 
-    private Query buildSearchQuery(String queryText,
-                                   String title,
-                                   String author,
-                                   String genre,
-                                   BigDecimal minPrice,
-                                   BigDecimal maxPrice) {
-        BoolQuery.Builder bool = new BoolQuery.Builder();
-
-        if (StringUtils.hasText(queryText)) {
-            List<Query> should = new ArrayList<>();
-            should.add(Query.of(b -> b.match(createMatchQuery(TITLE, queryText))));
-            should.add(Query.of(b -> b.match(createMatchQuery(AUTHOR, queryText))));
-            should.add(Query.of(b -> b.match(createMatchQuery(GERNE, queryText))));
-            bool.should(should).minimumShouldMatch("1");
-        }
-
-        if (StringUtils.hasText(title)) {
-            bool.must(Query.of(b -> b.match(createMatchQuery(TITLE, title))));
-        }
-        if (StringUtils.hasText(author)) {
-            bool.must(Query.of(b -> b.match(createMatchQuery(AUTHOR, author))));
+    private Mono<SearchResultCache.CachedIds> fetchIdsAsync(SearchResultCache.Key key, Pageable pageable) {
+        if (!circuitBreaker.allowRequest()) {
+            return Mono.error(unavailable(null));
         }
-        if (StringUtils.hasText(genre)) {
-            bool.must(Query.of(b -> b.match(createMatchQuery(GERNE, genre))));
+        long generation = resultCache.generation();
+        SearchFilterKey filter = key.filter();
+        CompletableFuture<SearchResponse<BookDocument>> response;
+        try {
+            Query query = BookSearchQueryPlanner.plan(filter.q(), filter.title(), filter.author(), filter.genre(),
+                    filter.minPrice(), filter.maxPrice());
+            response = asyncClient.search(s -> idPageRequest(s, query, pageable, TotalHitsPolicy.NONE, false),
+                    BookDocument.class);
+        } catch (Exception ex) {
+            circuitBreaker.recordFailure();
+            return Mono.error(unavailable(ex));
         }
+        // The outcome is reported on the future itself, so a subscriber that cancels mid-request
+        // still closes a half-open circuit's trial.
+        response.whenComplete((ok, failure) -> {
+            if (failure == null) {
+                circuitBreaker.recordSuccess();
+            } else {
+                circuitBreaker.recordFailure();
+                log.error("Elasticsearch search failed, streaming degraded results from the database", failure);
+            }
+        });
+        return Mono.fromFuture(response, true)
+                .onErrorMap(this::unavailable)
+                .map(page -> {
+                    try {
+                        SearchResultCache.CachedIds ids = toCachedIds(page, pageable, null);
+                        resultCache.put(key, generation, ids);
+                        return ids;
+                    } catch (Exception ex) {
+                        log.error("Search failed", ex);
+                        return new SearchResultCache.CachedIds(List.of(), 0, true);
+                    }
+                });
+    }
 
-        if (minPrice != null || maxPrice != null) {
-            RangeQuery.Builder range = new RangeQuery.Builder().field(PRICE);
-            if (minPrice != null)
-                range.gte(JsonData.of(minPrice));
-            if (maxPrice != null)
-                range.lte(JsonData.of(maxPrice));
-            bool.must(Query.of(b -> b.range(range.build())));
+    /**
+     * Documents for {@code ids} from Redis; misses, or all of them if Redis fails, are loaded
+     * through {@link BookService} on the bounded-elastic scheduler, which also caches them.
+     */
+    private Mono<List<BookDocument>> documentsByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(List.of());
         }
+        return reactiveBookCache.getAllByIds(ids)
+                .onErrorResume(ex -> {
+                    log.warn("Reactive book cache read failed, loading {} books from the database", ids.size(), ex);
+                    return Mono.just(List.of());
+                })
+                .flatMap(cached -> {
+                    Set<Long> cachedIds = cached.stream().map(BookDocument::getId).collect(Collectors.toSet());
+                    List<Long> missing = ids.stream().filter(id -> !cachedIds.contains(id)).toList();
+                    if (missing.isEmpty()) {
+                        return Mono.just(cached);
+                    }
+                    return Mono.fromCallable(() -> bookService.getDocumentsByIds(missing))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .map(loaded -> concat(cached, loaded));
+                });
+    }
 
-        return Query.of(qb -> qb.bool(bool.build()));
+    private static List<BookDocument> concat(Collection<BookDocument> first, Collection<BookDocument> second) {
+        List<BookDocument> all = new ArrayList<>(first.size() + second.size());
+        all.addAll(first);
+        all.addAll(second);
+        return all;
     }
 
-    private MatchQuery createMatchQuery(String field, String value) {
-        return new MatchQuery.Builder()
-                .field(field)
-                .query(value)
-                .build();
+    private SearchResponse<BookDocument> executeSearch(Query query, Pageable pageable, TotalHitsPolicy policy,
+                                                       boolean withFacets) throws Exception {
+        return elasticsearchClient.search(s -> idPageRequest(s, query, pageable, policy, withFacets), BookDocument.class);
     }
 
-    private List<BookDocument> applySorting(List<BookDocument> documents, Sort sort) {
-        if (documents == null || documents.size() <= 1 || sort == null || sort.isUnsorted()) {
-            return documents;
-        }
+    private SearchRequest.Builder idPageRequest(SearchRequest.Builder s, Query query, Pageable pageable,
+                                                TotalHitsPolicy policy, boolean withFacets) {
+        // Without counting, one extra hit tells whether there is a next page.
+        int size = pageable.getPageSize() + (policy.mode() == TotalHitsPolicy.Mode.NONE ? 1 : 0);
+        s.index(INDEX_NAME)
+                .from(pageable.getPageNumber() * pageable.getPageSize())
+                .size(size)
+                .trackTotalHits(policy.toTrackHits())
+                .source(src -> src.filter(f -> f.includes(ID)))
+                .query(query);
+        return withFacets ? s.aggregations(facetAggregations.aggregations()) : s;
+    }
 
-        Comparator<BookDocument> comparator = buildComparator(sort);
-        if (comparator == null) {
-            return documents;
+    private static BookSearchPage withTotal(Page<BookSearchItem> page, boolean exact) {
+        return new BookSearchPage(page.getContent(), page.getPageable(), page.getTotalElements(), exact);
+    }
+
+    private static BookSearchPage withFilterFacets(BookSearchPage page, SearchFanOut.Fork<BookFacets> facets) {
+        return facets != null ? page.withFacets(facets.join()) : page;
+    }
+
+    /**
+     * Facets of a filter-only search; {@code null} (not cached) when Elasticsearch is unavailable,
+     * so the page is still served, only without facets.
+     */
+    private BookFacets loadFacets(SearchFilterKey filter) {
+        if (!circuitBreaker.allowRequest()) {
+            return null;
         }
+        try {
+            Query query = BookSearchQueryPlanner.plan(null, null, filter.author(), filter.genre(),
+                    filter.minPrice(), filter.maxPrice());
+            SearchResponse<BookDocument> response = elasticsearchClient.search(s -> s.index(INDEX_NAME)
+                            .size(0)
+                            .trackTotalHits(t -> t.enabled(false))
+                            .query(query)
+                            .aggregations(facetAggregations.aggregations()),
+                    BookDocument.class);
+            circuitBreaker.recordSuccess();
+            return facetAggregations.parse(response.aggregations());
+        } catch (Exception ex) {
+            circuitBreaker.recordFailure();
+            log.warn("Facet aggregation failed, serving the page without facets", ex);
+            return null;
+        }
+    }
 
-        List<BookDocument> copy = new ArrayList<>(documents);
-        copy.sort(Comparator.nullsLast(comparator));
-        return copy;
-    }
-
-    private Comparator<BookDocument> buildComparator(Sort sort) {
-        Comparator<BookDocument> comparator = null;
-
-        for (Sort.Order order : sort) {
-            String property = order.getProperty().toLowerCase(Locale.ROOT);
-            boolean ascending = order.isAscending();
-
-            Comparator<BookDocument> next = switch (property) {
-                case PRICE -> Comparator.comparing(
-                        BookDocument::getPrice,
-                        Comparator.nullsLast(BigDecimal::compareTo)
-                );
-                case TITLE -> Comparator.comparing(
-                        b -> safeLower(b.getTitle()),
-                        Comparator.nullsLast(String::compareTo)
-                );
-                case AUTHOR -> Comparator.comparing(
-                        b -> safeLower(b.getAuthorName()),
-                        Comparator.nullsLast(String::compareTo)
-                );
-                case GERNE -> Comparator.comparing(
-                        b -> safeLower(b.getGenreName()),
-                        Comparator.nullsLast(String::compareTo)
-                );
-                case ID -> Comparator.comparing(
-                        BookDocument::getId,
-                        Comparator.nullsLast(Long::compareTo)
-                );
-                default -> null;
-            };
-
-            if (next == null)
-                continue;
-            if (!ascending)
-                next = next.reversed();
-            comparator = (comparator == null) ? next : comparator.thenComparing(next);
+    /**
+     * Runs the Elasticsearch search for {@code key} and caches the id page. Shared by all identical
+     * concurrent searches through {@link SearchCoalescer}; throws {@link SearchUnavailableException}
+     * when Elasticsearch cannot be used, so every waiting caller falls back to the database.
+     */
+    private SearchResultCache.CachedIds fetchIds(SearchResultCache.Key key, Pageable pageable, TotalHitsPolicy policy) {
+        if (!circuitBreaker.allowRequest()) {
+            throw unavailable(null);
+        }
+        long generation = resultCache.generation();
+        SearchFilterKey filter = key.filter();
+        SearchResponse<BookDocument> response;
+        try {
+            RequestTimings.Stage planning = RequestTimings.start(RequestTimings.QUERY);
+            Query query = BookSearchQueryPlanner.plan(filter.q(), filter.title(), filter.author(), filter.genre(),
+                    filter.minPrice(), filter.maxPrice());
+            planning.stop();
+            RequestTimings.Stage searching = RequestTimings.start(RequestTimings.ELASTICSEARCH);
+            response = executeSearch(query, pageable, policy, key.facets());
+            searching.stop();
+            circuitBreaker.recordSuccess();
+        } catch (Exception ex) {
+            circuitBreaker.recordFailure();
+            log.error("Elasticsearch search failed, serving degraded results from the database", ex);
+            throw unavailable(ex);
+        }
+        try {
+            RequestTimings.record(RequestTimings.ELASTICSEARCH_TOOK, TimeUnit.MILLISECONDS.toNanos(response.took()));
+            SearchResultCache.CachedIds ids = toCachedIds(response, pageable,
+                    key.facets() ? facetAggregations.parse(response.aggregations()) : null);
+            resultCache.put(key, generation, ids);
+            return ids;
+        } catch (Exception ex) {
+            log.error("Search failed", ex);
+            return new SearchResultCache.CachedIds(List.of(), 0, true);
         }
+    }
 
-        if (comparator != null) {
-            comparator = comparator.thenComparing(
-                    Comparator.comparing(BookDocument::getId, Comparator.nullsLast(Long::compareTo))
-            );
+    private static SearchResultCache.CachedIds toCachedIds(SearchResponse<BookDocument> response, Pageable pageable,
+                                                           BookFacets facets) {
+        List<Hit<BookDocument>> hits = response.hits().hits();
+        boolean hasNext = hits.size() > pageable.getPageSize();
+        List<Long> ids = (hasNext ? hits.subList(0, pageable.getPageSize()) : hits).stream()
+                .map(Hit::source)
+                .filter(Objects::nonNull)
+                .map(BookDocument::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        TotalHits total = response.hits().total();
+        if (total != null) {
+            return new SearchResultCache.CachedIds(ids, total.value(), total.relation() == TotalHitsRelation.Eq, facets);
         }
-        return comparator;
+        // Counting disabled: report just enough for the client to know whether a next page exists.
+        return new SearchResultCache.CachedIds(ids, pageable.getOffset() + ids.size() + (hasNext ? 1 : 0), !hasNext, facets);
+    }
+
+    /**
+     * Pure-filter results come from {@link BookFilterIndex} already paged and ordered, so the
+     * documents are only looked up and put back in id order.
+     */
+    private BookSearchPage hydrateInOrder(Page<Long> ids) {
+        List<BookDocument> documents = ids.isEmpty() ? List.of() : bookService.getDocumentsByIds(ids.getContent());
+        List<BookSearchItem> items = RequestTimings.time(RequestTimings.MAPPING,
+                () -> inIdOrder(ids.getContent(), documents).stream()
+                        .map(BookDocumentMapper::toSearchItem)
+                        .toList());
+        return new BookSearchPage(items, ids.getPageable(), ids.getTotalElements(), true);
+    }
+
+    private static List<BookDocument> inIdOrder(List<Long> ids, List<BookDocument> documents) {
+        Map<Long, BookDocument> byId = documents.stream()
+                .collect(Collectors.toMap(BookDocument::getId, Function.identity(), (a, b) -> a));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private SearchUnavailableException unavailable(Throwable cause) {
+        long retryAfterSeconds = Math.max(1, (circuitBreaker.retryAfter().toMillis() + 999) / 1000);
+        return new SearchUnavailableException("Search is unavailable, retry later", cause, retryAfterSeconds);
     }
 }
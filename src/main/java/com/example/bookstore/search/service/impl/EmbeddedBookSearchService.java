@@ -0,0 +1,137 @@
+package com.example.bookstore.search.service.impl;
+
+import com.example.bookstore.domain.BookIndexProjection;
+import com.example.bookstore.kafka.consumer.BookEventSubscriber;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.mapper.BookEventMapper;
+import com.example.bookstore.search.dto.BookSearchItem;
+import com.example.bookstore.search.embedded.InMemoryBookIndex;
+import com.example.bookstore.search.mapper.BookDocumentMapper;
+import com.example.bookstore.search.model.BookDocument;
+import com.example.bookstore.search.service.BookSearchCustomService;
+import com.example.bookstore.service.BookService;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@link BookSearchCustomService} for small catalogs that runs without an Elasticsearch cluster.
+ * The index is loaded from the database on startup and then kept current from book events.
+ * Events received before the load finishes are buffered and replayed in order afterwards, so a page
+ * read before a concurrent update cannot overwrite it.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "embedded")
+public class EmbeddedBookSearchService implements BookSearchCustomService, BookEventSubscriber, ApplicationRunner {
+
+    private final BookService bookService;
+    private final InMemoryBookIndex index = new InMemoryBookIndex();
+    private final List<BookEvent> pendingEvents = new ArrayList<>();
+
+    /** Guarded by {@link #pendingEvents}. */
+    private boolean loading = true;
+
+    @Value("${app.search.reindex.batch-size:1000}")
+    private int batchSize = 1000;
+
+    public EmbeddedBookSearchService(BookService bookService) {
+        this.bookService = bookService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        int page = 0;
+        Page<BookIndexProjection> slice;
+        do {
+            slice = bookService.findBooksForIndexing(PageRequest.of(page++, batchSize));
+            index.upsertAll(slice.getContent().stream().map(BookDocumentMapper::toDocument).toList());
+        } while (slice.hasNext());
+        int replayed = replayPendingEvents();
+        log.info("Embedded search index loaded {} books in {} ms, replayed {} events",
+                index.size(), System.currentTimeMillis() - start, replayed);
+    }
+
+    /**
+     * Applies the events buffered during the load until none are left, then switches to applying
+     * events directly.
+     */
+    private int replayPendingEvents() {
+        int replayed = 0;
+        while (true) {
+            List<BookEvent> batch;
+            synchronized (pendingEvents) {
+                if (pendingEvents.isEmpty()) {
+                    loading = false;
+                    return replayed;
+                }
+                batch = new ArrayList<>(pendingEvents);
+                pendingEvents.clear();
+            }
+            batch.forEach(this::apply);
+            replayed += batch.size();
+        }
+    }
+
+    @Override
+    @Timed(
+            value = "books.search.timer",
+            description = "Time to execute a book search",
+            extraTags = {"component", "booking-service"}
+    )
+    public Page<BookSearchItem> searchBooks(String q,
+                                            String title,
+                                            String author,
+                                            String genre,
+                                            BigDecimal minPrice,
+                                            BigDecimal maxPrice,
+                                            Pageable pageable) {
+        return index.search(q, title, author, genre, minPrice, maxPrice, pageable)
+                .map(BookDocumentMapper::toSearchItem);
+    }
+
+    @Override
+    public void onBookEvent(BookEvent event) {
+        if (event.getId() == null || event.getType() == null) {
+            return;
+        }
+        synchronized (pendingEvents) {
+            if (loading) {
+                pendingEvents.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    private void apply(BookEvent event) {
+        switch (event.getType().toLowerCase(Locale.ROOT)) {
+            case "create", "update" -> index.upsert(BookEventMapper.toDocument(event));
+            case "patch" -> {
+                BookDocument current = index.get(event.getId());
+                if (current != null) {
+                    index.upsert(BookEventMapper.applyPatch(current, event));
+                }
+            }
+            case "delete" -> index.remove(event.getId());
+            default -> log.warn("Embedded search ignores event type={} id={}", event.getType(), event.getId());
+        }
+    }
+
+    InMemoryBookIndex index() {
+        return index;
+    }
+}
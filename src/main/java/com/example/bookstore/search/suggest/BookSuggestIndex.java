@@ -0,0 +1,193 @@
+package com.example.bookstore.search.suggest;
+
+import com.example.bookstore.domain.BookIndexProjection;
+import com.example.bookstore.kafka.consumer.BookEventSubscriber;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import com.example.bookstore.search.dto.BookSuggestion;
+import com.example.bookstore.service.BookService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Node-local {@link PrefixTrie} for the hot, short typeahead prefixes (the first
+ * {@code app.search.suggest.trie-depth} characters of a word), which match the most books and cost
+ * Elasticsearch the most. Loaded at startup, kept current from book events and republished at most
+ * once per {@code app.search.suggest.rebuild-delay-ms}. Events received before the load finishes
+ * are buffered and replayed in order afterwards, so a page read before a concurrent update cannot
+ * overwrite it.
+ */
+@Slf4j
+@Component
+public class BookSuggestIndex implements BookEventSubscriber, ApplicationRunner {
+
+    private final BookService bookService;
+    private final boolean enabled;
+    private final int depth;
+    private final int perNode;
+    private final long rebuildDelayMs;
+    private final int batchSize;
+
+    private final Map<Long, PrefixTrie.Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService rebuilder;
+    private final List<BookEvent> pendingEvents = new ArrayList<>();
+
+    /** Guarded by {@link #pendingEvents}. */
+    private boolean loading;
+
+    private volatile PrefixTrie trie = PrefixTrie.EMPTY;
+    private volatile boolean ready;
+
+    public BookSuggestIndex(BookService bookService,
+                            @Value("${app.search.suggest.trie-enabled:true}") boolean enabled,
+                            @Value("${app.search.suggest.trie-depth:3}") int depth,
+                            @Value("${app.search.suggest.max-limit:10}") int perNode,
+                            @Value("${app.search.suggest.rebuild-delay-ms:1000}") long rebuildDelayMs,
+                            @Value("${app.search.reindex.batch-size:1000}") int batchSize) {
+        this.bookService = bookService;
+        this.enabled = enabled;
+        this.depth = depth;
+        this.perNode = perNode;
+        this.rebuildDelayMs = rebuildDelayMs;
+        this.batchSize = batchSize;
+        this.loading = enabled;
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "book-suggest-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int page = 0;
+        Page<BookIndexProjection> slice;
+        do {
+            slice = bookService.findBooksForIndexing(PageRequest.of(page++, batchSize));
+            for (BookIndexProjection book : slice.getContent()) {
+                entries.put(book.getId(), new PrefixTrie.Entry(book.getId(), book.getTitle(), book.getAuthorName()));
+            }
+        } while (slice.hasNext());
+        int replayed = replayPendingEvents();
+        rebuild();
+        ready = true;
+        log.info("Suggest trie loaded {} books in {} ms, replayed {} events",
+                trie.size(), System.currentTimeMillis() - start, replayed);
+    }
+
+    /**
+     * Applies the events buffered during the load until none are left, then switches to applying
+     * events directly.
+     */
+    private int replayPendingEvents() {
+        int replayed = 0;
+        while (true) {
+            List<BookEvent> batch;
+            synchronized (pendingEvents) {
+                if (pendingEvents.isEmpty()) {
+                    loading = false;
+                    return replayed;
+                }
+                batch = new ArrayList<>(pendingEvents);
+                pendingEvents.clear();
+            }
+            batch.forEach(this::apply);
+            replayed += batch.size();
+        }
+    }
+
+    /**
+     * Suggestions from the trie, or empty when the prefix is not one the trie holds (too long,
+     * several words) or the trie is not loaded; callers then ask Elasticsearch.
+     */
+    public Optional<List<BookSuggestion>> lookup(String prefix, int limit) {
+        if (!enabled || !ready) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(trie.lookup(prefix, limit));
+    }
+
+    @Override
+    public void onBookEvent(BookEvent event) {
+        if (!enabled || event.getId() == null || event.getType() == null) {
+            return;
+        }
+        synchronized (pendingEvents) {
+            if (loading) {
+                pendingEvents.add(event);
+                return;
+            }
+        }
+        if (apply(event) && rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(this::rebuildSafely, rebuildDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return {@code true} if the entries changed and the trie has to be rebuilt
+     */
+    private boolean apply(BookEvent event) {
+        switch (event.getType().toLowerCase(Locale.ROOT)) {
+            case "create", "update" -> entries.put(event.getId(),
+                    new PrefixTrie.Entry(event.getId(), event.getTitle(), event.getAuthorName()));
+            case "patch" -> {
+                if (event.getChangedFields() == null
+                        || (!event.getChangedFields().contains(BookEventField.TITLE)
+                        && !event.getChangedFields().contains(BookEventField.AUTHOR_NAME))) {
+                    return false;
+                }
+                entries.computeIfPresent(event.getId(), (id, current) -> new PrefixTrie.Entry(id,
+                        event.getChangedFields().contains(BookEventField.TITLE) ? event.getTitle() : current.title(),
+                        event.getChangedFields().contains(BookEventField.AUTHOR_NAME) ? event.getAuthorName() : current.authorName()));
+            }
+            case "delete" -> entries.remove(event.getId());
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Publishes a trie of the current entries. Runs on the rebuild thread; public for tests.
+     */
+    public void rebuild() {
+        rebuildScheduled.set(false);
+        trie = PrefixTrie.build(List.copyOf(entries.values()), depth, perNode);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Suggest trie rebuild failed; the previous trie stays in use", e);
+        }
+    }
+}
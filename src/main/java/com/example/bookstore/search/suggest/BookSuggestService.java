@@ -0,0 +1,94 @@
+package com.example.bookstore.search.suggest;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.example.bookstore.search.dto.BookSuggestion;
+import com.example.bookstore.search.fallback.SearchCircuitBreaker;
+import com.example.bookstore.search.model.BookDocument;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Typeahead over book titles and author names. Short single-word prefixes come from the node-local
+ * {@link BookSuggestIndex}; longer or multi-word prefixes run one {@code bool_prefix} query on the
+ * edge-n-gram {@code title.prefix} and {@code authorName.prefix} fields, fetching only id and title.
+ * Suggestions are best effort: when Elasticsearch is unavailable the answer is empty.
+ */
+@Slf4j
+@Service
+public class BookSuggestService {
+
+    private static final String INDEX_NAME = "books";
+    private static final List<String> FIELDS = List.of("title.prefix^2", "authorName.prefix");
+    private static final String[] SOURCE_FIELDS = {"id", "title"};
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final SearchCircuitBreaker circuitBreaker;
+    private final BookSuggestIndex suggestIndex;
+    private final boolean elasticsearchEngine;
+    private final int maxLimit;
+
+    public BookSuggestService(ElasticsearchClient elasticsearchClient,
+                              SearchCircuitBreaker circuitBreaker,
+                              BookSuggestIndex suggestIndex,
+                              @Value("${app.search.engine:elasticsearch}") String engine,
+                              @Value("${app.search.suggest.max-limit:10}") int maxLimit) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.circuitBreaker = circuitBreaker;
+        this.suggestIndex = suggestIndex;
+        this.elasticsearchEngine = "elasticsearch".equalsIgnoreCase(engine);
+        this.maxLimit = maxLimit;
+    }
+
+    @Timed(
+            value = "books.suggest.timer",
+            description = "Time to answer a typeahead request",
+            extraTags = {"component", "booking-service"},
+            histogram = true,
+            percentiles = {0.5, 0.99}
+    )
+    public List<BookSuggestion> suggest(String prefix, int limit) {
+        if (!StringUtils.hasText(prefix)) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit, maxLimit));
+        Optional<List<BookSuggestion>> local = suggestIndex.lookup(prefix, size);
+        if (local.isPresent()) {
+            return local.get();
+        }
+        if (!elasticsearchEngine || !circuitBreaker.allowRequest()) {
+            return List.of();
+        }
+        try {
+            SearchResponse<BookDocument> response = elasticsearchClient.search(s -> s.index(INDEX_NAME)
+                            .size(size)
+                            .trackTotalHits(t -> t.enabled(false))
+                            .source(src -> src.filter(f -> f.includes(List.of(SOURCE_FIELDS))))
+                            .query(q -> q.multiMatch(mm -> mm.query(prefix.trim())
+                                    .fields(FIELDS)
+                                    .type(TextQueryType.BoolPrefix)
+                                    .operator(Operator.And))),
+                    BookDocument.class);
+            circuitBreaker.recordSuccess();
+            return response.hits().hits().stream()
+                    .map(Hit::source)
+                    .filter(Objects::nonNull)
+                    .map(document -> new BookSuggestion(document.getId(), document.getTitle()))
+                    .toList();
+        } catch (Exception ex) {
+            circuitBreaker.recordFailure();
+            log.warn("Suggest query failed for prefix length={}", prefix.length(), ex);
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.bookstore.search.suggest;
+
+import com.example.bookstore.search.dto.BookSuggestion;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable character trie over the word prefixes of book titles and author names, up to
+ * {@code maxDepth} characters. Every node keeps its best {@code perNode} suggestions (shortest
+ * title first, then alphabetical), so a lookup is one walk of at most {@code maxDepth} nodes and
+ * no ranking work. Words and prefixes are lower-cased and stripped of accents, like the
+ * {@code asciifolding} of the Elasticsearch prefix fields, so "emi" finds "Émile".
+ */
+final class PrefixTrie {
+
+    static final PrefixTrie EMPTY = build(List.of(), 1, 1);
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingInt((Entry entry) -> entry.title().length())
+            .thenComparing(Entry::title, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingLong(Entry::id);
+
+    private final Node root;
+    private final int maxDepth;
+    private final int size;
+
+    private PrefixTrie(Node root, int maxDepth, int size) {
+        this.root = root;
+        this.maxDepth = maxDepth;
+        this.size = size;
+    }
+
+    static PrefixTrie build(Collection<Entry> entries, int maxDepth, int perNode) {
+        Entry[] ranked = entries.stream().filter(entry -> entry.title() != null).toArray(Entry[]::new);
+        Arrays.sort(ranked, RANKING);
+        Node root = new Node();
+        for (Entry entry : ranked) {
+            BookSuggestion suggestion = null;
+            for (String word : words(entry.title(), entry.authorName())) {
+                Node node = root;
+                for (int depth = 0; depth < Math.min(word.length(), maxDepth); depth++) {
+                    node = node.child(word.charAt(depth), true);
+                    // Entries arrive in rank order, so the first perNode per node are its best.
+                    if (node.top.size() < perNode && !node.contains(entry.id())) {
+                        if (suggestion == null) {
+                            suggestion = new BookSuggestion(entry.id(), entry.title());
+                        }
+                        node.top.add(suggestion);
+                    }
+                }
+            }
+        }
+        root.seal();
+        return new PrefixTrie(root, maxDepth, ranked.length);
+    }
+
+    /**
+     * Suggestions for a single-word {@code prefix} no longer than {@code maxDepth}, or
+     * {@code null} if the trie cannot answer it (multi-word or too long).
+     */
+    List<BookSuggestion> lookup(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || normalized.length() > maxDepth || WORD_SEPARATOR.matcher(normalized).find()) {
+            return null;
+        }
+        Node node = root;
+        for (int i = 0; i < normalized.length() && node != null; i++) {
+            node = node.child(normalized.charAt(i), false);
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return node.top.size() <= limit ? node.top : node.top.subList(0, limit);
+    }
+
+    int size() {
+        return size;
+    }
+
+    static String normalize(String prefix) {
+        return prefix == null ? "" : fold(prefix.trim());
+    }
+
+    /**
+     * Lower-cases and removes diacritics: NFD splits accented letters into base letter and
+     * combining marks, and the marks are dropped.
+     */
+    private static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> words(String title, String authorName) {
+        List<String> words = new ArrayList<>();
+        for (String text : new String[]{title, authorName}) {
+            if (text == null) {
+                continue;
+            }
+            for (String word : WORD_SEPARATOR.split(fold(text))) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    record Entry(long id, String title, String authorName) {
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private List<BookSuggestion> top = new ArrayList<>(2);
+
+        Node child(char key, boolean create) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            if (!create) {
+                return null;
+            }
+            int insertAt = -index - 1;
+            Node child = new Node();
+            char[] nextKeys = new char[keys.length + 1];
+            Node[] nextChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, nextKeys, 0, insertAt);
+            System.arraycopy(children, 0, nextChildren, 0, insertAt);
+            nextKeys[insertAt] = key;
+            nextChildren[insertAt] = child;
+            System.arraycopy(keys, insertAt, nextKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, nextChildren, insertAt + 1, children.length - insertAt);
+            keys = nextKeys;
+            children = nextChildren;
+            return child;
+        }
+
+        boolean contains(long id) {
+            for (BookSuggestion suggestion : top) {
+                if (suggestion.getId() == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void seal() {
+            top = List.copyOf(top);
+            for (Node child : children) {
+                child.seal();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bookstore.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Remembers successful username/password authentications so that repeated HTTP Basic requests
+ * skip the BCrypt verification of the delegate provider.
+ * <p>
+ * Entries are keyed by an HMAC-SHA256 of the credentials under a random key generated at startup,
+ * so neither passwords nor reusable hashes of them are held in memory, and a cache dump is useless
+ * outside this process. Each entry also records the stored password hash it was verified against;
+ * a hit is honoured only while the user still exists, is enabled and unlocked, and has that same
+ * hash, so a password change or lock takes effect on the next request. Entries expire after a
+ * short TTL regardless. Failed authentications are never cached. A hit returns a new token built
+ * from the remembered principal and authorities, never an instance another request already holds.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final AuthenticationProvider delegate;
+    private final UserDetailsService userDetailsService;
+    private final SecretKeySpec key;
+    private final Cache<ByteBuffer, Verified> verified;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate,
+                                         UserDetailsService userDetailsService,
+                                         Duration ttl,
+                                         long maxSize,
+                                         MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.userDetailsService = userDetailsService;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC);
+        this.verified = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, verified, "security.authentication");
+        }
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication.getCredentials() instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+        String username = authentication.getName();
+        ByteBuffer credentialKey = credentialKey(username, password);
+        Verified hit = verified.getIfPresent(credentialKey);
+        if (hit != null) {
+            if (stillValid(username, hit.passwordHash())) {
+                UsernamePasswordAuthenticationToken result =
+                        UsernamePasswordAuthenticationToken.authenticated(hit.principal(), null, hit.authorities());
+                result.setDetails(authentication.getDetails());
+                return result;
+            }
+            verified.invalidate(credentialKey);
+        }
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated() && result.getPrincipal() instanceof UserDetails user) {
+            verified.put(credentialKey, new Verified(user, result.getAuthorities(), user.getPassword()));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication) && delegate.supports(authentication);
+    }
+
+    long size() {
+        verified.cleanUp();
+        return verified.estimatedSize();
+    }
+
+    private boolean stillValid(String username, String passwordHash) {
+        try {
+            UserDetails current = userDetailsService.loadUserByUsername(username);
+            return current.isEnabled() && current.isAccountNonLocked() && current.isAccountNonExpired()
+                    && current.isCredentialsNonExpired() && Objects.equals(current.getPassword(), passwordHash);
+        } catch (UsernameNotFoundException e) {
+            return false;
+        }
+    }
+
+    private ByteBuffer credentialKey(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return ByteBuffer.wrap(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private record Verified(Object principal, Collection<? extends GrantedAuthority> authorities, String passwordHash) {
+    }
+}
@@ -7,6 +7,7 @@ import com.example.bookstore.dto.BookRequest;
 import com.example.bookstore.dto.BookResponse;
 import com.example.bookstore.exception.BookStoreException;
 import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
 import com.example.bookstore.kafka.event.BookEventType;
 import com.example.bookstore.kafka.mapper.BookEventMapper;
 import com.example.bookstore.kafka.producer.BookEventPublisher;
@@ -21,6 +22,7 @@ import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -29,6 +31,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.util.Set;
+
 @Service
 @Slf4j
 public class BookAdminServiceImpl implements BookAdminService {
@@ -97,7 +102,7 @@ public class BookAdminServiceImpl implements BookAdminService {
         }
 
         BookEvent event = BookEventMapper.toBookEvent(BookEventType.CREATE.getCode(), saved);
-        publishBookEventAfterCommit(event, saved.getId());
+        publishBookEventAfterCommit(event, event, saved.getId());
 
 
         return BookMapper.toDto(saved);
@@ -109,20 +114,31 @@ public class BookAdminServiceImpl implements BookAdminService {
         Author author = authorService.findById(request.getAuthorId());
         Genre genre = genreService.findById(request.getGenreId());
         Book existing = bookService.findById(id);
+        BookEvent before = BookEventMapper.toBookEvent(BookEventType.UPDATE.getCode(), existing);
 
         Book updated;
         try {
             BookMapper.updateEntity(existing, request, author, genre);
             updated = bookService.saveAndFlush(existing);
             updateCounter.increment();
+        } catch (OptimisticLockingFailureException e) {
+            // Another admin wrote the book since it was read; answered with 409 by ApiExceptionHandler.
+            log.info("Concurrent update of bookId={} rejected", id);
+            throw e;
         } catch (Exception e) {
             log.error("Failed to update book: {}", request, e);
             throw new BookStoreException("Failed to update book: " + request, e);
         }
 
-        BookEvent event = BookEventMapper.toBookEvent(BookEventType.UPDATE.getCode(), updated);
         log.info("Updated book with id={} and payload={}", updated.getId(), updated);
-        publishBookEventAfterCommit(event, updated.getId());
+        BookEvent snapshot = BookEventMapper.toBookEvent(BookEventType.UPDATE.getCode(), updated);
+        Set<BookEventField> changed = BookEventMapper.changedFields(before, snapshot);
+        if (!changed.isEmpty()) {
+            BookEvent event = bookEventPublisher.patchEventsEnabled()
+                    ? BookEventMapper.toPatchEvent(updated, changed)
+                    : snapshot;
+            publishBookEventAfterCommit(event, snapshot, updated.getId());
+        }
 
         return BookMapper.toDto(updated);
     }
@@ -141,21 +157,31 @@ public class BookAdminServiceImpl implements BookAdminService {
             bookService.delete(existing);
             deleteCounter.increment();
 
+        } catch (OptimisticLockingFailureException e) {
+            log.info("Concurrent delete of bookId={} rejected", id);
+            throw e;
         } catch (Exception e) {
             log.error("Failed to delete bookId: {}", id, e);
             throw new BookStoreException("Failed to delete bookId: " + id, e);
         }
 
-        BookEvent event = BookEventMapper.toBookEvent(BookEventType.DELETE.getCode(), id);
-        publishBookEventAfterCommit(event, id);
+        // A delete supersedes the last persisted version, so it must carry a higher one.
+        Long deletedVersion = existing.getVersion() == null ? null : existing.getVersion() + 1;
+        BookEvent event = BookEventMapper.toBookEvent(BookEventType.DELETE.getCode(), id, deletedVersion);
+        publishBookEventAfterCommit(event, null, id);
 
 
     }
 
-    private void publishBookEventAfterCommit(BookEvent event, Long bookId) {
+    /**
+     * @param snapshot full state for the compacted snapshot topic, or {@code null} to write a tombstone
+     */
+    private void publishBookEventAfterCommit(BookEvent event, BookEvent snapshot, Long bookId) {
         if (!TransactionSynchronizationManager.isSynchronizationActive()) {
             try {
+                event.setCommittedAt(Instant.now());
                 bookEventPublisher.publish(event);
+                publishSnapshot(snapshot, bookId);
                 log.info("Published event (no-tx) for bookId={}", bookId);
             } catch (Exception ex) {
                 log.error("Failed to publish event (no-tx) for bookId={}", bookId, ex);
@@ -167,7 +193,9 @@ public class BookAdminServiceImpl implements BookAdminService {
             @Override
             public void afterCommit() {
                 try {
+                    event.setCommittedAt(Instant.now());
                     bookEventPublisher.publish(event);
+                    publishSnapshot(snapshot, bookId);
                     log.info("Published event to Kafka for bookId={}", bookId);
                 } catch (Exception ex) {
                     log.error("Failed to publish event to Kafka for bookId={}", bookId, ex);
@@ -180,4 +208,12 @@ public class BookAdminServiceImpl implements BookAdminService {
             }
         });
     }
+
+    private void publishSnapshot(BookEvent snapshot, Long bookId) {
+        if (snapshot == null) {
+            bookEventPublisher.publishTombstone(bookId);
+        } else {
+            bookEventPublisher.publishSnapshot(snapshot);
+        }
+    }
 }
@@ -4,6 +4,7 @@ import com.example.bookstore.cache.BookCache;
 import com.example.bookstore.domain.Book;
 import com.example.bookstore.domain.BookIndexProjection;
 import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.monitoring.RequestTimings;
 import com.example.bookstore.repository.BookRepository;
 import com.example.bookstore.search.mapper.BookDocumentMapper;
 import com.example.bookstore.search.model.BookDocument;
@@ -93,7 +94,9 @@ public class BookServiceImpl implements BookService {
         if (CollectionUtils.isEmpty(ids)) {
             return List.of();
         }
+        RequestTimings.Stage lookup = RequestTimings.start(RequestTimings.CACHE);
         List<BookDocument> cachedDocuments = bookCache.getAllByIds(ids);
+        lookup.stop(ids.size());
 
         Set<Long> cachedIds = cachedDocuments.stream()
                 .filter(Objects::nonNull)
@@ -105,7 +108,9 @@ public class BookServiceImpl implements BookService {
                 .filter(Objects::nonNull)
                 .filter(id -> !cachedIds.contains(id))
                 .toList();
+        RequestTimings.cacheLookup(cachedIds.size(), missingIds.size());
 
+        RequestTimings.Stage fill = RequestTimings.start(RequestTimings.DATABASE);
         List<Book> missingBooks = findBooksByIds(missingIds);
         List<BookDocument> missingDocuments = missingBooks.stream()
                 .map(BookDocumentMapper::toDocument)
@@ -115,6 +120,9 @@ public class BookServiceImpl implements BookService {
         if (!missingDocuments.isEmpty()) {
             bookCache.putAll(missingDocuments);
         }
+        if (!missingIds.isEmpty()) {
+            fill.stop(missingDocuments.size());
+        }
 
         List<BookDocument> result = new ArrayList<>(cachedDocuments.size() + missingDocuments.size());
         result.addAll(cachedDocuments);
@@ -1,7 +1,14 @@
 package com.example.bookstore.service.specification;
 
+import com.example.bookstore.domain.Author;
 import com.example.bookstore.domain.Book;
+import com.example.bookstore.domain.Genre;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
@@ -9,7 +16,12 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
-
+/**
+ * Predicates are shaped for the V6 indexes: every text match is {@code lower(column) LIKE '%x%'}
+ * (served by the pg_trgm GIN indexes) and author/genre names are matched in id subqueries instead
+ * of joins, so Postgres resolves the small dictionary tables first and probes
+ * {@code books.author_id}/{@code books.genre_id} by index.
+ */
 public final class BookSpecs {
     private BookSpecs() {
 
@@ -21,26 +33,21 @@ public final class BookSpecs {
             List<Predicate> searchConditions = new ArrayList<>();
 
             if (StringUtils.hasText(q)) {
-                String like = "%" + q.toLowerCase() + "%";
-                searchConditions.add(cb.or(
-                        cb.like(cb.lower(root.get("title")), like),
-                        cb.like(cb.lower(root.join("author").get("name")), like),
-                        cb.like(cb.lower(root.join("genre").get("name")), like)
-                ));
+                searchConditions.add(matchesAnyText(root, query, cb, contains(q)));
             }
 
             if (StringUtils.hasText(title)) {
-                searchConditions.add(cb.like(cb.lower(root.get("title")), "%" + title.toLowerCase() + "%"));
+                searchConditions.add(cb.like(cb.lower(root.get("title")), contains(title)));
             }
 
             if (StringUtils.hasText(author)) {
-                searchConditions.add(cb.like(cb.lower(root.join("author").get("name")),
-                        "%" + author.toLowerCase() + "%"));
+                searchConditions.add(root.get("author").get("id")
+                        .in(idsByName(query, cb, Author.class, contains(author))));
             }
 
             if (StringUtils.hasText(genre)) {
-                searchConditions.add(cb.like(cb.lower(root.join("genre").get("name")),
-                        "%" + genre.toLowerCase() + "%"));
+                searchConditions.add(root.get("genre").get("id")
+                        .in(idsByName(query, cb, Genre.class, contains(genre))));
             }
 
             if (minPrice != null) {
@@ -55,4 +62,41 @@ public final class BookSpecs {
         };
     }
 
-}
\ No newline at end of file
+    /**
+     * {@code id IN (title matches UNION author matches UNION genre matches)}. Each branch can use its
+     * own index, whereas a single OR across joined tables forces a sequential scan of books.
+     */
+    private static Predicate matchesAnyText(Root<Book> root, CriteriaQuery<?> query, CriteriaBuilder cb, String like) {
+        Subquery<Long> byTitle = query.subquery(Long.class);
+        Root<Book> titleRoot = byTitle.from(Book.class);
+        byTitle.select(titleRoot.get("id"))
+                .where(cb.like(cb.lower(titleRoot.get("title")), like));
+
+        Subquery<Long> byAuthor = query.subquery(Long.class);
+        Root<Book> authorRoot = byAuthor.from(Book.class);
+        byAuthor.select(authorRoot.get("id"))
+                .where(authorRoot.get("author").get("id").in(idsByName(query, cb, Author.class, like)));
+
+        Subquery<Long> byGenre = query.subquery(Long.class);
+        Root<Book> genreRoot = byGenre.from(Book.class);
+        byGenre.select(genreRoot.get("id"))
+                .where(genreRoot.get("genre").get("id").in(idsByName(query, cb, Genre.class, like)));
+
+        if (cb instanceof HibernateCriteriaBuilder hcb) {
+            return root.get("id").in(hcb.union(byTitle, byAuthor, byGenre));
+        }
+        return cb.or(root.get("id").in(byTitle), root.get("id").in(byAuthor), root.get("id").in(byGenre));
+    }
+
+    private static <T> Subquery<Long> idsByName(CriteriaQuery<?> query, CriteriaBuilder cb, Class<T> type, String like) {
+        Subquery<Long> ids = query.subquery(Long.class);
+        Root<T> from = ids.from(type);
+        return ids.select(from.get("id"))
+                .where(cb.like(cb.lower(from.get("name")), like));
+    }
+
+    private static String contains(String text) {
+        return "%" + text.toLowerCase() + "%";
+    }
+
+}
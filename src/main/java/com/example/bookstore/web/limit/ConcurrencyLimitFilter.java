@@ -0,0 +1,173 @@
+package com.example.bookstore.web.limit;
+
+import com.example.bookstore.web.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Sheds load before it queues: search endpoints ({@code /api/v1/books/**}) and admin writes
+ * (non-GET {@code /api/v1/admin/**}) each pass through their own {@link ConcurrencyLimiter}, and a
+ * request over the limit is answered at once with 503 and {@code Retry-After} instead of waiting
+ * for a thread behind a slow Elasticsearch or database. Runs after Spring Security, so only
+ * authenticated requests take a permit.
+ * <p>
+ * Typeahead ({@code /suggest}, mostly answered in memory) and the NDJSON stream (permit held until
+ * the client has read the whole page) have latencies unlike a search page, so each has its own
+ * limiter; in the search limiter they would skew the latency baseline its gradient follows.
+ */
+@Component
+@Order(ConcurrencyLimitFilter.ORDER)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final int ORDER = Ordered.LOWEST_PRECEDENCE - 10;
+    static final String SEARCH_PATH = "/api/v1/books";
+    static final String ADMIN_PATH = "/api/v1/admin/";
+    static final String SUGGEST_PATH = SEARCH_PATH + "/suggest";
+    static final String STREAM_PATH = SEARCH_PATH + "/stream";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final ConcurrencyLimiter search;
+    private final ConcurrencyLimiter suggest;
+    private final ConcurrencyLimiter stream;
+    private final ConcurrencyLimiter admin;
+
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper,
+                                  ObjectProvider<MeterRegistry> meterRegistry,
+                                  @Value("${app.limits.concurrency.enabled:true}") boolean enabled,
+                                  @Value("${app.limits.concurrency.retry-after-seconds:1}") long retryAfterSeconds,
+                                  @Value("${app.limits.concurrency.search.initial-limit:20}") int searchInitial,
+                                  @Value("${app.limits.concurrency.search.min-limit:4}") int searchMin,
+                                  @Value("${app.limits.concurrency.search.max-limit:200}") int searchMax,
+                                  @Value("${app.limits.concurrency.suggest.initial-limit:50}") int suggestInitial,
+                                  @Value("${app.limits.concurrency.suggest.min-limit:10}") int suggestMin,
+                                  @Value("${app.limits.concurrency.suggest.max-limit:500}") int suggestMax,
+                                  @Value("${app.limits.concurrency.stream.initial-limit:10}") int streamInitial,
+                                  @Value("${app.limits.concurrency.stream.min-limit:2}") int streamMin,
+                                  @Value("${app.limits.concurrency.stream.max-limit:50}") int streamMax,
+                                  @Value("${app.limits.concurrency.admin.initial-limit:10}") int adminInitial,
+                                  @Value("${app.limits.concurrency.admin.min-limit:2}") int adminMin,
+                                  @Value("${app.limits.concurrency.admin.max-limit:50}") int adminMax) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.search = new ConcurrencyLimiter("search", searchInitial, searchMin, searchMax, registry);
+        this.suggest = new ConcurrencyLimiter("suggest", suggestInitial, suggestMin, suggestMax, registry);
+        this.stream = new ConcurrencyLimiter("stream", streamInitial, streamMin, streamMax, registry);
+        this.admin = new ConcurrencyLimiter("admin", adminInitial, adminMin, adminMax, registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || limiterFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConcurrencyLimiter limiter = limiterFor(request);
+        Optional<ConcurrencyLimiter.Permit> acquired = limiter.tryAcquire();
+        if (acquired.isEmpty()) {
+            reject(limiter, request, response);
+            return;
+        }
+        ConcurrencyLimiter.Permit permit = acquired.get();
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            permit.onDropped();
+            throw e;
+        }
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new PermitReleasingListener(permit, response));
+        } else {
+            release(permit, response);
+        }
+    }
+
+    ConcurrencyLimiter limiterFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals(SUGGEST_PATH)) {
+            return suggest;
+        }
+        if (path.equals(STREAM_PATH)) {
+            return stream;
+        }
+        if (path.equals(SEARCH_PATH) || path.startsWith(SEARCH_PATH + "/")) {
+            return search;
+        }
+        if (path.startsWith(ADMIN_PATH) && !isRead(request.getMethod())) {
+            return admin;
+        }
+        return null;
+    }
+
+    private void reject(ConcurrencyLimiter limiter, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiError.of(status.value(), status.getReasonPhrase(),
+                "Too many concurrent " + limiter.name() + " requests, retry later", request.getRequestURI()));
+    }
+
+    private static void release(ConcurrencyLimiter.Permit permit, HttpServletResponse response) {
+        if (response.getStatus() >= 500) {
+            permit.onDropped();
+        } else {
+            permit.onSuccess();
+        }
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    /**
+     * Holds the permit of an async request (e.g. the NDJSON stream) until it completes.
+     */
+    private record PermitReleasingListener(ConcurrencyLimiter.Permit permit, HttpServletResponse response)
+            implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(permit, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.onDropped();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.onDropped();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
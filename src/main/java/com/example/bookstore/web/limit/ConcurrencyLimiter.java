@@ -0,0 +1,118 @@
+package com.example.bookstore.web.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-flight limit for one class of endpoints. {@link #tryAcquire()} admits a request only while
+ * fewer than the current limit are in flight; the limit itself follows the latency of completed
+ * requests ({@link GradientLimit}). Published as {@code http.server.concurrency.limit},
+ * {@code .in-flight} and {@code .rejected}, tagged with {@code class}.
+ */
+public class ConcurrencyLimiter {
+
+    private final String name;
+    private final GradientLimit gradient;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    private final Counter rejected;
+
+    public ConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.gradient = new GradientLimit(initialLimit, minLimit, maxLimit);
+        this.limit = gradient.limit();
+        if (meterRegistry != null) {
+            Gauge.builder("http.server.concurrency.limit", this, ConcurrencyLimiter::limit)
+                    .description("Adaptive in-flight request limit")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder("http.server.concurrency.in-flight", this, ConcurrencyLimiter::inFlight)
+                    .description("Requests currently admitted by the limiter")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("http.server.concurrency.rejected")
+                    .description("Requests shed because the in-flight limit was reached")
+                    .tag("class", name)
+                    .register(meterRegistry);
+        } else {
+            this.rejected = null;
+        }
+    }
+
+    public Optional<Permit> tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                if (rejected != null) {
+                    rejected.increment();
+                }
+                return Optional.empty();
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return Optional.of(new Permit(current + 1, System.nanoTime()));
+            }
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void complete(Permit permit, boolean dropped) {
+        long rtt = System.nanoTime() - permit.startedAt;
+        inFlight.decrementAndGet();
+        lock.lock();
+        try {
+            limit = gradient.update(rtt, permit.inFlightAtStart, dropped);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * An admitted request. Exactly one of {@link #onSuccess()} or {@link #onDropped()} must be
+     * called when it finishes; later calls are ignored.
+     */
+    public final class Permit {
+
+        private final int inFlightAtStart;
+        private final long startedAt;
+        private final AtomicInteger released = new AtomicInteger();
+
+        private Permit(int inFlightAtStart, long startedAt) {
+            this.inFlightAtStart = inFlightAtStart;
+            this.startedAt = startedAt;
+        }
+
+        public void onSuccess() {
+            release(false);
+        }
+
+        /**
+         * The request failed in a way that suggests overload (server error, timeout).
+         */
+        public void onDropped() {
+            release(true);
+        }
+
+        private void release(boolean dropped) {
+            if (released.compareAndSet(0, 1)) {
+                complete(this, dropped);
+            }
+        }
+    }
+}
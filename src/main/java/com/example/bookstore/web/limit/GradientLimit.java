@@ -0,0 +1,62 @@
+package com.example.bookstore.web.limit;
+
+/**
+ * Gradient concurrency limit: compares each request's latency with a slowly moving baseline. While
+ * latency stays near the baseline the limit grows by about {@code sqrt(limit)} per sample; when it
+ * rises (work is queueing somewhere downstream) the limit shrinks in proportion, down to half per
+ * sample. A dropped request (a 5xx or timeout) cuts the limit by 10%. Not thread-safe; callers
+ * serialize {@link #update}.
+ */
+final class GradientLimit {
+
+    private static final int BASELINE_WINDOW = 500;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private double baselineRtt;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = clamp(initialLimit);
+    }
+
+    /**
+     * @param rttNanos latency of a completed request
+     * @param inFlight requests in flight when it started, itself included
+     * @param dropped  whether it failed in a way that signals overload
+     * @return the new limit
+     */
+    int update(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            limit = clamp(limit * BACKOFF);
+            return limit();
+        }
+        double rtt = Math.max(1, rttNanos);
+        baselineRtt = baselineRtt == 0 ? rtt : baselineRtt + (rtt - baselineRtt) / BASELINE_WINDOW;
+        if (baselineRtt / rtt > 2) {
+            // Latency has recovered from a slow period; let the baseline follow it down faster.
+            baselineRtt *= 0.95;
+        }
+        if (inFlight < limit / 2) {
+            // The limit is not what bounds throughput, so latency says nothing about it.
+            return limit();
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineRtt / rtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - SMOOTHING) + target * SMOOTHING);
+        return limit();
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
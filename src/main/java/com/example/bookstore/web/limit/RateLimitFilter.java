@@ -0,0 +1,128 @@
+package com.example.bookstore.web.limit;
+
+import com.example.bookstore.web.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-principal token buckets for {@code /api/**}, sized by {@link RateLimitPolicy}. Runs after
+ * Spring Security, next to {@code TraceIdFilter}, and before {@link ConcurrencyLimitFilter}, so a
+ * throttled request never takes a concurrency permit. Every limited response carries
+ * {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code RateLimit-Reset}; a request over
+ * the limit gets 429 with {@code Retry-After} and counts towards
+ * {@code http.server.rate-limit.throttled{principal}}.
+ */
+@Component
+@Order(RateLimitFilter.ORDER)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final int ORDER = Ordered.LOWEST_PRECEDENCE - 20;
+    static final String LIMIT = "RateLimit-Limit";
+    static final String REMAINING = "RateLimit-Remaining";
+    static final String RESET = "RateLimit-Reset";
+    private static final String API_PATH = "/api/";
+    private static final int MAX_TAGGED_PRINCIPALS = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TokenBucketStore store;
+    private final RateLimitPolicy policy;
+    private final boolean enabled;
+    private final Set<String> taggedPrincipals = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public RateLimitFilter(ObjectMapper objectMapper,
+                           ObjectProvider<MeterRegistry> meterRegistry,
+                           ObjectProvider<TokenBucketStore> sharedStore,
+                           @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.default:30:10}") String defaultLimit,
+                           @Value("${app.rate-limit.roles:ADMIN=200:100,USER=60:20}") List<String> roles,
+                           @Value("${app.rate-limit.users:}") List<String> users,
+                           @Value("${app.rate-limit.local.stripes:64}") int stripes,
+                           @Value("${app.rate-limit.local.slots-per-stripe:256}") int slotsPerStripe) {
+        this(objectMapper, meterRegistry.getIfAvailable(),
+                sharedStore.getIfAvailable(() -> new StripedTokenBucketStore(stripes, slotsPerStripe)),
+                new RateLimitPolicy(defaultLimit, roles, users), enabled);
+    }
+
+    RateLimitFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry, TokenBucketStore store,
+                    RateLimitPolicy policy, boolean enabled) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.store = store;
+        this.policy = policy;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(request.getContextPath() + API_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RateLimitPolicy.Limit limit = policy.limitFor(authentication);
+        long result = store.tryConsume(authentication.getName(), limit);
+        response.setHeader(LIMIT, Long.toString(limit.capacity()));
+        if (result >= 0) {
+            response.setHeader(REMAINING, Long.toString(result));
+            response.setHeader(RESET, Long.toString(limit.secondsToFill(result)));
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long retryAfter = Math.max(1, (long) Math.ceil(-result / (double) TimeUnit.SECONDS.toNanos(1)));
+        response.setHeader(REMAINING, "0");
+        response.setHeader(RESET, Long.toString(retryAfter));
+        throttle(authentication.getName(), request, response, retryAfter);
+    }
+
+    private void throttle(String principal, HttpServletRequest request, HttpServletResponse response, long retryAfter)
+            throws IOException {
+        if (meterRegistry != null) {
+            boolean tagged = taggedPrincipals.contains(principal)
+                    || (taggedPrincipals.size() < MAX_TAGGED_PRINCIPALS && taggedPrincipals.add(principal));
+            Counter.builder("http.server.rate-limit.throttled")
+                    .description("Requests rejected by the per-principal rate limit")
+                    .tag("principal", tagged ? principal : "other")
+                    .register(meterRegistry)
+                    .increment();
+        }
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiError.of(status.value(), status.getReasonPhrase(),
+                "Rate limit exceeded, retry in " + retryAfter + "s", request.getRequestURI()));
+    }
+}
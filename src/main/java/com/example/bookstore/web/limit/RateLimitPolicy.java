@@ -0,0 +1,94 @@
+package com.example.bookstore.web.limit;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bucket size per principal: a per-user override if configured, else the most generous limit of
+ * the user's roles, else the default. Limits are written {@code capacity:refillPerSecond}, e.g.
+ * {@code 60:20} allows bursts of 60 requests and 20 per second sustained; entries of the role and
+ * user lists are {@code NAME=capacity:refillPerSecond}.
+ */
+public class RateLimitPolicy {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final Limit defaultLimit;
+    private final Map<String, Limit> roles;
+    private final Map<String, Limit> users;
+
+    public RateLimitPolicy(String defaultLimit, List<String> roles, List<String> users) {
+        this.defaultLimit = Limit.parse(defaultLimit);
+        this.roles = parseEntries(roles);
+        this.users = parseEntries(users);
+    }
+
+    public Limit limitFor(Authentication authentication) {
+        Limit user = users.get(authentication.getName());
+        if (user != null) {
+            return user;
+        }
+        Limit best = null;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            Limit role = roles.get(name.startsWith(ROLE_PREFIX) ? name.substring(ROLE_PREFIX.length()) : name);
+            if (role != null && (best == null || role.compareTo(best) > 0)) {
+                best = role;
+            }
+        }
+        return best != null ? best : defaultLimit;
+    }
+
+    private static Map<String, Limit> parseEntries(List<String> entries) {
+        Map<String, Limit> parsed = new HashMap<>();
+        for (String entry : entries) {
+            if (!StringUtils.hasText(entry)) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected NAME=capacity:refillPerSecond, got '" + entry + "'");
+            }
+            parsed.put(entry.substring(0, eq).trim(), Limit.parse(entry.substring(eq + 1)));
+        }
+        return Map.copyOf(parsed);
+    }
+
+    /**
+     * A bucket of {@code capacity} tokens refilled at {@code refillPerSecond}.
+     */
+    public record Limit(long capacity, double refillPerSecond) implements Comparable<Limit> {
+
+        public Limit {
+            if (capacity < 1 || !(refillPerSecond > 0)) {
+                throw new IllegalArgumentException("Rate limit needs capacity >= 1 and refill > 0");
+            }
+        }
+
+        static Limit parse(String value) {
+            String[] parts = value.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected capacity:refillPerSecond, got '" + value + "'");
+            }
+            return new Limit(Long.parseLong(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+        }
+
+        /**
+         * Seconds until a bucket holding {@code tokensLeft} is full again.
+         */
+        public long secondsToFill(long tokensLeft) {
+            return (long) Math.ceil((capacity - tokensLeft) / refillPerSecond);
+        }
+
+        @Override
+        public int compareTo(Limit other) {
+            int byRate = Double.compare(refillPerSecond, other.refillPerSecond);
+            return byRate != 0 ? byRate : Long.compare(capacity, other.capacity);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.bookstore.web.limit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Shared {@link TokenBucketStore} for fairness across nodes: each bucket is a Redis hash updated by
+ * one Lua script on the Redis clock, and expires once it would have refilled. While Redis is
+ * unreachable the node falls back to its own {@link StripedTokenBucketStore}, so requests are still
+ * limited, per node.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "redis")
+public class RedisTokenBucketStore implements TokenBucketStore {
+
+    private static final String KEY_PREFIX = "bookstore::rate-limit::";
+    private static final long FALLBACK_WARN_INTERVAL_NANOS = 10_000_000_000L;
+
+    /**
+     * KEYS[1] bucket; ARGV[1] capacity in millionths of a token; ARGV[2] refill per second, which is
+     * also millionths per microsecond. Returns what {@link TokenBucketStore#tryConsume} returns.
+     */
+    private static final RedisScript<Long> CONSUME = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local rate = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(bucket[1])
+            local ts = tonumber(bucket[2])
+            if tokens == nil or ts == nil then
+              tokens = capacity
+            else
+              tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate)
+            end
+            local result
+            if tokens >= 1000000 then
+              tokens = tokens - 1000000
+              result = math.floor(tokens / 1000000)
+            else
+              result = -math.max(1, math.ceil((1000000 - tokens) / rate * 1000))
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate / 1000) + 1000)
+            return result
+            """, Long.class);
+
+    private final StringRedisTemplate redis;
+    private final TokenBucketStore fallback;
+    private volatile long lastFallbackWarning;
+
+    public RedisTokenBucketStore(StringRedisTemplate redis,
+                                 @Value("${app.rate-limit.local.stripes:64}") int stripes,
+                                 @Value("${app.rate-limit.local.slots-per-stripe:256}") int slotsPerStripe) {
+        this(redis, new StripedTokenBucketStore(stripes, slotsPerStripe));
+    }
+
+    RedisTokenBucketStore(StringRedisTemplate redis, TokenBucketStore fallback) {
+        this.redis = redis;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public long tryConsume(String key, RateLimitPolicy.Limit limit) {
+        try {
+            Long result = redis.execute(CONSUME, List.of(KEY_PREFIX + key),
+                    Long.toString(limit.capacity() * StripedTokenBucketStore.MICROS_PER_TOKEN),
+                    Double.toString(limit.refillPerSecond()));
+            if (result != null) {
+                return result;
+            }
+        } catch (RuntimeException e) {
+            long now = System.nanoTime();
+            if (now - lastFallbackWarning > FALLBACK_WARN_INTERVAL_NANOS) {
+                lastFallbackWarning = now;
+                log.warn("Rate limit store unavailable, limiting per node until Redis is back", e);
+            }
+        }
+        return fallback.tryConsume(key, limit);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.bookstore.web.limit;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Node-local {@link TokenBucketStore}. Keys are reduced to a 64-bit hash and spread over
+ * lock-striped, open-addressed tables of primitive arrays, so a lookup allocates nothing and
+ * contends only with keys of the same stripe. Tokens are kept in millionths for exact refill
+ * arithmetic. When a probe window is full the least recently used bucket in it is replaced; an idle
+ * bucket has usually refilled completely, so forgetting it changes nothing.
+ */
+public class StripedTokenBucketStore implements TokenBucketStore {
+
+    static final long MICROS_PER_TOKEN = 1_000_000L;
+    private static final int MAX_PROBE = 8;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final LongSupplier nanoClock;
+
+    public StripedTokenBucketStore(int stripes, int slotsPerStripe) {
+        this(stripes, slotsPerStripe, System::nanoTime);
+    }
+
+    StripedTokenBucketStore(int stripes, int slotsPerStripe, LongSupplier nanoClock) {
+        int stripeCount = powerOfTwo(stripes);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(powerOfTwo(Math.max(MAX_PROBE, slotsPerStripe)));
+        }
+        this.stripeMask = stripeCount - 1;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public long tryConsume(String key, RateLimitPolicy.Limit limit) {
+        long hash = hash(key);
+        return stripes[(int) (hash >>> 40) & stripeMask].tryConsume(hash, limit, nanoClock.getAsLong());
+    }
+
+    /**
+     * FNV-1a over the chars of {@code key}, never 0 (0 marks a free slot).
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 29;
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static int powerOfTwo(int value) {
+        return Integer.highestOneBit(Math.max(1, value - 1)) << 1;
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long[] keys;
+        private final long[] tokens;
+        private final long[] updatedAt;
+        private final int mask;
+
+        Stripe(int slots) {
+            this.keys = new long[slots];
+            this.tokens = new long[slots];
+            this.updatedAt = new long[slots];
+            this.mask = slots - 1;
+        }
+
+        long tryConsume(long hash, RateLimitPolicy.Limit limit, long now) {
+            long capacity = limit.capacity() * MICROS_PER_TOKEN;
+            lock.lock();
+            try {
+                int slot = slotFor(hash);
+                long available;
+                if (keys[slot] != hash) {
+                    keys[slot] = hash;
+                    available = capacity;
+                } else {
+                    long elapsed = Math.max(0, now - updatedAt[slot]);
+                    double refilled = elapsed * limit.refillPerSecond() / 1_000.0;
+                    available = (long) Math.min(capacity, tokens[slot] + refilled);
+                }
+                updatedAt[slot] = now;
+                if (available >= MICROS_PER_TOKEN) {
+                    tokens[slot] = available - MICROS_PER_TOKEN;
+                    return tokens[slot] / MICROS_PER_TOKEN;
+                }
+                tokens[slot] = available;
+                double waitNanos = (MICROS_PER_TOKEN - available) * 1_000.0 / limit.refillPerSecond();
+                return -Math.max(1, (long) Math.ceil(waitNanos));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * The slot holding {@code hash}, else a free slot, else the least recently used slot of
+         * the probe window.
+         */
+        private int slotFor(long hash) {
+            int start = (int) hash & mask;
+            int victim = start;
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int slot = (start + i) & mask;
+                if (keys[slot] == hash || keys[slot] == 0) {
+                    return slot;
+                }
+                if (updatedAt[slot] - updatedAt[victim] < 0) {
+                    victim = slot;
+                }
+            }
+            return victim;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.bookstore.web.limit;
+
+/**
+ * Token buckets keyed by string. Results are packed into a {@code long} so that the per-request
+ * path allocates nothing.
+ */
+public interface TokenBucketStore {
+
+    /**
+     * Takes one token from the bucket {@code key}, creating it full if it does not exist.
+     *
+     * @return the whole tokens left ({@code >= 0}) if a token was taken, otherwise the negated
+     * number of nanoseconds until one will be available ({@code < 0})
+     */
+    long tryConsume(String key, RateLimitPolicy.Limit limit);
+}
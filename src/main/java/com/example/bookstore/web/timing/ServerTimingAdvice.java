@@ -0,0 +1,39 @@
+package com.example.bookstore.web.timing;
+
+import com.example.bookstore.monitoring.RequestTimings;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Writes the {@code Server-Timing} header of a request timed by {@link ServerTimingFilter} at the
+ * last moment headers can still be set, and marks the start of serialization for the filter.
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  MethodParameter returnType,
+                                  MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request,
+                                  ServerHttpResponse response) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null && request instanceof ServletServerHttpRequest servletRequest) {
+            response.getHeaders().set(ServerTimingFilter.HEADER, ServerTimingFilter.header(timings));
+            servletRequest.getServletRequest().setAttribute(ServerTimingFilter.SERIALIZATION_STARTED_AT, System.nanoTime());
+        }
+        return body;
+    }
+}
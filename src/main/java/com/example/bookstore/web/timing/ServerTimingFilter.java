@@ -0,0 +1,122 @@
+package com.example.bookstore.web.timing;
+
+import com.example.bookstore.monitoring.RequestTimings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage latency of {@code /api/**} requests. Binds a {@link RequestTimings} for the request;
+ * the stages reported into it are sent to the client in a {@code Server-Timing} header (written by
+ * {@link ServerTimingAdvice} just before the body, so serialization is not in it), and once the
+ * response is written, serialization included, recorded in the {@code http.server.stage} timer and
+ * as tags on the current trace span. Runs just inside the observation filter, so the span is the
+ * request's and {@code app} in the header includes authentication.
+ * <p>
+ * Streamed responses finish on other threads and are not broken down.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+    static final String SERIALIZATION = "ser";
+    static final String SERIALIZATION_STARTED_AT = ServerTimingFilter.class.getName() + ".serializationStartedAt";
+    private static final String CACHE = "cache";
+
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    private final boolean enabled;
+
+    @Autowired
+    public ServerTimingFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                              ObjectProvider<Tracer> tracer,
+                              @Value("${app.server-timing.enabled:true}") boolean enabled) {
+        this(meterRegistry.getIfAvailable(), tracer.getIfAvailable(), enabled);
+    }
+
+    ServerTimingFilter(MeterRegistry meterRegistry, Tracer tracer, boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            timings.close();
+            if (!request.isAsyncStarted()) {
+                report(request, timings);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, RequestTimings timings) {
+        if (request.getAttribute(SERIALIZATION_STARTED_AT) instanceof Long startedAt) {
+            timings.add(SERIALIZATION, System.nanoTime() - startedAt);
+        }
+        Map<String, Long> stages = timings.stages();
+        if (meterRegistry != null && !stages.isEmpty()) {
+            String uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern
+                    ? pattern
+                    : "UNKNOWN";
+            stages.forEach((stage, nanos) -> Timer.builder("http.server.stage")
+                    .description("Time spent in one stage of serving a request")
+                    .tags("uri", uri, "stage", stage)
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS));
+        }
+        Span span = tracer != null ? tracer.currentSpan() : null;
+        if (span != null) {
+            stages.forEach((stage, nanos) -> span.tag("timing." + stage + ".ms", RequestTimings.millis(nanos)));
+            if (timings.hasCacheLookups()) {
+                span.tag("cache.hits", Long.toString(timings.cacheHits()));
+                span.tag("cache.misses", Long.toString(timings.cacheMisses()));
+            }
+        }
+    }
+
+    /**
+     * E.g. {@code query;dur=0.05, es;dur=8.1, es-took;dur=6.0, cache;dur=1.2;desc="hits=18 misses=2",
+     * db;dur=3.4, map;dur=0.08, app;dur=14.9}: each stage so far, then the time since the request
+     * entered this filter.
+     */
+    static String header(RequestTimings timings) {
+        StringBuilder header = new StringBuilder(128);
+        for (Map.Entry<String, Long> stage : timings.stages().entrySet()) {
+            header.append(stage.getKey()).append(";dur=").append(RequestTimings.millis(stage.getValue()));
+            if (CACHE.equals(stage.getKey()) && timings.hasCacheLookups()) {
+                header.append(";desc=\"hits=").append(timings.cacheHits())
+                        .append(" misses=").append(timings.cacheMisses()).append('"');
+            }
+            header.append(", ");
+        }
+        return header.append("app;dur=").append(RequestTimings.millis(timings.elapsedNanos())).toString();
+    }
+}
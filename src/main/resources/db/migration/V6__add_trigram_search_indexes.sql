@@ -0,0 +1,14 @@
+-- Substring search (lower(col) LIKE '%q%') used by the admin listing; B-tree indexes cannot serve it.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_books_title_trgm ON books USING gin (lower(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_authors_name_trgm ON authors USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_genres_name_trgm ON genres USING gin (lower(name) gin_trgm_ops);
+
+-- Author/genre matches are resolved to ids first and then probed here.
+CREATE INDEX IF NOT EXISTS idx_books_author_id ON books(author_id);
+CREATE INDEX IF NOT EXISTS idx_books_genre_id ON books(genre_id);
+
+ANALYZE books;
+ANALYZE authors;
+ANALYZE genres;
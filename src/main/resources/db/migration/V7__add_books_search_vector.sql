@@ -0,0 +1,6 @@
+-- Full-text column for the degraded search path used while Elasticsearch is unavailable.
+ALTER TABLE books
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (to_tsvector('simple', coalesce(title, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_books_search_vector ON books USING gin (search_vector);
@@ -105,6 +105,27 @@ class BookCacheTest {
     }
 
 
+    @Test
+    void positive_computeIfPresentReplacesCachedDoc() {
+        BookDocument cached = BookDocument.builder().id(4L).title("old").build();
+        when(cache.get(4L, BookDocument.class)).thenReturn(cached);
+
+        bookCache.computeIfPresent(4L, d -> BookDocument.builder().id(d.getId()).title("new").build());
+
+        verify(cache).put(keyCaptor.capture(), valueCaptor.capture());
+        assertEquals(4L, keyCaptor.getValue());
+        assertEquals("new", valueCaptor.getValue().getTitle());
+    }
+
+    @Test
+    void negative_computeIfPresentSkipsUncachedDoc() {
+        when(cache.get(5L, BookDocument.class)).thenReturn(null);
+
+        bookCache.computeIfPresent(5L, d -> d);
+
+        verify(cache, never()).put(any(), any());
+    }
+
     private static BookDocument mockDoc(Long id) {
         BookDocument doc = mock(BookDocument.class);
         when(doc.getId()).thenReturn(id);
@@ -0,0 +1,42 @@
+package com.example.bookstore.cache.impl;
+
+import com.example.bookstore.search.model.BookDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveBookCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final ReactiveValueOperations<String, Object> values = mock(ReactiveValueOperations.class);
+    private final ReactiveBookCache cache = new ReactiveBookCache(values, "bookstore::booksById::");
+
+    @Test
+    void getAllByIds_readsTheFacadeKeysInOneMultiGet() {
+        BookDocument dune = BookDocument.builder().id(1L).title("Dune").build();
+        BookDocument hobbit = BookDocument.builder().id(3L).title("Hobbit").build();
+        when(values.multiGet(List.of("bookstore::booksById::1", "bookstore::booksById::2", "bookstore::booksById::3")))
+                .thenReturn(Mono.just(Arrays.asList(dune, null, hobbit)));
+
+        List<BookDocument> found = cache.getAllByIds(Arrays.asList(1L, 2L, 1L, null, 3L)).block();
+
+        assertThat(found).containsExactly(dune, hobbit);
+    }
+
+    @Test
+    void getAllByIds_withoutIds_skipsRedis() {
+        assertThat(cache.getAllByIds(List.of()).block()).isEmpty();
+
+        verify(values, never()).multiGet(any());
+    }
+}
@@ -32,13 +32,13 @@ class KafkaConfigTest {
             assertThat(ctx).hasSingleBean(ProducerFactory.class);
             assertThat(ctx).hasSingleBean(KafkaTemplate.class);
             assertThat(ctx).hasSingleBean(ConsumerFactory.class);
-            assertThat(ctx).hasSingleBean(NewTopic.class);
+            assertThat(ctx.getBeansOfType(NewTopic.class)).hasSize(2);
             @SuppressWarnings("unchecked")
             ProducerFactory<String, BookEvent> pf = (ProducerFactory<String, BookEvent>) ctx.getBean(ProducerFactory.class);
             KafkaTemplate<String, BookEvent> kt = (KafkaTemplate<String, BookEvent>) ctx.getBean(KafkaTemplate.class);
             @SuppressWarnings("unchecked")
             ConsumerFactory<String, BookEvent> cf = (ConsumerFactory<String, BookEvent>) ctx.getBean(ConsumerFactory.class);
-            NewTopic topic = ctx.getBean(NewTopic.class);
+            NewTopic topic = ctx.getBean("bookEventsTopic", NewTopic.class);
             assertThat(pf).isNotNull();
             assertThat(kt).isNotNull();
             assertThat(cf).isNotNull();
@@ -46,6 +46,15 @@ class KafkaConfigTest {
         });
     }
 
+    @Test
+    void snapshotTopicIsCompacted() {
+        okRunner.run(ctx -> {
+            NewTopic snapshots = ctx.getBean("bookSnapshotsTopic", NewTopic.class);
+            assertThat(snapshots.name()).isEqualTo("book.snapshots");
+            assertThat(snapshots.configs()).containsEntry("cleanup.policy", "compact");
+        });
+    }
+
     @Test
     void producerFactoryHasCorrectConfigs() {
         okRunner.run(ctx -> {
@@ -68,6 +77,14 @@ class KafkaConfigTest {
         });
     }
 
+    @Test
+    void binaryFormatSwitchesProducerSerializer() {
+        okRunner.withPropertyValues("app.kafka.serialization.format=binary").run(ctx -> {
+            ProducerFactory<?, ?> pf = ctx.getBean(ProducerFactory.class);
+            assertThat(String.valueOf(pf.getConfigurationProperties().get("value.serializer")))
+                    .contains("BookEventBinarySerializer");
+        });
+    }
 
     @Test
     void failsWithoutBootstrapServers_onSend() {
@@ -1,10 +1,12 @@
 package com.example.bookstore.config;
 
 
+import com.example.bookstore.security.CachingAuthenticationProvider;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -13,7 +15,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,6 +34,8 @@ class SecurityConfigTest {
     @Autowired
     UserDetailsService userDetailsService;
 
+    @Autowired
+    AuthenticationProvider authenticationProvider;
 
     @Test
     void privateEndpoint_unauthorizedWithoutAuth() throws Exception {
@@ -43,6 +49,28 @@ class SecurityConfigTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void privateEndpoint_repeatedValidCredentials_areAccepted() throws Exception {
+        assertThat(authenticationProvider).isInstanceOf(CachingAuthenticationProvider.class);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/private/hello").with(httpBasic("user", "user123")))
+                    .andExpect(authenticated().withUsername("user"));
+        }
+        mockMvc.perform(get("/private/hello").with(httpBasic("user", "badpwd")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void flightRecordingEndpoint_isAdminOnly() throws Exception {
+        mockMvc.perform(get("/actuator/flightrecording"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/flightrecording/dump").with(httpBasic("user", "user123")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().is(not(401)));
+    }
+
     @Test
     void passwordEncoder_andUsers_areWired() {
         UserDetails admin = userDetailsService.loadUserByUsername("admin");
@@ -2,6 +2,7 @@ package com.example.bookstore.controller;
 
 
 import com.example.bookstore.search.service.BookSearchCustomService;
+import com.example.bookstore.search.suggest.BookSuggestService;
 import com.example.bookstore.web.ApiExceptionHandler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,11 +33,14 @@ class BookControllerSecurityTest {
     @MockBean
     private BookSearchCustomService bookSearchService;
 
+    @MockBean
+    private BookSuggestService bookSuggestService;
+
     @BeforeEach
     void setupMock() {
         Mockito.when(bookSearchService.searchBooks(
                 Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
-                Mockito.any(), Mockito.any(), Mockito.any())
+                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())
         ).thenReturn(new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 10), 0));
     }
 
@@ -1,7 +1,12 @@
 package com.example.bookstore.controller;
 
 
+import com.example.bookstore.exception.SearchUnavailableException;
+import com.example.bookstore.search.dto.BookSuggestion;
+import com.example.bookstore.search.query.TotalHitsPolicy;
 import com.example.bookstore.search.service.BookSearchCustomService;
+import com.example.bookstore.search.dto.BookSearchItem;
+import com.example.bookstore.search.suggest.BookSuggestService;
 import com.example.bookstore.web.ApiExceptionHandler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,14 +18,25 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookController.class)
@@ -33,11 +49,14 @@ class BookControllerTest {
     @MockBean
     private BookSearchCustomService bookSearchService;
 
+    @MockBean
+    private BookSuggestService bookSuggestService;
+
     @BeforeEach
     void setupMock() {
         Mockito.when(bookSearchService.searchBooks(
                 Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
-                Mockito.any(), Mockito.any(), Mockito.any())
+                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())
         ).thenReturn(new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 10), 0));
     }
 
@@ -62,7 +81,7 @@ class BookControllerTest {
 
         verify(bookSearchService).searchBooks(
                 Mockito.any(), Mockito.eq("Spring"), Mockito.any(), Mockito.any(),
-                Mockito.any(), Mockito.any(), Mockito.any());
+                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
     }
 
     @Test
@@ -73,7 +92,7 @@ class BookControllerTest {
 
         verify(bookSearchService).searchBooks(
                 Mockito.any(), Mockito.any(), Mockito.eq("John"), Mockito.any(),
-                Mockito.any(), Mockito.any(), Mockito.any());
+                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
     }
 
     @Test
@@ -84,7 +103,79 @@ class BookControllerTest {
 
         verify(bookSearchService).searchBooks(
                 Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
-                Mockito.any(), Mockito.any(), Mockito.any());
+                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldPassTotalHitsPolicyToService() throws Exception {
+        mockMvc.perform(get("/api/v1/books").param("q", "dune").param("totalHits", "false"))
+                .andExpect(status().isOk());
+
+        verify(bookSearchService).searchBooks(
+                Mockito.eq("dune"), Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.eq(TotalHitsPolicy.NONE), Mockito.eq(false));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldRejectInvalidTotalHitsPolicy() throws Exception {
+        mockMvc.perform(get("/api/v1/books").param("totalHits", "-5"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldReturnCountFromService() throws Exception {
+        Mockito.when(bookSearchService.countBooks(null, null, null, "Fantasy", null, null)).thenReturn(42L);
+
+        mockMvc.perform(get("/api/v1/books/count").param("genre", "Fantasy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(42))
+                .andExpect(header().string("Server-Timing", startsWith("app;dur=")));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldAnswerCountWith503AndRetryAfterWhileSearchIsUnavailable() throws Exception {
+        Mockito.when(bookSearchService.countBooks("dune", null, null, null, null, null))
+                .thenThrow(new SearchUnavailableException("Search is unavailable, retry later", null, 12));
+
+        mockMvc.perform(get("/api/v1/books/count").param("q", "dune"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "12"))
+                .andExpect(jsonPath("$.status").value(503));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldReturnSuggestionsWithIdAndTitleOnly() throws Exception {
+        Mockito.when(bookSuggestService.suggest("dra", 5)).thenReturn(List.of(new BookSuggestion(7L, "Dragon Harbor")));
+
+        mockMvc.perform(get("/api/v1/books/suggest").param("prefix", "dra").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(jsonPath("$[0].title").value("Dragon Harbor"))
+                .andExpect(jsonPath("$[0].price").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldStreamSearchItemsAsNdjson() throws Exception {
+        Mockito.when(bookSearchService.streamBooks(Mockito.eq("dune"), Mockito.isNull(), Mockito.isNull(), Mockito.isNull(),
+                        Mockito.isNull(), Mockito.isNull(), Mockito.any()))
+                .thenReturn(Flux.just(BookSearchItem.builder().id(1L).title("Dune").build(),
+                        BookSearchItem.builder().id(2L).title("Dune Messiah").build()));
+
+        MvcResult started = mockMvc.perform(get("/api/v1/books/stream").param("q", "dune"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(startsWith("{\"id\":1,\"title\":\"Dune\",")))
+                .andExpect(content().string(containsString("}\n{\"id\":2,\"title\":\"Dune Messiah\",")));
     }
 
     @Test
@@ -114,7 +205,7 @@ class BookControllerTest {
 
         verify(bookSearchService).searchBooks(
                 Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
-                Mockito.any(), Mockito.any(), Mockito.any());
+                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.example.bookstore.kafka.consumer;
+
+import com.example.bookstore.config.KafkaConfig;
+import com.example.bookstore.kafka.event.BookEvent;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Two application instances against one broker: both broadcast consumers must see every event,
+ * which a shared consumer group would split between them, including events published right after
+ * the context started (while the in-memory structures would still be loading).
+ */
+@EmbeddedKafka(topics = BookEventBroadcastFanOutTest.TOPIC, partitions = 1)
+class BookEventBroadcastFanOutTest {
+
+    static final String TOPIC = "book.events.fanout";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void everyInstanceReceivesEventsPublishedFromStartupOn(EmbeddedKafkaBroker broker) {
+        Queue<BookEvent> first = new ConcurrentLinkedQueue<>();
+        Queue<BookEvent> second = new ConcurrentLinkedQueue<>();
+
+        instance(broker, first).run(one -> instance(broker, second).run(two -> {
+            KafkaTemplate<String, BookEvent> template = one.getBean(KafkaTemplate.class);
+            template.send(TOPIC, "1", BookEvent.builder().id(1L).type("delete").build());
+            template.send(TOPIC, "2", BookEvent.builder().id(2L).type("delete").build());
+
+            await().atMost(Duration.ofSeconds(30)).untilAsserted(() -> {
+                assertThat(first).extracting(BookEvent::getId).containsExactly(1L, 2L);
+                assertThat(second).extracting(BookEvent::getId).containsExactly(1L, 2L);
+            });
+        }));
+
+        try (AdminClient admin = AdminClient.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()))) {
+            assertThat(admin.listConsumerGroups().all().get()).isEmpty();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static ApplicationContextRunner instance(EmbeddedKafkaBroker broker, Queue<BookEvent> received) {
+        return new ApplicationContextRunner()
+                .withUserConfiguration(KafkaConfig.class, BookEventBroadcastListener.class)
+                .withBean(BookEventSubscriber.class, () -> received::add)
+                .withPropertyValues(
+                        "spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                        "spring.kafka.consumer.group-id=bookstore-writer",
+                        "spring.kafka.consumer.auto-offset-reset=latest",
+                        "app.kafka.topics.book.events=" + TOPIC);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bookstore.kafka.consumer;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class BookEventBroadcastListenerTest {
+
+    @Test
+    void handsEachNewVersionToEverySubscriberOnce() {
+        List<BookEvent> first = new ArrayList<>();
+        List<BookEvent> second = new ArrayList<>();
+        BookEventBroadcastListener listener = new BookEventBroadcastListener(mock(ConsumerFactory.class), 64, List.of(first::add, second::add));
+        BookEvent v1 = BookEvent.builder().id(13L).type("create").version(1L).build();
+        BookEvent v2 = BookEvent.builder().id(13L).type("update").version(2L).build();
+
+        listener.onEvent(v1);
+        listener.onEvent(v2);
+        listener.onEvent(v1);
+        listener.onEvent(v2);
+
+        assertThat(first).containsExactly(v1, v2);
+        assertThat(second).containsExactly(v1, v2);
+    }
+
+    @Test
+    void failingSubscriberDoesNotStopTheOthers() {
+        List<BookEvent> received = new ArrayList<>();
+        BookEventSubscriber failing = event -> {
+            throw new IllegalStateException("boom");
+        };
+        BookEventBroadcastListener listener = new BookEventBroadcastListener(mock(ConsumerFactory.class), 64, List.of(failing, received::add));
+        BookEvent event = BookEvent.builder().id(1L).type("delete").build();
+
+        listener.onEvent(event);
+        listener.onEvent(null);
+
+        assertThat(received).containsExactly(event);
+    }
+}
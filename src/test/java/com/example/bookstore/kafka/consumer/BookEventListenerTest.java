@@ -1,6 +1,7 @@
 package com.example.bookstore.kafka.consumer;
 
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
@@ -9,26 +10,46 @@ import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import com.example.bookstore.cache.BookCache;
 import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
 import com.example.bookstore.kafka.mapper.BookEventMapper;
+import com.example.bookstore.kafka.metrics.BookEventMetrics;
 import com.example.bookstore.search.model.BookDocument;
 import com.example.bookstore.search.repository.BookSearchRepository;
+import com.example.bookstore.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
 @ExtendWith(MockitoExtension.class)
 class BookEventListenerTest {
 
     @org.mockito.Mock
     private BookSearchRepository searchRepository;
 
+    @org.mockito.Mock
+    private BookCache bookCache;
+
+    @org.mockito.Mock
+    private BookService bookService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookEventMetrics eventMetrics = new BookEventMetrics(meterRegistry);
+    private final BookVersionWatermark watermark = new BookVersionWatermark(64);
+
     @Test
     @DisplayName("create -> saves mapped document")
     void shouldSaveDocumentOnCreateEvent() {
-        BookEventListener listener = new BookEventListener(searchRepository);
+        BookEventListener listener = new BookEventListener(searchRepository, eventMetrics, watermark, bookCache, bookService);
         BookEvent event = mock(BookEvent.class);
         when(event.getType()).thenReturn("create");
 
@@ -46,7 +67,7 @@ class BookEventListenerTest {
     @Test
     @DisplayName("update -> saves mapped document")
     void shouldSaveDocumentOnUpdateEvent() {
-        BookEventListener listener = new BookEventListener(searchRepository);
+        BookEventListener listener = new BookEventListener(searchRepository, eventMetrics, watermark, bookCache, bookService);
         BookEvent event = mock(BookEvent.class);
         when(event.getType()).thenReturn("update");
 
@@ -64,7 +85,7 @@ class BookEventListenerTest {
     @Test
     @DisplayName("delete -> deletes by id")
     void shouldDeleteByIdOnDeleteEvent() {
-        BookEventListener listener = new BookEventListener(searchRepository);
+        BookEventListener listener = new BookEventListener(searchRepository, eventMetrics, watermark, bookCache, bookService);
         BookEvent event = mock(BookEvent.class);
         when(event.getType()).thenReturn("delete");
         when(event.getId()).thenReturn(3L);
@@ -78,7 +99,7 @@ class BookEventListenerTest {
     @Test
     @DisplayName("create -> swallows repository save exception")
     void shouldSwallowExceptionWhenSaveFails() {
-        BookEventListener listener = new BookEventListener(searchRepository);
+        BookEventListener listener = new BookEventListener(searchRepository, eventMetrics, watermark, bookCache, bookService);
         BookEvent event = mock(BookEvent.class);
         when(event.getType()).thenReturn("create");
 
@@ -97,7 +118,7 @@ class BookEventListenerTest {
     @Test
     @DisplayName("create -> swallows mapper exception and does not call save")
     void shouldSwallowExceptionWhenMapperFails() {
-        BookEventListener listener = new BookEventListener(searchRepository);
+        BookEventListener listener = new BookEventListener(searchRepository, eventMetrics, watermark, bookCache, bookService);
         BookEvent event = mock(BookEvent.class);
         when(event.getType()).thenReturn("create");
 
@@ -111,7 +132,7 @@ class BookEventListenerTest {
     @Test
     @DisplayName("delete -> swallows repository delete exception")
     void shouldSwallowExceptionWhenDeleteFails() {
-        BookEventListener listener = new BookEventListener(searchRepository);
+        BookEventListener listener = new BookEventListener(searchRepository, eventMetrics, watermark, bookCache, bookService);
         BookEvent event = mock(BookEvent.class);
         when(event.getType()).thenReturn("delete");
         when(event.getId()).thenReturn(6L);
@@ -123,4 +144,111 @@ class BookEventListenerTest {
         verify(searchRepository).deleteById(6L);
         verifyNoMoreInteractions(searchRepository);
     }
+
+    @Test
+    @DisplayName("versioned events -> stale and duplicate redeliveries are skipped before indexing")
+    void shouldSkipStaleAndDuplicateEvents() {
+        BookEventListener listener = new BookEventListener(searchRepository, eventMetrics, watermark, bookCache, bookService);
+        BookEvent v2 = BookEvent.builder().id(9L).type("update").title("v2").version(2L).build();
+        BookEvent v2Again = BookEvent.builder().id(9L).type("update").title("v2").version(2L).build();
+        BookEvent v1 = BookEvent.builder().id(9L).type("update").title("v1").version(1L).build();
+
+        listener.onEvent(v2);
+        listener.onEvent(v2Again);
+        listener.onEvent(v1);
+
+        verify(searchRepository).deleteById(9L);
+        verify(searchRepository).save(org.mockito.ArgumentMatchers.argThat(d -> "v2".equals(d.getTitle())));
+        verifyNoMoreInteractions(searchRepository);
+        assertEquals(1.0, meterRegistry.get("book.events.skipped").tag("reason", "duplicate").counter().count());
+        assertEquals(1.0, meterRegistry.get("book.events.skipped").tag("reason", "stale").counter().count());
+    }
+
+    @Test
+    @DisplayName("versioned events -> failed index write does not advance the watermark")
+    void shouldRetryVersionAfterFailedWrite() {
+        BookEventListener listener = new BookEventListener(searchRepository, eventMetrics, watermark, bookCache, bookService);
+        BookEvent delete = BookEvent.builder().id(11L).type("delete").version(3L).build();
+        doThrow(new RuntimeException("boom")).doNothing().when(searchRepository).deleteById(11L);
+
+        listener.onEvent(delete);
+        listener.onEvent(delete);
+
+        verify(searchRepository, org.mockito.Mockito.times(2)).deleteById(11L);
+        assertEquals(3L, watermark.get(11L));
+    }
+
+    @Test
+    @DisplayName("patch -> partial index update and cached document patched in place")
+    void shouldApplyPatchToIndexAndCache() {
+        BookEventListener listener = new BookEventListener(searchRepository, eventMetrics, watermark, bookCache, bookService);
+        BookEvent patch = BookEvent.builder().id(12L).type("patch").version(5L)
+                .changedFields(EnumSet.of(BookEventField.PRICE)).price(new BigDecimal("9.50")).build();
+        when(searchRepository.partialUpdate(12L, Map.of("price", new BigDecimal("9.50")))).thenReturn(true);
+
+        listener.onEvent(patch);
+
+        verify(searchRepository).partialUpdate(12L, Map.of("price", new BigDecimal("9.50")));
+        verify(bookCache).computeIfPresent(org.mockito.ArgumentMatchers.eq(12L), org.mockito.ArgumentMatchers.any());
+        verifyNoMoreInteractions(searchRepository);
+        assertEquals(5L, watermark.get(12L));
+    }
+
+    @Test
+    @DisplayName("patch -> document missing from the index is indexed in full from the database")
+    void shouldIndexFromDatabaseWhenPatchedDocumentIsMissing() {
+        BookEventListener listener = new BookEventListener(searchRepository, eventMetrics, watermark, bookCache, bookService);
+        BookEvent patch = BookEvent.builder().id(14L).type("patch").version(2L)
+                .changedFields(EnumSet.of(BookEventField.PRICE)).price(new BigDecimal("7.00")).build();
+        BookDocument row = new BookDocument();
+        row.setId(14L);
+        row.setTitle("Refactoring");
+        row.setPrice(new BigDecimal("7.00"));
+        when(searchRepository.partialUpdate(14L, Map.of("price", new BigDecimal("7.00")))).thenReturn(false);
+        when(bookService.getDocumentsByIds(List.of(14L))).thenReturn(List.of(row));
+
+        listener.onEvent(patch);
+
+        org.mockito.InOrder order = org.mockito.Mockito.inOrder(bookCache, bookService, searchRepository);
+        order.verify(bookCache).evict(14L);
+        order.verify(bookService).getDocumentsByIds(List.of(14L));
+        order.verify(searchRepository).save(row);
+        verify(bookCache, org.mockito.Mockito.never()).computeIfPresent(org.mockito.ArgumentMatchers.eq(14L), org.mockito.ArgumentMatchers.any());
+        assertEquals(2L, watermark.get(14L));
+    }
+
+    @Test
+    @DisplayName("embedded engine -> event is marked applied and Elasticsearch is not touched")
+    void shouldNotTouchElasticsearchInEmbeddedMode() {
+        BookEventListener listener = new BookEventListener(searchRepository, eventMetrics, watermark, bookCache, bookService);
+        org.springframework.test.util.ReflectionTestUtils.setField(listener, "searchEngine", "embedded");
+        BookEvent event = BookEvent.builder().id(13L).type("create").title("t").version(1L).build();
+
+        listener.onEvent(event);
+        listener.onEvent(event);
+
+        verifyNoInteractions(searchRepository);
+        assertEquals(1L, watermark.get(13L));
+        assertEquals(1.0, meterRegistry.get("book.events.skipped").tag("reason", "duplicate").counter().count());
+    }
+
+    @Test
+    @DisplayName("versioned events -> a full watermark set keeps the recently updated book, so its stale replay is skipped")
+    void shouldSkipStaleReplayOfRecentlyUpdatedBookAfterSetFillsUp() {
+        BookVersionWatermark singleSet = new BookVersionWatermark(4);
+        BookEventListener listener = new BookEventListener(searchRepository, eventMetrics, singleSet, bookCache, bookService);
+        // The hot book has a low per-book version; the others were created with higher ones.
+        listener.onEvent(BookEvent.builder().id(20L).type("delete").version(1L).build());
+        for (long id = 21; id <= 23; id++) {
+            listener.onEvent(BookEvent.builder().id(id).type("delete").version(100L).build());
+        }
+        listener.onEvent(BookEvent.builder().id(20L).type("delete").version(2L).build());
+        listener.onEvent(BookEvent.builder().id(24L).type("delete").version(100L).build());
+
+        listener.onEvent(BookEvent.builder().id(20L).type("delete").version(1L).build());
+
+        verify(searchRepository, org.mockito.Mockito.times(2)).deleteById(20L);
+        assertEquals(2L, singleSet.get(20L));
+        assertEquals(1.0, meterRegistry.get("book.events.skipped").tag("reason", "stale").counter().count());
+    }
 }
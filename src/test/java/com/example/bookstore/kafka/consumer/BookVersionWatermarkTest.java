@@ -0,0 +1,56 @@
+package com.example.bookstore.kafka.consumer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookVersionWatermarkTest {
+
+    @Test
+    void shouldReturnNoneForUnknownBook() {
+        BookVersionWatermark watermark = new BookVersionWatermark(16);
+
+        assertThat(watermark.get(1L)).isEqualTo(BookVersionWatermark.NONE);
+    }
+
+    @Test
+    void shouldKeepHighestVersion() {
+        BookVersionWatermark watermark = new BookVersionWatermark(16);
+
+        watermark.advance(1L, 5L);
+        watermark.advance(1L, 3L);
+
+        assertThat(watermark.get(1L)).isEqualTo(5L);
+        assertThat(watermark.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStayWithinCapacity() {
+        BookVersionWatermark watermark = new BookVersionWatermark(64);
+
+        for (long id = 1; id <= 10_000; id++) {
+            watermark.advance(id, id);
+        }
+
+        assertThat(watermark.size()).isLessThanOrEqualTo(watermark.capacity());
+        assertThat(watermark.capacity()).isEqualTo(64);
+        assertThat(watermark.get(10_000L)).isEqualTo(10_000L);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedWhenSetIsFull() {
+        BookVersionWatermark watermark = new BookVersionWatermark(4);
+
+        watermark.advance(1L, 10L);
+        watermark.advance(2L, 1L);
+        watermark.advance(3L, 20L);
+        watermark.advance(4L, 30L);
+        watermark.advance(2L, 2L);
+        watermark.advance(5L, 40L);
+
+        assertThat(watermark.get(1L)).isEqualTo(BookVersionWatermark.NONE);
+        assertThat(watermark.get(2L)).isEqualTo(2L);
+        assertThat(watermark.get(3L)).isEqualTo(20L);
+        assertThat(watermark.get(5L)).isEqualTo(40L);
+    }
+}
@@ -4,11 +4,15 @@ import com.example.bookstore.domain.Author;
 import com.example.bookstore.domain.Book;
 import com.example.bookstore.domain.Genre;
 import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
 import com.example.bookstore.search.model.BookDocument;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,7 +43,6 @@ class BookEventMapperTest {
         assertEquals("Eric Evans", event.getAuthorName());
         assertEquals("Design", event.getGenreName());
         assertEquals(0, new BigDecimal("55.99").compareTo(event.getPrice()));
-        assertEquals("classic", event.getCaption());
     }
 
     @Test
@@ -53,7 +56,6 @@ class BookEventMapperTest {
         assertNull(event.getAuthorName());
         assertNull(event.getGenreName());
         assertNull(event.getPrice());
-        assertNull(event.getCaption());
     }
 
     @Test
@@ -72,7 +74,6 @@ class BookEventMapperTest {
                 .authorName("Robert C. Martin")
                 .genreName("Programming")
                 .price(new BigDecimal("39.00"))
-                .caption("ignored-by-mapper")
                 .build();
 
         BookDocument doc = BookEventMapper.toDocument(event);
@@ -84,4 +85,65 @@ class BookEventMapperTest {
         assertEquals("Programming", doc.getGenreName());
         assertEquals(0, new BigDecimal("39.00").compareTo(doc.getPrice()));
     }
+
+    @Test
+    @DisplayName("toBookEvent(entity) tolerates a book without author or genre")
+    void toBookEventWithoutAuthorAndGenre() {
+        Book book = new Book();
+        book.setId(3L);
+        book.setTitle("Untitled");
+
+        BookEvent event = BookEventMapper.toBookEvent("update", book);
+
+        assertNull(event.getAuthorName());
+        assertNull(event.getGenreName());
+    }
+
+    @Test
+    @DisplayName("changedFields ignores price scale and reports differing fields only")
+    void changedFieldsComparesIndexedFields() {
+        BookEvent before = BookEvent.builder().title("A").authorName("X").genreName("G")
+                .price(new BigDecimal("10.0")).build();
+        BookEvent after = BookEvent.builder().title("A").authorName("Y").genreName("G")
+                .price(new BigDecimal("10.00")).build();
+
+        assertEquals(EnumSet.of(BookEventField.AUTHOR_NAME), BookEventMapper.changedFields(before, after));
+        assertTrue(BookEventMapper.changedFields(before, before).isEmpty());
+    }
+
+    @Test
+    @DisplayName("toPatchEvent carries only the changed fields")
+    void toPatchEventCarriesChangedFieldsOnly() {
+        Book book = new Book();
+        book.setId(8L);
+        book.setTitle("Refactoring");
+        book.setPrice(new BigDecimal("45.00"));
+        book.setVersion(4L);
+
+        BookEvent patch = BookEventMapper.toPatchEvent(book, Set.of(BookEventField.PRICE));
+
+        assertEquals("patch", patch.getType());
+        assertEquals(8L, patch.getId());
+        assertEquals(4L, patch.getVersion());
+        assertEquals(EnumSet.of(BookEventField.PRICE), patch.getChangedFields());
+        assertEquals(0, new BigDecimal("45.00").compareTo(patch.getPrice()));
+        assertNull(patch.getTitle());
+        assertEquals(Map.of("price", new BigDecimal("45.00")), BookEventMapper.toPartialDocument(patch));
+    }
+
+    @Test
+    @DisplayName("applyPatch overwrites changed fields and keeps the rest")
+    void applyPatchKeepsUnchangedFields() {
+        BookDocument cached = BookDocument.builder().id(8L).title("Refactoring").authorName("Fowler")
+                .genreName("Programming").price(new BigDecimal("40.00")).build();
+        BookEvent patch = BookEvent.builder().id(8L).type("patch")
+                .changedFields(EnumSet.of(BookEventField.PRICE)).price(new BigDecimal("45.00")).build();
+
+        BookDocument patched = BookEventMapper.applyPatch(cached, patch);
+
+        assertEquals("Refactoring", patched.getTitle());
+        assertEquals("Fowler", patched.getAuthorName());
+        assertEquals(0, new BigDecimal("45.00").compareTo(patched.getPrice()));
+        assertEquals(0, new BigDecimal("40.00").compareTo(cached.getPrice()));
+    }
 }
@@ -0,0 +1,77 @@
+package com.example.bookstore.kafka.metrics;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookEventMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private BookEventMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new BookEventMetrics(registry);
+    }
+
+    @Test
+    void shouldRecordEventAgePerStage() {
+        BookEvent event = BookEvent.builder()
+                .id(1L)
+                .committedAt(Instant.now().minusSeconds(2))
+                .build();
+
+        metrics.recordConsumed(event);
+        metrics.recordIndexed(event);
+
+        Timer consumed = registry.get("book.events.age").tag("stage", "consumed").timer();
+        Timer indexed = registry.get("book.events.age").tag("stage", "indexed").timer();
+        assertThat(consumed.count()).isEqualTo(1);
+        assertThat(consumed.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(2000);
+        assertThat(indexed.count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSkipEventsWithoutCommitTimestamp() {
+        metrics.recordConsumed(BookEvent.builder().id(1L).build());
+
+        assertThat(registry.get("book.events.age").tag("stage", "consumed").timer().count()).isZero();
+    }
+
+    @Test
+    void shouldClampFutureTimestampsToZero() {
+        metrics.recordConsumed(BookEvent.builder().id(1L).committedAt(Instant.now().plusSeconds(60)).build());
+
+        Timer consumed = registry.get("book.events.age").tag("stage", "consumed").timer();
+        assertThat(consumed.count()).isEqualTo(1);
+        assertThat(consumed.totalTime(TimeUnit.MILLISECONDS)).isZero();
+    }
+
+    @Test
+    void shouldExposeLagPerPartition() {
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        TopicPartition p0 = new TopicPartition("book.events", 0);
+        TopicPartition p1 = new TopicPartition("book.events", 1);
+        when(consumer.currentLag(p0)).thenReturn(OptionalLong.of(7));
+        when(consumer.currentLag(p1)).thenReturn(OptionalLong.empty());
+
+        metrics.recordLag(consumer, p0);
+        metrics.recordLag(consumer, p1);
+
+        assertThat(registry.get("book.events.consumer.lag").tag("partition", "0").gauge().value()).isEqualTo(7.0);
+        assertThat(registry.find("book.events.consumer.lag").tag("partition", "1").gauge()).isNull();
+    }
+}
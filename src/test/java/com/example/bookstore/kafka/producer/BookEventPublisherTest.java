@@ -25,6 +25,10 @@ class BookEventPublisherTest {
         var topicField = BookEventPublisher.class.getDeclaredField("topic");
         topicField.setAccessible(true);
         topicField.set(publisher, "book-events");
+
+        var snapshotTopicField = BookEventPublisher.class.getDeclaredField("snapshotTopic");
+        snapshotTopicField.setAccessible(true);
+        snapshotTopicField.set(publisher, "book-snapshots");
     }
 
     @Test
@@ -105,4 +109,22 @@ class BookEventPublisherTest {
     }
 
 
+
+    @Test
+    void shouldSendSnapshotKeyedByIdToSnapshotTopic() {
+        BookEvent snapshot = new BookEvent();
+        snapshot.setId(5L);
+        snapshot.setTitle("Refactoring");
+
+        publisher.publishSnapshot(snapshot);
+
+        verify(kafkaTemplate).send("book-snapshots", "5", snapshot);
+    }
+
+    @Test
+    void shouldSendNullValueAsTombstone() {
+        publisher.publishTombstone(6L);
+
+        verify(kafkaTemplate).send("book-snapshots", "6", null);
+    }
 }
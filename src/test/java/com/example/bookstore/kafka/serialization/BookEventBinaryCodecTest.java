@@ -0,0 +1,138 @@
+package com.example.bookstore.kafka.serialization;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookEventBinaryCodecTest {
+
+    private static BookEvent fullEvent() {
+        return BookEvent.builder()
+                .id(42L)
+                .type("update")
+                .title("Harry Potter and the Philosopher's Stone — Ünïcode")
+                .authorName("J. K. Rowling")
+                .genreName("Fantasy")
+                .price(new BigDecimal("19.99"))
+                .changedFields(EnumSet.of(BookEventField.TITLE, BookEventField.PRICE))
+                .committedAt(Instant.parse("2024-05-01T10:15:30.123456789Z"))
+                .sequence(1_714_558_530_000_000L)
+                .version(7L)
+                .build();
+    }
+
+    @Test
+    void shouldRoundTripAllFields() {
+        BookEvent event = fullEvent();
+
+        BookEvent decoded = BookEventBinaryCodec.decode(BookEventBinaryCodec.encode(event));
+
+        assertThat(decoded).isEqualTo(event);
+    }
+
+    @Test
+    void shouldRoundTripSparseDeleteEvent() {
+        BookEvent event = BookEvent.builder().id(5L).type("delete").version(3L).build();
+
+        byte[] bytes = BookEventBinaryCodec.encode(event);
+
+        assertThat(BookEventBinaryCodec.decode(bytes)).isEqualTo(event);
+        assertThat(bytes.length).isLessThan(10);
+    }
+
+    @Test
+    void shouldKeepUnknownTypesAsStrings() {
+        BookEvent event = BookEvent.builder().id(1L).type("archive").build();
+
+        assertThat(BookEventBinaryCodec.decode(BookEventBinaryCodec.encode(event)).getType()).isEqualTo("archive");
+    }
+
+    @Test
+    void shouldBeSmallerThanJson() {
+        BookEvent event = fullEvent();
+        try (JsonSerializer<BookEvent> json = new JsonSerializer<>()) {
+            byte[] jsonBytes = json.serialize("book.events", event);
+
+            assertThat(BookEventBinaryCodec.encode(event).length).isLessThan(jsonBytes.length / 2);
+        }
+    }
+
+    @Test
+    void shouldRejectUnsupportedSchemaVersion() {
+        byte[] bytes = BookEventBinaryCodec.encode(fullEvent());
+        bytes[1] = 99;
+
+        assertThatThrownBy(() -> BookEventBinaryCodec.decode(bytes))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("99");
+    }
+
+    @Test
+    void shouldRejectTruncatedPayload() {
+        byte[] bytes = BookEventBinaryCodec.encode(fullEvent());
+        byte[] truncated = java.util.Arrays.copyOf(bytes, bytes.length - 5);
+
+        assertThatThrownBy(() -> BookEventBinaryCodec.decode(truncated))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void shouldSkipCaptionOfSchemaV1Payloads() {
+        // MAGIC, schema v1, presence = id | caption, id = 5, caption = "hc"
+        byte[] v1 = {BookEventBinaryCodec.MAGIC, BookEventBinaryCodec.SCHEMA_V1, 0x41, 0x05, 0x02, 'h', 'c'};
+
+        BookEvent decoded = BookEventBinaryCodec.decode(v1);
+
+        assertThat(decoded.getId()).isEqualTo(5L);
+        assertThat(decoded.getChangedFields()).isNull();
+    }
+
+    @Test
+    void shouldRejectV2PatchForV1Readers() {
+        BookEvent patch = BookEvent.builder().id(7L).type("patch").version(2L)
+                .changedFields(EnumSet.of(BookEventField.PRICE)).price(new BigDecimal("9.99")).build();
+        byte[] v2 = BookEventBinaryCodec.encode(patch);
+
+        // A v1 reader accepts schema 1 only, and knows type codes 1..4 (create, update, delete, search).
+        assertThat(v2[1]).isNotEqualTo(BookEventBinaryCodec.SCHEMA_V1);
+        // MAGIC, schema, two-byte presence varint, id, type code.
+        assertThat(v2[5]).as("type code").isGreaterThan((byte) 4);
+        assertThatThrownBy(() -> BookEventBinaryCodec.encode(patch, BookEventBinaryCodec.SCHEMA_V1))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("v1");
+    }
+
+    @Test
+    void shouldWriteFullUpdateAsSchemaV1ThatV1ReadersAccept() {
+        BookEvent update = fullEvent();
+        update.setChangedFields(null);
+
+        byte[] v1 = BookEventBinaryCodec.encode(update, BookEventBinaryCodec.SCHEMA_V1);
+
+        assertThat(v1[1]).isEqualTo(BookEventBinaryCodec.SCHEMA_V1);
+        // MAGIC, schema, two-byte presence varint; v1 presence bits are 0..9, so bit 10 must not be set.
+        long presence = (v1[2] & 0x7F) | ((long) (v1[3] & 0x7F) << 7);
+        assertThat(presence & ~((1L << 10) - 1)).isZero();
+        assertThat(BookEventBinaryCodec.decode(v1)).isEqualTo(update);
+    }
+
+    @Test
+    void shouldConfigureSerializerSchemaVersion() {
+        BookEvent update = fullEvent();
+        update.setChangedFields(null);
+        try (BookEventBinarySerializer serializer = new BookEventBinarySerializer()) {
+            serializer.configure(java.util.Map.of(BookEventBinarySerializer.SCHEMA_CONFIG, 1), false);
+
+            assertThat(serializer.serialize("book.events", update)[1]).isEqualTo(BookEventBinaryCodec.SCHEMA_V1);
+        }
+    }
+}
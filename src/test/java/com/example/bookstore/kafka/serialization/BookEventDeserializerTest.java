@@ -0,0 +1,51 @@
+package com.example.bookstore.kafka.serialization;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookEventDeserializerTest {
+
+    private final BookEvent event = BookEvent.builder()
+            .id(3L)
+            .type("create")
+            .title("Refactoring")
+            .authorName("Martin Fowler")
+            .genreName("Software")
+            .price(new BigDecimal("39.99"))
+            .version(0L)
+            .build();
+
+    @Test
+    void shouldReadBinaryPayload() {
+        try (BookEventDeserializer deserializer = new BookEventDeserializer()) {
+            byte[] bytes = new BookEventBinarySerializer().serialize("book.events", event);
+
+            assertThat(deserializer.deserialize("book.events", bytes)).isEqualTo(event);
+        }
+    }
+
+    @Test
+    void shouldStillReadLegacyJsonPayload() {
+        try (BookEventDeserializer deserializer = new BookEventDeserializer();
+             JsonSerializer<BookEvent> json = new JsonSerializer<>()) {
+            json.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+            byte[] bytes = json.serialize("book.events", event);
+
+            assertThat(deserializer.deserialize("book.events", bytes)).isEqualTo(event);
+        }
+    }
+
+    @Test
+    void shouldPassThroughTombstones() {
+        try (BookEventDeserializer deserializer = new BookEventDeserializer()) {
+            assertThat(deserializer.deserialize("book.events", null)).isNull();
+            assertThat(new BookEventBinarySerializer().serialize("book.events", null)).isNull();
+        }
+    }
+}
@@ -5,18 +5,33 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
 import co.elastic.clients.elasticsearch.core.search.TotalHits;
+import com.example.bookstore.cache.impl.ReactiveBookCache;
+import com.example.bookstore.search.cache.SearchCoalescer;
+import com.example.bookstore.search.cache.SearchCountCache;
+import com.example.bookstore.search.cache.SearchFacetCache;
+import com.example.bookstore.search.cache.SearchResultCache;
 import com.example.bookstore.search.dto.BookSearchItem;
+import com.example.bookstore.search.catalog.BookCatalog;
+import com.example.bookstore.search.facet.BookFacetAggregations;
+import com.example.bookstore.search.fallback.BookFullTextFallback;
+import com.example.bookstore.search.fallback.SearchCircuitBreaker;
+import com.example.bookstore.search.filter.BookFilterIndex;
 import com.example.bookstore.search.mapper.BookDocumentMapper;
 import com.example.bookstore.search.model.BookDocument;
+import com.example.bookstore.search.service.SearchFanOut;
 import com.example.bookstore.search.service.impl.BookSearchCustomServiceImpl;
 import com.example.bookstore.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,6 +43,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -41,11 +58,48 @@ class BookSearchCustomServiceImplTest {
     @org.mockito.Mock
     private BookService bookService;
 
+    @org.mockito.Mock
+    private BookFullTextFallback fallback;
+
+    @org.mockito.Mock
+    private BookFilterIndex filterIndex;
+
+    @org.mockito.Mock
+    private BookCatalog catalog;
+
+    @org.mockito.Mock
+    private SearchCountCache countCache;
+
+    @org.mockito.Mock
+    private SearchResultCache resultCache;
+
+    @org.mockito.Mock
+    private ElasticsearchAsyncClient asyncClient;
+
+    @org.mockito.Mock
+    private ReactiveBookCache reactiveBookCache;
+
+    private final SearchCoalescer coalescer = new SearchCoalescer(new SimpleMeterRegistry(), true, 1000);
+
+    private final SearchFacetCache facetCache = new SearchFacetCache(new SimpleMeterRegistry(), 60_000, 100);
+
+    private final BookFacetAggregations facetAggregations = new BookFacetAggregations(10, List.of(new BigDecimal("10")));
+
+    private final SearchCircuitBreaker circuitBreaker =
+            new SearchCircuitBreaker(5, Duration.ofSeconds(30), Clock.systemUTC());
+
+    private BookSearchCustomServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BookSearchCustomServiceImpl(esClient, bookService, circuitBreaker, fallback, filterIndex, catalog,
+                countCache, resultCache, coalescer, facetCache, facetAggregations, SearchFanOut.inline(), asyncClient,
+                reactiveBookCache);
+    }
+
     @Test
     @DisplayName("POS: sort by price ASC with nulls last and ID tiebreak")
     void pos_sortsByPriceAscNullsLastWithIdTiebreak() throws Exception {
-        BookSearchCustomServiceImpl service = new BookSearchCustomServiceImpl(esClient, bookService);
-
         SearchResponse<BookDocument> esResponse = mockSearchResponseWithTotal(List.of(3L, 1L, 2L), 3L);
         when(esClient.search(any(Function.class), eq(BookDocument.class))).thenReturn(esResponse);
 
@@ -69,8 +123,6 @@ class BookSearchCustomServiceImplTest {
     @Test
     @DisplayName("POS: sort by title ASC case-insensitive")
     void pos_sortsByTitleCaseInsensitive() throws Exception {
-        BookSearchCustomServiceImpl service = new BookSearchCustomServiceImpl(esClient, bookService);
-
         SearchResponse<BookDocument> esResponse = mockSearchResponseWithTotal(List.of(1L, 2L, 3L), 3L);
         when(esClient.search(any(Function.class), eq(BookDocument.class))).thenReturn(esResponse);
 
@@ -93,8 +145,6 @@ class BookSearchCustomServiceImplTest {
     @Test
     @DisplayName("POS: unsorted preserves original (hydrated) order")
     void pos_unsortedPreservesOriginalOrder() throws Exception {
-        BookSearchCustomServiceImpl service = new BookSearchCustomServiceImpl(esClient, bookService);
-
         SearchResponse<BookDocument> esResponse = mockSearchResponseWithTotal(List.of(5L, 2L, 9L), 3L);
         when(esClient.search(any(Function.class), eq(BookDocument.class))).thenReturn(esResponse);
 
@@ -117,8 +167,6 @@ class BookSearchCustomServiceImplTest {
     @Test
     @DisplayName("POS: uses totalHits from Elasticsearch when present")
     void pos_respectsTotalFromElasticsearch() throws Exception {
-        BookSearchCustomServiceImpl service = new BookSearchCustomServiceImpl(esClient, bookService);
-
         SearchResponse<BookDocument> esResponse = mockSearchResponseWithTotal(List.of(1L, 2L), 42L);
         when(esClient.search(any(Function.class), eq(BookDocument.class))).thenReturn(esResponse);
 
@@ -139,24 +187,23 @@ class BookSearchCustomServiceImplTest {
     }
 
     @Test
-    @DisplayName("NEG: returns empty page when Elasticsearch client throws")
-    void neg_returnsEmptyOnEsException() throws Exception {
-        BookSearchCustomServiceImpl service = new BookSearchCustomServiceImpl(esClient, bookService);
+    @DisplayName("NEG: falls back to the database search when Elasticsearch client throws")
+    void neg_fallsBackOnEsException() throws Exception {
         when(esClient.search(any(Function.class), eq(BookDocument.class)))
                 .thenThrow(new RuntimeException("es down"));
-
         Pageable pageable = PageRequest.of(0, 10, Sort.unsorted());
+        when(fallback.search(null, null, null, null, null, null, pageable)).thenReturn(Page.empty(pageable));
+
         Page<BookSearchItem> page = service.searchBooks(null, null, null, null, null, null, pageable);
 
         assertThat(page.getTotalElements()).isZero();
         assertThat(page.getContent()).isEmpty();
+        verify(fallback).search(null, null, null, null, null, null, pageable);
     }
 
     @Test
     @DisplayName("NEG: returns empty page when BookService throws while hydrating")
     void neg_returnsEmptyOnBookServiceException() throws Exception {
-        BookSearchCustomServiceImpl service = new BookSearchCustomServiceImpl(esClient, bookService);
-
         // Minimal ES response: only stubs hits().hits(); no total() to avoid unnecessary stubbing
         SearchResponse<BookDocument> esResponse = mockSearchResponseMinimal(List.of(10L, 20L));
         when(esClient.search(any(Function.class), eq(BookDocument.class))).thenReturn(esResponse);
@@ -174,8 +221,6 @@ class BookSearchCustomServiceImplTest {
     @Test
     @DisplayName("NEG: returns empty page when mapping toSearchItem throws")
     void neg_returnsEmptyWhenMapperThrows() throws Exception {
-        BookSearchCustomServiceImpl service = new BookSearchCustomServiceImpl(esClient, bookService);
-
         SearchResponse<BookDocument> esResponse = mockSearchResponseMinimal(List.of(1L));
         when(esClient.search(any(Function.class), eq(BookDocument.class))).thenReturn(esResponse);
 
@@ -197,8 +242,6 @@ class BookSearchCustomServiceImplTest {
     @Test
     @DisplayName("NEG: unknown sort property is ignored (no crash, returns items)")
     void neg_unknownSortPropertyIgnored() throws Exception {
-        BookSearchCustomServiceImpl service = new BookSearchCustomServiceImpl(esClient, bookService);
-
         SearchResponse<BookDocument> esResponse = mockSearchResponseWithTotal(List.of(4L, 1L, 3L), 3L);
         when(esClient.search(any(Function.class), eq(BookDocument.class))).thenReturn(esResponse);
 
@@ -0,0 +1,81 @@
+package com.example.bookstore.monitoring;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecordingEndpointTest {
+
+    @TempDir
+    Path directory;
+
+    private FlightRecordingEndpoint endpoint;
+
+    @AfterEach
+    void closeRecording() {
+        if (endpoint != null) {
+            endpoint.close();
+        }
+    }
+
+    @Test
+    void startStopAndDump_captureTheBookstoreEvents() throws Exception {
+        endpoint = new FlightRecordingEndpoint(60, 60, 16, directory);
+
+        assertThat(endpoint.control("start", null).getStatus()).isEqualTo(200);
+        assertThat(endpoint.status()).containsEntry("state", "RUNNING").containsEntry("settings", "default");
+        RequestTimings.time(RequestTimings.MAPPING, () -> {
+            sleep(5);
+            return null;
+        });
+        assertThat(endpoint.control("stop", null).getStatus()).isEqualTo(200);
+
+        WebEndpointResponse<Resource> dump = endpoint.dump("dump");
+        assertThat(dump.getStatus()).isEqualTo(200);
+        Path copy = directory.resolve("copy.jfr");
+        try (InputStream in = dump.getBody().getInputStream()) {
+            Files.copy(in, copy);
+        }
+        List<RecordedEvent> stages = RecordingFile.readAllEvents(copy).stream()
+                .filter(event -> event.getEventType().getName().equals("com.example.bookstore.SearchStage"))
+                .toList();
+
+        assertThat(stages).anySatisfy(event -> assertThat(event.getString("stage")).isEqualTo(RequestTimings.MAPPING));
+        assertThat(dump.getBody().getFile()).doesNotExist();
+    }
+
+    @Test
+    void invalidRequests_areRejected() throws Exception {
+        endpoint = new FlightRecordingEndpoint(60, 60, 16, directory);
+
+        assertThat(endpoint.dump("dump").getStatus()).isEqualTo(404);
+        assertThat(endpoint.control("stop", null).getStatus()).isEqualTo(404);
+        assertThat(endpoint.control("start", "everything").getStatus()).isEqualTo(400);
+        assertThat(endpoint.control("restart", null).getStatus()).isEqualTo(400);
+
+        assertThat(endpoint.control("start", "profile").getStatus()).isEqualTo(200);
+        WebEndpointResponse<Map<String, Object>> again = endpoint.control("start", null);
+        assertThat(again.getStatus()).isEqualTo(409);
+        assertThat(again.getBody()).containsEntry("settings", "profile");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.bookstore.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimingsTest {
+
+    @AfterEach
+    void unbind() {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.close();
+        }
+    }
+
+    @Test
+    void stages_accumulateInFirstReportedOrder() {
+        RequestTimings timings = RequestTimings.open();
+
+        RequestTimings.record(RequestTimings.CACHE, 1_000);
+        RequestTimings.record(RequestTimings.DATABASE, 5_000);
+        RequestTimings.record(RequestTimings.CACHE, 2_000);
+        RequestTimings.cacheLookup(3, 1);
+        RequestTimings.cacheLookup(2, 0);
+
+        assertThat(timings.stages()).containsExactly(
+                Map.entry(RequestTimings.CACHE, 3_000L),
+                Map.entry(RequestTimings.DATABASE, 5_000L));
+        assertThat(timings.cacheHits()).isEqualTo(5);
+        assertThat(timings.cacheMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void time_returnsTheResultAndRecordsTheStage() {
+        RequestTimings timings = RequestTimings.open();
+
+        String result = RequestTimings.time(RequestTimings.MAPPING, () -> "mapped");
+
+        assertThat(result).isEqualTo("mapped");
+        assertThat(timings.stages()).containsOnlyKeys(RequestTimings.MAPPING);
+    }
+
+    @Test
+    void withoutABoundRequest_reportsAreIgnored() {
+        RequestTimings.record(RequestTimings.CACHE, 1_000);
+        RequestTimings.cacheLookup(1, 1);
+
+        assertThat(RequestTimings.time(RequestTimings.MAPPING, () -> 42)).isEqualTo(42);
+        assertThat(RequestTimings.current()).isNull();
+    }
+
+    @Test
+    void bind_reportsFromAnotherThreadIntoTheRequest() {
+        RequestTimings timings = RequestTimings.open();
+        Supplier<Boolean> forked = RequestTimings.bind(() -> {
+            RequestTimings.record(RequestTimings.FACETS, 7_000);
+            return RequestTimings.current() == timings;
+        });
+
+        boolean boundThere = CompletableFuture.supplyAsync(forked).join();
+
+        assertThat(boundThere).isTrue();
+        assertThat(timings.stages()).containsEntry(RequestTimings.FACETS, 7_000L);
+    }
+
+    @Test
+    void close_unbindsTheRequest() {
+        RequestTimings.open().close();
+
+        assertThat(RequestTimings.current()).isNull();
+    }
+
+    @Test
+    void millis_hasTwoDecimals() {
+        assertThat(RequestTimings.millis(12_345_678)).isEqualTo("12.35");
+        assertThat(RequestTimings.millis(4_000)).isEqualTo("0.0");
+        assertThat(RequestTimings.millis(2_000_000)).isEqualTo("2.0");
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.bookstore.monitoring;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void site_isTheInnermostFrameOutsideTheJdk() {
+        assertThat(VirtualThreadPinningMonitor.site(List.of(
+                "java.lang.VirtualThread.parkOnCarrierThread",
+                "java.lang.Thread.sleep",
+                "org.postgresql.core.v3.QueryExecutorImpl.execute",
+                "com.example.bookstore.service.BookService.findById")))
+                .isEqualTo("org.postgresql.core.v3.QueryExecutorImpl.execute");
+        assertThat(VirtualThreadPinningMonitor.site(List.of("java.lang.Object.wait"))).isEqualTo("java.lang.Object.wait");
+        assertThat(VirtualThreadPinningMonitor.site(List.of())).isEqualTo("unknown");
+    }
+
+    @Test
+    void origin_separatesApplicationFromLibraryCode() {
+        assertThat(VirtualThreadPinningMonitor.origin("com.example.bookstore.search.Foo.bar")).isEqualTo("application");
+        assertThat(VirtualThreadPinningMonitor.origin("org.postgresql.Driver.connect")).isEqualTo("library");
+        assertThat(VirtualThreadPinningMonitor.origin("java.lang.Object.wait")).isEqualTo("jdk");
+    }
+
+    @Test
+    void record_timesPinningPerSite() {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry, 20);
+        List<String> frames = List.of("java.lang.Thread.sleep", "com.example.bookstore.Slow.call");
+
+        monitor.record(Duration.ofMillis(30), frames);
+        monitor.record(Duration.ofMillis(50), frames);
+
+        Timer timer = meterRegistry.get(VirtualThreadPinningMonitor.METRIC)
+                .tag("site", "com.example.bookstore.Slow.call")
+                .tag("origin", "application")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(80);
+    }
+
+    @Test
+    void start_detectsBlockingInsideSynchronizedOnAVirtualThread() throws Exception {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry, 10);
+        monitor.start();
+        try {
+            Object lock = new Object();
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+            while (meterRegistry.find(VirtualThreadPinningMonitor.METRIC).timer() == null && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+
+            Timer timer = meterRegistry.find(VirtualThreadPinningMonitor.METRIC).timer();
+            assertThat(timer).isNotNull();
+            assertThat(timer.getId().getTag("origin")).isEqualTo("application");
+        } finally {
+            monitor.stop();
+        }
+    }
+}
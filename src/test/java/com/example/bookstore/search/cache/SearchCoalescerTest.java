@@ -0,0 +1,129 @@
+package com.example.bookstore.search.cache;
+
+import com.example.bookstore.search.query.SearchFilterKey;
+import com.example.bookstore.search.query.TotalHitsPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchCoalescerTest {
+
+    private static final SearchResultCache.Key FANTASY = SearchResultCache.Key.of(
+            SearchFilterKey.of(null, null, null, "Fantasy", null, null), PageRequest.of(0, 20), TotalHitsPolicy.EXACT);
+    private static final SearchResultCache.CachedIds RESULT = new SearchResultCache.CachedIds(List.of(1L, 2L), 2, true);
+
+    private SimpleMeterRegistry registry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalSearchesShareOneExecution() throws Exception {
+        SearchCoalescer coalescer = new SearchCoalescer(registry, true, 5_000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        List<Future<SearchResultCache.CachedIds>> callers = new ArrayList<>();
+        callers.add(executor.submit(() -> coalescer.execute(FANTASY, () -> {
+            executions.incrementAndGet();
+            await(release);
+            return RESULT;
+        })));
+        awaitInFlight(coalescer);
+        for (int i = 0; i < 7; i++) {
+            callers.add(executor.submit(() -> coalescer.execute(FANTASY, () -> {
+                executions.incrementAndGet();
+                return RESULT;
+            })));
+        }
+        awaitFollowers(7);
+        release.countDown();
+
+        for (Future<SearchResultCache.CachedIds> caller : callers) {
+            assertThat(caller.get(5, TimeUnit.SECONDS)).isSameAs(RESULT);
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(coalescer.inFlight()).isZero();
+        assertThat(registry.get("books.search.coalescing").tag("role", "leader").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void followerRunsItsOwnSearchAfterMaxWait() throws Exception {
+        SearchCoalescer coalescer = new SearchCoalescer(registry, true, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> coalescer.execute(FANTASY, () -> {
+            await(release);
+            return RESULT;
+        }));
+        awaitInFlight(coalescer);
+
+        SearchResultCache.CachedIds own = new SearchResultCache.CachedIds(List.of(3L), 1, true);
+        assertThat(coalescer.execute(FANTASY, () -> own)).isSameAs(own);
+        assertThat(registry.get("books.search.coalescing").tag("role", "timeout").counter().count()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    void leaderFailureReachesFollowersAndIsNotRemembered() throws Exception {
+        SearchCoalescer coalescer = new SearchCoalescer(registry, true, 5_000);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> leader = executor.submit(() -> coalescer.execute(FANTASY, () -> {
+            await(release);
+            throw new IllegalStateException("es down");
+        }));
+        awaitInFlight(coalescer);
+        Future<SearchResultCache.CachedIds> follower = executor.submit(() -> coalescer.execute(FANTASY, () -> RESULT));
+        awaitFollowers(1);
+        release.countDown();
+
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("es down");
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("es down");
+        assertThat(coalescer.execute(FANTASY, () -> RESULT)).isSameAs(RESULT);
+    }
+
+    private void awaitInFlight(SearchCoalescer coalescer) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.inFlight() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private void awaitFollowers(int followers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("books.search.coalescing").tag("role", "follower").counter().count() < followers
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.bookstore.search.cache;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import com.example.bookstore.search.query.SearchFilterKey;
+import com.example.bookstore.search.query.TotalHitsPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private static final SearchResultCache.Key FANTASY = key(null, "Fantasy", null);
+    private static final SearchResultCache.Key TOLKIEN = key("Tolkien", null, null);
+    private static final SearchResultCache.Key CHEAP_SCIFI = key(null, "SciFi", new BigDecimal("10"));
+
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SearchResultCache(new SimpleMeterRegistry(), true, 60_000, 100);
+        put(FANTASY, 1L, 2L);
+        put(TOLKIEN, 1L);
+        put(CHEAP_SCIFI, 5L);
+    }
+
+    @Test
+    void createInvalidatesPagesItCouldJoin() {
+        cache.onBookEvent(BookEvent.builder().id(9L).type("create").authorName("Le Guin").genreName("Fantasy").build());
+
+        assertThat(cache.get(FANTASY)).isNull();
+        assertThat(cache.get(TOLKIEN)).isNotNull();
+        assertThat(cache.get(CHEAP_SCIFI)).isNotNull();
+    }
+
+    @Test
+    void deleteInvalidatesOnlyPagesListingTheBook() {
+        cache.onBookEvent(BookEvent.builder().id(1L).type("delete").build());
+
+        assertThat(cache.get(FANTASY)).isNull();
+        assertThat(cache.get(TOLKIEN)).isNull();
+        assertThat(cache.get(CHEAP_SCIFI)).isNotNull();
+    }
+
+    @Test
+    void pricePatchInvalidatesPriceBoundedPages() {
+        cache.onBookEvent(BookEvent.builder().id(7L).type("patch")
+                .changedFields(EnumSet.of(BookEventField.PRICE)).price(new BigDecimal("9")).build());
+
+        assertThat(cache.get(FANTASY)).isNotNull();
+        assertThat(cache.get(TOLKIEN)).isNotNull();
+        assertThat(cache.get(CHEAP_SCIFI)).isNull();
+    }
+
+    @Test
+    void searchThatRacedWithAnEventIsNotCached() {
+        SearchResultCache.Key key = key(null, "Horror", null);
+        long startedAt = cache.generation();
+        cache.onBookEvent(BookEvent.builder().id(8L).type("delete").build());
+
+        cache.put(key, startedAt, new SearchResultCache.CachedIds(List.of(3L), 1, true));
+
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        SearchResultCache disabled = new SearchResultCache(new SimpleMeterRegistry(), false, 60_000, 100);
+        disabled.put(FANTASY, disabled.generation(), new SearchResultCache.CachedIds(List.of(1L), 1, true));
+
+        assertThat(disabled.get(FANTASY)).isNull();
+    }
+
+    private void put(SearchResultCache.Key key, Long... ids) {
+        cache.put(key, cache.generation(), new SearchResultCache.CachedIds(List.of(ids), ids.length, true));
+    }
+
+    private static SearchResultCache.Key key(String author, String genre, BigDecimal maxPrice) {
+        return SearchResultCache.Key.of(SearchFilterKey.of("q", null, author, genre, null, maxPrice),
+                PageRequest.of(0, 10), TotalHitsPolicy.capped(10_000));
+    }
+}
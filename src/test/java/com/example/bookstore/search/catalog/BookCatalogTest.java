@@ -0,0 +1,107 @@
+package com.example.bookstore.search.catalog;
+
+import com.example.bookstore.domain.BookIndexProjection;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import com.example.bookstore.search.dto.BookSearchItem;
+import com.example.bookstore.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookCatalogTest {
+
+    private BookService bookService;
+    private BookCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        bookService = mock(BookService.class);
+        BookIndexProjection book = mock(BookIndexProjection.class);
+        when(book.getId()).thenReturn(1L);
+        when(book.getTitle()).thenReturn("Clean Code");
+        when(book.getAuthorName()).thenReturn("Robert C. Martin");
+        when(book.getGenreName()).thenReturn("Programming");
+        when(book.getPrice()).thenReturn(new BigDecimal("30.00"));
+        when(bookService.findBooksForIndexing(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(book)));
+        catalog = new BookCatalog(bookService, true, 60_000, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.shutdown();
+    }
+
+    @Test
+    void answersNothingUntilLoaded() {
+        assertThat(catalog.list(null, null, null, null, PageRequest.of(0, 10))).isEmpty();
+
+        catalog.run(mock(ApplicationArguments.class));
+
+        assertThat(catalog.list(null, null, null, null, PageRequest.of(0, 10)).orElseThrow().getContent())
+                .extracting(BookSearchItem::getTitle).containsExactly("Clean Code");
+    }
+
+    @Test
+    void eventsStayInvisibleUntilTheNextSnapshotIsPublished() {
+        catalog.run(mock(ApplicationArguments.class));
+        CatalogSnapshot before = catalog.current();
+
+        catalog.onBookEvent(BookEvent.builder().id(2L).type("create").title("Refactoring")
+                .authorName("Martin Fowler").genreName("Programming").price(new BigDecimal("40.00")).build());
+        catalog.onBookEvent(BookEvent.builder().id(2L).type("patch")
+                .changedFields(EnumSet.of(BookEventField.PRICE)).price(new BigDecimal("25.00")).build());
+        catalog.onBookEvent(BookEvent.builder().id(1L).type("delete").build());
+
+        assertThat(catalog.current()).isSameAs(before);
+        assertThat(before.size()).isEqualTo(1);
+
+        catalog.rebuild();
+
+        assertThat(catalog.current()).isNotSameAs(before);
+        assertThat(catalog.list(null, "Programming", null, null, PageRequest.of(0, 10, Sort.by("price"))).orElseThrow().getContent())
+                .singleElement()
+                .satisfies(item -> {
+                    assertThat(item.getTitle()).isEqualTo("Refactoring");
+                    assertThat(item.getPrice()).isEqualByComparingTo("25.00");
+                });
+    }
+
+    @Test
+    void patchOfPublishedRowKeepsUnchangedColumns() {
+        catalog.run(mock(ApplicationArguments.class));
+
+        catalog.onBookEvent(BookEvent.builder().id(1L).type("patch")
+                .changedFields(EnumSet.of(BookEventField.GENRE_NAME)).genreName("Craft").build());
+        catalog.rebuild();
+
+        assertThat(catalog.current().row(1L)).contains(
+                CatalogSnapshot.Row.of(1L, "Clean Code", "Robert C. Martin", "Craft", new BigDecimal("30.00")));
+    }
+
+    @Test
+    void disabledCatalogNeverLoadsOrAnswers() {
+        BookCatalog disabled = new BookCatalog(bookService, false, 60_000, 1000);
+        disabled.run(mock(ApplicationArguments.class));
+        disabled.onBookEvent(BookEvent.builder().id(3L).type("create").title("x").build());
+        disabled.rebuild();
+
+        assertThat(disabled.current().size()).isZero();
+        assertThat(disabled.list(null, null, null, null, PageRequest.of(0, 10))).isEmpty();
+        disabled.shutdown();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.bookstore.search.catalog;
+
+import com.example.bookstore.search.dto.BookSearchItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTest {
+
+    private final CatalogSnapshot snapshot = CatalogSnapshot.build(List.of(
+            CatalogSnapshot.Row.of(5L, "dune", "Herbert", "SciFi", new BigDecimal("9.99")),
+            CatalogSnapshot.Row.of(1L, "The Hobbit", "Tolkien", "Fantasy", new BigDecimal("12.50")),
+            CatalogSnapshot.Row.of(3L, "Silmarillion", "Tolkien", "Fantasy", new BigDecimal("12.50")),
+            CatalogSnapshot.Row.of(4L, "Émile", "Rousseau", "Philosophy", null),
+            CatalogSnapshot.Row.of(2L, "Dune", "Herbert", "SciFi", new BigDecimal("7.00"))));
+
+    @Test
+    void unsortedListingIsInIdOrderWithExactTotal() {
+        Page<BookSearchItem> page = snapshot.list(null, null, null, null, PageRequest.of(1, 2)).orElseThrow();
+
+        assertThat(page.getContent()).extracting(BookSearchItem::getId).containsExactly(3L, 4L);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    void itemsAreDecodedFromColumns() {
+        BookSearchItem item = snapshot.list("Rousseau", null, null, null, PageRequest.of(0, 1)).orElseThrow().getContent().get(0);
+
+        assertThat(item.getTitle()).isEqualTo("Émile");
+        assertThat(item.getGenreName()).isEqualTo("Philosophy");
+        assertThat(item.getPrice()).isNull();
+        assertThat(snapshot.list(null, null, null, null, PageRequest.of(0, 1)).orElseThrow().getContent().get(0).getPrice())
+                .isEqualTo(new BigDecimal("12.50"));
+    }
+
+    @Test
+    void priceSortKeepsIdTiebreakAndUnpricedLastInBothDirections() {
+        assertThat(ids(snapshot.list(null, null, null, null, PageRequest.of(0, 5, Sort.by("price")))))
+                .containsExactly(2L, 5L, 1L, 3L, 4L);
+        assertThat(ids(snapshot.list(null, null, null, null, PageRequest.of(0, 5, Sort.by(Sort.Order.desc("price"))))))
+                .containsExactly(1L, 3L, 5L, 2L, 4L);
+    }
+
+    @Test
+    void titleSortIsCaseInsensitiveAndPagesAcrossTies() {
+        assertThat(ids(snapshot.list(null, null, null, null, PageRequest.of(0, 3, Sort.by("title")))))
+                .containsExactly(2L, 5L, 3L);
+        assertThat(ids(snapshot.list(null, null, null, null, PageRequest.of(0, 2, Sort.by(Sort.Order.desc("title"))))))
+                .containsExactly(4L, 1L);
+    }
+
+    @Test
+    void filtersOnDictionaryIdsAndCentRange() {
+        Page<BookSearchItem> page = snapshot.list(null, "SciFi", new BigDecimal("7.001"), new BigDecimal("10"),
+                PageRequest.of(0, 10, Sort.by("price"))).orElseThrow();
+
+        assertThat(page.getContent()).extracting(BookSearchItem::getId).containsExactly(5L);
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(snapshot.list("Nobody", null, null, null, PageRequest.of(0, 10)).orElseThrow().getTotalElements()).isZero();
+    }
+
+    @Test
+    void countsSingleFiltersWithoutScanningAndCombinedOnesByScan() {
+        assertThat(total("Tolkien", null, null, null)).isEqualTo(2);
+        assertThat(total(null, "SciFi", null, null)).isEqualTo(2);
+        assertThat(total(null, null, new BigDecimal("7.00"), new BigDecimal("12.49"))).isEqualTo(2);
+        assertThat(total(null, null, new BigDecimal("9.99"), null)).isEqualTo(3);
+        assertThat(total(null, null, null, new BigDecimal("6.99"))).isZero();
+        assertThat(total(null, null, new BigDecimal("13"), new BigDecimal("1"))).isZero();
+        assertThat(total("Herbert", "SciFi", new BigDecimal("8"), null)).isEqualTo(1);
+        assertThat(total(null, "Nothing", null, null)).isZero();
+    }
+
+    @Test
+    void unsupportedSortIsNotAnswered() {
+        assertThat(snapshot.list(null, null, null, null, PageRequest.of(0, 10, Sort.by("authorName")))).isEmpty();
+    }
+
+    @Test
+    void rowLookupRoundTrips() {
+        assertThat(snapshot.row(3L)).contains(CatalogSnapshot.Row.of(3L, "Silmarillion", "Tolkien", "Fantasy", new BigDecimal("12.5")));
+        assertThat(snapshot.row(42L)).isEmpty();
+    }
+
+    private long total(String author, String genre, BigDecimal minPrice, BigDecimal maxPrice) {
+        return snapshot.list(author, genre, minPrice, maxPrice, PageRequest.of(0, 1, Sort.by("title"))).orElseThrow().getTotalElements();
+    }
+
+    private static List<Long> ids(java.util.Optional<Page<BookSearchItem>> page) {
+        return page.orElseThrow().getContent().stream().map(BookSearchItem::getId).toList();
+    }
+}
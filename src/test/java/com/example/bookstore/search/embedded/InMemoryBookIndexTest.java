@@ -0,0 +1,99 @@
+package com.example.bookstore.search.embedded;
+
+import com.example.bookstore.search.model.BookDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryBookIndexTest {
+
+    private InMemoryBookIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryBookIndex();
+        index.upsert(doc(1L, "The Hobbit", "J. R. R. Tolkien", "Fantasy", "12.50"));
+        index.upsert(doc(2L, "The Silmarillion", "J. R. R. Tolkien", "Fantasy", "20.00"));
+        index.upsert(doc(3L, "Dune", "Frank Herbert", "Science Fiction", "15.00"));
+        index.upsert(doc(4L, "Hobbit Cookbook", "Unknown", "Cooking", null));
+    }
+
+    @Test
+    void freeTextMatchesTitleTokensOrWholeKeywordValues() {
+        Page<BookDocument> byTitle = index.search("the hobbit", null, null, null, null, null, PageRequest.of(0, 10));
+        Page<BookDocument> byAuthor = index.search("j. r. r. tolkien", null, null, null, null, null, PageRequest.of(0, 10));
+
+        assertThat(byTitle.getContent()).extracting(BookDocument::getId).containsExactly(1L, 2L, 4L);
+        assertThat(byAuthor.getContent()).extracting(BookDocument::getId).containsExactly(1L, 2L);
+        assertThat(index.search("tolkien", null, null, null, null, null, PageRequest.of(0, 10)).getContent()).isEmpty();
+    }
+
+    @Test
+    void fieldFiltersAndPriceRangeAreIntersected() {
+        Page<BookDocument> page = index.search(null, null, "J. R. R. Tolkien", "fantasy",
+                new BigDecimal("10"), new BigDecimal("15"), PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(BookDocument::getId).containsExactly(1L);
+    }
+
+    @Test
+    void priceBoundsSkipDocumentsWithoutPrice() {
+        Page<BookDocument> page = index.search("hobbit", null, null, null, BigDecimal.ZERO, null, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(BookDocument::getId).containsExactly(1L);
+    }
+
+    @Test
+    void invertedPriceRangeMatchesNothing() {
+        Page<BookDocument> page = index.search(null, null, null, null,
+                new BigDecimal("20"), new BigDecimal("10"), PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isZero();
+    }
+
+    @Test
+    void sortsWholeResultBeforePaging() {
+        Page<BookDocument> page = index.search(null, null, null, null, null, null,
+                PageRequest.of(0, 2, Sort.by(Sort.Order.desc("price"))));
+
+        assertThat(page.getContent()).extracting(BookDocument::getId).containsExactly(2L, 3L);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    void upsertReplacesOldPostingsAndRemoveDropsDocument() {
+        index.upsert(doc(3L, "Children of Dune", "Frank Herbert", "Science Fiction", "9.99"));
+        index.remove(1L);
+
+        assertThat(index.search("dune", null, null, null, null, null, PageRequest.of(0, 10)).getContent())
+                .extracting(BookDocument::getTitle).containsExactly("Children of Dune");
+        assertThat(index.search(null, null, null, null, null, new BigDecimal("10"), PageRequest.of(0, 10)).getContent())
+                .extracting(BookDocument::getId).containsExactly(3L);
+        assertThat(index.search("hobbit", null, null, null, null, null, PageRequest.of(0, 10)).getContent())
+                .extracting(BookDocument::getId).containsExactly(4L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void tokenizerSplitsOnPunctuationAndLowercases() {
+        assertThat(InMemoryBookIndex.tokenize("J.K. Rowling's  Harry-Potter")).containsExactly("j", "k", "rowling", "s", "harry", "potter");
+    }
+
+    private static BookDocument doc(Long id, String title, String author, String genre, String price) {
+        return BookDocument.builder()
+                .id(id)
+                .title(title)
+                .authorName(author)
+                .genreName(genre)
+                .price(price == null ? null : new BigDecimal(price))
+                .build();
+    }
+}
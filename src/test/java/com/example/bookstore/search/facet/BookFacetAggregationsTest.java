@@ -0,0 +1,24 @@
+package com.example.bookstore.search.facet;
+
+import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookFacetAggregationsTest {
+
+    @Test
+    void buildsTermsAndOpenEndedPriceRanges() {
+        BookFacetAggregations facets = new BookFacetAggregations(5,
+                List.of(new BigDecimal("50"), new BigDecimal("10"), new BigDecimal("10")));
+
+        assertThat(facets.aggregations().get(BookFacetAggregations.GENRES).terms().size()).isEqualTo(5);
+        assertThat(facets.aggregations().get(BookFacetAggregations.AUTHORS).terms().field()).isEqualTo("authorName");
+        List<AggregationRange> ranges = facets.aggregations().get(BookFacetAggregations.PRICES).range().ranges();
+        assertThat(ranges).extracting(AggregationRange::from).containsExactly(null, "10", "50");
+        assertThat(ranges).extracting(AggregationRange::to).containsExactly("10", "50", null);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.bookstore.search.fallback;
+
+import com.example.bookstore.search.dto.BookSearchItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BookFullTextFallbackTest {
+
+    private NamedParameterJdbcTemplate jdbc;
+    private JdbcTemplate plainJdbc;
+    private PlatformTransactionManager txManager;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(NamedParameterJdbcTemplate.class);
+        plainJdbc = mock(JdbcTemplate.class);
+        txManager = mock(PlatformTransactionManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(jdbc.getJdbcTemplate()).thenReturn(plainJdbc);
+        when(txManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runsUnderStatementTimeoutAndReportsNextPage() {
+        BookFullTextFallback fallback = new BookFullTextFallback(jdbc, txManager, meterRegistry, 2, 250);
+        List<BookSearchItem> rows = LongStream.rangeClosed(1, 3)
+                .mapToObj(id -> BookSearchItem.builder().id(id).build())
+                .toList();
+        when(jdbc.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class))).thenReturn(rows);
+
+        Page<BookSearchItem> page = fallback.search("tolkien", null, null, null, null, null, PageRequest.of(0, 2));
+
+        verify(plainJdbc).execute("SET LOCAL statement_timeout = 250");
+        assertThat(page.getContent()).extracting(BookSearchItem::getId).containsExactly(1L, 2L);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(meterRegistry.get("books.search.fallback").tag("outcome", "served").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shedsLoadWhenNoPermitIsAvailable() {
+        BookFullTextFallback fallback = new BookFullTextFallback(jdbc, txManager, meterRegistry, 0, 250);
+
+        Page<BookSearchItem> page = fallback.search("tolkien", null, null, null, null, null, PageRequest.of(0, 2));
+
+        assertThat(page.getContent()).isEmpty();
+        verifyNoInteractions(txManager);
+        assertThat(meterRegistry.get("books.search.fallback").tag("outcome", "shed").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void returnsEmptyPageWhenBudgetIsExceeded() {
+        BookFullTextFallback fallback = new BookFullTextFallback(jdbc, txManager, meterRegistry, 2, 250);
+        when(jdbc.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class)))
+                .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"));
+
+        Page<BookSearchItem> first = fallback.search("tolkien", null, null, null, null, null, PageRequest.of(0, 2));
+        Page<BookSearchItem> second = fallback.search("tolkien", null, null, null, null, null, PageRequest.of(0, 2));
+
+        assertThat(first.getContent()).isEmpty();
+        assertThat(second.getContent()).isEmpty();
+        assertThat(meterRegistry.get("books.search.fallback").tag("outcome", "failed").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void buildsIndexableFiltersAndWhitelistedOrdering() {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        String sql = BookFullTextFallback.buildSql("Hobbit", "ring", "Tolkien", null,
+                new BigDecimal("5"), null, PageRequest.of(1, 20, Sort.by(Sort.Order.desc("price"), Sort.Order.asc("drop table"))),
+                params);
+
+        assertThat(sql)
+                .contains("search_vector @@ plainto_tsquery('simple', :q)")
+                .contains("UNION")
+                .contains("AND b.search_vector @@ plainto_tsquery('simple', :title)")
+                .contains("AND lower(a.name) = :author")
+                .contains("AND b.price >= :minPrice")
+                .doesNotContain(":genre")
+                .doesNotContain("drop table")
+                .contains("ORDER BY b.price DESC NULLS LAST, b.id");
+        assertThat(params.getValue("qLike")).isEqualTo("%hobbit%");
+        assertThat(params.getValue("limit")).isEqualTo(21);
+        assertThat(params.getValue("offset")).isEqualTo(20L);
+    }
+
+    @Test
+    void matchesAuthorAndGenreExactlyLikeTheTermFilters() {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        String sql = BookFullTextFallback.buildSql(null, null, "J.R.R. Tolkien", "Fantasy",
+                null, null, PageRequest.of(0, 20), params);
+
+        assertThat(sql)
+                .contains("AND lower(a.name) = :author")
+                .contains("AND lower(g.name) = :genre")
+                .doesNotContain("LIKE :author")
+                .doesNotContain("LIKE :genre");
+        assertThat(params.getValue("author")).isEqualTo("j.r.r. tolkien");
+        assertThat(params.getValue("genre")).isEqualTo("fantasy");
+    }
+}
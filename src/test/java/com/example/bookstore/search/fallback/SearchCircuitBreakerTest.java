@@ -0,0 +1,104 @@
+package com.example.bookstore.search.fallback;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchCircuitBreakerTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final SearchCircuitBreaker breaker = new SearchCircuitBreaker(3, Duration.ofSeconds(10), clock);
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.recordFailure();
+
+        assertThat(breaker.state()).isEqualTo(SearchCircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+
+        assertThat(breaker.state()).isEqualTo(SearchCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void letsSingleTrialThroughAfterOpenDuration() {
+        tripOpen();
+        clock.advance(Duration.ofSeconds(10));
+
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.state()).isEqualTo(SearchCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+
+        breaker.recordSuccess();
+
+        assertThat(breaker.state()).isEqualTo(SearchCircuitBreaker.State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void failedTrialReopensForAnotherFullPeriod() {
+        tripOpen();
+        clock.advance(Duration.ofSeconds(10));
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.recordFailure();
+        clock.advance(Duration.ofSeconds(9));
+
+        assertThat(breaker.state()).isEqualTo(SearchCircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void retryAfterCountsDownWhileOpen() {
+        assertThat(breaker.retryAfter()).isZero();
+        tripOpen();
+        clock.advance(Duration.ofSeconds(4));
+
+        assertThat(breaker.retryAfter()).isEqualTo(Duration.ofSeconds(6));
+    }
+
+    private void tripOpen() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
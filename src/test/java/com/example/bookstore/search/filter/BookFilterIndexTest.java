@@ -0,0 +1,189 @@
+package com.example.bookstore.search.filter;
+
+import com.example.bookstore.domain.BookIndexProjection;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import com.example.bookstore.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookFilterIndexTest {
+
+    private BookService bookService;
+    private BookFilterIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookService = mock(BookService.class);
+        index = new BookFilterIndex(bookService, true, new BigDecimal("5"), 1000);
+        List<BookIndexProjection> catalog = List.of(
+                projection(1L, "Tolkien", "Fantasy", "4.99"),
+                projection(2L, "Tolkien", "Fantasy", "5.00"),
+                projection(3L, "Herbert", "SciFi", "9.99"),
+                projection(4L, "Tolkien", "Fantasy", "10.00"),
+                projection(5L, "Herbert", "SciFi", "12.50"),
+                projection(6L, "Tolkien", "Fantasy", null));
+        when(bookService.findBooksForIndexing(any(Pageable.class))).thenReturn(new PageImpl<>(catalog));
+        index.run(mock(ApplicationArguments.class));
+    }
+
+    @Test
+    void answersNothingUntilLoaded() {
+        BookFilterIndex fresh = new BookFilterIndex(bookService, true, new BigDecimal("5"), 1000);
+
+        assertThat(fresh.findIds("Tolkien", null, null, null, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void disabledIndexIgnoresEventsAndNeverAnswers() {
+        BookFilterIndex disabled = new BookFilterIndex(bookService, false, new BigDecimal("5"), 1000);
+        disabled.run(mock(ApplicationArguments.class));
+        disabled.onBookEvent(BookEvent.builder().id(1L).type("create").genreName("Fantasy").build());
+
+        assertThat(disabled.size()).isZero();
+        assertThat(disabled.findIds(null, "Fantasy", null, null, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void intersectsAuthorAndGenreAndPagesInIdOrder() {
+        Page<Long> first = index.findIds("Tolkien", "Fantasy", null, null, PageRequest.of(0, 3)).orElseThrow();
+        Page<Long> second = index.findIds("Tolkien", "Fantasy", null, null, PageRequest.of(1, 3)).orElseThrow();
+
+        assertThat(first.getContent()).containsExactly(1L, 2L, 4L);
+        assertThat(second.getContent()).containsExactly(6L);
+        assertThat(first.getTotalElements()).isEqualTo(4);
+        assertThat(index.findIds("tolkien", null, null, null, PageRequest.of(0, 3)).orElseThrow()).isEmpty();
+    }
+
+    @Test
+    void countsTheIntersectedBitmaps() {
+        assertThat(index.count("Tolkien", "Fantasy", null, null)).hasValue(4);
+        assertThat(index.count(null, null, new BigDecimal("5.00"), new BigDecimal("10.00"))).hasValue(3);
+        assertThat(index.count("Nobody", null, null, null)).hasValue(0);
+        assertThat(new BookFilterIndex(bookService, true, new BigDecimal("5"), 1000).count(null, null, null, null)).isEmpty();
+    }
+
+    @Test
+    void idDescendingPagesFromTheEnd() {
+        Page<Long> page = index.findIds(null, null, null, null, PageRequest.of(1, 2, Sort.by(Sort.Order.desc("id")))).orElseThrow();
+
+        assertThat(page.getContent()).containsExactly(4L, 3L);
+    }
+
+    @Test
+    void priceRangeChecksEdgeBandsExactly() {
+        Page<Long> page = index.findIds(null, null, new BigDecimal("5.00"), new BigDecimal("10.00"), PageRequest.of(0, 10)).orElseThrow();
+
+        assertThat(page.getContent()).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void invertedPriceRangeMatchesNothing() {
+        Page<Long> page = index.findIds(null, null, new BigDecimal("10.00"), new BigDecimal("5.00"), PageRequest.of(0, 10)).orElseThrow();
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isZero();
+    }
+
+    @Test
+    void pricesBeyondTheBandRangeAreClampedNotRejected() {
+        BigDecimal huge = new BigDecimal("1e30");
+        index.onBookEvent(BookEvent.builder().id(8L).type("create").authorName("Herbert").price(huge).build());
+
+        assertThat(index.findIds(null, null, new BigDecimal("1e29"), null, PageRequest.of(0, 10)).orElseThrow().getContent())
+                .containsExactly(8L);
+        assertThat(index.findIds(null, null, new BigDecimal("1e31"), null, PageRequest.of(0, 10)).orElseThrow().getContent())
+                .isEmpty();
+        assertThat(index.findIds(null, null, new BigDecimal("-1e31"), new BigDecimal("5.00"), PageRequest.of(0, 10)).orElseThrow().getContent())
+                .containsExactly(1L, 2L);
+        assertThat(index.findIds("Herbert", null, null, null, PageRequest.of(0, 10, Sort.by("price"))).orElseThrow().getContent())
+                .containsExactly(3L, 5L, 8L);
+    }
+
+    @Test
+    void priceSortWalksBandsAndPutsUnpricedLast() {
+        Pageable ascending = PageRequest.of(1, 2, Sort.by("price"));
+        Pageable descending = PageRequest.of(0, 4, Sort.by(Sort.Order.desc("price")));
+
+        assertThat(index.findIds(null, null, null, null, ascending).orElseThrow().getContent()).containsExactly(3L, 4L);
+        assertThat(index.findIds(null, null, null, null, PageRequest.of(2, 2, Sort.by("price"))).orElseThrow().getContent())
+                .containsExactly(5L, 6L);
+        assertThat(index.findIds(null, null, null, null, descending).orElseThrow().getContent()).containsExactly(5L, 4L, 3L, 2L);
+    }
+
+    @Test
+    void sortOnFieldsOutsideTheIndexIsLeftToElasticsearch() {
+        assertThat(index.findIds(null, "Fantasy", null, null, PageRequest.of(0, 10, Sort.by("title")))).isEmpty();
+    }
+
+    @Test
+    void eventsMoveBooksBetweenBitmaps() {
+        index.onBookEvent(BookEvent.builder().id(3L).type("patch")
+                .changedFields(EnumSet.of(BookEventField.GENRE_NAME, BookEventField.PRICE))
+                .genreName("Fantasy").price(new BigDecimal("30.00")).build());
+        index.onBookEvent(BookEvent.builder().id(1L).type("delete").build());
+        index.onBookEvent(BookEvent.builder().id(7L).type("create").authorName("Le Guin").genreName("Fantasy")
+                .price(new BigDecimal("8.00")).build());
+
+        assertThat(index.findIds(null, "Fantasy", null, null, PageRequest.of(0, 10)).orElseThrow().getContent())
+                .containsExactly(2L, 3L, 4L, 6L, 7L);
+        assertThat(index.findIds("Herbert", null, new BigDecimal("25"), null, PageRequest.of(0, 10)).orElseThrow().getContent())
+                .containsExactly(3L);
+        assertThat(index.findIds(null, "SciFi", null, null, PageRequest.of(0, 10)).orElseThrow().getContent())
+                .containsExactly(5L);
+    }
+
+    @Test
+    void eventsReceivedDuringTheLoadAreReplayedOverTheLoadedRows() {
+        BookFilterIndex loading = new BookFilterIndex(bookService, true, new BigDecimal("5"), 1000);
+        when(bookService.findBooksForIndexing(any(Pageable.class))).thenAnswer(inv -> {
+            // committed after this page was read: the page still shows the old genre and book 2
+            loading.onBookEvent(BookEvent.builder().id(1L).type("update").authorName("Tolkien").genreName("Poetry")
+                    .price(new BigDecimal("4.99")).build());
+            loading.onBookEvent(BookEvent.builder().id(2L).type("delete").build());
+            return new PageImpl<>(List.of(
+                    projection(1L, "Tolkien", "Fantasy", "4.99"),
+                    projection(2L, "Tolkien", "Fantasy", "5.00")));
+        });
+
+        loading.run(mock(ApplicationArguments.class));
+
+        assertThat(loading.findIds(null, "Fantasy", null, null, PageRequest.of(0, 10)).orElseThrow()).isEmpty();
+        assertThat(loading.findIds(null, "Poetry", null, null, PageRequest.of(0, 10)).orElseThrow().getContent())
+                .containsExactly(1L);
+        assertThat(loading.size()).isEqualTo(1);
+    }
+
+    @Test
+    void idsBeyondBitmapRangeDisableTheIndex() {
+        index.onBookEvent(BookEvent.builder().id(Integer.MAX_VALUE + 1L).type("create").genreName("Fantasy").build());
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.findIds(null, "Fantasy", null, null, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    private static BookIndexProjection projection(Long id, String author, String genre, String price) {
+        BookIndexProjection projection = mock(BookIndexProjection.class);
+        when(projection.getId()).thenReturn(id);
+        when(projection.getTitle()).thenReturn("Book " + id);
+        when(projection.getAuthorName()).thenReturn(author);
+        when(projection.getGenreName()).thenReturn(genre);
+        when(projection.getPrice()).thenReturn(price == null ? null : new BigDecimal(price));
+        return projection;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bookstore.search.initialization;
+
+import com.example.bookstore.search.model.BookDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BookIndexInitializerTest {
+
+    private static final Map<String, Object> CURRENT_MAPPING = Map.of("properties", Map.of(
+            "title", Map.of("type", "text", "fields", Map.of("prefix", Map.of("type", "text"))),
+            "authorName", Map.of("type", "keyword", "fields", Map.of("prefix", Map.of("type", "text"))),
+            "genreName", Map.of("type", "keyword")));
+
+    private ElasticsearchOperations operations;
+    private IndexOperations index;
+    private BookIndexInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        operations = mock(ElasticsearchOperations.class);
+        index = mock(IndexOperations.class);
+        when(operations.indexOps(BookDocument.class)).thenReturn(index);
+        when(index.getIndexCoordinates()).thenReturn(IndexCoordinates.of("books"));
+        initializer = new BookIndexInitializer(operations);
+    }
+
+    @Test
+    void acceptsIndexWithPrefixSubfields() {
+        when(index.getMapping()).thenReturn(CURRENT_MAPPING);
+
+        assertThat(initializer.prepare()).isFalse();
+        verify(index, never()).delete();
+    }
+
+    @Test
+    void failsLoudlyWhenLiveMappingPredatesPrefixSubfields() {
+        when(index.getMapping()).thenReturn(Map.of("properties", Map.of(
+                "title", Map.of("type", "text"),
+                "authorName", Map.of("type", "keyword"))));
+
+        assertThatThrownBy(initializer::prepare)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("title.prefix")
+                .hasMessageContaining("authorName.prefix")
+                .hasMessageContaining("recreate-index-on-start=true");
+    }
+
+    @Test
+    void recreatesIndexFromCurrentMappingWhenAsked() {
+        ReflectionTestUtils.setField(initializer, "recreateIndexOnStart", true);
+        when(index.exists()).thenReturn(true);
+
+        assertThat(initializer.prepare()).isTrue();
+
+        var order = inOrder(index);
+        order.verify(index).delete();
+        order.verify(index).createWithMapping();
+        verify(index, never()).getMapping();
+    }
+
+    @Test
+    void leavesElasticsearchAloneForEmbeddedEngine() {
+        ReflectionTestUtils.setField(initializer, "searchEngine", "embedded");
+
+        assertThat(initializer.prepare()).isFalse();
+        verifyNoInteractions(operations);
+    }
+
+    @Test
+    void unreadableMappingDoesNotBlockStartup() {
+        when(index.getMapping()).thenThrow(new RuntimeException("connection refused"));
+
+        assertThat(initializer.prepare()).isFalse();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.bookstore.search.initialization;
+
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.search.model.BookDocument;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookSnapshotReaderTest {
+
+    private static final String TOPIC = "book.snapshots";
+    private static final TopicPartition TP = new TopicPartition(TOPIC, 0);
+
+    private MockConsumer<String, BookEvent> consumer;
+    private BookSnapshotReader reader;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updatePartitions(TOPIC, List.of(new PartitionInfo(TOPIC, 0, Node.noNode(), new Node[0], new Node[0])));
+        consumer.updateBeginningOffsets(Map.of(TP, 0L));
+
+        ConsumerFactory<String, BookEvent> factory = mock(ConsumerFactory.class);
+        when(factory.createConsumer(isNull(), any(), isNull(), any())).thenReturn(consumer);
+        reader = new BookSnapshotReader(factory);
+        ReflectionTestUtils.setField(reader, "topic", TOPIC);
+        ReflectionTestUtils.setField(reader, "pollTimeoutMs", 10L);
+    }
+
+    @Test
+    void shouldReplayUntilEndOffsetKeepingLastRecordPerId() {
+        consumer.updateEndOffsets(Map.of(TP, 3L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, "1", BookEvent.builder().id(1L).title("v1").build()));
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 1, "2", BookEvent.builder().id(2L).title("gone").build()));
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 2, "1", BookEvent.builder().id(1L).title("v2").build()));
+        });
+        consumer.schedulePollTask(() -> consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 3, "2", null)));
+
+        List<BookDocument> upserts = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        long read = reader.readAll(100, (u, d) -> {
+            upserts.addAll(u);
+            deletes.addAll(d);
+        });
+
+        assertThat(read).isEqualTo(3);
+        assertThat(upserts).extracting(BookDocument::getTitle).containsExactly("v2", "gone");
+        assertThat(deletes).isEmpty();
+    }
+
+    @Test
+    void shouldTurnTombstonesIntoDeletes() {
+        consumer.updateEndOffsets(Map.of(TP, 2L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, "7", BookEvent.builder().id(7L).title("x").build()));
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 1, "7", null));
+        });
+
+        List<BookDocument> upserts = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        reader.readAll(100, (u, d) -> {
+            upserts.addAll(u);
+            deletes.addAll(d);
+        });
+
+        assertThat(upserts).isEmpty();
+        assertThat(deletes).containsExactly(7L);
+    }
+
+    @Test
+    void shouldReturnImmediatelyForEmptyTopic() {
+        consumer.updateEndOffsets(Map.of(TP, 0L));
+
+        long read = reader.readAll(100, (u, d) -> {
+            throw new AssertionError("no batches expected");
+        });
+
+        assertThat(read).isZero();
+    }
+
+    @Test
+    void shouldFailWhenEndOffsetIsNotReachedInTime() {
+        ReflectionTestUtils.setField(reader, "maxDurationMs", 50L);
+        consumer.updateEndOffsets(Map.of(TP, 3L));
+        consumer.schedulePollTask(() ->
+                consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, "1", BookEvent.builder().id(1L).title("v1").build())));
+
+        assertThatThrownBy(() -> reader.readAll(100, (u, d) -> { }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("after 1 records")
+                .hasMessageContaining(TP.toString());
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.bookstore.search.initialization;
 
 
+import com.example.bookstore.cache.BookCache;
 import com.example.bookstore.domain.BookIndexProjection;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.producer.BookEventPublisher;
 import com.example.bookstore.search.model.BookDocument;
 import com.example.bookstore.search.repository.BookSearchRepository;
 import com.example.bookstore.service.BookService;
@@ -24,17 +27,28 @@ class SearchReindexerTest {
 
     private BookService bookService;
     private BookSearchRepository searchRepository;
+    private BookSnapshotReader snapshotReader;
+    private BookCache bookCache;
+    private BookEventPublisher eventPublisher;
+    private BookIndexInitializer indexInitializer;
     private SearchReindexer reindexer;
 
     @BeforeEach
     void setup() {
         bookService = mock(BookService.class);
         searchRepository = mock(BookSearchRepository.class);
-        reindexer = new SearchReindexer(bookService, searchRepository);
+        snapshotReader = mock(BookSnapshotReader.class);
+        bookCache = mock(BookCache.class);
+        eventPublisher = mock(BookEventPublisher.class);
+        indexInitializer = mock(BookIndexInitializer.class);
+        reindexer = new SearchReindexer(bookService, searchRepository, snapshotReader, bookCache, eventPublisher,
+                indexInitializer);
 
         setField("reindexOnStart", true);
         setField("batchSize", 2);
         setField("failOnError", false);
+        setField("source", "database");
+        setField("target", "index");
     }
 
     private void setField(String name, Object value) {
@@ -111,4 +125,105 @@ class SearchReindexerTest {
         ApplicationArguments args = mock(ApplicationArguments.class);
         assertThrows(RuntimeException.class, () -> reindexer.run(args));
     }
+
+    @Test
+    void shouldRebuildIndexFromSnapshotTopicWithoutDatabase() {
+        setField("source", "snapshot-topic");
+        BookDocument doc = BookDocument.builder().id(1L).title("From Snapshot").build();
+        when(snapshotReader.readAll(eq(2), any())).thenAnswer(inv -> {
+            BookSnapshotReader.BatchHandler handler = inv.getArgument(1);
+            handler.accept(List.of(doc), List.of(9L));
+            return 2L;
+        });
+
+        reindexer.run(mock(ApplicationArguments.class));
+
+        verify(searchRepository).saveAll(List.of(doc));
+        verify(searchRepository).deleteAllById(List.of(9L));
+        verifyNoInteractions(bookService);
+        verifyNoInteractions(bookCache);
+    }
+
+    @Test
+    void shouldWarmCacheFromSnapshotTopic() {
+        setField("source", "snapshot-topic");
+        setField("target", "cache");
+        BookDocument doc = BookDocument.builder().id(1L).title("From Snapshot").build();
+        when(snapshotReader.readAll(eq(2), any())).thenAnswer(inv -> {
+            BookSnapshotReader.BatchHandler handler = inv.getArgument(1);
+            handler.accept(List.of(doc), List.of(9L));
+            return 2L;
+        });
+
+        reindexer.run(mock(ApplicationArguments.class));
+
+        verify(bookCache).putAll(List.of(doc));
+        verify(bookCache).evict(9L);
+        verifyNoInteractions(searchRepository);
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void shouldSeedSnapshotTopicFromDatabase() {
+        setField("target", "snapshot-topic");
+        BookIndexProjection projection = mock(BookIndexProjection.class);
+        when(projection.getId()).thenReturn(7L);
+        when(projection.getTitle()).thenReturn("Seeded");
+        when(projection.getPrice()).thenReturn(BigDecimal.TEN);
+        when(bookService.findBooksForIndexing(PageRequest.of(0, 2)))
+                .thenReturn(new PageImpl<>(List.of(projection), PageRequest.of(0, 2), 1));
+
+        reindexer.run(mock(ApplicationArguments.class));
+
+        ArgumentCaptor<BookEvent> captor = ArgumentCaptor.forClass(BookEvent.class);
+        verify(eventPublisher).publishSnapshot(captor.capture());
+        assertThat(captor.getValue().getId()).isEqualTo(7L);
+        assertThat(captor.getValue().getTitle()).isEqualTo("Seeded");
+        assertThat(captor.getValue().getPrice()).isEqualByComparingTo("10");
+        verify(eventPublisher).flush();
+        verifyNoInteractions(searchRepository);
+        verifyNoInteractions(bookCache);
+    }
+
+    @Test
+    void shouldRefuseToRebuildFromUnseededSnapshotTopic() {
+        setField("source", "snapshot-topic");
+        setField("failOnError", true);
+        when(snapshotReader.readAll(eq(2), any())).thenReturn(0L);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> reindexer.run(mock(ApplicationArguments.class)));
+
+        assertThat(error.getMessage()).contains("target=snapshot-topic");
+        verifyNoInteractions(searchRepository);
+    }
+
+    @Test
+    void shouldRejectSnapshotTopicAsBothSourceAndTarget() {
+        setField("source", "snapshot-topic");
+        setField("target", "snapshot-topic");
+
+        assertThrows(IllegalStateException.class, () -> reindexer.run(mock(ApplicationArguments.class)));
+        verifyNoInteractions(snapshotReader);
+    }
+
+    @Test
+    void shouldReindexRecreatedIndexEvenWhenReindexOnStartIsDisabled() {
+        setField("reindexOnStart", false);
+        when(indexInitializer.prepare()).thenReturn(true);
+        when(bookService.findBooksForIndexing(any())).thenReturn(Page.empty());
+
+        reindexer.run(mock(ApplicationArguments.class));
+
+        verify(bookService).findBooksForIndexing(PageRequest.of(0, 2));
+    }
+
+    @Test
+    void shouldRefuseToLeaveRecreatedIndexEmptyForAnotherTarget() {
+        setField("target", "cache");
+        when(indexInitializer.prepare()).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> reindexer.run(mock(ApplicationArguments.class)));
+        verifyNoInteractions(bookService);
+    }
 }
@@ -0,0 +1,46 @@
+package com.example.bookstore.search.query;
+
+import com.example.bookstore.search.model.BookDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookDocumentSortTest {
+
+    private final BookDocument cheapDune = doc(3L, "dune", "10");
+    private final BookDocument emma = doc(1L, "Emma", "25");
+    private final BookDocument cheapAlice = doc(2L, "Alice", "10");
+    private final BookDocument untitled = doc(4L, null, null);
+
+    @Test
+    void sort_byPriceDescending_breaksTiesById() {
+        List<BookDocument> sorted = BookDocumentSort.sort(List.of(cheapDune, emma, cheapAlice),
+                Sort.by(Sort.Order.desc("price")));
+
+        assertThat(sorted).containsExactly(emma, cheapAlice, cheapDune);
+    }
+
+    @Test
+    void sort_byTitle_ignoresCaseAndPutsMissingValuesLast() {
+        List<BookDocument> sorted = BookDocumentSort.sort(List.of(untitled, emma, cheapDune, cheapAlice),
+                Sort.by("title"));
+
+        assertThat(sorted).containsExactly(cheapAlice, cheapDune, emma, untitled);
+    }
+
+    @Test
+    void unsortedOrUnknownProperties_leaveTheListAsItIs() {
+        List<BookDocument> documents = List.of(cheapDune, emma);
+
+        assertThat(BookDocumentSort.sort(documents, Sort.unsorted())).isSameAs(documents);
+        assertThat(BookDocumentSort.sort(documents, Sort.by("rating"))).isSameAs(documents);
+    }
+
+    private static BookDocument doc(Long id, String title, String price) {
+        return BookDocument.builder().id(id).title(title).price(price == null ? null : new BigDecimal(price)).build();
+    }
+}
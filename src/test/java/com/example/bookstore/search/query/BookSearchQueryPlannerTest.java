@@ -0,0 +1,56 @@
+package com.example.bookstore.search.query;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSearchQueryPlannerTest {
+
+    @Test
+    void freeTextIsOneBoostedMultiMatchAndFiltersAreTermsAndRange() {
+        Query query = BookSearchQueryPlanner.plan("dune", null, "Frank Herbert", "SciFi", new BigDecimal("5"), null);
+
+        BoolQuery bool = query.bool();
+        assertThat(bool.should()).isEmpty();
+        assertThat(bool.must()).singleElement().satisfies(must -> {
+            assertThat(must.multiMatch().query()).isEqualTo("dune");
+            assertThat(must.multiMatch().fields()).containsExactly("title^3", "authorName^2", "genreName");
+        });
+        assertThat(bool.filter()).hasSize(3);
+        assertThat(bool.filter().get(0).term().field()).isEqualTo("authorName");
+        assertThat(bool.filter().get(0).term().value().stringValue()).isEqualTo("Frank Herbert");
+        assertThat(bool.filter().get(1).term().field()).isEqualTo("genreName");
+        assertThat(bool.filter().get(2).range().field()).isEqualTo("price");
+        assertThat(bool.filter().get(2).range().lt()).isNull();
+        assertThat(bool.filter().get(2).range().lte()).isNull();
+    }
+
+    @Test
+    void titleStaysScoredMatch() {
+        BoolQuery bool = BookSearchQueryPlanner.plan(null, "winter", "author-42", null, null, null).bool();
+
+        assertThat(bool.must()).singleElement().satisfies(must -> assertThat(must.match().field()).isEqualTo("title"));
+        assertThat(bool.filter()).singleElement().satisfies(filter -> assertThat(filter.term().field()).isEqualTo("authorName"));
+    }
+
+    @Test
+    void filterOnlyQueriesSkipScoringEntirely() {
+        Query query = BookSearchQueryPlanner.plan(null, "", null, "Fantasy", null, new BigDecimal("20"));
+
+        assertThat(query.isConstantScore()).isTrue();
+        BoolQuery bool = query.constantScore().filter().bool();
+        assertThat(bool.must()).isEmpty();
+        assertThat(bool.filter()).extracting(Query::_kind).containsExactly(Query.Kind.Term, Query.Kind.Range);
+    }
+
+    @Test
+    void emptyRequestIsSharedMatchAll() {
+        assertThat(BookSearchQueryPlanner.plan(null, " ", null, null, null, null))
+                .isSameAs(BookSearchQueryPlanner.plan("", null, "", null, null, null))
+                .satisfies(query -> assertThat(query.isMatchAll()).isTrue());
+    }
+}
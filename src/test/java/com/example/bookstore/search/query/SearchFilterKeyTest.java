@@ -0,0 +1,24 @@
+package com.example.bookstore.search.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchFilterKeyTest {
+
+    @Test
+    void equivalentRequestsShareOneKey() {
+        assertThat(SearchFilterKey.of("", "  Clean   Code ", null, " ", new BigDecimal("10.00"), null))
+                .isEqualTo(SearchFilterKey.of(null, "clean code", "", null, new BigDecimal("10"), null));
+    }
+
+    @Test
+    void keywordMatchedValuesStayCaseSensitive() {
+        assertThat(SearchFilterKey.of(null, null, "Tolkien", null, null, null))
+                .isNotEqualTo(SearchFilterKey.of(null, null, "tolkien", null, null, null));
+        assertThat(SearchFilterKey.of("Dune", null, null, null, null, null).hasFreeText()).isTrue();
+        assertThat(SearchFilterKey.of(null, null, null, "SciFi", null, null).hasFreeText()).isFalse();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.bookstore.search.query;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TotalHitsPolicyTest {
+
+    @Test
+    void parsesKeywordsBooleansAndCaps() {
+        assertThat(TotalHitsPolicy.valueOf("exact")).isEqualTo(TotalHitsPolicy.EXACT);
+        assertThat(TotalHitsPolicy.valueOf("TRUE")).isEqualTo(TotalHitsPolicy.EXACT);
+        assertThat(TotalHitsPolicy.valueOf(" none ")).isEqualTo(TotalHitsPolicy.NONE);
+        assertThat(TotalHitsPolicy.valueOf("false")).isEqualTo(TotalHitsPolicy.NONE);
+        assertThat(TotalHitsPolicy.valueOf("500")).isEqualTo(TotalHitsPolicy.capped(500));
+    }
+
+    @Test
+    void rejectsNonPositiveOrUnknownValues() {
+        assertThatThrownBy(() -> TotalHitsPolicy.valueOf("0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TotalHitsPolicy.valueOf("some")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void mapsToTrackTotalHits() {
+        assertThat(TotalHitsPolicy.EXACT.toTrackHits().enabled()).isTrue();
+        assertThat(TotalHitsPolicy.NONE.toTrackHits().enabled()).isFalse();
+        assertThat(TotalHitsPolicy.capped(1000).toTrackHits().count()).isEqualTo(1000);
+    }
+}
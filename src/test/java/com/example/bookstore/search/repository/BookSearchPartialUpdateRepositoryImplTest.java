@@ -0,0 +1,43 @@
+package com.example.bookstore.search.repository;
+
+import com.example.bookstore.search.model.BookDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.ResourceNotFoundException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookSearchPartialUpdateRepositoryImplTest {
+
+    private ElasticsearchOperations operations;
+    private BookSearchPartialUpdateRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        operations = mock(ElasticsearchOperations.class);
+        when(operations.getIndexCoordinatesFor(BookDocument.class)).thenReturn(IndexCoordinates.of("books"));
+        repository = new BookSearchPartialUpdateRepositoryImpl(operations);
+    }
+
+    @Test
+    void reportsUpdatedDocument() {
+        assertThat(repository.partialUpdate(1L, Map.of("price", new BigDecimal("9.50")))).isTrue();
+    }
+
+    @Test
+    void reportsMissingDocument() {
+        when(operations.update(any(UpdateQuery.class), any(IndexCoordinates.class)))
+                .thenThrow(new ResourceNotFoundException("document_missing_exception"));
+
+        assertThat(repository.partialUpdate(1L, Map.of("price", new BigDecimal("9.50")))).isFalse();
+    }
+}
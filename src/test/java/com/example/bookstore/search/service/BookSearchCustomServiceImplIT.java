@@ -1,5 +1,6 @@
 package com.example.bookstore.search.service ;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
@@ -8,7 +9,17 @@ import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
 import co.elastic.clients.elasticsearch.core.search.TotalHits;
 import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
 import co.elastic.clients.util.ObjectBuilder;
+import com.example.bookstore.cache.impl.ReactiveBookCache;
+import com.example.bookstore.search.cache.SearchCoalescer;
+import com.example.bookstore.search.cache.SearchCountCache;
+import com.example.bookstore.search.cache.SearchFacetCache;
+import com.example.bookstore.search.cache.SearchResultCache;
 import com.example.bookstore.search.dto.BookSearchItem;
+import com.example.bookstore.search.catalog.BookCatalog;
+import com.example.bookstore.search.facet.BookFacetAggregations;
+import com.example.bookstore.search.fallback.BookFullTextFallback;
+import com.example.bookstore.search.fallback.SearchCircuitBreaker;
+import com.example.bookstore.search.filter.BookFilterIndex;
 import com.example.bookstore.search.model.BookDocument;
 import com.example.bookstore.search.service.impl.BookSearchCustomServiceImpl;
 import com.example.bookstore.service.BookService;
@@ -40,7 +51,8 @@ import static org.mockito.Mockito.*;
 
 
 @SpringBootTest(
-        classes = { BookSearchCustomServiceImpl.class },
+        classes = { BookSearchCustomServiceImpl.class, SearchCircuitBreaker.class, SearchCoalescer.class,
+                SearchFacetCache.class, BookFacetAggregations.class, SearchFanOut.class },
         webEnvironment = SpringBootTest.WebEnvironment.NONE
 )
 @EnableAutoConfiguration(exclude = {
@@ -60,9 +72,30 @@ class BookSearchCustomServiceImplIT {
     @MockBean
     private ElasticsearchClient elasticsearchClient;
 
+    @MockBean
+    private ElasticsearchAsyncClient asyncClient;
+
+    @MockBean
+    private ReactiveBookCache reactiveBookCache;
+
     @MockBean
     private BookService bookService;
 
+    @MockBean
+    private BookFullTextFallback fallback;
+
+    @MockBean
+    private BookFilterIndex filterIndex;
+
+    @MockBean
+    private BookCatalog catalog;
+
+    @MockBean
+    private SearchCountCache countCache;
+
+    @MockBean
+    private SearchResultCache resultCache;
+
 
     private SearchResponse<BookDocument> buildSearchResponseWithIds(List<Long> ids, Long total) {
         String indexName = "books"; // must match service's INDEX_NAME
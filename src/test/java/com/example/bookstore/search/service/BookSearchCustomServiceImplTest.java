@@ -3,41 +3,97 @@ package com.example.bookstore.search.service;
 
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.RangeBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch.core.CountResponse;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
 import co.elastic.clients.elasticsearch.core.search.TotalHits;
 import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
+import com.example.bookstore.cache.impl.ReactiveBookCache;
+import com.example.bookstore.exception.SearchUnavailableException;
+import com.example.bookstore.search.cache.SearchCoalescer;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.monitoring.RequestTimings;
+import com.example.bookstore.search.cache.SearchCountCache;
+import com.example.bookstore.search.cache.SearchFacetCache;
+import com.example.bookstore.search.cache.SearchResultCache;
 import com.example.bookstore.search.dto.BookSearchItem;
+import com.example.bookstore.search.dto.BookSearchPage;
+import com.example.bookstore.search.dto.FacetBucket;
+import com.example.bookstore.search.dto.PriceFacetBucket;
+import com.example.bookstore.search.facet.BookFacetAggregations;
+import com.example.bookstore.search.catalog.BookCatalog;
+import com.example.bookstore.search.fallback.BookFullTextFallback;
+import com.example.bookstore.search.fallback.SearchCircuitBreaker;
+import com.example.bookstore.search.filter.BookFilterIndex;
 import com.example.bookstore.search.model.BookDocument;
+import com.example.bookstore.search.query.TotalHitsPolicy;
 import com.example.bookstore.search.service.impl.BookSearchCustomServiceImpl;
 import com.example.bookstore.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 class BookSearchCustomServiceImplTest {
 
     private ElasticsearchClient elasticsearchClient;
+    private ElasticsearchAsyncClient asyncClient;
+    private ReactiveBookCache reactiveBookCache;
     private BookService bookService;
+    private SearchCircuitBreaker circuitBreaker;
+    private BookFullTextFallback fallback;
+    private BookFilterIndex filterIndex;
+    private BookCatalog catalog;
+    private SearchFacetCache facetCache;
     private BookSearchCustomServiceImpl service;
     @BeforeEach
     void setup() {
         elasticsearchClient = mock(ElasticsearchClient.class);
+        asyncClient = mock(ElasticsearchAsyncClient.class);
+        reactiveBookCache = mock(ReactiveBookCache.class);
         bookService = mock(BookService.class);
-        service = new BookSearchCustomServiceImpl(elasticsearchClient, bookService);
+        circuitBreaker = new SearchCircuitBreaker(2, Duration.ofMinutes(1), Clock.systemUTC());
+        fallback = mock(BookFullTextFallback.class);
+        filterIndex = mock(BookFilterIndex.class);
+        catalog = mock(BookCatalog.class);
+        facetCache = new SearchFacetCache(new SimpleMeterRegistry(), 60_000, 100);
+        service = new BookSearchCustomServiceImpl(elasticsearchClient, bookService, circuitBreaker, fallback, filterIndex, catalog,
+                new SearchCountCache(new SimpleMeterRegistry(), 60_000, 100),
+                new SearchResultCache(new SimpleMeterRegistry(), true, 60_000, 100),
+                new SearchCoalescer(new SimpleMeterRegistry(), true, 1000),
+                facetCache,
+                new BookFacetAggregations(10, List.of(new BigDecimal("20"))),
+                SearchFanOut.inline(), asyncClient, reactiveBookCache);
     }
 
     @Test
@@ -55,6 +111,65 @@ class BookSearchCustomServiceImplTest {
         assertThat(result.getContent().get(0).getTitle()).isEqualTo("Spring Boot");
     }
 
+    @Test
+    void shouldReportStageTimingsOfTheRequest() throws Exception {
+        BookDocument doc = BookDocument.builder().id(1L).title("Spring Boot").build();
+        SearchResponse<BookDocument> response = mockSearchResponse(doc);
+        when(response.took()).thenReturn(6L);
+        when(bookService.getDocumentsByIds(List.of(1L))).thenReturn(List.of(doc));
+        RequestTimings timings = RequestTimings.open();
+        try {
+            service.searchBooks("Spring", null, null, null, null, null, PageRequest.of(0, 10));
+        } finally {
+            timings.close();
+        }
+
+        assertThat(timings.stages()).containsKeys(RequestTimings.QUERY, RequestTimings.ELASTICSEARCH, RequestTimings.MAPPING)
+                .containsEntry(RequestTimings.ELASTICSEARCH_TOOK, 6_000_000L);
+    }
+
+    @Test
+    void shouldServePureFilterQueriesFromFilterIndexWithoutElasticsearch() throws Exception {
+        PageRequest pageable = PageRequest.of(0, 2);
+        when(filterIndex.findIds("Tolkien", "Fantasy", null, null, pageable))
+                .thenReturn(Optional.of(new PageImpl<>(List.of(7L, 3L), pageable, 5)));
+        when(bookService.getDocumentsByIds(List.of(7L, 3L))).thenReturn(List.of(
+                BookDocument.builder().id(3L).title("Silmarillion").build(),
+                BookDocument.builder().id(7L).title("Hobbit").build()));
+
+        Page<BookSearchItem> result = service.searchBooks(null, null, "Tolkien", "Fantasy", null, null, pageable);
+
+        assertThat(result.getContent()).extracting(BookSearchItem::getTitle).containsExactly("Hobbit", "Silmarillion");
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        verify(catalog, never()).list(any(), any(), any(), any(), any());
+        verify(elasticsearchClient, never()).search(any(Function.class), eq(BookDocument.class));
+    }
+
+    @Test
+    void shouldServeTitleSortedListingsTheFilterIndexCannotOrderFromCatalogSnapshot() throws Exception {
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("title"));
+        BookSearchItem item = BookSearchItem.builder().id(9L).title("Anathem").build();
+        when(filterIndex.findIds(null, "SciFi", null, null, pageable)).thenReturn(Optional.empty());
+        when(catalog.list(null, "SciFi", null, null, pageable)).thenReturn(Optional.of(new PageImpl<>(List.of(item), pageable, 1)));
+
+        Page<BookSearchItem> result = service.searchBooks(null, null, null, "SciFi", null, null, pageable);
+
+        assertThat(result.getContent()).containsExactly(item);
+        verify(bookService, never()).getDocumentsByIds(any());
+        verify(elasticsearchClient, never()).search(any(Function.class), eq(BookDocument.class));
+    }
+
+    @Test
+    void shouldQueryElasticsearchWhenFilterIndexCannotAnswer() throws Exception {
+        BookDocument doc = BookDocument.builder().id(1L).title("Dune").build();
+        mockSearchResponse(doc);
+        when(bookService.getDocumentsByIds(List.of(1L))).thenReturn(List.of(doc));
+
+        Page<BookSearchItem> result = service.searchBooks(null, null, null, "SciFi", null, null, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).extracting(BookSearchItem::getTitle).containsExactly("Dune");
+    }
+
     @Test
     void shouldReturnEmptyPageWhenNoHits() throws Exception {
         mockSearchResponse();
@@ -66,10 +181,39 @@ class BookSearchCustomServiceImplTest {
     void shouldHandleSearchExceptionGracefully() throws Exception {
          when(elasticsearchClient.search(any(Function.class), eq(BookDocument.class)))
                 .thenThrow(new RuntimeException("Search failed"));
+        when(fallback.search(eq("error"), any(), any(), any(), any(), any(), any())).thenReturn(Page.empty());
         Page<BookSearchItem> result = service.searchBooks("error", null, null, null, null, null, PageRequest.of(0, 10));
         assertThat(result.getTotalElements()).isZero();
     }
 
+    @Test
+    void shouldServeFromDatabaseWhenElasticsearchFails() throws Exception {
+        when(elasticsearchClient.search(any(Function.class), eq(BookDocument.class)))
+                .thenThrow(new RuntimeException("Search failed"));
+        BookSearchItem item = BookSearchItem.builder().id(3L).title("Spring in Action").build();
+        when(fallback.search(eq("spring"), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(item)));
+
+        Page<BookSearchItem> result = service.searchBooks("spring", null, null, null, null, null, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).containsExactly(item);
+    }
+
+    @Test
+    void shouldSkipElasticsearchWhileCircuitIsOpen() throws Exception {
+        when(elasticsearchClient.search(any(Function.class), eq(BookDocument.class)))
+                .thenThrow(new RuntimeException("Search failed"));
+        when(fallback.search(any(), any(), any(), any(), any(), any(), any())).thenReturn(Page.empty());
+
+        for (int i = 0; i < 3; i++) {
+            service.searchBooks("spring", null, null, null, null, null, PageRequest.of(0, 10));
+        }
+
+        assertThat(circuitBreaker.state()).isEqualTo(SearchCircuitBreaker.State.OPEN);
+        verify(elasticsearchClient, times(2)).search(any(Function.class), eq(BookDocument.class));
+        verify(fallback, times(3)).search(any(), any(), any(), any(), any(), any(), any());
+    }
+
     @Test
     void shouldSortByTitleAscending() throws Exception {
         BookDocument doc1 = new BookDocument();
@@ -113,7 +257,207 @@ class BookSearchCustomServiceImplTest {
         assertThat(result.getContent()).isEmpty();
     }
 
-    private void mockSearchResponse(BookDocument... docs) throws Exception {
+    @Test
+    void shouldReuseCachedIdsButHydrateEveryTime() throws Exception {
+        mockSearchResponse(BookDocument.builder().id(1L).build());
+        when(bookService.getDocumentsByIds(List.of(1L))).thenReturn(
+                List.of(BookDocument.builder().id(1L).title("Dune").price(new BigDecimal("10")).build()),
+                List.of(BookDocument.builder().id(1L).title("Dune").price(new BigDecimal("8")).build()));
+
+        Page<BookSearchItem> first = service.searchBooks("dune", null, null, null, null, null, PageRequest.of(0, 10));
+        Page<BookSearchItem> second = service.searchBooks("dune", " ", null, null, null, null, PageRequest.of(0, 10));
+
+        verify(elasticsearchClient, times(1)).search(any(Function.class), eq(BookDocument.class));
+        assertThat(first.getContent().get(0).getPrice()).isEqualByComparingTo("10");
+        assertThat(second.getContent().get(0).getPrice()).isEqualByComparingTo("8");
+        assertThat(second.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFlagCappedTotalsAsLowerBound() throws Exception {
+        BookDocument doc = BookDocument.builder().id(1L).title("Dune").build();
+        mockSearchResponse(new TotalHits.Builder().value(10_000).relation(TotalHitsRelation.Gte).build(), doc);
+        when(bookService.getDocumentsByIds(List.of(1L))).thenReturn(List.of(doc));
+
+        Page<BookSearchItem> result = service.searchBooks("dune", null, null, null, null, null, PageRequest.of(0, 10));
+
+        assertThat(result).isInstanceOfSatisfying(BookSearchPage.class, page -> {
+            assertThat(page.getTotalElements()).isEqualTo(10_000);
+            assertThat(page.isTotalExact()).isFalse();
+        });
+    }
+
+    @Test
+    void shouldFetchOneExtraHitInsteadOfCountingWhenTotalsAreDisabled() throws Exception {
+        BookDocument first = BookDocument.builder().id(1L).title("Dune").build();
+        BookDocument second = BookDocument.builder().id(2L).title("Dune Messiah").build();
+        mockSearchResponse((TotalHits) null, first, second);
+        when(bookService.getDocumentsByIds(List.of(1L))).thenReturn(List.of(first));
+
+        Page<BookSearchItem> result = service.searchBooks("dune", null, null, null, null, null,
+                PageRequest.of(3, 1), TotalHitsPolicy.NONE);
+
+        assertThat(result.getContent()).extracting(BookSearchItem::getTitle).containsExactly("Dune");
+        assertThat(result.hasNext()).isTrue();
+        assertThat(((BookSearchPage) result).isTotalExact()).isFalse();
+    }
+
+    @Test
+    void shouldCountPureFiltersFromFilterIndexBeforeCatalog() throws Exception {
+        when(filterIndex.count("Tolkien", null, null, new BigDecimal("25"))).thenReturn(OptionalLong.of(42));
+
+        assertThat(service.countBooks(null, null, "Tolkien", null, null, new BigDecimal("25"))).isEqualTo(42);
+
+        verify(catalog, never()).list(any(), any(), any(), any(), any());
+        verify(elasticsearchClient, never()).count(any(Function.class));
+    }
+
+    @Test
+    void shouldCountPureFiltersFromCatalogAndCacheTheResult() throws Exception {
+        when(catalog.list(eq(null), eq("SciFi"), eq(null), eq(null), any()))
+                .thenReturn(Optional.of(new PageImpl<>(List.of(), PageRequest.of(0, 1), 1234)));
+
+        assertThat(service.countBooks(null, " ", null, "SciFi", null, null)).isEqualTo(1234);
+        assertThat(service.countBooks("", null, null, "SciFi", null, null)).isEqualTo(1234);
+
+        verify(catalog, times(1)).list(any(), any(), any(), any(), any());
+        verify(elasticsearchClient, never()).count(any(Function.class));
+    }
+
+    @Test
+    void shouldCountFreeTextWithElasticsearchCountApi() throws Exception {
+        when(elasticsearchClient.count(any(Function.class))).thenReturn(CountResponse.of(c -> c
+                .count(77)
+                .shards(s -> s.total(1).successful(1).failed(0))));
+
+        assertThat(service.countBooks("dune", null, null, null, null, new BigDecimal("20"))).isEqualTo(77);
+        verify(catalog, never()).list(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldReportCountAsUnavailableWhileCircuitIsOpen() throws Exception {
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+
+        assertThatThrownBy(() -> service.countBooks("dune", null, null, null, null, null))
+                .isInstanceOfSatisfying(SearchUnavailableException.class,
+                        ex -> assertThat(ex.getRetryAfterSeconds()).isBetween(1L, 60L));
+        verify(elasticsearchClient, never()).count(any(Function.class));
+    }
+
+    @Test
+    void shouldAttachCachedFacetsToFilterOnlyListings() throws Exception {
+        PageRequest pageable = PageRequest.of(0, 10);
+        when(catalog.list(null, "Fantasy", null, null, pageable))
+                .thenReturn(Optional.of(new PageImpl<>(List.of(), pageable, 4)));
+        SearchResponse<BookDocument> aggregationsOnly = mock(SearchResponse.class);
+        when(aggregationsOnly.aggregations()).thenReturn(facetAggregates());
+        when(elasticsearchClient.search(any(Function.class), eq(BookDocument.class))).thenReturn(aggregationsOnly);
+
+        BookSearchPage first = (BookSearchPage) service.searchBooks(null, null, null, "Fantasy", null, null, pageable, null, true);
+        BookSearchPage second = (BookSearchPage) service.searchBooks(null, null, null, "Fantasy", null, null, pageable, null, true);
+
+        assertThat(first.getFacets().getGenres()).containsExactly(new FacetBucket("Fantasy", 4));
+        assertThat(first.getFacets().getPrices()).containsExactly(
+                new PriceFacetBucket(null, new BigDecimal("20"), 3), new PriceFacetBucket(new BigDecimal("20"), null, 1));
+        assertThat(second.getFacets()).isSameAs(first.getFacets());
+        verify(elasticsearchClient, times(1)).search(any(Function.class), eq(BookDocument.class));
+
+        facetCache.onBookEvent(BookEvent.builder().id(1L).type("delete").build());
+        service.searchBooks(null, null, null, "Fantasy", null, null, pageable, null, true);
+
+        verify(elasticsearchClient, times(2)).search(any(Function.class), eq(BookDocument.class));
+    }
+
+    @Test
+    void shouldAggregateFreeTextFacetsInTheSameRequest() throws Exception {
+        BookDocument doc = BookDocument.builder().id(1L).title("Dune").build();
+        SearchResponse<BookDocument> response = mockSearchResponse(doc);
+        when(response.aggregations()).thenReturn(facetAggregates());
+        when(bookService.getDocumentsByIds(List.of(1L))).thenReturn(List.of(doc));
+
+        Page<BookSearchItem> page = service.searchBooks("dune", null, null, null, null, null, PageRequest.of(0, 10), null, true);
+        Page<BookSearchItem> plain = service.searchBooks("dune", null, null, null, null, null, PageRequest.of(0, 10));
+
+        assertThat(((BookSearchPage) page).getFacets().getAuthors()).containsExactly(new FacetBucket("Herbert", 4));
+        assertThat(((BookSearchPage) plain).getFacets()).isNull();
+    }
+
+    @Test
+    void shouldStreamElasticsearchResultsInHitOrderWithoutTheBlockingClient() throws Exception {
+        BookDocument cached = BookDocument.builder().id(1L).title("Dune").build();
+        BookDocument loaded = BookDocument.builder().id(2L).title("Dune Messiah").build();
+        SearchResponse<BookDocument> response = mockSearchResponse(loaded, cached);
+        when(asyncClient.search(any(Function.class), eq(BookDocument.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+        when(reactiveBookCache.getAllByIds(List.of(2L, 1L))).thenReturn(Mono.just(List.of(cached)));
+        when(bookService.getDocumentsByIds(List.of(2L))).thenReturn(List.of(loaded));
+
+        List<BookSearchItem> first = service.streamBooks("dune", null, null, null, null, null, PageRequest.of(0, 10))
+                .collectList().block();
+        List<BookSearchItem> second = service.streamBooks("dune", null, null, null, null, null, PageRequest.of(0, 10))
+                .collectList().block();
+
+        assertThat(first).extracting(BookSearchItem::getTitle).containsExactly("Dune Messiah", "Dune");
+        assertThat(second).isEqualTo(first);
+        verify(asyncClient, times(1)).search(any(Function.class), eq(BookDocument.class));
+        verify(elasticsearchClient, never()).search(any(Function.class), eq(BookDocument.class));
+    }
+
+    @Test
+    void shouldStreamFromDatabaseWhenElasticsearchFails() throws Exception {
+        when(asyncClient.search(any(Function.class), eq(BookDocument.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Search failed")));
+        BookSearchItem item = BookSearchItem.builder().id(3L).title("Spring in Action").build();
+        when(fallback.search(eq("spring"), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(item)));
+
+        List<BookSearchItem> result = service.streamBooks("spring", null, null, null, null, null, PageRequest.of(0, 10))
+                .collectList().block();
+
+        assertThat(result).containsExactly(item);
+        assertThat(circuitBreaker.state()).isEqualTo(SearchCircuitBreaker.State.CLOSED);
+        service.streamBooks("spring", null, null, null, null, null, PageRequest.of(0, 10)).collectList().block();
+        assertThat(circuitBreaker.state()).isEqualTo(SearchCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void shouldStreamListingsFromTheCatalogAndFilterIndex() {
+        PageRequest pageable = PageRequest.of(0, 10);
+        BookSearchItem item = BookSearchItem.builder().id(9L).title("Anathem").build();
+        when(catalog.list(null, "SciFi", null, null, pageable)).thenReturn(Optional.of(new PageImpl<>(List.of(item), pageable, 1)));
+        when(filterIndex.findIds("Tolkien", null, null, null, pageable))
+                .thenReturn(Optional.of(new PageImpl<>(List.of(7L, 3L), pageable, 2)));
+        when(reactiveBookCache.getAllByIds(List.of(7L, 3L))).thenReturn(Mono.just(List.of(
+                BookDocument.builder().id(3L).title("Silmarillion").build(),
+                BookDocument.builder().id(7L).title("Hobbit").build())));
+
+        assertThat(service.streamBooks(null, null, null, "SciFi", null, null, pageable).collectList().block())
+                .containsExactly(item);
+        assertThat(service.streamBooks(null, null, "Tolkien", null, null, null, pageable).collectList().block())
+                .extracting(BookSearchItem::getTitle).containsExactly("Hobbit", "Silmarillion");
+        verify(bookService, never()).getDocumentsByIds(any());
+        verify(asyncClient, never()).search(any(Function.class), eq(BookDocument.class));
+    }
+
+    private static Map<String, Aggregate> facetAggregates() {
+        Aggregate genres = Aggregate.of(a -> a.sterms(t -> t.sumOtherDocCount(0L)
+                .buckets(b -> b.array(List.of(StringTermsBucket.of(x -> x.key("Fantasy").docCount(4)))))));
+        Aggregate authors = Aggregate.of(a -> a.sterms(t -> t.sumOtherDocCount(0L)
+                .buckets(b -> b.array(List.of(StringTermsBucket.of(x -> x.key("Herbert").docCount(4)))))));
+        Aggregate prices = Aggregate.of(a -> a.range(r -> r.buckets(b -> b.array(List.of(
+                RangeBucket.of(x -> x.docCount(3)), RangeBucket.of(x -> x.docCount(1)))))));
+        return Map.of("genres", genres, "authors", authors, "prices", prices);
+    }
+
+    private SearchResponse<BookDocument> mockSearchResponse(BookDocument... docs) throws Exception {
+        return mockSearchResponse(new TotalHits.Builder()
+                .value((long) docs.length)
+                .relation(TotalHitsRelation.Eq)
+                .build(), docs);
+    }
+
+    private SearchResponse<BookDocument> mockSearchResponse(TotalHits totalHits, BookDocument... docs) throws Exception {
         List<Hit<BookDocument>> hitList = new ArrayList<>();
         for (BookDocument doc : docs) {
             Hit<BookDocument> hit = mock(Hit.class);
@@ -121,11 +465,6 @@ class BookSearchCustomServiceImplTest {
             hitList.add(hit);
         }
 
-        TotalHits totalHits = new TotalHits.Builder()
-                .value((long) hitList.size())
-                .relation(TotalHitsRelation.Eq)
-                .build();
-
         HitsMetadata<BookDocument> hitsMetadata = mock(HitsMetadata.class);
         when(hitsMetadata.hits()).thenReturn(hitList);
         when(hitsMetadata.total()).thenReturn(totalHits);
@@ -134,5 +473,6 @@ class BookSearchCustomServiceImplTest {
         when(response.hits()).thenReturn(hitsMetadata);
 
         when(elasticsearchClient.search(any(Function.class), eq(BookDocument.class))).thenReturn(response);
+        return response;
     }
 }
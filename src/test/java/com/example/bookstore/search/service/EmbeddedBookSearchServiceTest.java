@@ -0,0 +1,97 @@
+package com.example.bookstore.search.service;
+
+import com.example.bookstore.domain.BookIndexProjection;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import com.example.bookstore.search.dto.BookSearchItem;
+import com.example.bookstore.search.service.impl.EmbeddedBookSearchService;
+import com.example.bookstore.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmbeddedBookSearchServiceTest {
+
+    private BookService bookService;
+    private EmbeddedBookSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        bookService = mock(BookService.class);
+        service = new EmbeddedBookSearchService(bookService);
+    }
+
+    @Test
+    void loadsCatalogFromDatabaseOnStartup() {
+        BookIndexProjection projection = mock(BookIndexProjection.class);
+        when(projection.getId()).thenReturn(1L);
+        when(projection.getTitle()).thenReturn("Clean Code");
+        when(projection.getAuthorName()).thenReturn("Robert C. Martin");
+        when(projection.getGenreName()).thenReturn("Programming");
+        when(projection.getPrice()).thenReturn(new BigDecimal("30.00"));
+        when(bookService.findBooksForIndexing(PageRequest.of(0, 1000)))
+                .thenReturn(new PageImpl<>(List.of(projection), PageRequest.of(0, 1000), 1));
+
+        service.run(mock(ApplicationArguments.class));
+
+        Page<BookSearchItem> page = service.searchBooks("clean", null, null, null, null, null, PageRequest.of(0, 10));
+        assertThat(page.getContent()).extracting(BookSearchItem::getId).containsExactly(1L);
+    }
+
+    @Test
+    void appliesCreatePatchAndDeleteEvents() {
+        when(bookService.findBooksForIndexing(PageRequest.of(0, 1000)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 1000), 0));
+        service.run(mock(ApplicationArguments.class));
+
+        service.onBookEvent(BookEvent.builder().id(5L).type("create").title("Refactoring")
+                .authorName("Martin Fowler").genreName("Programming").price(new BigDecimal("40.00")).build());
+        service.onBookEvent(BookEvent.builder().id(5L).type("patch")
+                .changedFields(EnumSet.of(BookEventField.PRICE)).price(new BigDecimal("35.00")).build());
+
+        Page<BookSearchItem> page = service.searchBooks(null, "refactoring", null, null, null, new BigDecimal("36"), PageRequest.of(0, 10));
+        assertThat(page.getContent()).singleElement()
+                .satisfies(item -> assertThat(item.getPrice()).isEqualByComparingTo("35.00"));
+
+        service.onBookEvent(BookEvent.builder().id(5L).type("delete").build());
+
+        assertThat(service.searchBooks("refactoring", null, null, null, null, null, PageRequest.of(0, 10)).getContent()).isEmpty();
+    }
+
+    @Test
+    void replaysEventsReceivedWhileLoadingOverTheLoadedRows() {
+        BookIndexProjection stale = mock(BookIndexProjection.class);
+        when(stale.getId()).thenReturn(1L);
+        when(stale.getTitle()).thenReturn("Clean Code");
+        when(stale.getPrice()).thenReturn(new BigDecimal("30.00"));
+        BookIndexProjection deleted = mock(BookIndexProjection.class);
+        when(deleted.getId()).thenReturn(2L);
+        when(deleted.getTitle()).thenReturn("Clean Architecture");
+        when(bookService.findBooksForIndexing(PageRequest.of(0, 1000))).thenAnswer(invocation -> {
+            service.onBookEvent(BookEvent.builder().id(1L).type("patch")
+                    .changedFields(EnumSet.of(BookEventField.PRICE)).price(new BigDecimal("25.00")).build());
+            service.onBookEvent(BookEvent.builder().id(2L).type("delete").build());
+            return new PageImpl<>(List.of(stale, deleted), PageRequest.of(0, 1000), 2);
+        });
+
+        service.run(mock(ApplicationArguments.class));
+
+        assertThat(service.searchBooks("clean", null, null, null, null, null, PageRequest.of(0, 10)).getContent())
+                .singleElement()
+                .satisfies(item -> {
+                    assertThat(item.getId()).isEqualTo(1L);
+                    assertThat(item.getPrice()).isEqualByComparingTo("25.00");
+                });
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.bookstore.search.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchFanOutTest {
+
+    @Test
+    void inline_runsTheTaskOnTheCallingThread() {
+        SearchFanOut fanOut = SearchFanOut.inline();
+        Thread caller = Thread.currentThread();
+
+        SearchFanOut.Fork<Thread> fork = fanOut.fork(Thread::currentThread);
+
+        assertThat(fanOut.isConcurrent()).isFalse();
+        assertThat(fork.join()).isSameAs(caller);
+    }
+
+    @Test
+    void virtualThreads_runTasksConcurrentlyOnVirtualThreads() throws Exception {
+        SearchFanOut fanOut = new SearchFanOut(true);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            SearchFanOut.Fork<Thread> fork = fanOut.fork(() -> {
+                started.countDown();
+                await(release);
+                return Thread.currentThread();
+            });
+
+            // The caller is free while the forked task blocks.
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+
+            assertThat(fanOut.isConcurrent()).isTrue();
+            assertThat(fork.join().isVirtual()).isTrue();
+        } finally {
+            fanOut.shutdown();
+        }
+    }
+
+    @Test
+    void join_rethrowsWhatTheTaskThrew() {
+        SearchFanOut fanOut = new SearchFanOut(true);
+        try {
+            SearchFanOut.Fork<Object> fork = fanOut.fork(() -> {
+                throw new IllegalStateException("boom");
+            });
+
+            assertThatThrownBy(fork::join).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+        } finally {
+            fanOut.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
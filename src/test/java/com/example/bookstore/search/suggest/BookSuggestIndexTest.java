@@ -0,0 +1,99 @@
+package com.example.bookstore.search.suggest;
+
+import com.example.bookstore.domain.BookIndexProjection;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
+import com.example.bookstore.search.dto.BookSuggestion;
+import com.example.bookstore.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookSuggestIndexTest {
+
+    private BookService bookService;
+    private BookSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookService = mock(BookService.class);
+        BookIndexProjection book = mock(BookIndexProjection.class);
+        when(book.getId()).thenReturn(1L);
+        when(book.getTitle()).thenReturn("Clean Code");
+        when(book.getAuthorName()).thenReturn("Robert C. Martin");
+        when(bookService.findBooksForIndexing(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(book)));
+        index = new BookSuggestIndex(bookService, true, 3, 10, 60_000, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void answersNothingUntilLoaded() {
+        assertThat(index.lookup("cle", 10)).isEmpty();
+
+        index.run(mock(ApplicationArguments.class));
+
+        assertThat(index.lookup("mar", 10).orElseThrow()).extracting(BookSuggestion::getTitle).containsExactly("Clean Code");
+    }
+
+    @Test
+    void eventsReachTheTrieOnRebuild() {
+        index.run(mock(ApplicationArguments.class));
+
+        index.onBookEvent(BookEvent.builder().id(2L).type("create").title("Refactoring").authorName("Martin Fowler").build());
+        index.onBookEvent(BookEvent.builder().id(1L).type("patch")
+                .changedFields(EnumSet.of(BookEventField.TITLE)).title("Clean Architecture").build());
+        assertThat(index.lookup("ref", 10).orElseThrow()).isEmpty();
+
+        index.rebuild();
+
+        assertThat(index.lookup("ref", 10).orElseThrow()).extracting(BookSuggestion::getId).containsExactly(2L);
+        assertThat(index.lookup("mar", 10).orElseThrow()).extracting(BookSuggestion::getTitle)
+                .containsExactly("Refactoring", "Clean Architecture");
+
+        index.onBookEvent(BookEvent.builder().id(2L).type("delete").build());
+        index.rebuild();
+
+        assertThat(index.lookup("ref", 10).orElseThrow()).isEmpty();
+    }
+
+    @Test
+    void longerPrefixesAreLeftToTheCaller() {
+        index.run(mock(ApplicationArguments.class));
+
+        assertThat(index.lookup("clean", 10)).isEmpty();
+    }
+
+    @Test
+    void replaysEventsReceivedWhileLoadingOverTheLoadedRows() {
+        BookIndexProjection stale = mock(BookIndexProjection.class);
+        when(stale.getId()).thenReturn(1L);
+        when(stale.getTitle()).thenReturn("Clean Code");
+        when(stale.getAuthorName()).thenReturn("Robert C. Martin");
+        when(bookService.findBooksForIndexing(any(Pageable.class))).thenAnswer(invocation -> {
+            index.onBookEvent(BookEvent.builder().id(1L).type("patch")
+                    .changedFields(EnumSet.of(BookEventField.TITLE)).title("Clean Architecture").build());
+            index.onBookEvent(BookEvent.builder().id(2L).type("create").title("Refactoring").authorName("Martin Fowler").build());
+            return new PageImpl<>(List.of(stale));
+        });
+
+        index.run(mock(ApplicationArguments.class));
+
+        assertThat(index.lookup("cle", 10).orElseThrow()).extracting(BookSuggestion::getTitle).containsExactly("Clean Architecture");
+        assertThat(index.lookup("ref", 10).orElseThrow()).extracting(BookSuggestion::getId).containsExactly(2L);
+    }
+}
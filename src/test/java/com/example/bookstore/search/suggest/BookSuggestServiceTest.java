@@ -0,0 +1,74 @@
+package com.example.bookstore.search.suggest;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
+import com.example.bookstore.search.dto.BookSuggestion;
+import com.example.bookstore.search.fallback.SearchCircuitBreaker;
+import com.example.bookstore.search.model.BookDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookSuggestServiceTest {
+
+    private ElasticsearchClient elasticsearchClient;
+    private BookSuggestIndex suggestIndex;
+    private BookSuggestService service;
+
+    @BeforeEach
+    void setUp() {
+        elasticsearchClient = mock(ElasticsearchClient.class);
+        suggestIndex = mock(BookSuggestIndex.class);
+        service = new BookSuggestService(elasticsearchClient,
+                new SearchCircuitBreaker(2, Duration.ofMinutes(1), Clock.systemUTC()), suggestIndex, "elasticsearch", 10);
+    }
+
+    @Test
+    void shortPrefixesComeFromTheTrie() throws Exception {
+        List<BookSuggestion> local = List.of(new BookSuggestion(1L, "Dune"));
+        when(suggestIndex.lookup("du", 5)).thenReturn(Optional.of(local));
+
+        assertThat(service.suggest("du", 5)).isSameAs(local);
+        verify(elasticsearchClient, never()).search(any(Function.class), eq(BookDocument.class));
+    }
+
+    @Test
+    void otherPrefixesQueryElasticsearchWithClampedLimit() throws Exception {
+        when(suggestIndex.lookup(any(), anyInt())).thenReturn(Optional.empty());
+        Hit<BookDocument> hit = mock(Hit.class);
+        when(hit.source()).thenReturn(BookDocument.builder().id(4L).title("Dune Messiah").build());
+        HitsMetadata<BookDocument> hits = mock(HitsMetadata.class);
+        when(hits.hits()).thenReturn(List.of(hit));
+        SearchResponse<BookDocument> response = mock(SearchResponse.class);
+        when(response.hits()).thenReturn(hits);
+        when(elasticsearchClient.search(any(Function.class), eq(BookDocument.class))).thenReturn(response);
+
+        assertThat(service.suggest("dune mes", 500)).containsExactly(new BookSuggestion(4L, "Dune Messiah"));
+        verify(suggestIndex).lookup("dune mes", 10);
+    }
+
+    @Test
+    void failuresYieldNoSuggestions() throws Exception {
+        when(suggestIndex.lookup(any(), anyInt())).thenReturn(Optional.empty());
+        when(elasticsearchClient.search(any(Function.class), eq(BookDocument.class))).thenThrow(new RuntimeException("down"));
+
+        assertThat(service.suggest("dune mes", 10)).isEmpty();
+        assertThat(service.suggest(" ", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.bookstore.search.suggest;
+
+import com.example.bookstore.search.dto.BookSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixTrieTest {
+
+    private final PrefixTrie trie = PrefixTrie.build(List.of(
+            new PrefixTrie.Entry(1, "Dragon Harbor", "Ann Drake"),
+            new PrefixTrie.Entry(2, "The Dragon", "Bob Stone"),
+            new PrefixTrie.Entry(3, "Dune", "Frank Herbert"),
+            new PrefixTrie.Entry(4, "Silver Storm", "Dara Ode")), 3, 3);
+
+    @Test
+    void matchesAnyWordOfTitleOrAuthorShortestTitleFirst() {
+        assertThat(trie.lookup("D", 10)).extracting(BookSuggestion::getTitle)
+                .containsExactly("Dune", "The Dragon", "Silver Storm");
+        assertThat(trie.lookup("dra", 10)).extracting(BookSuggestion::getId).containsExactly(2L, 1L);
+        assertThat(trie.lookup("her", 10)).extracting(BookSuggestion::getId).containsExactly(3L);
+    }
+
+    @Test
+    void keepsOnlyTheBestPerNodeAndHonoursLimit() {
+        assertThat(trie.lookup("d", 2)).extracting(BookSuggestion::getId).containsExactly(3L, 2L);
+        assertThat(trie.lookup("zzz", 10)).isEmpty();
+    }
+
+    @Test
+    void foldsAccentsOnBothSides() {
+        PrefixTrie accented = PrefixTrie.build(List.of(
+                new PrefixTrie.Entry(5, "Émile", "Rousseau"),
+                new PrefixTrie.Entry(6, "Cien años", "Gabriel García Márquez")), 3, 3);
+
+        assertThat(accented.lookup("emi", 10)).extracting(BookSuggestion::getId).containsExactly(5L);
+        assertThat(accented.lookup("Émi", 10)).extracting(BookSuggestion::getId).containsExactly(5L);
+        assertThat(accented.lookup("ano", 10)).extracting(BookSuggestion::getId).containsExactly(6L);
+        assertThat(accented.lookup("mår", 10)).extracting(BookSuggestion::getId).containsExactly(6L);
+        assertThat(accented.lookup("emi", 10)).extracting(BookSuggestion::getTitle).containsExactly("Émile");
+    }
+
+    @Test
+    void declinesPrefixesItDoesNotIndex() {
+        assertThat(trie.lookup("drag", 10)).isNull();
+        assertThat(trie.lookup("the d", 10)).isNull();
+        assertThat(trie.lookup("  ", 10)).isNull();
+    }
+}
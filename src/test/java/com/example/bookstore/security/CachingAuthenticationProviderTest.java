@@ -0,0 +1,132 @@
+package com.example.bookstore.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CachingAuthenticationProviderTest {
+
+    private PasswordEncoder encoder;
+    private InMemoryUserDetailsManager users;
+    private SimpleMeterRegistry meterRegistry;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        encoder = spy(new BCryptPasswordEncoder(4));
+        users = new InMemoryUserDetailsManager(user("user", "user123"));
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider(encoder);
+        dao.setUserDetailsService(users);
+        meterRegistry = new SimpleMeterRegistry();
+        provider = new CachingAuthenticationProvider(dao, users, Duration.ofMinutes(1), 100, meterRegistry);
+        clearInvocations(encoder);
+    }
+
+    @Test
+    void repeatedValidCredentials_verifyThePasswordOnce() {
+        Authentication first = provider.authenticate(token("user", "user123"));
+        Authentication second = provider.authenticate(token("user", "user123"));
+
+        assertThat(first.isAuthenticated()).isTrue();
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPrincipal()).isEqualTo(first.getPrincipal());
+        assertThat(second.getAuthorities()).isEqualTo(first.getAuthorities());
+        assertThat(second.getCredentials()).isNull();
+        verify(encoder, times(1)).matches(eq("user123"), anyString());
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "security.authentication").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void wrongPassword_failsEveryTimeAndIsNotCached() {
+        provider.authenticate(token("user", "user123"));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> provider.authenticate(token("user", "wrong")))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+        verify(encoder, times(2)).matches(eq("wrong"), anyString());
+        assertThat(provider.size()).isEqualTo(1);
+    }
+
+    @Test
+    void passwordChange_rejectsTheOldPasswordOnTheNextRequest() {
+        provider.authenticate(token("user", "user123"));
+
+        users.updateUser(user("user", "changed"));
+
+        assertThatThrownBy(() -> provider.authenticate(token("user", "user123")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(provider.authenticate(token("user", "changed")).isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void disabledOrDeletedUser_isNotServedFromTheCache() {
+        provider.authenticate(token("user", "user123"));
+        UserDetails current = users.loadUserByUsername("user");
+        users.updateUser(User.withUserDetails(current).disabled(true).build());
+
+        assertThatThrownBy(() -> provider.authenticate(token("user", "user123")))
+                .isInstanceOf(org.springframework.security.authentication.DisabledException.class);
+
+        users.deleteUser("user");
+        assertThatThrownBy(() -> provider.authenticate(token("user", "user123")))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void cacheHit_carriesTheDetailsOfItsOwnRequest() {
+        UsernamePasswordAuthenticationToken first = token("user", "user123");
+        first.setDetails("10.0.0.1");
+        UsernamePasswordAuthenticationToken second = token("user", "user123");
+        second.setDetails("10.0.0.2");
+
+        provider.authenticate(first);
+        Authentication result = provider.authenticate(second);
+
+        assertThat(result.getDetails()).isEqualTo("10.0.0.2");
+        verify(encoder, times(1)).matches(eq("user123"), anyString());
+    }
+
+    @Test
+    void credentialsDifferingOnlyAtTheSeparator_doNotShareAnEntry() {
+        users.createUser(user("use", "ruser123"));
+        provider.authenticate(token("user", "user123"));
+        clearInvocations(encoder);
+
+        provider.authenticate(token("use", "ruser123"));
+
+        verify(encoder, times(1)).matches(eq("ruser123"), anyString());
+        verify(encoder, never()).matches(eq("user123"), anyString());
+    }
+
+    private UserDetails user(String username, String password) {
+        return User.withUsername(username).password(encoder.encode(password)).roles("USER").build();
+    }
+
+    private static UsernamePasswordAuthenticationToken token(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
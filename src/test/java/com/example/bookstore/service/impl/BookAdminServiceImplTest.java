@@ -7,6 +7,8 @@ import com.example.bookstore.domain.Genre;
 import com.example.bookstore.dto.BookRequest;
 import com.example.bookstore.dto.BookResponse;
 import com.example.bookstore.exception.BookStoreException;
+import com.example.bookstore.kafka.event.BookEvent;
+import com.example.bookstore.kafka.event.BookEventField;
 import com.example.bookstore.kafka.producer.BookEventPublisher;
 import com.example.bookstore.service.AuthorService;
 import com.example.bookstore.service.BookService;
@@ -16,7 +18,9 @@ import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.data.domain.*;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -188,6 +192,95 @@ class BookAdminServiceImplTest {
         verify(bookEventPublisher, atLeastOnce()).publish(any());
     }
 
+    @Test
+    void shouldPublishPatchWithOnlyChangedFields() {
+        BookRequest request = BookRequest.builder().authorId(1L).genreId(2L)
+                .title("Same Title").price(new BigDecimal("12.50")).build();
+        Author author = new Author();
+        Genre genre = new Genre();
+        Book book = new Book();
+        book.setId(12L);
+        book.setTitle("Same Title");
+        book.setAuthor(author);
+        book.setGenre(genre);
+        book.setPrice(new BigDecimal("10.00"));
+
+        when(authorService.findById(1L)).thenReturn(author);
+        when(genreService.findById(2L)).thenReturn(genre);
+        when(bookService.findById(12L)).thenReturn(book);
+        when(bookService.saveAndFlush(any())).thenReturn(book);
+        when(bookEventPublisher.patchEventsEnabled()).thenReturn(true);
+
+        service.update(12L, request);
+
+        ArgumentCaptor<BookEvent> captor = ArgumentCaptor.forClass(BookEvent.class);
+        verify(bookEventPublisher).publish(captor.capture());
+        BookEvent event = captor.getValue();
+        assertThat(event.getType()).isEqualTo("patch");
+        assertThat(event.getChangedFields()).containsExactly(BookEventField.PRICE);
+        assertThat(event.getPrice()).isEqualByComparingTo("12.50");
+        assertThat(event.getTitle()).isNull();
+
+        ArgumentCaptor<BookEvent> snapshot = ArgumentCaptor.forClass(BookEvent.class);
+        verify(bookEventPublisher).publishSnapshot(snapshot.capture());
+        assertThat(snapshot.getValue().getTitle()).isEqualTo("Same Title");
+        assertThat(snapshot.getValue().getPrice()).isEqualByComparingTo("12.50");
+    }
+
+    @Test
+    void shouldPublishFullUpdateWhileConsumersMayOnlyReadSchemaV1() {
+        BookRequest request = BookRequest.builder().authorId(1L).genreId(2L)
+                .title("Same Title").price(new BigDecimal("12.50")).build();
+        Author author = new Author();
+        Genre genre = new Genre();
+        Book book = new Book();
+        book.setId(12L);
+        book.setTitle("Same Title");
+        book.setAuthor(author);
+        book.setGenre(genre);
+        book.setPrice(new BigDecimal("10.00"));
+
+        when(authorService.findById(1L)).thenReturn(author);
+        when(genreService.findById(2L)).thenReturn(genre);
+        when(bookService.findById(12L)).thenReturn(book);
+        when(bookService.saveAndFlush(any())).thenReturn(book);
+        when(bookEventPublisher.patchEventsEnabled()).thenReturn(false);
+
+        service.update(12L, request);
+
+        ArgumentCaptor<BookEvent> captor = ArgumentCaptor.forClass(BookEvent.class);
+        verify(bookEventPublisher).publish(captor.capture());
+        BookEvent event = captor.getValue();
+        assertThat(event.getType()).isEqualTo("update");
+        assertThat(event.getChangedFields()).isNull();
+        assertThat(event.getTitle()).isEqualTo("Same Title");
+        assertThat(event.getPrice()).isEqualByComparingTo("12.50");
+    }
+
+    @Test
+    void shouldNotPublishWhenNoIndexedFieldChanged() {
+        BookRequest request = BookRequest.builder().authorId(1L).genreId(2L)
+                .title("Same Title").price(new BigDecimal("10.00")).description("New blurb").build();
+        Author author = new Author();
+        Genre genre = new Genre();
+        Book book = new Book();
+        book.setId(13L);
+        book.setTitle("Same Title");
+        book.setAuthor(author);
+        book.setGenre(genre);
+        book.setPrice(new BigDecimal("10.0"));
+
+        when(authorService.findById(1L)).thenReturn(author);
+        when(genreService.findById(2L)).thenReturn(genre);
+        when(bookService.findById(13L)).thenReturn(book);
+        when(bookService.saveAndFlush(any())).thenReturn(book);
+
+        service.update(13L, request);
+
+        verify(updateCounter, times(1)).increment();
+        verifyNoInteractions(bookEventPublisher);
+    }
+
     @Test
     void shouldPublishEventAfterDelete() {
         Book book = new Book();
@@ -199,6 +292,7 @@ class BookAdminServiceImplTest {
         verifyNoMoreInteractions(createCounter);
         verifyNoMoreInteractions(updateCounter);
         verify(bookEventPublisher, atLeastOnce()).publish(any());
+        verify(bookEventPublisher).publishTombstone(11L);
     }
 
     @Test
@@ -258,6 +352,18 @@ class BookAdminServiceImplTest {
         verifyNoMoreInteractions(deleteCounter);
     }
 
+    @Test
+    void shouldPassOptimisticLockConflictOnUpdateThrough() {
+        BookRequest request = BookRequest.builder().authorId(1L).genreId(2L).title("Stale Update").build();
+        when(authorService.findById(1L)).thenReturn(new Author());
+        when(genreService.findById(2L)).thenReturn(new Genre());
+        when(bookService.findById(1L)).thenReturn(new Book());
+        when(bookService.saveAndFlush(any())).thenThrow(new ObjectOptimisticLockingFailureException(Book.class, 1L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> service.update(1L, request));
+        verifyNoInteractions(bookEventPublisher);
+    }
+
     @Test
     void shouldThrowExceptionWhenBookNotFoundOnUpdate() {
         BookRequest request = BookRequest.builder().authorId(1L).genreId(2L).build();
@@ -9,6 +9,7 @@ import static org.mockito.Mockito.when;
 import com.example.bookstore.cache.BookCache;
 import com.example.bookstore.domain.Book;
 import com.example.bookstore.domain.BookIndexProjection;
+import com.example.bookstore.monitoring.RequestTimings;
 import com.example.bookstore.repository.BookRepository;
 import com.example.bookstore.search.model.BookDocument;
 import com.example.bookstore.service.BookService;
@@ -93,6 +94,26 @@ class BookServiceImplPositiveTest {
         assertThat(result).hasSize(2);
     }
 
+    @Test
+    void shouldReportCacheHitsMissesAndStagesOfTheRequest() {
+        BookDocument cached = new BookDocument();
+        cached.setId(7L);
+        Book missingBook = new Book();
+        missingBook.setId(8L);
+        when(bookCache.getAllByIds(List.of(7L, 8L))).thenReturn(List.of(cached));
+        when(bookRepository.findAllById(List.of(8L))).thenReturn(List.of(missingBook));
+        RequestTimings timings = RequestTimings.open();
+        try {
+            service.getDocumentsByIds(List.of(7L, 8L));
+        } finally {
+            timings.close();
+        }
+
+        assertThat(timings.cacheHits()).isEqualTo(1);
+        assertThat(timings.cacheMisses()).isEqualTo(1);
+        assertThat(timings.stages()).containsOnlyKeys(RequestTimings.CACHE, RequestTimings.DATABASE);
+    }
+
     @Test
     void shouldPutMissingDocumentsIntoCache() {
         Book missingBook = new Book();
@@ -0,0 +1,218 @@
+package com.example.bookstore.service.specification;
+
+import com.example.bookstore.domain.Book;
+import com.example.bookstore.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds a million-book catalog and checks with {@code EXPLAIN} that the predicate shapes emitted by
+ * {@link BookSpecs} are served by the V6 trigram and foreign-key indexes instead of a sequential scan.
+ * The statements explained are the ones Hibernate actually sends, captured at the JDBC layer.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class BookSpecsExplainIT {
+
+    private static final int AUTHORS = 20_000;
+    private static final int GENRES = 200;
+    private static final int BOOKS = 1_000_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+        r.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        r.add("spring.flyway.enabled", () -> "true");
+    }
+
+    private static boolean seeded;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private BookRepository bookRepository;
+
+    @BeforeEach
+    void seedOnce() {
+        if (seeded) {
+            return;
+        }
+        jdbc.update("INSERT INTO authors(name) SELECT 'Seed Author ' || i FROM generate_series(1, ?) i", AUTHORS);
+        jdbc.update("INSERT INTO genres(name) SELECT 'Seed Genre ' || i FROM generate_series(1, ?) i", GENRES);
+        jdbc.update("""
+                INSERT INTO books(title, price, author_id, genre_id)
+                SELECT 'Book ' || md5(i::text),
+                       10 + (i % 90),
+                       (SELECT min(id) FROM authors WHERE name LIKE 'Seed Author %') + (i % ?),
+                       (SELECT min(id) FROM genres WHERE name LIKE 'Seed Genre %') + (i % ?)
+                FROM generate_series(1, ?) i
+                """, AUTHORS, GENRES, BOOKS);
+        jdbc.execute("ANALYZE books");
+        jdbc.execute("ANALYZE authors");
+        jdbc.execute("ANALYZE genres");
+        seeded = true;
+    }
+
+    @Test
+    void titleFilterUsesTrigramIndex() {
+        List<String> plans = explainGenerated(BookSpecs.matches(null, "c4ca42", null, null, null, null));
+
+        assertThat(plans).allSatisfy(plan ->
+                assertThat(plan).contains("idx_books_title_trgm").doesNotContain("Seq Scan on books"));
+    }
+
+    @Test
+    void authorFilterProbesAuthorIdIndex() {
+        List<String> plans = explainGenerated(BookSpecs.matches(null, null, "seed author 1234", null, null, null));
+
+        assertThat(plans).allSatisfy(plan ->
+                assertThat(plan).contains("idx_books_author_id").doesNotContain("Seq Scan on books"));
+    }
+
+    @Test
+    void freeTextQueryUsesUnionOfIndexedBranches() {
+        List<String> plans = explainGenerated(BookSpecs.matches("seed author 1234", null, null, null, null, null));
+
+        assertThat(plans).allSatisfy(plan -> assertThat(plan)
+                .contains("idx_books_title_trgm")
+                .contains("idx_books_author_id")
+                .doesNotContain("Seq Scan on books"));
+    }
+
+    @Test
+    void specificationReturnsBooksMatchedByAnyBranch() {
+        Page<Book> page = bookRepository.findAll(
+                BookSpecs.matches("seed author 1234", null, null, null, null, null), PageRequest.of(0, 10));
+
+        // author 1234 plus authors 12340..12349, BOOKS / AUTHORS books each
+        assertThat(page.getTotalElements()).isEqualTo(11L * BOOKS / AUTHORS);
+    }
+
+    /**
+     * Runs the specification as a page query, then EXPLAINs every statement Hibernate sent for it
+     * (the page select and its count query) with the parameters it bound.
+     */
+    private List<String> explainGenerated(Specification<Book> spec) {
+        List<RecordedStatement> statements = StatementRecorder.record(
+                () -> bookRepository.findAll(spec, PageRequest.of(0, 10)));
+        assertThat(statements).isNotEmpty();
+
+        List<String> plans = new ArrayList<>();
+        for (RecordedStatement statement : statements) {
+            List<String> lines = jdbc.queryForList("EXPLAIN " + statement.sql(), String.class, statement.parameters());
+            plans.add(String.join("\n", lines));
+        }
+        return plans;
+    }
+
+    record RecordedStatement(String sql, Object[] parameters) {
+    }
+
+    /**
+     * Wraps the DataSource so prepared statements executed inside {@link #record} are captured together
+     * with the values bound to them.
+     */
+    static final class StatementRecorder {
+        private static List<RecordedStatement> recorded;
+
+        static synchronized List<RecordedStatement> record(Runnable action) {
+            recorded = new ArrayList<>();
+            try {
+                action.run();
+                return recorded;
+            } finally {
+                recorded = null;
+            }
+        }
+
+        static DataSource wrap(DataSource target) {
+            return proxy(DataSource.class, target, (method, args, result) ->
+                    method.getName().equals("getConnection") ? wrap((Connection) result) : result);
+        }
+
+        private static Connection wrap(Connection target) {
+            return proxy(Connection.class, target, (method, args, result) ->
+                    method.getName().equals("prepareStatement") ? wrap((PreparedStatement) result, (String) args[0]) : result);
+        }
+
+        private static PreparedStatement wrap(PreparedStatement target, String sql) {
+            Map<Integer, Object> bound = new TreeMap<>();
+            return proxy(PreparedStatement.class, target, (method, args, result) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    bound.put(index, name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    bound.clear();
+                } else if (name.startsWith("execute") && recorded != null) {
+                    recorded.add(new RecordedStatement(sql, bound.values().toArray()));
+                }
+                return result;
+            });
+        }
+
+        @FunctionalInterface
+        private interface AfterCall {
+            Object apply(Method method, Object[] args, Object result) throws Throwable;
+        }
+
+        private static <T> T proxy(Class<T> type, T target, AfterCall after) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                try {
+                    return after.apply(method, args, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingDataSourceConfig {
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? StatementRecorder.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+}
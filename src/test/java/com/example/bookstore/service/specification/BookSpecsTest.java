@@ -1,6 +1,7 @@
 package com.example.bookstore.service.specification;
 
 import com.example.bookstore.domain.Book;
+import com.example.bookstore.domain.Genre;
 import jakarta.persistence.criteria.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -74,19 +75,34 @@ class BookSpecsTest {
     }
 
     @Test
-    void shouldHandleGenreJoin() {
-        Join<Object, Object> genreJoin = mock(Join.class);
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void shouldMatchGenreThroughIdSubqueryInsteadOfJoin() {
+        Subquery<Long> genreIds = mock(Subquery.class);
+        Root<Genre> genreRoot = mock(Root.class);
         Path<String> genreName = mock(Path.class);
-
-        when(root.join("genre")).thenReturn(genreJoin);
-        when(genreJoin.get("name")).thenReturn((Path) genreName);
+        Path<Long> genreId = mock(Path.class);
+        Path<Object> bookGenre = mock(Path.class);
+        Path<Object> bookGenreId = mock(Path.class);
+        Predicate in = mock(Predicate.class);
+        Predicate like = mock(Predicate.class);
+
+        when(query.subquery(Long.class)).thenReturn(genreIds);
+        when(genreIds.from(Genre.class)).thenReturn(genreRoot);
+        when(genreRoot.get("name")).thenReturn((Path) genreName);
+        when(genreRoot.get("id")).thenReturn((Path) genreId);
         when(cb.lower(genreName)).thenReturn(genreName);
-        when(cb.like(genreName, "%genre%")).thenReturn(mock(Predicate.class));
-        when(cb.and(any())).thenReturn(mock(Predicate.class));
+        when(cb.like(genreName, "%genre%")).thenReturn(like);
+        when(genreIds.select(genreId)).thenReturn(genreIds);
+        when(genreIds.where(like)).thenReturn(genreIds);
+        when(root.get("genre")).thenReturn((Path) bookGenre);
+        when(bookGenre.get("id")).thenReturn(bookGenreId);
+        when(bookGenreId.in(genreIds)).thenReturn(in);
+        when(cb.and(in)).thenReturn(in);
 
         Specification<Book> spec = BookSpecs.matches(null, null, null, "genre", null, null);
         Predicate predicate = spec.toPredicate(root, query, cb);
 
-        assertThat(predicate).isNotNull();
+        assertThat(predicate).isSameAs(in);
+        verify(root, never()).join(anyString());
     }
 }
@@ -4,6 +4,7 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -65,6 +66,22 @@ class ApiExceptionHandlerTest {
         assertThat(body.getPath()).isEqualTo("/api/v1/books/999");
     }
 
+    @Test
+    @DisplayName("Optimistic locking conflict -> 409")
+    void handleOptimisticLockingFailure_returns409() {
+        HttpServletRequest req = mockReq("/api/v1/admin/books/7");
+        ObjectOptimisticLockingFailureException ex = new ObjectOptimisticLockingFailureException("Book", 7L);
+
+        ResponseEntity<ApiError> resp = handler.handleOptimisticLockingFailure(ex, req);
+
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        ApiError body = resp.getBody();
+        assertThat(body).isNotNull();
+        assertThat(body.getStatus()).isEqualTo(409);
+        assertThat(body.getError()).isEqualTo("Conflict");
+        assertThat(body.getPath()).isEqualTo("/api/v1/admin/books/7");
+    }
+
     @Test
     @DisplayName("AccessDenied -> 403 with fixed message")
     void handleAccessDenied_returns403() {
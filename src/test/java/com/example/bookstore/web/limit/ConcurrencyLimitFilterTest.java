@@ -0,0 +1,92 @@
+package com.example.bookstore.web.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = filter(1, 10);
+
+    @Test
+    void searchOverTheLimit_isShedWith503AndRetryAfter() throws Exception {
+        ConcurrencyLimiter.Permit held = filter.limiterFor(get("/api/v1/books")).tryAcquire().orElseThrow();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(get("/api/v1/books/count"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(response.getContentAsString()).contains("\"status\":503", "Too many concurrent search requests");
+        assertThat(chain.getRequest()).isNull();
+
+        held.onSuccess();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(get("/api/v1/books"), admitted, new MockFilterChain());
+        assertThat(admitted.getStatus()).isEqualTo(200);
+        assertThat(filter.limiterFor(get("/api/v1/books")).inFlight()).isZero();
+    }
+
+    @Test
+    void suggestAndStreamHaveTheirOwnLimiters() throws Exception {
+        filter.limiterFor(get("/api/v1/books")).tryAcquire().orElseThrow();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(get("/api/v1/books/suggest"), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(filter.limiterFor(get("/api/v1/books/suggest")).name()).isEqualTo("suggest");
+        assertThat(filter.limiterFor(get("/api/v1/books/stream")).name()).isEqualTo("stream");
+        assertThat(filter.limiterFor(get("/api/v1/books/42")).name()).isEqualTo("search");
+    }
+
+    @Test
+    void onlyAdminWritesAreLimitedOnTheAdminPath() {
+        assertThat(filter.limiterFor(get("/api/v1/admin/books/1"))).isNull();
+        assertThat(filter.limiterFor(new MockHttpServletRequest("DELETE", "/api/v1/admin/books/1")).name()).isEqualTo("admin");
+        assertThat(filter.limiterFor(new MockHttpServletRequest("POST", "/api/v1/admin/books")).name()).isEqualTo("admin");
+        assertThat(filter.limiterFor(get("/actuator/health"))).isNull();
+        assertThat(filter.limiterFor(get("/api/v1/bookshelf"))).isNull();
+    }
+
+    @Test
+    void serverErrors_lowerTheLimit() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain failing = new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+                ((HttpServletResponse) response).setStatus(500);
+            }
+        };
+
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/v1/admin/books/1"), response, failing);
+
+        ConcurrencyLimiter admin = filter.limiterFor(new MockHttpServletRequest("PUT", "/api/v1/admin/books/1"));
+        assertThat(admin.limit()).isEqualTo(9);
+        assertThat(admin.inFlight()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConcurrencyLimitFilter filter(int searchLimit, int adminLimit) {
+        ObjectProvider<MeterRegistry> registry = mock(ObjectProvider.class);
+        when(registry.getIfAvailable()).thenReturn(meterRegistry);
+        return new ConcurrencyLimitFilter(new ObjectMapper().findAndRegisterModules(), registry, true, 2,
+                searchLimit, searchLimit, searchLimit, 5, 1, 5, 5, 1, 5, adminLimit, 1, adminLimit);
+    }
+
+    private static MockHttpServletRequest get(String path) {
+        return new MockHttpServletRequest("GET", path);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bookstore.web.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter("search", 2, 2, 2, meterRegistry);
+
+    @Test
+    void tryAcquire_admitsUpToTheLimitAndRejectsTheRest() {
+        Optional<ConcurrencyLimiter.Permit> first = limiter.tryAcquire();
+        Optional<ConcurrencyLimiter.Permit> second = limiter.tryAcquire();
+        Optional<ConcurrencyLimiter.Permit> third = limiter.tryAcquire();
+
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(third).isEmpty();
+        assertThat(meterRegistry.get("http.server.concurrency.rejected").tag("class", "search").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("http.server.concurrency.in-flight").tag("class", "search").gauge().value())
+                .isEqualTo(2.0);
+        assertThat(meterRegistry.get("http.server.concurrency.limit").tag("class", "search").gauge().value())
+                .isEqualTo(2.0);
+
+        first.get().onSuccess();
+
+        assertThat(limiter.tryAcquire()).isPresent();
+    }
+
+    @Test
+    void permit_isReleasedOnlyOnce() {
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+        limiter.tryAcquire().orElseThrow();
+
+        permit.onSuccess();
+        permit.onDropped();
+
+        assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+}
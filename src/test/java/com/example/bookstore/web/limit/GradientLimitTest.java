@@ -0,0 +1,59 @@
+package com.example.bookstore.web.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimitTest {
+
+    private static final long TEN_MS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void steadyLatencyAtTheLimit_growsTheLimitUpToMax() {
+        GradientLimit gradient = new GradientLimit(10, 2, 50);
+
+        for (int i = 0; i < 200; i++) {
+            gradient.update(TEN_MS, gradient.limit(), false);
+        }
+
+        assertThat(gradient.limit()).isEqualTo(50);
+    }
+
+    @Test
+    void risingLatency_shrinksTheLimit() {
+        GradientLimit gradient = new GradientLimit(40, 2, 50);
+        for (int i = 0; i < 50; i++) {
+            gradient.update(TEN_MS, gradient.limit(), false);
+        }
+        int before = gradient.limit();
+
+        for (int i = 0; i < 20; i++) {
+            gradient.update(TEN_MS * 5, gradient.limit(), false);
+        }
+
+        assertThat(gradient.limit()).isLessThan(before / 2);
+        assertThat(gradient.limit()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void underusedLimit_isNotGrown() {
+        GradientLimit gradient = new GradientLimit(20, 2, 50);
+
+        for (int i = 0; i < 100; i++) {
+            gradient.update(TEN_MS, 3, false);
+        }
+
+        assertThat(gradient.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void drops_backOffMultiplicativelyDownToMin() {
+        GradientLimit gradient = new GradientLimit(10, 8, 50);
+
+        assertThat(gradient.update(TEN_MS, 10, true)).isEqualTo(9);
+        assertThat(gradient.update(TEN_MS, 10, true)).isEqualTo(8);
+        assertThat(gradient.update(TEN_MS, 10, true)).isEqualTo(8);
+    }
+}
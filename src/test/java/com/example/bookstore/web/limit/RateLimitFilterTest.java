@@ -0,0 +1,83 @@
+package com.example.bookstore.web.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+    private final RateLimitFilter filter = new RateLimitFilter(new ObjectMapper().findAndRegisterModules(), meterRegistry,
+            new StripedTokenBucketStore(4, 16, now::get),
+            new RateLimitPolicy("1:1", List.of("USER=2:1"), List.of()), true);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void requestsWithinTheLimit_carryRateLimitHeaders() throws Exception {
+        authenticate("user");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getHeader("RateLimit-Limit")).isEqualTo("2");
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("1");
+        assertThat(response.getHeader("RateLimit-Reset")).isEqualTo("1");
+    }
+
+    @Test
+    void requestsOverTheLimit_get429AndAreCountedPerPrincipal() throws Exception {
+        authenticate("user");
+        for (int i = 0; i < 2; i++) {
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("0");
+        assertThat(response.getContentAsString()).contains("\"status\":429", "Rate limit exceeded");
+        assertThat(meterRegistry.get("http.server.rate-limit.throttled").tag("principal", "user").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void anonymousAndNonApiRequests_areNotLimited() throws Exception {
+        MockHttpServletResponse anonymous = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), anonymous, new MockFilterChain());
+
+        authenticate("user");
+        MockHttpServletResponse actuator = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), actuator, new MockFilterChain());
+
+        assertThat(anonymous.getHeader("RateLimit-Limit")).isNull();
+        assertThat(actuator.getHeader("RateLimit-Limit")).isNull();
+    }
+
+    private static void authenticate(String name) {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                name, "n/a", AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.bookstore.web.limit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitPolicyTest {
+
+    private final RateLimitPolicy policy = new RateLimitPolicy("5:1",
+            List.of("ADMIN=200:100", "USER=60:20"), List.of("integration=10:2", ""));
+
+    @Test
+    void limitFor_prefersUserOverridesThenTheMostGenerousRole() {
+        assertThat(policy.limitFor(auth("integration", "ROLE_USER"))).isEqualTo(new RateLimitPolicy.Limit(10, 2));
+        assertThat(policy.limitFor(auth("admin", "ROLE_USER", "ROLE_ADMIN"))).isEqualTo(new RateLimitPolicy.Limit(200, 100));
+        assertThat(policy.limitFor(auth("user", "ROLE_USER"))).isEqualTo(new RateLimitPolicy.Limit(60, 20));
+        assertThat(policy.limitFor(auth("guest", "ROLE_GUEST"))).isEqualTo(new RateLimitPolicy.Limit(5, 1));
+    }
+
+    @Test
+    void secondsToFill_roundsUp() {
+        assertThat(new RateLimitPolicy.Limit(60, 20).secondsToFill(59)).isEqualTo(1);
+        assertThat(new RateLimitPolicy.Limit(60, 20).secondsToFill(0)).isEqualTo(3);
+    }
+
+    @Test
+    void malformedLimits_areRejectedAtStartup() {
+        assertThatThrownBy(() -> new RateLimitPolicy("60", List.of(), List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimitPolicy("60:0", List.of(), List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimitPolicy("60:1", List.of("USER"), List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static UsernamePasswordAuthenticationToken auth(String name, String... authorities) {
+        return UsernamePasswordAuthenticationToken.authenticated(name, "n/a", AuthorityUtils.createAuthorityList(authorities));
+    }
+}
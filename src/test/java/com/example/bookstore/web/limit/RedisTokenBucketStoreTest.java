@@ -0,0 +1,45 @@
+package com.example.bookstore.web.limit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RedisTokenBucketStoreTest {
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    private final TokenBucketStore fallback = mock(TokenBucketStore.class);
+    private final RedisTokenBucketStore store = new RedisTokenBucketStore(redis, fallback);
+    private final RateLimitPolicy.Limit limit = new RateLimitPolicy.Limit(60, 20);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryConsume_runsTheScriptOnTheSharedBucket() {
+        when(redis.execute(any(RedisScript.class), eq(List.of("bookstore::rate-limit::alice")), eq("60000000"), eq("20.0")))
+                .thenReturn(59L);
+
+        assertThat(store.tryConsume("alice", limit)).isEqualTo(59);
+        verifyNoInteractions(fallback);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryConsume_limitsPerNodeWhileRedisIsDown() {
+        when(redis.execute(any(RedisScript.class), any(List.class), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(fallback.tryConsume("alice", limit)).thenReturn(-5L);
+
+        assertThat(store.tryConsume("alice", limit)).isEqualTo(-5);
+        verify(fallback).tryConsume("alice", limit);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bookstore.web.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedTokenBucketStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final StripedTokenBucketStore store = new StripedTokenBucketStore(4, 16, now::get);
+    private final RateLimitPolicy.Limit threePerSecondBurstThree = new RateLimitPolicy.Limit(3, 3);
+
+    @Test
+    void tryConsume_allowsABurstOfCapacityThenReportsTheWait() {
+        assertThat(store.tryConsume("alice", threePerSecondBurstThree)).isEqualTo(2);
+        assertThat(store.tryConsume("alice", threePerSecondBurstThree)).isEqualTo(1);
+        assertThat(store.tryConsume("alice", threePerSecondBurstThree)).isZero();
+
+        long denied = store.tryConsume("alice", threePerSecondBurstThree);
+
+        assertThat(denied).isNegative();
+        assertThat(-denied).isEqualTo(TimeUnit.SECONDS.toNanos(1) / 3 + 1);
+    }
+
+    @Test
+    void tryConsume_refillsWithElapsedTimeUpToCapacity() {
+        for (int i = 0; i < 3; i++) {
+            store.tryConsume("alice", threePerSecondBurstThree);
+        }
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(700));
+        assertThat(store.tryConsume("alice", threePerSecondBurstThree)).isEqualTo(1);
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertThat(store.tryConsume("alice", threePerSecondBurstThree)).isEqualTo(2);
+    }
+
+    @Test
+    void buckets_areIndependentPerKey() {
+        for (int i = 0; i < 3; i++) {
+            store.tryConsume("alice", threePerSecondBurstThree);
+        }
+
+        assertThat(store.tryConsume("alice", threePerSecondBurstThree)).isNegative();
+        assertThat(store.tryConsume("bob", threePerSecondBurstThree)).isEqualTo(2);
+    }
+
+    @Test
+    void fullTables_forgetTheLeastRecentlyUsedBuckets() {
+        StripedTokenBucketStore tiny = new StripedTokenBucketStore(1, 8, now::get);
+        for (int i = 0; i < 3; i++) {
+            tiny.tryConsume("alice", threePerSecondBurstThree);
+        }
+        for (int i = 0; i < 100; i++) {
+            now.incrementAndGet();
+            tiny.tryConsume("user-" + i, threePerSecondBurstThree);
+        }
+
+        // alice was evicted, so she starts over with a full bucket
+        assertThat(tiny.tryConsume("alice", threePerSecondBurstThree)).isEqualTo(2);
+        assertThat(tiny.tryConsume("user-99", threePerSecondBurstThree)).isEqualTo(1);
+    }
+
+    @Test
+    void hash_neverReturnsTheFreeSlotMarker() {
+        assertThat(StripedTokenBucketStore.hash("")).isNotZero();
+        assertThat(StripedTokenBucketStore.hash("alice")).isNotEqualTo(StripedTokenBucketStore.hash("bob"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bookstore.web.timing;
+
+import com.example.bookstore.monitoring.RequestTimings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServerTimingFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Tracer tracer = mock(Tracer.class);
+    private final Span span = mock(Span.class);
+    private final ServerTimingFilter filter = new ServerTimingFilter(meterRegistry, tracer, true);
+    private final ServerTimingAdvice advice = new ServerTimingAdvice();
+
+    @Test
+    void stagesReportedByTheHandler_goToTheHeaderTimersAndSpan() throws Exception {
+        when(tracer.currentSpan()).thenReturn(span);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/books"), response, handler((request, servletResponse) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/books");
+            RequestTimings.record(RequestTimings.ELASTICSEARCH, 8_000_000);
+            RequestTimings.record(RequestTimings.CACHE, 1_200_000);
+            RequestTimings.cacheLookup(18, 2);
+            ServletServerHttpResponse body = new ServletServerHttpResponse(servletResponse);
+            advice.beforeBodyWrite("page", null, null, null, new ServletServerHttpRequest(request), body);
+            body.flush();
+        }));
+
+        assertThat(response.getHeader("Server-Timing"))
+                .startsWith("es;dur=8.0, cache;dur=1.2;desc=\"hits=18 misses=2\", app;dur=");
+        assertThat(meterRegistry.get("http.server.stage").tags("uri", "/api/v1/books", "stage", "es").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(8.0);
+        assertThat(meterRegistry.get("http.server.stage").tags("stage", "ser").timer().count()).isEqualTo(1);
+        verify(span).tag("timing.es.ms", "8.0");
+        verify(span).tag("cache.hits", "18");
+        verify(span).tag("cache.misses", "2");
+        assertThat(RequestTimings.current()).isNull();
+    }
+
+    @Test
+    void nonApiRequests_andADisabledFilter_areNotTimed() throws Exception {
+        AtomicReference<RequestTimings> seen = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                handler((request, response) -> seen.set(RequestTimings.current())));
+        assertThat(seen.get()).isNull();
+
+        new ServerTimingFilter(meterRegistry, tracer, false).doFilter(new MockHttpServletRequest("GET", "/api/v1/books"),
+                new MockHttpServletResponse(), handler((request, response) -> seen.set(RequestTimings.current())));
+        assertThat(seen.get()).isNull();
+        assertThat(meterRegistry.find("http.server.stage").timers()).isEmpty();
+    }
+
+    private static MockFilterChain handler(Handler handler) {
+        Filter dispatch = (request, response, chain) ->
+                handler.handle((HttpServletRequest) request, (HttpServletResponse) response);
+        return new MockFilterChain(new HttpServlet() {
+        }, dispatch);
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpServletRequest request, HttpServletResponse response) throws IOException;
+    }
+}